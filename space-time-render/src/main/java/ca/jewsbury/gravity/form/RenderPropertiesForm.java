@@ -25,7 +25,12 @@ public class RenderPropertiesForm {
     private double displayScale;
     private long timeoutMilliseconds;
     private int frameRate;
+    private int stepsPerSecond;
     private boolean traceOrbits;
+    private int densityThreshold;
+    private boolean logDensity;
+    private boolean activeRendering;
+    private double replaySpeed;
     private SimulationSet simulationSet;
 
     public void gatherProperties(ConfigPanel config, Map<String, SimulationSet> simulationSet) throws SpaceTimeException {
@@ -42,6 +47,21 @@ public class RenderPropertiesForm {
             if (config.getFrameRateInput() != null) {
                 setFrameRate(config.getFrameRateInput().getValue());
             }
+            if (config.getStepRateInput() != null) {
+                stepsPerSecond = toInteger(config.getStepRateInput().getValue(), "Invalid physics rate. Must be integer/long");
+            }
+            if (config.getDensityInput() != null) {
+                densityThreshold = toInteger(config.getDensityInput().getValue(), "Invalid density threshold. Must be integer/long");
+            }
+            if (config.getLogDensity() != null) {
+                logDensity = config.getLogDensity().isSelected();
+            }
+            if (config.getActiveRendering() != null) {
+                activeRendering = config.getActiveRendering().isSelected();
+            }
+            if (config.getReplaySpeedInput() != null) {
+                replaySpeed = toDouble(config.getReplaySpeedInput().getValue(), "Invalid replay rate. Must be a number");
+            }
             if (config.getSimulationSelector() != null) {
                 findSimulationSet(config.getSimulationSelector().getSelectedItem(), simulationSet);
             }
@@ -66,6 +86,30 @@ public class RenderPropertiesForm {
             valid = false;
         }
 
+        if (this.frameRate < 1 || this.frameRate > 240) {
+            this.frameRate = 60;
+            builder.append("Frame rate must be [1-240]\n");
+            valid = false;
+        }
+
+        if (this.stepsPerSecond < 0) {
+            this.stepsPerSecond = 0;
+            builder.append("Physics rate must be 0 (as fast as possible) or more\n");
+            valid = false;
+        }
+
+        if (this.densityThreshold < 0) {
+            this.densityThreshold = 0;
+            builder.append("Density threshold must be 0 (never) or more\n");
+            valid = false;
+        }
+
+        if (this.replaySpeed == 0.0) {
+            this.replaySpeed = 60.0;
+            builder.append("Replay rate must not be 0\n");
+            valid = false;
+        }
+
         if (this.simulationSet == null) {
             builder.append("The selected simulation was null. (?)\n");
             valid = false;
@@ -130,6 +174,36 @@ public class RenderPropertiesForm {
         }
     }
 
+    private int toInteger(Object intValue, String message) throws SpaceTimeException {
+        int value = 0;
+
+        if (intValue != null) {
+            if (intValue instanceof Long) {
+                value = ((Long) intValue).intValue();
+            } else if (intValue instanceof Integer) {
+                value = (Integer) intValue;
+            } else if (intValue instanceof Double) {
+                value = ((Double) intValue).intValue();
+            } else {
+                throw new SpaceTimeException(message);
+            }
+        }
+        return value;
+    }
+
+    private double toDouble(Object doubleValue, String message) throws SpaceTimeException {
+        double value = 0.0;
+
+        if (doubleValue != null) {
+            if (doubleValue instanceof Number) {
+                value = ((Number) doubleValue).doubleValue();
+            } else {
+                throw new SpaceTimeException(message);
+            }
+        }
+        return value;
+    }
+
     /**
      * Locate the user selected simulation set to run.
      *
@@ -203,4 +277,37 @@ public class RenderPropertiesForm {
         return frameRate;
     }
 
+    /**
+     * @return body count from which the density view is drawn; 0 never.
+     */
+    public int getDensityThreshold() {
+        return densityThreshold;
+    }
+
+    public boolean isLogDensity() {
+        return logDensity;
+    }
+
+    /**
+     * @return TRUE to draw from a render thread onto a BufferStrategy rather
+     * than through Swing repaints.
+     */
+    public boolean isActiveRendering() {
+        return activeRendering;
+    }
+
+    /**
+     * @return recorded steps replayed per second; negative plays in reverse.
+     */
+    public double getReplaySpeed() {
+        return replaySpeed;
+    }
+
+    /**
+     * @return physics steps per second; 0 steps as fast as it can.
+     */
+    public int getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
 }
@@ -1,15 +1,14 @@
 package ca.jewsbury.gravity.model;
 
+import ca.jewsbury.gravity.render.panel.TrailLayer;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
-import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
-import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import ca.jewsbury.gravity.spacetime.util.FloatRingBuffer;
+import ca.jewsbury.gravity.util.Camera;
 import ca.jewsbury.gravity.util.RenderUtils;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.geom.Ellipse2D;
-import java.util.Iterator;
-import org.apache.commons.collections.buffer.CircularFifoBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,98 +22,135 @@ import org.slf4j.LoggerFactory;
  */
 public class VisibleSpaceObject {
 
+    private static final BasicStroke OUTLINE = new BasicStroke(2);
+
     private final Logger logger = LoggerFactory.getLogger(VisibleSpaceObject.class);
+    private final Ellipse2D.Double visual;
 
     private Color objectColour;
+    private Color outlineColour;
+    private Color traceColour;
     private Orbital spaceObject;
+    private int bodyIndex;
 
-    protected CircularFifoBuffer lastPositions;
-    private int positionRequests;
+    protected FloatRingBuffer lastPositions;
+    private double centreX, centreY, displayRadius;
 
+    /**
+     * @param object - an orbital already inserted into its container, so
+     * that its body index is known.
+     */
     public VisibleSpaceObject(Orbital object) {
+        this(-1);
         if (object != null) {
             spaceObject = object;
-            objectColour = RenderUtils.getRandomColour();
+            if (object.getStore() != null) {
+                bodyIndex = object.getStore().getIndex()[object.getStoreSlot()];
+            }
         }
-        lastPositions = new CircularFifoBuffer(1000);
-        positionRequests = 0;
     }
 
-    public Ellipse2D getObjectVisual() {
-        int[] position = getCornerCoords();
-        Ellipse2D obj;
-
-        obj = new Ellipse2D.Double(
-                position[0], position[1],
-                (spaceObject.getRadius() * 2 * RenderUtils.getScale()),
-                (spaceObject.getRadius() * 2 * RenderUtils.getScale())
-        );
-        return obj;
+    /**
+     * @param bodyIndex - a body known only by its index, eg. from a
+     * recording, with no orbital behind it.
+     */
+    public VisibleSpaceObject(int bodyIndex) {
+        this.bodyIndex = bodyIndex;
+        visual = new Ellipse2D.Double();
+        objectColour = RenderUtils.getRandomColour();
+        outlineColour = objectColour.brighter();
+        traceColour = outlineColour.brighter();
+        lastPositions = new FloatRingBuffer(TrailLayer.LIFETIME, 2);
     }
 
-    public int[] getCornerCoords() {
-        SpaceTimeVector displayLocation = RenderUtils.translateCoordinate(this.spaceObject.getPosition());
+    /**
+     * Places the object on the panel for the frame being drawn.
+     *
+     * @param displayX - panel coordinate of the centre.
+     * @param displayY - panel coordinate of the centre.
+     * @param radius - radius in pixels.
+     */
+    public void setDisplayPosition(double displayX, double displayY, double radius) {
+        centreX = displayX;
+        centreY = displayY;
+        displayRadius = radius;
+    }
 
-        int displayX = (int) ((displayLocation.getxCoord() * RenderUtils.getScale() - spaceObject.getRadius() * RenderUtils.getScale()));
-        int displayY = (int) ((displayLocation.getyCoord() * RenderUtils.getScale() - spaceObject.getRadius() * RenderUtils.getScale()));
+    /**
+     * Draws the object as a single pixel, for bodies smaller than one.
+     *
+     * @param gfx
+     */
+    public void paintPoint(Graphics2D gfx) {
+        gfx.setColor(outlineColour);
+        gfx.fillRect((int) centreX, (int) centreY, 1, 1);
+    }
 
-        if (positionRequests % 3*SpaceTimeConstants.PUSH_REQUEST_LIMIT == 0) {
-            this.lastPositions.add(new SpaceTimeVector(displayX, displayY, 0));
-            positionRequests = 0;
-        }
+    /**
+     * Remembers where the object was this frame, relative to the point
+     * drawn at the panel origin, so the trace can be redrawn at a new scale.
+     *
+     * @param relativeX - simulation units
+     * @param relativeY - simulation units
+     */
+    public void recordPosition(double relativeX, double relativeY) {
+        this.lastPositions.add((float) relativeX, (float) relativeY);
+    }
 
-        return new int[]{displayX, displayY};
+    /**
+     * @return the object's circle for this frame; reused from frame to frame.
+     */
+    public Ellipse2D getObjectVisual() {
+        visual.setFrame((int) (centreX - displayRadius), (int) (centreY - displayRadius),
+                displayRadius * 2, displayRadius * 2);
+        return visual;
     }
 
     public void paint(Graphics2D gfx) {
-        Ellipse2D visual = getObjectVisual();
-        int newx, newy;
-
-        newx = (int) ((visual.getCenterX() + (spaceObject.getVelocity().getxCoord() / RenderUtils.getScale())));
-        newy = (int) ((visual.getCenterY() + (spaceObject.getVelocity().getyCoord() / RenderUtils.getScale())));
+        getObjectVisual();
 
-        //gfx.setColor(Color.CYAN);
-        //gfx.setStroke(new BasicStroke(2));
-        //gfx.drawLine((int) visual.getCenterX(), (int) visual.getCenterY(), newx, newy);
         // Draw the space object
         gfx.setColor(objectColour);
         gfx.fill(visual);
-        gfx.setColor(objectColour.brighter());
-        gfx.setStroke(new BasicStroke(2));
+        gfx.setColor(outlineColour);
+        gfx.setStroke(OUTLINE);
         gfx.draw(visual);
     }
 
-    public void traceLastPositions(Graphics2D gfx) {
-        SpaceTimeVector currentPosition, lastPosition;
-        Iterator<SpaceTimeVector> positionIterator;
-        int pos = 0;
-
-        lastPosition = null;
-        if (lastPositions != null && lastPositions.size() > 1) {
-            gfx.setColor(this.objectColour.brighter().brighter());
-            positionIterator = lastPositions.iterator();
-            while (positionIterator.hasNext()) {
-                if (pos > 0) {
-                    currentPosition = positionIterator.next();
-                    // DRAW LINE
-                    if (lastPosition != null) {
-                        gfx.drawLine((int) ((currentPosition.getxCoord() + this.spaceObject.getRadius() )),
-                                (int) ((currentPosition.getyCoord() + this.spaceObject.getRadius())),
-                                (int) ((lastPosition.getxCoord() + this.spaceObject.getRadius())),
-                                (int) ((lastPosition.getyCoord() + this.spaceObject.getRadius()))
-                        );
-                    }
-                    //
-                    lastPosition = currentPosition;
-                } else {
-                    lastPosition = positionIterator.next();
-                }
-                pos++;
+    /**
+     * Redraws the recorded history into a freshly cleared trail layer at
+     * the current scale, each segment as faded as it would be by now.
+     *
+     * @param layer
+     * @param scratch - at least TrailLayer.LIFETIME * 2 long.
+     * @param camera - the frame's transform.
+     */
+    public void rebuildTrace(TrailLayer layer, float[] scratch, Camera camera) {
+        int count;
+
+        if (lastPositions != null && bodyIndex >= 0) {
+            count = lastPositions.copyTo(scratch);
+            for (int i = 0; i < count; i++) {
+                layer.extend(bodyIndex, camera.relativeToScreenX(scratch[2 * i]),
+                        camera.relativeToScreenY(scratch[2 * i + 1]), traceColour,
+                        TrailLayer.alphaForAge(count - 1 - i));
             }
         }
     }
 
+    public Color getTraceColour() {
+        return traceColour;
+    }
+
     public Orbital getSpaceObject() {
         return spaceObject;
     }
+
+    /**
+     * @return body index of the orbital in its container; snapshots name
+     * bodies by it.
+     */
+    public int getBodyIndex() {
+        return bodyIndex;
+    }
 }
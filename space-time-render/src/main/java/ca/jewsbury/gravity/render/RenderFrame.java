@@ -1,16 +1,21 @@
 package ca.jewsbury.gravity.render;
 
 import ca.jewsbury.gravity.form.RenderPropertiesForm;
+import ca.jewsbury.gravity.model.VisibleSpaceObject;
 import ca.jewsbury.gravity.render.engine.DefaultSimulationSet;
 import ca.jewsbury.gravity.render.engine.SimulationEngine;
 import ca.jewsbury.gravity.render.engine.SimulationSet;
 import ca.jewsbury.gravity.util.enumerated.SimulationEngineSignal;
+import ca.jewsbury.gravity.render.panel.ActiveRenderer;
 import ca.jewsbury.gravity.render.panel.ConfigPanel;
 import ca.jewsbury.gravity.render.panel.GraphPanel;
 import ca.jewsbury.gravity.render.panel.ImagePanel;
 import ca.jewsbury.gravity.render.panel.UniversePanel;
 import ca.jewsbury.gravity.spacetime.SpaceTimeException;
-import ca.jewsbury.gravity.util.RenderUtils;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotPair;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotSource;
+import ca.jewsbury.gravity.spacetime.snapshot.TrajectoryReplay;
 import ca.jewsbury.gravity.util.factory.SimulationSetFactory;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -22,13 +27,19 @@ import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLayeredPane;
 import javax.swing.JOptionPane;
 import javax.swing.JSplitPane;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -56,12 +67,18 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
     private SimulationEngine currentSimulation;
     private Thread simulationThread;
     private boolean isPaused = false;
+    private Timer displayTimer;
+    private StepDiagnostics shownDiagnostics;
+    private ActiveRenderer activeRenderer;
+    private TrajectoryReplay currentReplay;
+    private boolean showingReplayPosition;
     //
     private UniversePanel universePanel;
     private JFrame renderFrame;
     private ConfigPanel configPanel;
     private GraphPanel graphPanel;
     private ImagePanel bgPanel;
+    private JLayeredPane displayPane;
     //
     private JSplitPane rootDivider, configDivider;
 
@@ -117,9 +134,10 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
 
         logger.trace("Initializing JPanel - Config Panel.");
         configPanel = new ConfigPanel(this);
-        RenderUtils.setScale(0.5);
+        universePanel.setScale(0.5);
         configPanel.setBackground(Color.darkGray);
         configPanel.setNewSize(new Dimension(CONFIG_WIDTH, (int) minimum.getHeight() - CONFIG_WIDTH));
+        addReplayListeners();
         logger.trace("Config Panel created - [" + configPanel.getWidth() + ", " + configPanel.getHeight() + "]");
 
         logger.trace("Initializing JPanel - Graph Panel.");
@@ -128,6 +146,31 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
 
     }
 
+    /**
+     * The position slider scrubs and the rate applies at once while a
+     * recording plays.
+     */
+    private void addReplayListeners() {
+        configPanel.getReplayPosition().addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                if (currentReplay != null && !showingReplayPosition) {
+                    currentReplay.seekFraction((double) configPanel.getReplayPosition().getValue()
+                            / ConfigPanel.REPLAY_POSITIONS);
+                }
+            }
+        });
+        configPanel.getReplaySpeedInput().addPropertyChangeListener("value", new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent e) {
+                if (currentReplay != null && e.getNewValue() instanceof Number
+                        && ((Number) e.getNewValue()).doubleValue() != 0.0) {
+                    currentReplay.setSpeed(((Number) e.getNewValue()).doubleValue());
+                }
+            }
+        });
+    }
+
     private void initializeJFrame(Dimension minimum) {
         logger.trace("Initializing JFrame.");
 
@@ -143,7 +186,7 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
     }
 
     private void addGuiComponents() {
-        JLayeredPane displayPane = new JLayeredPane();
+        displayPane = new JLayeredPane();
 
         if (renderFrame != null && universePanel != null) {
             configDivider = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
@@ -191,6 +234,10 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
             this.configPanel.setNewSize(configDimension);
             this.bgPanel.setNewSize(panelDimension);
             this.universePanel.setNewSize(panelDimension);
+            if (activeRenderer != null) {
+                activeRenderer.getCanvas().setSize(panelDimension);
+                activeRenderer.requestFrame();
+            }
 
             this.configDivider.setDividerLocation(configPanel.getHeight());
             this.rootDivider.setDividerLocation(universePanel.getWidth());
@@ -209,10 +256,16 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
                 currentSimulation.setProperties(propForm);
 
                 renderFrame.validate();
-                RenderUtils.setScale(propForm.getDisplayScale());
+                universePanel.setScale(propForm.getDisplayScale());
                 if (currentSimulation.initializeSimulation()) {
                     this.universePanel.setTraceOrbits(propForm.isTraceOrbits());
+                    this.universePanel.setDensityThreshold(propForm.getDensityThreshold());
+                    this.universePanel.setLogDensity(propForm.isLogDensity());
                     simulationThread = new Thread(currentSimulation);
+                    if (propForm.isActiveRendering()) {
+                        startActiveRenderer();
+                    }
+                    startDisplayTimer(propForm.getFrameRate());
                     logger.info("Simulation thread initialized.");
                 } else {
                     JOptionPane.showMessageDialog(renderFrame,
@@ -227,6 +280,151 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
         }
     }
 
+    /**
+     * Opens a directory written by a TrajectoryRecorder and plays it through
+     * the same panels as a live simulation, without stepping anything.
+     *
+     * @return TRUE if a recording is open.
+     */
+    private boolean setupReplay() {
+        RenderPropertiesForm propForm;
+        JFileChooser chooser = new JFileChooser();
+        boolean opened = false;
+
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Open trajectory recording");
+        if (chooser.showOpenDialog(renderFrame) == JFileChooser.APPROVE_OPTION) {
+            logger.info("Replaying '" + chooser.getSelectedFile() + "'");
+            propForm = new RenderPropertiesForm();
+            try {
+                propForm.gatherProperties(configPanel, simulationSet);
+                if (propForm.isValid()) {
+                    currentReplay = new TrajectoryReplay(chooser.getSelectedFile());
+                    currentReplay.setSpeed(propForm.getReplaySpeed());
+
+                    universePanel.refreshPanel();
+                    for (int bodyIndex : currentReplay.getSnapshots().getCurrent().getIndex()) {
+                        universePanel.insertVisibleObject(new VisibleSpaceObject(bodyIndex));
+                    }
+                    universePanel.setScale(propForm.getDisplayScale());
+                    universePanel.setTraceOrbits(propForm.isTraceOrbits());
+                    universePanel.setDensityThreshold(propForm.getDensityThreshold());
+                    universePanel.setLogDensity(propForm.isLogDensity());
+                    universePanel.setSnapshotSource(currentReplay);
+                    graphPanel.setEnergyErrorHistory(null);
+                    graphPanel.repaint();
+
+                    currentReplay.start();
+                    if (propForm.isActiveRendering()) {
+                        startActiveRenderer();
+                    }
+                    startDisplayTimer(propForm.getFrameRate());
+                    configPanel.getReplayPosition().setEnabled(true);
+                    opened = true;
+                }
+            } catch (SpaceTimeException e) {
+                currentReplay = null;
+                JOptionPane.showMessageDialog(renderFrame,
+                        e.getMessage(), "SpaceTime Exception",
+                        JOptionPane.WARNING_MESSAGE);
+            }
+        }
+        return opened;
+    }
+
+    private void stopReplay() {
+        if (currentReplay != null) {
+            currentReplay.stop();
+            currentReplay = null;
+            configPanel.getReplayPosition().setEnabled(false);
+        }
+    }
+
+    /**
+     * Repaints the universe and graph at the display rate, independently of
+     * the physics thread.
+     *
+     * @param framesPerSecond
+     */
+    private void startDisplayTimer(int framesPerSecond) {
+        stopDisplayTimer();
+        shownDiagnostics = null;
+        displayTimer = new Timer(Math.max(1, 1000 / framesPerSecond), new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refreshDisplay();
+            }
+        });
+        displayTimer.setCoalesce(true);
+        displayTimer.start();
+    }
+
+    /**
+     * Swaps the Swing-painted panels for a canvas drawn by its own thread.
+     * The panels stay in the layout, hidden, and draw onto the canvas.
+     */
+    private void startActiveRenderer() {
+        stopActiveRenderer();
+        activeRenderer = new ActiveRenderer(universePanel, bgPanel);
+        activeRenderer.getCanvas().setBounds(0, 0, universePanel.getWidth(), universePanel.getHeight());
+        activeRenderer.getCanvas().addMouseWheelListener(this);
+        displayPane.add(activeRenderer.getCanvas(), Integer.valueOf(3));
+        universePanel.setVisible(false);
+        bgPanel.setVisible(false);
+        renderFrame.validate();
+        activeRenderer.start();
+        if (!activeRenderer.isRunning()) {
+            logger.warn("Canvas not displayable, falling back to Swing painting.");
+            stopActiveRenderer();
+        }
+    }
+
+    private void stopActiveRenderer() {
+        if (activeRenderer != null) {
+            activeRenderer.stop();
+            logger.info("Active rendering stopped :: " + activeRenderer.getRenderedFrames() + " frames drawn, "
+                    + activeRenderer.getDroppedFrames() + " dropped.");
+            displayPane.remove(activeRenderer.getCanvas());
+            activeRenderer = null;
+            universePanel.setVisible(true);
+            bgPanel.setVisible(true);
+            displayPane.repaint();
+        }
+    }
+
+    private void stopDisplayTimer() {
+        if (displayTimer != null) {
+            displayTimer.stop();
+            displayTimer = null;
+        }
+    }
+
+    private void refreshDisplay() {
+        SnapshotSource source = universePanel.getSnapshotSource();
+        SnapshotPair snapshots;
+        StepDiagnostics diagnostics;
+
+        if (source != null) {
+            snapshots = source.getSnapshots();
+            diagnostics = snapshots != null ? snapshots.getCurrent().getDiagnostics() : null;
+            if (diagnostics != null && diagnostics != shownDiagnostics) {
+                shownDiagnostics = diagnostics;
+                graphPanel.setTotalEnergy(new double[]{diagnostics.getKineticEnergy(), diagnostics.getPotentialEnergy()});
+                graphPanel.repaint();
+            }
+        }
+        if (currentReplay != null && !configPanel.getReplayPosition().getValueIsAdjusting()) {
+            showingReplayPosition = true;
+            configPanel.getReplayPosition().setValue((int) Math.round(ConfigPanel.REPLAY_POSITIONS
+                    * (currentReplay.getPlayhead() - currentReplay.getFirstStep())
+                    / Math.max(1, currentReplay.getLastStep() - currentReplay.getFirstStep())));
+            showingReplayPosition = false;
+        }
+        if (activeRenderer == null) {
+            universePanel.repaint();
+        }
+    }
+
     /**
      * This method converts the given actionCommand to an integer for use with
      * the 'actionPerformed' method. This is implemented only to allow targeting
@@ -247,6 +445,8 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
                 actionIndex = 3;
             } else if (StringUtils.equalsIgnoreCase("STOP", action)) {
                 actionIndex = 4;
+            } else if (StringUtils.equalsIgnoreCase("REPLAY", action)) {
+                actionIndex = 5;
             }
         }
         return actionIndex;
@@ -267,12 +467,16 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
                     configPanel.getPauseSim().setEnabled(false);
                     configPanel.getStopSim().setEnabled(true);
                     configPanel.getNewSim().setEnabled(false);
+                    configPanel.getReplaySim().setEnabled(false);
                     break;
                 }
                 case 2: {
                     if (!isPaused) {
                         logger.info("Pause simulation.");
                         // PAUSE SIMULATION
+                        if (currentReplay != null) {
+                            currentReplay.pause();
+                        }
                         if (currentSimulation != null) {
                             currentSimulation.sendSignal(SimulationEngineSignal.PAUSE);
                             try {
@@ -290,7 +494,11 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
                     break;
                 }
                 case 3: {
-                    if (isPaused) { // Simulation was paused, restart the simulation
+                    if (currentReplay != null) {
+                        logger.info("Play recording.");
+                        isPaused = false;
+                        currentReplay.play();
+                    } else if (isPaused) { // Simulation was paused, restart the simulation
                         logger.info("Resume simulation");
                         isPaused = false;
 
@@ -330,14 +538,29 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
                         }
                     }
 
+                    stopReplay();
+                    stopDisplayTimer();
+                    stopActiveRenderer();
                     universePanel.refreshPanel();
                     configPanel.getNewSim().setEnabled(true);
+                    configPanel.getReplaySim().setEnabled(true);
                     configPanel.getPauseSim().setEnabled(false);
                     configPanel.getPlaySim().setEnabled(false);
                     configPanel.getStopSim().setEnabled(false);
                     configPanel.getPlaySim().setText("Play simulation");
                     break;
                 }
+                case 5: {
+                    logger.info("Replay Recording.");
+                    if (setupReplay()) {
+                        configPanel.getPlaySim().setEnabled(true);
+                        configPanel.getPauseSim().setEnabled(false);
+                        configPanel.getStopSim().setEnabled(true);
+                        configPanel.getNewSim().setEnabled(false);
+                        configPanel.getReplaySim().setEnabled(false);
+                    }
+                    break;
+                }
             }
         }
     }
@@ -363,7 +586,7 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
     @Override
     public void mouseWheelMoved(MouseWheelEvent e) {
         int notches = e.getWheelRotation();
-        double currentScale = RenderUtils.getScale();
+        double currentScale = universePanel.getScale();
         double notchTranslation = 0.05;
         
         if( currentScale <= 0.1 ) {
@@ -373,7 +596,10 @@ public class RenderFrame extends ComponentAdapter implements ActionListener, Mou
 
         currentScale += amount;
         if( currentScale >= 0.01 ) {
-            RenderUtils.setScale(currentScale);
+            universePanel.setScale(currentScale);
+            if (activeRenderer != null) {
+                activeRenderer.requestFrame();
+            }
         } 
         this.configPanel.getScaleInput().setValue(currentScale);
     }
@@ -8,14 +8,13 @@ import ca.jewsbury.gravity.render.panel.GraphPanel;
 import ca.jewsbury.gravity.spacetime.SpaceContainer;
 import ca.jewsbury.gravity.spacetime.SpaceTimeException;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.force.PairwiseForceSolver;
 import ca.jewsbury.gravity.spacetime.model.integration.VerletModel;
 import ca.jewsbury.gravity.spacetime.model.integration.Integrator;
-import ca.jewsbury.gravity.util.RenderUtils;
-import ca.jewsbury.gravity.util.factory.SpaceObjectFactory;
-import javax.swing.SwingUtilities;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotPublisher;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotSource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,23 +24,27 @@ import org.slf4j.LoggerFactory;
  * Runnable class that progresses the simulation forward in time. This is
  * runnable so that while it's active the GUI is still interactive.
  *
+ * The physics runs at its own rate (or flat out) and never touches Swing;
+ * after each step it publishes a snapshot that the universe panel picks up
+ * on its own display timer.
+ *
  * @author Nathan
  */
 public class SimulationEngine implements Runnable {
 
     private final Logger logger = LoggerFactory.getLogger(SimulationEngine.class);
-    private final int SECOND_TO_MILLISECOND = 1000;
+    private final int GRAPH_SAMPLE_INTERVAL = 10;
+    private final long MAX_LAG_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
 
     private final SpaceContainer container;
     private final Integrator integrator;
     private final GraphPanel graphPanel;
     private final RenderFrame parentFrame;
+    private final SnapshotPublisher publisher;
 
     private RenderPropertiesForm properties;
-    private boolean runThread = true;
-    private long timeDelayMillis;
-    private int framesPerSecond;
-    private Orbital referenceOrbital;
+    private volatile boolean runThread = true;
+    private int stepsPerSecond;
 
     public SimulationEngine(RenderFrame parentFrame) throws SpaceTimeException {
         this.parentFrame = parentFrame;
@@ -49,13 +52,17 @@ public class SimulationEngine implements Runnable {
             throw new SpaceTimeException("Unable to locate parent frame.");
         }
         this.container = new SpaceContainer();
+        this.container.setDiagnosticsInterval(GRAPH_SAMPLE_INTERVAL);
+        // Stepped on this one thread, so each pair can be visited once.
+        this.container.setForceSolver(new PairwiseForceSolver());
         this.integrator = new VerletModel(container);
+        this.publisher = new SnapshotPublisher();
 
         this.graphPanel = this.parentFrame.getGraphPanel();
         if (this.graphPanel == null) {
             throw new SpaceTimeException("Unable to locate graph panel.");
         }
-        this.graphPanel.setEnergyBuffer(this.container.getTotalEnergyBuffer());
+        this.graphPanel.setEnergyErrorHistory(this.container.getEnergyErrorHistory());
     }
 
     public void setProperties(RenderPropertiesForm properties) {
@@ -67,8 +74,7 @@ public class SimulationEngine implements Runnable {
         boolean initialized = false;
 
         if (parentFrame != null && properties != null) {
-            framesPerSecond = properties.getFrameRate();
-            timeDelayMillis = (long) (SECOND_TO_MILLISECOND / framesPerSecond);
+            stepsPerSecond = properties.getStepsPerSecond();
 
             simulation = properties.getSimulationSet();
             if (simulation != null) {
@@ -84,53 +90,25 @@ public class SimulationEngine implements Runnable {
     }
 
     private void displayInitialSimulation(SimulationSet set) throws SpaceTimeException {
-        JSONArray objArr;
-        JSONObject singleObject;
-        Orbital orbital;
-
-        if (set != null && set.getSimulationDefinition() != null) {
-            try {
-                objArr = set.getSimulationDefinition().getJSONArray("objectList");
-                if (objArr != null && objArr.length() > 0) {
-                    for (int i = 0; i < objArr.length(); i++) {
-                        singleObject = objArr.getJSONObject(i);
-
-                        if (singleObject != null) {
-                            orbital = SpaceObjectFactory.generateSpaceObject(singleObject);
-                            if (orbital != null) {
-                                logger.info("Inserting orbital object '" + orbital.getIdName() + "'");
-                                insertOrbital(orbital);
-
-                            } else {
-                                logger.warn("Orbital object was null.");
-                            }
-                        } else {
-                            logger.warn("JSON single object was null.");
-                        }
-                    }
-                    parentFrame.getUniversePanel().repaint();
-                    container.refreshEnergyValues();
-                    updateGraphPanel();
-                    parentFrame.getGraphPanel().repaint();
-                }
-            } catch (JSONException e) {
-                throw new SpaceTimeException(e.getMessage());
-            }
-        }
-    }
-
-    private void insertOrbital(Orbital orbital) {
-        VisibleSpaceObject visible;
-        if (container != null && orbital != null) {
-            visible = new VisibleSpaceObject(orbital);
-            if (container.insertOrbital(orbital)) {
+        Orbital[] orbitals;
+        int inserted;
+
+        if (set != null) {
+            inserted = set.populate(container);
+            orbitals = container.getOrbitalArray();
+            if (inserted > 0 && orbitals != null) {
+                logger.info("Inserted " + inserted + " orbital objects from '" + set.getDisplayName() + "'");
                 if (parentFrame.getUniversePanel() != null) {
-                    parentFrame.getUniversePanel().insertVisibleObject(visible);
-
-                    if (orbital.isReferenceObject()) {
-                        RenderUtils.setReference(visible);
+                    for (Orbital orbital : orbitals) {
+                        parentFrame.getUniversePanel().insertVisibleObject(new VisibleSpaceObject(orbital));
                     }
                 }
+                container.refreshEnergyValues();
+                publisher.publishNow(container);
+                parentFrame.getUniversePanel().setSnapshotSource(publisher);
+                parentFrame.getUniversePanel().repaint();
+                updateGraphPanel();
+                parentFrame.getGraphPanel().repaint();
             }
         }
     }
@@ -154,39 +132,36 @@ public class SimulationEngine implements Runnable {
         }
     }
 
+    /**
+     * @return where the renderer reads the published state from.
+     */
+    public SnapshotSource getSnapshotSource() {
+        return publisher;
+    }
+
     @Override
     public void run() {
-        logger.trace("Starting simulation engine.");
-        long start, sleepTime;
-        long loop = 0;
+        long periodNanos = stepsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / stepsPerSecond : 0;
+        long nextStep = System.nanoTime();
+        long waitNanos;
+
+        logger.trace("Starting simulation engine at " + (stepsPerSecond > 0 ? stepsPerSecond + " steps/s." : "full speed."));
         while (runThread) {
-            start = System.currentTimeMillis();
-            sleepTime = timeDelayMillis - (System.currentTimeMillis() - start);
-            // UPDATE SIMULATION
             this.integrator.moveContainedObjects(1.0);
-            if (loop % 10 == 0) {
-                updateGraphPanel();
-                loop = 0;
-            }
-            // DRAW SIMULATION
-            RenderUtils.setCenterOfMass(this.container.getCenterOfMass());
-            try {
-                SwingUtilities.invokeLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        parentFrame.repaint();
-                    }
-                });
-                if (sleepTime > 0) {
-                    Thread.sleep(sleepTime);
-                } else {
-                    Thread.sleep(1);
+            this.publisher.publish(this.container);
+
+            if (periodNanos > 0) {
+                nextStep += periodNanos;
+                waitNanos = nextStep - System.nanoTime();
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                } else if (waitNanos < -MAX_LAG_NANOS) {
+                    // Fell too far behind (GC, debugger); don't burst to catch up.
+                    nextStep = System.nanoTime();
                 }
-            } catch (InterruptedException e) {
-                //
             }
-            loop++;
         }
+        this.publisher.publishNow(this.container);
     }
 
     private void updateGraphPanel() {
@@ -1,11 +1,17 @@
 package ca.jewsbury.gravity.render.engine;
 
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.io.SimulationCatalog;
+import ca.jewsbury.gravity.spacetime.io.SimulationLoader;
 import org.json.JSONObject;
 
 /**
  * SimulationSet.class
  *
- * Container class for a JSON defined simulation.
+ * Container class for a JSON defined simulation. Either holds the parsed
+ * definition, or a catalog entry whose bodies are only read when the
+ * simulation is populated.
  *
  * 14-Feb-2015
  *
@@ -14,10 +20,20 @@ import org.json.JSONObject;
 public class SimulationSet {
 
     private final String displayName;
+    private final SimulationCatalog catalog;
+    private final SimulationCatalog.Entry entry;
     protected JSONObject simulationDefinition;
 
     public SimulationSet(String displayName) {
         this.displayName = displayName;
+        this.catalog = null;
+        this.entry = null;
+    }
+
+    public SimulationSet(SimulationCatalog catalog, SimulationCatalog.Entry entry) {
+        this.displayName = entry.getName();
+        this.catalog = catalog;
+        this.entry = entry;
     }
 
     public String getDisplayName() {
@@ -31,4 +47,22 @@ public class SimulationSet {
     public void setSimulationDefinition(JSONObject json) {
         this.simulationDefinition = json;
     }
+
+    /**
+     * Inserts the simulation's bodies into the container.
+     *
+     * @param container
+     * @return number of objects inserted
+     * @throws SpaceTimeException if the definition can't be read.
+     */
+    public int populate(SpaceContainer container) throws SpaceTimeException {
+        int inserted = 0;
+
+        if (catalog != null) {
+            inserted = catalog.populate(entry, container, null);
+        } else if (simulationDefinition != null) {
+            inserted = SimulationLoader.populate(container, simulationDefinition);
+        }
+        return inserted;
+    }
 }
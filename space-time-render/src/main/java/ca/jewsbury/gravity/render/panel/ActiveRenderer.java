@@ -0,0 +1,192 @@
+package ca.jewsbury.gravity.render.panel;
+
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotPair;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotSource;
+import java.awt.Canvas;
+import java.awt.DisplayMode;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ActiveRenderer.class
+ *
+ * Active rendering mode. A Canvas with a page flipped BufferStrategy is
+ * drawn by a dedicated thread, paced to the display refresh, instead of
+ * going through the EDT's repaint queue. The background and universe panels
+ * stay in the layout (hidden) and are asked to draw onto the back buffer.
+ *
+ * Requests coalesce: requestFrame() only sets a flag, so there is never
+ * more than one frame pending. A frame is drawn at a refresh tick if one
+ * was requested, or a new snapshot was published, or the view is still
+ * blending between snapshots. Ticks whose time has already passed when the
+ * thread gets to them (a frame ran over its budget, a GC pause) are dropped
+ * and counted, not drawn late back to back.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class ActiveRenderer implements Runnable {
+
+    public static final int DEFAULT_REFRESH_RATE = 60;
+
+    private final Logger logger = LoggerFactory.getLogger(ActiveRenderer.class);
+    private final Canvas canvas;
+    private final UniversePanel universePanel;
+    private final ImagePanel backgroundPanel;
+    private final AtomicBoolean frameRequested;
+
+    private volatile boolean running;
+    private Thread renderThread;
+    private BufferStrategy strategy;
+    private long frameIntervalNanos;
+    private volatile long renderedFrames;
+    private volatile long droppedFrames;
+
+    public ActiveRenderer(UniversePanel universePanel, ImagePanel backgroundPanel) {
+        this.universePanel = universePanel;
+        this.backgroundPanel = backgroundPanel;
+        this.frameRequested = new AtomicBoolean(true);
+        this.canvas = new Canvas();
+        this.canvas.setIgnoreRepaint(true);
+    }
+
+    /**
+     * @return the canvas to add to the layout; it must be displayable
+     * before start().
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Creates the buffer strategy and starts the render thread.
+     */
+    public void start() {
+        if (!running && canvas.isDisplayable()) {
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+            frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / detectRefreshRate();
+            running = true;
+            renderThread = new Thread(this, "active-renderer");
+            renderThread.setDaemon(true);
+            renderThread.start();
+            logger.info("Active rendering at " + (TimeUnit.SECONDS.toNanos(1) / frameIntervalNanos) + " Hz");
+        }
+    }
+
+    /**
+     * Stops the render thread and waits for it.
+     */
+    public void stop() {
+        running = false;
+        if (renderThread != null) {
+            LockSupport.unpark(renderThread);
+            try {
+                renderThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            renderThread = null;
+        }
+        if (strategy != null) {
+            strategy.dispose();
+            strategy = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Asks for a frame at the next refresh tick (eg. after zoom or resize).
+     * Any number of calls before then produce one frame.
+     */
+    public void requestFrame() {
+        frameRequested.set(true);
+    }
+
+    public long getRenderedFrames() {
+        return renderedFrames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    private int detectRefreshRate() {
+        GraphicsConfiguration config = canvas.getGraphicsConfiguration();
+        int rate = DEFAULT_REFRESH_RATE;
+        DisplayMode mode;
+
+        if (config != null) {
+            mode = config.getDevice().getDisplayMode();
+            if (mode != null && mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                rate = mode.getRefreshRate();
+            }
+        }
+        return rate;
+    }
+
+    @Override
+    public void run() {
+        long nextFrame = System.nanoTime();
+        long now, behind;
+        SnapshotPair drawn = null;
+        SnapshotPair latest;
+        SnapshotSource source;
+
+        while (running) {
+            source = universePanel.getSnapshotSource();
+            latest = source != null ? source.getSnapshots() : null;
+            if (frameRequested.getAndSet(false) || latest != drawn
+                    || (latest != null && latest.getAlpha(System.nanoTime()) < 1.0)) {
+                try {
+                    renderFrame();
+                    renderedFrames++;
+                } catch (IllegalStateException e) {
+                    // Buffers went away under us (eg. the canvas was removed).
+                    logger.warn("Active frame lost :: " + e.getMessage());
+                }
+                drawn = latest;
+            }
+
+            nextFrame += frameIntervalNanos;
+            now = System.nanoTime();
+            if (now > nextFrame) {
+                // Over budget: skip the ticks already missed rather than
+                // queueing them up.
+                behind = (now - nextFrame) / frameIntervalNanos + 1;
+                droppedFrames += behind;
+                nextFrame += behind * frameIntervalNanos;
+            }
+            LockSupport.parkNanos(nextFrame - now);
+        }
+    }
+
+    private void renderFrame() {
+        Graphics2D gfx;
+
+        do {
+            do {
+                gfx = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    backgroundPanel.paintBackground(gfx);
+                    universePanel.paintFrame(gfx);
+                } finally {
+                    gfx.dispose();
+                }
+            } while (strategy.contentsRestored() && running);
+            strategy.show();
+        } while (strategy.contentsLost() && running);
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
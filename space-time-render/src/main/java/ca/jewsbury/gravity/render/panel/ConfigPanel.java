@@ -18,6 +18,7 @@ import javax.swing.JComboBox;
 import javax.swing.JFormattedTextField;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JSlider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,14 +33,20 @@ import org.slf4j.LoggerFactory;
  */
 public class ConfigPanel extends JPanel implements RenderResizable {
 
+    /**
+     * Resolution of the replay position slider.
+     */
+    public static final int REPLAY_POSITIONS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(ConfigPanel.class);
     private final RenderFrame parentFrame;
     private final Map<String, SimulationSet> simulationSet;
 
-    private JFormattedTextField scaleInput, timestepInput, frameRateInput;
-    private JCheckBox shouldTrace;
+    private JFormattedTextField scaleInput, timestepInput, frameRateInput, stepRateInput, densityInput, replaySpeedInput;
+    private JCheckBox shouldTrace, logDensity, activeRendering;
     private JComboBox simulationSelector;
-    private JButton newSim, playSim, pauseSim, stopSim;
+    private JButton newSim, replaySim, playSim, pauseSim, stopSim;
+    private JSlider replayPosition;
 
     public ConfigPanel(RenderFrame parentFrame) {
         GridBagConstraints grid = new GridBagConstraints();
@@ -72,8 +79,13 @@ public class ConfigPanel extends JPanel implements RenderResizable {
 
         addInputDisplayScale(grid);
         addInputFrameRate(grid);
+        addInputStepRate(grid);
         addInputTimestep(grid);
+        addInputDensity(grid);
         addTraceCheckbox(grid);
+        addLogDensityCheckbox(grid);
+        addActiveRenderingCheckbox(grid);
+        addReplayControls(grid);
 
         // Create a spacer inbetween inputs & buttons.
         grid.weighty = 1;
@@ -123,6 +135,25 @@ public class ConfigPanel extends JPanel implements RenderResizable {
         this.add(frameRateInput, grid);
     }
 
+    private void addInputStepRate(GridBagConstraints grid) {
+        JLabel textLabel;
+
+        stepRateInput = new JFormattedTextField((DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH));
+        stepRateInput.setColumns(15);
+        stepRateInput.setValue(60);
+
+        textLabel = new JLabel("Physics rate (steps/s, 0 = max)");
+        textLabel.setForeground(Color.white);
+        textLabel.setFont(RenderFrame.DISPLAY_FONT);
+        textLabel.setLabelFor(stepRateInput);
+
+        grid.gridy++;
+        this.add(textLabel, grid);
+
+        grid.gridy++;
+        this.add(stepRateInput, grid);
+    }
+
     private void addInputTimestep(GridBagConstraints grid) {
         JLabel textLabel;
 
@@ -142,6 +173,75 @@ public class ConfigPanel extends JPanel implements RenderResizable {
         this.add(timestepInput, grid);
     }
 
+    private void addInputDensity(GridBagConstraints grid) {
+        JLabel textLabel;
+
+        densityInput = new JFormattedTextField((DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH));
+        densityInput.setColumns(15);
+        densityInput.setValue(UniversePanel.DEFAULT_DENSITY_THRESHOLD);
+
+        textLabel = new JLabel("Density view from (bodies)");
+        textLabel.setForeground(Color.white);
+        textLabel.setFont(RenderFrame.DISPLAY_FONT);
+        textLabel.setLabelFor(densityInput);
+
+        grid.gridy++;
+        this.add(textLabel, grid);
+
+        grid.gridy++;
+        this.add(densityInput, grid);
+    }
+
+    private void addLogDensityCheckbox(GridBagConstraints grid) {
+
+        logDensity = new JCheckBox("Log density");
+        logDensity.setForeground(Color.white);
+        logDensity.setFont(RenderFrame.DISPLAY_FONT);
+        logDensity.setContentAreaFilled(false);
+
+        logDensity.setSelected(true);
+        grid.gridy++;
+        this.add(logDensity, grid);
+    }
+
+    private void addActiveRenderingCheckbox(GridBagConstraints grid) {
+
+        activeRendering = new JCheckBox("Active rendering");
+        activeRendering.setForeground(Color.white);
+        activeRendering.setFont(RenderFrame.DISPLAY_FONT);
+        activeRendering.setContentAreaFilled(false);
+
+        activeRendering.setSelected(false);
+        grid.gridy++;
+        this.add(activeRendering, grid);
+    }
+
+    private void addReplayControls(GridBagConstraints grid) {
+        JLabel textLabel;
+
+        replaySpeedInput = new JFormattedTextField((DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH));
+        replaySpeedInput.setColumns(15);
+        replaySpeedInput.setValue(60);
+
+        textLabel = new JLabel("Replay rate (steps/s, < 0 rev.)");
+        textLabel.setForeground(Color.white);
+        textLabel.setFont(RenderFrame.DISPLAY_FONT);
+        textLabel.setLabelFor(replaySpeedInput);
+
+        grid.gridy++;
+        this.add(textLabel, grid);
+
+        grid.gridy++;
+        this.add(replaySpeedInput, grid);
+
+        replayPosition = new JSlider(0, REPLAY_POSITIONS, 0);
+        replayPosition.setOpaque(false);
+        replayPosition.setEnabled(false);
+
+        grid.gridy++;
+        this.add(replayPosition, grid);
+    }
+
     private void addTraceCheckbox(GridBagConstraints grid) {
 
         shouldTrace = new JCheckBox("Trace Orbits");
@@ -183,6 +283,9 @@ public class ConfigPanel extends JPanel implements RenderResizable {
         newSim = new JButton();
         addSingleButton(newSim, "New Simulation", "NEW", grid);
         grid.gridy++;
+        replaySim = new JButton();
+        addSingleButton(replaySim, "Replay Recording", "REPLAY", grid);
+        grid.gridy++;
         this.add(Box.createVerticalStrut(10), grid);
         
         pauseSim = new JButton();
@@ -224,10 +327,34 @@ public class ConfigPanel extends JPanel implements RenderResizable {
         return frameRateInput;
     }
 
+    public JFormattedTextField getStepRateInput() {
+        return stepRateInput;
+    }
+
     public JCheckBox getShouldTrace() {
         return shouldTrace;
     }
 
+    public JFormattedTextField getDensityInput() {
+        return densityInput;
+    }
+
+    public JCheckBox getLogDensity() {
+        return logDensity;
+    }
+
+    public JCheckBox getActiveRendering() {
+        return activeRendering;
+    }
+
+    public JFormattedTextField getReplaySpeedInput() {
+        return replaySpeedInput;
+    }
+
+    public JSlider getReplayPosition() {
+        return replayPosition;
+    }
+
     public JComboBox getSimulationSelector() {
         return simulationSelector;
     }
@@ -236,6 +363,10 @@ public class ConfigPanel extends JPanel implements RenderResizable {
         return newSim;
     }
 
+    public JButton getReplaySim() {
+        return replaySim;
+    }
+
     public JButton getPlaySim() {
         return playSim;
     }
@@ -0,0 +1,286 @@
+package ca.jewsbury.gravity.render.panel;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DensityLayer.class
+ *
+ * Renderer for systems too large to draw body by body. Each frame the body
+ * positions are binned straight into a per-pixel count, and the counts are
+ * mapped through a palette into the int[] of a TYPE_INT_RGB image, either
+ * linearly (saturating) or by log density. The bodies are first bucketed by
+ * band of rows; counting and colouring then run one task per band in
+ * parallel, each band owning its rows, so no two threads write the same
+ * pixel.
+ *
+ * Layers built without a pool share one sized to the machine, created on
+ * first use. Its workers are daemons, so nothing has to shut it down.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class DensityLayer {
+
+    private static final int PALETTE_SIZE = 256;
+    private static final int SATURATION_COUNT = 8;
+    private static final int MINIMUM_BAND_ROWS = 16;
+    private static final int SHADE_TABLE_SIZE = 4096;
+
+    private static ForkJoinPool sharedPool;
+
+    private final Logger logger = LoggerFactory.getLogger(DensityLayer.class);
+    private final ForkJoinPool pool;
+    private final int[] palette;
+    private final int[] shadeTable;
+
+    private BufferedImage raster;
+    private int[] pixels;
+    private int[] counts;
+    private int[] bodyPixel;
+    private int[] bandStart;
+    private int[] bandFill;
+    private int width, height;
+    private int rowsPerBand;
+    private int maxCount;
+    private boolean logDensity;
+    private List<Callable<Integer>> binTasks;
+    private List<Callable<Integer>> colourTasks;
+
+    public DensityLayer() {
+        this(getSharedPool());
+    }
+
+    /**
+     * @param pool - runs the band tasks; left running by dispose().
+     */
+    public DensityLayer(ForkJoinPool pool) {
+        this.pool = pool;
+        this.palette = buildPalette();
+        this.shadeTable = new int[SHADE_TABLE_SIZE];
+        this.bodyPixel = new int[0];
+        this.logDensity = true;
+    }
+
+    private static synchronized ForkJoinPool getSharedPool() {
+        if (sharedPool == null) {
+            sharedPool = new ForkJoinPool();
+        }
+        return sharedPool;
+    }
+
+    /**
+     * Black through blue and orange to white.
+     */
+    private static int[] buildPalette() {
+        int[] colours = new int[PALETTE_SIZE];
+        double t;
+        int r, g, b;
+
+        for (int i = 0; i < PALETTE_SIZE; i++) {
+            t = i / (double) (PALETTE_SIZE - 1);
+            r = (int) (255 * Math.min(1.0, Math.max(0.0, 2.0 * t - 0.4)));
+            g = (int) (255 * Math.min(1.0, Math.max(0.0, 1.6 * t * t)));
+            b = (int) (255 * Math.min(1.0, t < 0.5 ? 1.6 * t + 0.2 : 1.4 - 0.4 * t));
+            colours[i] = (r << 16) | (g << 8) | b;
+        }
+        colours[0] = 0;
+        return colours;
+    }
+
+    public void setLogDensity(boolean logDensity) {
+        this.logDensity = logDensity;
+    }
+
+    public boolean isLogDensity() {
+        return logDensity;
+    }
+
+    /**
+     * Bins the given panel coordinates and redraws the raster.
+     *
+     * @param displayX - panel x of every body
+     * @param displayY - panel y of every body
+     * @param count - bodies to draw
+     * @param panelWidth
+     * @param panelHeight
+     */
+    public void render(double[] displayX, double[] displayY, int count, int panelWidth, int panelHeight) {
+        int x, y, band, bands;
+
+        if (panelWidth > 0 && panelHeight > 0) {
+            ensureSize(panelWidth, panelHeight);
+            bands = binTasks.size();
+            if (bodyPixel.length < count) {
+                bodyPixel = new int[count];
+            }
+            // Bucket the on-screen bodies by band: count, prefix sum, scatter.
+            Arrays.fill(bandFill, 0);
+            for (int i = 0; i < count; i++) {
+                x = (int) displayX[i];
+                y = (int) displayY[i];
+                if (y >= 0 && y < height && x >= 0 && x < width) {
+                    bandFill[y / rowsPerBand]++;
+                }
+            }
+            bandStart[0] = 0;
+            for (band = 0; band < bands; band++) {
+                bandStart[band + 1] = bandStart[band] + bandFill[band];
+                bandFill[band] = bandStart[band];
+            }
+            for (int i = 0; i < count; i++) {
+                x = (int) displayX[i];
+                y = (int) displayY[i];
+                if (y >= 0 && y < height && x >= 0 && x < width) {
+                    bodyPixel[bandFill[y / rowsPerBand]++] = y * width + x;
+                }
+            }
+
+            maxCount = 0;
+            for (Integer bandMax : runAll(binTasks)) {
+                maxCount = Math.max(maxCount, bandMax);
+            }
+            for (int i = 0; i < SHADE_TABLE_SIZE && i <= maxCount; i++) {
+                shadeTable[i] = shade(i);
+            }
+            runAll(colourTasks);
+        }
+    }
+
+    /**
+     * @param count - bodies in a pixel
+     * @return palette index for the count
+     */
+    private int shade(int count) {
+        int shade;
+
+        if (count == 0) {
+            shade = 0;
+        } else if (logDensity) {
+            shade = Math.max(1, (int) (Math.log1p(count) * (PALETTE_SIZE - 1) / Math.log1p(Math.max(1, maxCount))));
+        } else {
+            shade = Math.min(PALETTE_SIZE - 1, (PALETTE_SIZE / 2) + (count - 1) * (PALETTE_SIZE / 2) / SATURATION_COUNT);
+        }
+        return shade;
+    }
+
+    private List<Integer> runAll(List<Callable<Integer>> tasks) {
+        List<Integer> results = new ArrayList<Integer>(tasks.size());
+        try {
+            for (Future<Integer> future : pool.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Density pass failed :: " + e.getMessage());
+        }
+        return results;
+    }
+
+    private void ensureSize(int panelWidth, int panelHeight) {
+        int bands;
+
+        if (raster == null || width != panelWidth || height != panelHeight) {
+            width = panelWidth;
+            height = panelHeight;
+            raster = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) raster.getRaster().getDataBuffer()).getData();
+            counts = new int[width * height];
+
+            bands = Math.max(1, Math.min(pool.getParallelism() * 2, height / MINIMUM_BAND_ROWS));
+            rowsPerBand = (height + bands - 1) / bands;
+            binTasks = new ArrayList<Callable<Integer>>(bands);
+            colourTasks = new ArrayList<Callable<Integer>>(bands);
+            for (int row = 0; row < height; row += rowsPerBand) {
+                binTasks.add(new BinBand(binTasks.size(), row * width, Math.min(height, row + rowsPerBand) * width));
+                colourTasks.add(new ColourBand(row * width, Math.min(height, row + rowsPerBand) * width));
+            }
+            bandStart = new int[binTasks.size() + 1];
+            bandFill = new int[binTasks.size()];
+        }
+    }
+
+    /**
+     * Clears its rows' counts, then counts the bodies bucketed into it.
+     */
+    private class BinBand implements Callable<Integer> {
+
+        private final int band, from, to;
+
+        BinBand(int band, int from, int to) {
+            this.band = band;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Integer call() {
+            int pixel, bandMax = 0;
+
+            Arrays.fill(counts, from, to, 0);
+            for (int i = bandStart[band]; i < bandStart[band + 1]; i++) {
+                pixel = bodyPixel[i];
+                counts[pixel]++;
+                if (counts[pixel] > bandMax) {
+                    bandMax = counts[pixel];
+                }
+            }
+            return bandMax;
+        }
+    }
+
+    /**
+     * Maps its rows' counts through the palette.
+     */
+    private class ColourBand implements Callable<Integer> {
+
+        private final int from, to;
+
+        ColourBand(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Integer call() {
+            int count;
+
+            for (int i = from; i < to; i++) {
+                count = counts[i];
+                pixels[i] = palette[count < SHADE_TABLE_SIZE ? shadeTable[count] : shade(count)];
+            }
+            return to - from;
+        }
+    }
+
+    /**
+     * @return bodies that landed on the panel in the last render.
+     */
+    public int getBinnedCount() {
+        return bandStart != null ? bandStart[bandStart.length - 1] : 0;
+    }
+
+    public void paint(Graphics2D gfx) {
+        if (raster != null) {
+            gfx.drawImage(raster, 0, 0, null);
+        }
+    }
+
+    public void dispose() {
+        raster = null;
+        pixels = null;
+        counts = null;
+    }
+}
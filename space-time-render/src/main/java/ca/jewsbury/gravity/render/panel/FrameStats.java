@@ -0,0 +1,106 @@
+package ca.jewsbury.gravity.render.panel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FrameStats.class
+ *
+ * Counters for the frame being drawn and a running average of the frames
+ * before it: how many bodies were drawn as circles, drawn as single pixels,
+ * culled off screen or splatted into the density view, and how long the
+ * frame took. Only touched from the thread that paints.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class FrameStats {
+
+    private static final double SMOOTHING = 0.1;
+
+    private long frames;
+    private long frameStart;
+    private int bodies, drawn, points, culled, splatted;
+    private double averageNanos;
+    private String summary;
+
+    public FrameStats() {
+        summary = "";
+    }
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        bodies = 0;
+        drawn = 0;
+        points = 0;
+        culled = 0;
+        splatted = 0;
+    }
+
+    public void endFrame() {
+        long elapsed = System.nanoTime() - frameStart;
+
+        frames++;
+        averageNanos = frames == 1 ? elapsed : averageNanos + SMOOTHING * (elapsed - averageNanos);
+        summary = String.format("%d bodies: %d drawn, %d points, %d culled, %d density | %.1f ms",
+                bodies, drawn, points, culled, splatted, averageNanos / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public void addBodies(int count) {
+        bodies += count;
+    }
+
+    public void addDrawn() {
+        drawn++;
+    }
+
+    public void addPoint() {
+        points++;
+    }
+
+    public void addCulled() {
+        culled++;
+    }
+
+    public void addCulled(int count) {
+        culled += count;
+    }
+
+    public void addSplatted(int count) {
+        splatted += count;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public int getDrawn() {
+        return drawn;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public int getCulled() {
+        return culled;
+    }
+
+    public int getSplatted() {
+        return splatted;
+    }
+
+    /**
+     * @return smoothed paint time per frame, in nanoseconds.
+     */
+    public double getAverageNanos() {
+        return averageNanos;
+    }
+
+    /**
+     * @return one line describing the last finished frame.
+     */
+    public String getSummary() {
+        return summary;
+    }
+}
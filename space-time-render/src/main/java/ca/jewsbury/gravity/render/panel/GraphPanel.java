@@ -1,15 +1,13 @@
 package ca.jewsbury.gravity.render.panel;
 
 import ca.jewsbury.gravity.render.RenderFrame;
+import ca.jewsbury.gravity.spacetime.util.MinMaxPyramid;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
 import javax.swing.JPanel;
 import javax.swing.border.BevelBorder;
-import org.apache.commons.collections.buffer.CircularFifoBuffer;
 
 /**
  * GraphPanel.class
@@ -25,14 +23,22 @@ public class GraphPanel extends JPanel implements RenderResizable {
     private final String TOTAL_ENERGY_STRING_TEMPLATE = "Total E. [%010.3f]";
     private final String TOTAL_KINETIC_STRING_TEMPLATE = "Total K. [%010.3f]";
     private final String TOTAL_POTNL_STRING_TEMPLATE = "Total U. [%010.3f]";
+    private final String ENERGY_ERROR_STRING_TEMPLATE = "|dE/E0|  [%.3e]";
+    private final String PLOT_SCALE_STRING_TEMPLATE = "%.1e";
+    private final String PLOT_SPAN_STRING_TEMPLATE = "%d samples";
+    private final int PLOT_TOP = 60;
+    private final int PLOT_MARGIN = 5;
 
     private final Dimension graphSize;
     private String totalEnergyString;
     private String totalKinectString;
     private String totalPotentialString;
     private double[] totalEnergy;
-    
-    private CircularFifoBuffer energyBuffer;
+
+    private MinMaxPyramid energyErrorHistory;
+    private double[] columnMin, columnMax;
+    private final double[] latestMin = new double[1];
+    private final double[] latestMax = new double[1];
 
     public GraphPanel(Dimension size) {
         graphSize = size;
@@ -47,8 +53,12 @@ public class GraphPanel extends JPanel implements RenderResizable {
         setEnergyStrings();
     }
 
-    public void setEnergyBuffer(CircularFifoBuffer energyBuffer) {
-        this.energyBuffer = energyBuffer;
+    /**
+     * @param energyErrorHistory - |dE/E0| per sampled step, plotted over its
+     * whole length.
+     */
+    public void setEnergyErrorHistory(MinMaxPyramid energyErrorHistory) {
+        this.energyErrorHistory = energyErrorHistory;
     }
 
     private void setEnergyStrings() {
@@ -75,37 +85,61 @@ public class GraphPanel extends JPanel implements RenderResizable {
         gfx.drawString(totalKinectString, 5, 30);
         gfx.drawString(totalPotentialString, 5, 45);
 
-        visualizeBuffer(gfx);
+        visualizeHistory(gfx);
     }
 
-    private void visualizeBuffer(Graphics2D gfx) {
-        Iterator<Double> iterator;
-        Double energyVal = 0.0;
-        double lastVal;
+    /**
+     * Plots the whole error history, one min/max column per pixel, scaled
+     * to fill the plot: O(width) lines however long the run.
+     */
+    private void visualizeHistory(Graphics2D gfx) {
         Color oldColor;
-        int index = 0;
-        if (this.energyBuffer != null) {
-            iterator = energyBuffer.iterator();
+        int width = getWidth() - 2 * PLOT_MARGIN;
+        int bottom = getHeight() - PLOT_MARGIN - 12;
+        int height = bottom - PLOT_TOP;
+        long samples;
+        int columns, x, yMin, yMax, lastX = 0, lastY = 0;
+        double peak = 0.0;
+
+        if (this.energyErrorHistory != null && width > 1 && height > 1) {
+            if (columnMin == null || columnMin.length < width) {
+                columnMin = new double[width];
+                columnMax = new double[width];
+            }
+            samples = energyErrorHistory.getCount();
+            columns = energyErrorHistory.sample(0, samples, width, columnMin, columnMax);
+            for (int i = 0; i < columns; i++) {
+                peak = Math.max(peak, columnMax[i]);
+            }
+            if (energyErrorHistory.sample(samples - 1, samples, 1, latestMin, latestMax) > 0) {
+                gfx.drawString(String.format(ENERGY_ERROR_STRING_TEMPLATE, latestMax[0]), 5, PLOT_TOP - 5);
+            }
+            if (peak <= 0.0 || Double.isNaN(peak) || Double.isInfinite(peak)) {
+                peak = 1.0;
+            }
+
             oldColor = gfx.getColor();
+            gfx.setColor(Color.lightGray);
+            gfx.drawLine(PLOT_MARGIN, PLOT_TOP, PLOT_MARGIN, bottom);
+            gfx.drawLine(PLOT_MARGIN, bottom, PLOT_MARGIN + width, bottom);
+            gfx.setColor(Color.gray);
+            gfx.drawString(String.format(PLOT_SCALE_STRING_TEMPLATE, peak), PLOT_MARGIN + 2, PLOT_TOP + 10);
+            gfx.drawString(String.format(PLOT_SPAN_STRING_TEMPLATE, samples), PLOT_MARGIN, bottom + 12);
+
             gfx.setColor(Color.red);
-            while (iterator.hasNext()) {
-                if (index == 0) {
-                    energyVal = iterator.next();
-                } else {
-                    lastVal = energyVal;
-                    try {
-                    if ((energyVal = iterator.next()) != null) {
-                        gfx.drawLine(index - 1, (this.getHeight() - (int) Math.abs(lastVal)), index, (this.getHeight() - (int) Math.abs(energyVal)));
-                    }
-                    } catch(NoSuchElementException e ) {
-                        //
-                    }
+            for (int i = 0; i < columns; i++) {
+                x = PLOT_MARGIN + (columns > 1 ? (int) ((long) i * (width - 1) / (columns - 1)) : 0);
+                yMin = bottom - (int) (columnMin[i] / peak * height);
+                yMax = bottom - (int) (columnMax[i] / peak * height);
+                if (i > 0) {
+                    gfx.drawLine(lastX, lastY, x, yMax);
                 }
-                index++;
+                gfx.drawLine(x, yMin, x, yMax);
+                lastX = x;
+                lastY = yMin;
             }
             gfx.setColor(oldColor);
         }
-
     }
 
     @Override
@@ -2,7 +2,12 @@ package ca.jewsbury.gravity.render.panel;
 
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.VolatileImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -14,7 +19,10 @@ import org.slf4j.LoggerFactory;
 /**
  * ImagePanel.class
  *
- *
+ * Draws the background image stretched over the panel. The stretch is done
+ * once per size into a compatible VolatileImage (accelerated where the
+ * pipeline allows it); every repaint after that is a plain blit. The cache
+ * is dropped in setNewSize and rebuilt if the image's surface is lost.
  *
  * 14-Feb-2015
  *
@@ -25,6 +33,7 @@ public class ImagePanel extends JPanel implements RenderResizable {
     private final Logger logger = LoggerFactory.getLogger(ImagePanel.class);
 
     private Image backgroundImage;
+    private VolatileImage scaledBackground;
 
     public ImagePanel(String img, Dimension size) {
         URL resource = getClass().getClassLoader().getResource(img);
@@ -52,14 +61,93 @@ public class ImagePanel extends JPanel implements RenderResizable {
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
-        //logger.info("Painting new Image Panel. >> " + (this.getWidth() + ", " + this.getHeight()));
-        g.drawImage(backgroundImage, 0, 0, this.getWidth(), this.getHeight(), null);
+        paintBackground(g);
+    }
+
+    /**
+     * Draws the scaled background, sized as this panel, onto g. Also used
+     * by an ActiveRenderer, which draws the whole view itself from its own
+     * thread; synchronized against the cache being dropped on resize.
+     *
+     * @param g
+     */
+    public synchronized void paintBackground(Graphics g) {
+        int attempts = 0;
+        boolean drawn = false;
+
+        if (backgroundImage != null && getWidth() > 0 && getHeight() > 0) {
+            // A volatile image can lose its surface at any time; retry a few
+            // times, then fall back to scaling straight onto the target.
+            while (!drawn && attempts < 3) {
+                if (prepareScaledBackground()) {
+                    g.drawImage(scaledBackground, 0, 0, null);
+                    drawn = !scaledBackground.contentsLost();
+                }
+                attempts++;
+            }
+            if (!drawn) {
+                g.drawImage(backgroundImage, 0, 0, this.getWidth(), this.getHeight(), null);
+            }
+        }
+    }
+
+    /**
+     * Makes sure scaledBackground matches the panel size and holds the
+     * scaled image.
+     *
+     * @return FALSE if no compatible image can be made (eg. not displayable
+     * yet).
+     */
+    private boolean prepareScaledBackground() {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        boolean ready = false;
+        int status;
+
+        if (config != null) {
+            if (scaledBackground == null
+                    || scaledBackground.getWidth() != getWidth() || scaledBackground.getHeight() != getHeight()) {
+                flushScaledBackground();
+                scaledBackground = config.createCompatibleVolatileImage(getWidth(), getHeight(), Transparency.OPAQUE);
+                renderScaledBackground();
+            } else {
+                status = scaledBackground.validate(config);
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    flushScaledBackground();
+                    scaledBackground = config.createCompatibleVolatileImage(getWidth(), getHeight(), Transparency.OPAQUE);
+                    renderScaledBackground();
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    renderScaledBackground();
+                }
+            }
+            ready = scaledBackground != null;
+        }
+        return ready;
+    }
+
+    private void renderScaledBackground() {
+        Graphics2D gfx = scaledBackground.createGraphics();
+        try {
+            gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            gfx.drawImage(backgroundImage, 0, 0, scaledBackground.getWidth(), scaledBackground.getHeight(), null);
+        } finally {
+            gfx.dispose();
+        }
+    }
+
+    private void flushScaledBackground() {
+        if (scaledBackground != null) {
+            scaledBackground.flush();
+            scaledBackground = null;
+        }
     }
 
     @Override
     public void setNewSize(Dimension newDimension) {
         this.setPreferredSize(newDimension);
         this.setSize(newDimension);
+        synchronized (this) {
+            flushScaledBackground();
+        }
         repaint();
     }
 }
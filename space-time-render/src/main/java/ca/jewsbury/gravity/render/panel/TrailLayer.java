@@ -0,0 +1,168 @@
+package ca.jewsbury.gravity.render.panel;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * TrailLayer.class
+ *
+ * Off-screen raster holding the orbit traces. Each frame adds one segment
+ * per body, from where it was drawn last frame to where it is now, and every
+ * few frames the alpha of the whole raster is stepped down so old trace
+ * fades out. Frame cost depends on the panel size, not on trace length or
+ * history.
+ *
+ * The raster is in panel coordinates, so it is cleared (and redrawn from
+ * the bodies' position history by the panel) on zoom, pan or resize.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class TrailLayer {
+
+    public static final int FADE_INTERVAL = 4;
+    public static final int FADE_STEP = 4;
+    /**
+     * Frames a segment stays visible: also how much position history a
+     * rebuild needs.
+     */
+    public static final int LIFETIME = ((255 + FADE_STEP - 1) / FADE_STEP) * FADE_INTERVAL;
+
+    private BufferedImage raster;
+    private int[] pixels;
+    private Graphics2D rasterGraphics;
+    private int[] lastX, lastY;
+    private boolean[] hasLast;
+    private long frame;
+
+    public TrailLayer() {
+        lastX = new int[16];
+        lastY = new int[16];
+        hasLast = new boolean[16];
+    }
+
+    /**
+     * @param width
+     * @param height
+     * @return TRUE if the raster was (re)created, and so is empty.
+     */
+    public boolean ensureSize(int width, int height) {
+        boolean created = false;
+
+        if (width > 0 && height > 0
+                && (raster == null || raster.getWidth() != width || raster.getHeight() != height)) {
+            dispose();
+            raster = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) raster.getRaster().getDataBuffer()).getData();
+            rasterGraphics = raster.createGraphics();
+            Arrays.fill(hasLast, false);
+            created = true;
+        }
+        return created;
+    }
+
+    /**
+     * Empties the raster and forgets every body's last point.
+     */
+    public void clear() {
+        if (pixels != null) {
+            Arrays.fill(pixels, 0);
+        }
+        Arrays.fill(hasLast, false);
+    }
+
+    /**
+     * Call once per drawn frame, before extend().
+     */
+    public void beginFrame() {
+        frame++;
+        if (pixels != null && frame % FADE_INTERVAL == 0) {
+            fade();
+        }
+    }
+
+    private void fade() {
+        int pixel, alpha;
+
+        for (int i = 0; i < pixels.length; i++) {
+            pixel = pixels[i];
+            if (pixel != 0) {
+                alpha = (pixel >>> 24) - FADE_STEP;
+                pixels[i] = alpha > 0 ? (alpha << 24) | (pixel & 0x00FFFFFF) : 0;
+            }
+        }
+    }
+
+    /**
+     * Draws the segment from the body's last point to (x, y) and makes
+     * (x, y) its last point.
+     *
+     * @param body - body index
+     * @param x - panel coordinate
+     * @param y - panel coordinate
+     * @param colour
+     */
+    public void extend(int body, double x, double y, Color colour) {
+        extend(body, x, y, colour, 255);
+    }
+
+    /**
+     * As extend(body, x, y, colour) with the segment drawn at the given
+     * alpha; used when rebuilding from history.
+     *
+     * @param body
+     * @param x
+     * @param y
+     * @param colour
+     * @param alpha - [0-255]
+     */
+    public void extend(int body, double x, double y, Color colour, int alpha) {
+        int px = (int) x, py = (int) y;
+
+        if (body >= hasLast.length) {
+            grow(body + 1);
+        }
+        if (rasterGraphics != null && hasLast[body] && alpha > 0) {
+            rasterGraphics.setColor(alpha >= 255 ? colour
+                    : new Color(colour.getRed(), colour.getGreen(), colour.getBlue(), alpha));
+            rasterGraphics.drawLine(lastX[body], lastY[body], px, py);
+        }
+        lastX[body] = px;
+        lastY[body] = py;
+        hasLast[body] = true;
+    }
+
+    /**
+     * @param age - frames since the segment was drawn.
+     * @return the alpha a segment of that age has after fading.
+     */
+    public static int alphaForAge(int age) {
+        return Math.max(0, 255 - (age / FADE_INTERVAL) * FADE_STEP);
+    }
+
+    private void grow(int required) {
+        int size = Math.max(required, hasLast.length * 2);
+        lastX = Arrays.copyOf(lastX, size);
+        lastY = Arrays.copyOf(lastY, size);
+        hasLast = Arrays.copyOf(hasLast, size);
+    }
+
+    public void paint(Graphics2D gfx) {
+        if (raster != null) {
+            gfx.drawImage(raster, 0, 0, null);
+        }
+    }
+
+    public void dispose() {
+        if (rasterGraphics != null) {
+            rasterGraphics.dispose();
+            rasterGraphics = null;
+        }
+        raster = null;
+        pixels = null;
+    }
+}
@@ -1,39 +1,75 @@
 package ca.jewsbury.gravity.render.panel;
 
 import ca.jewsbury.gravity.model.VisibleSpaceObject;
-import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
-import ca.jewsbury.gravity.util.RenderUtils;
+import ca.jewsbury.gravity.render.RenderFrame;
+import ca.jewsbury.gravity.spacetime.snapshot.Snapshot;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotPair;
+import ca.jewsbury.gravity.spacetime.snapshot.SnapshotSource;
+import ca.jewsbury.gravity.util.Camera;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Stroke;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import javax.swing.JPanel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * UniversePanel.class
+ *
+ * Draws whatever its snapshot source last published, blended between the
+ * last two snapshots so the display moves smoothly whatever rate the physics
+ * runs at. Never reads the live bodies. At or above the density threshold
+ * the bodies are splatted into a density raster instead of drawn one by
+ * one.
  *
  * @author Nathan
  */
 public class UniversePanel extends JPanel implements RenderResizable {
 
+    public static final int DEFAULT_DENSITY_THRESHOLD = 2000;
+    private static final double SUB_PIXEL_RADIUS = 0.5;
+
     private final Logger logger = LoggerFactory.getLogger(UniversePanel.class);
     private final Dimension minimumDimension;
 
-    private double horizontalOrigin;
-    private double verticalOrigin;
-    private boolean traceOrbits;
+    private volatile double horizontalOrigin;
+    private volatile double verticalOrigin;
+    private volatile double scale;
+    private volatile boolean traceOrbits;
 
-    private final List<VisibleSpaceObject> objectList;
+    private VisibleSpaceObject[] visibleByIndex;
+    private volatile SnapshotSource snapshotSource;
+    private double[] drawX, drawY;
+    private double[] screenX, screenY;
+    private boolean[] onScreen;
+    private final TrailLayer trailLayer;
+    private final float[] traceScratch;
+    private double trailScale;
+    private volatile boolean trailsValid;
+    private final DensityLayer densityLayer;
+    private int densityThreshold;
+    private final FrameStats frameStats;
+    private boolean showFrameStats;
 
-    @SuppressWarnings("Convert2Diamond")
     public UniversePanel(Dimension dimension) {
         this.minimumDimension = dimension;
-        this.objectList = new ArrayList<VisibleSpaceObject>();
+        this.visibleByIndex = new VisibleSpaceObject[16];
+        this.drawX = new double[16];
+        this.drawY = new double[16];
+        this.screenX = new double[16];
+        this.screenY = new double[16];
+        this.onScreen = new boolean[16];
+        this.scale = 1.0;
+        this.trailLayer = new TrailLayer();
+        this.traceScratch = new float[TrailLayer.LIFETIME * 2];
+        this.densityLayer = new DensityLayer();
+        this.densityThreshold = DEFAULT_DENSITY_THRESHOLD;
+        this.frameStats = new FrameStats();
+        this.showFrameStats = true;
         //
         setOpaque(false);
         this.setPreferredSize(minimumDimension);
@@ -45,13 +81,65 @@ public class UniversePanel extends JPanel implements RenderResizable {
     }
 
     public void insertVisibleObject(VisibleSpaceObject spaceObject) {
-        if (spaceObject != null) {
-            this.objectList.add(spaceObject);
+        int index;
+        if (spaceObject != null && spaceObject.getBodyIndex() >= 0) {
+            index = spaceObject.getBodyIndex();
+            if (index >= visibleByIndex.length) {
+                visibleByIndex = Arrays.copyOf(visibleByIndex, Math.max(index + 1, visibleByIndex.length * 2));
+            }
+            visibleByIndex[index] = spaceObject;
         }
     }
 
+    /**
+     * @param threshold - body count from which the density raster is drawn
+     * instead of individual bodies; 0 never switches.
+     */
+    public void setDensityThreshold(int threshold) {
+        this.densityThreshold = threshold;
+    }
+
+    public void setLogDensity(boolean logDensity) {
+        this.densityLayer.setLogDensity(logDensity);
+    }
+
+    public void setShowFrameStats(boolean show) {
+        this.showFrameStats = show;
+    }
+
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * @param scale - pixels per simulation unit.
+     */
+    public void setScale(double scale) {
+        if (scale != this.scale) {
+            this.scale = scale;
+            invalidateTrails();
+        }
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public void setSnapshotSource(SnapshotSource source) {
+        this.snapshotSource = source;
+    }
+
     public void setTraceOrbits(boolean trace) {
         traceOrbits = trace;
+        invalidateTrails();
+    }
+
+    /**
+     * The mapping from simulation to panel coordinates changed (zoom, pan);
+     * the trail raster is redrawn from history on the next frame.
+     */
+    public void invalidateTrails() {
+        trailsValid = false;
     }
 
     /**
@@ -67,7 +155,7 @@ public class UniversePanel extends JPanel implements RenderResizable {
         horizontalOrigin = (this.getWidth() + 1) / 2.0;
         verticalOrigin = (this.getHeight() + 1) / 2.0;
 
-        RenderUtils.setOrigin(horizontalOrigin, verticalOrigin);
+        invalidateTrails();
     }
 
     @Override
@@ -75,22 +163,153 @@ public class UniversePanel extends JPanel implements RenderResizable {
         super.paintComponent(g);
 
         Graphics2D gfx = (Graphics2D) g.create();
+        paintFrame(gfx);
+        gfx.dispose();
+    }
+
+    /**
+     * Draws one frame of the view onto gfx, sized as this panel. Called by
+     * paintComponent, or by an ActiveRenderer from its own thread while
+     * this panel is hidden; never both at once.
+     *
+     * @param gfx
+     */
+    public void paintFrame(Graphics2D gfx) {
         Stroke defaultStroke = gfx.getStroke();
-        int[] currentPosition, lastPosition;
+        SnapshotSource source = snapshotSource;
+        SnapshotPair snapshots = source != null ? source.getSnapshots() : null;
 
+        frameStats.beginFrame();
         drawAxis(gfx);
         gfx.setStroke(defaultStroke);
 
-        if (objectList != null && objectList.size() > 0) {
-            for (VisibleSpaceObject spaceObject : objectList) {
+        if (snapshots != null && snapshots.getCurrent().getCount() > 0) {
+            drawSnapshot(gfx, snapshots);
+        }
+        frameStats.endFrame();
+        if (showFrameStats && snapshots != null) {
+            gfx.setColor(Color.lightGray);
+            gfx.setFont(RenderFrame.DISPLAY_FONT);
+            gfx.drawString(frameStats.getSummary(), 5, getHeight() - 5);
+        }
+    }
+
+    /**
+     * @return where this view reads its snapshots from, or null.
+     */
+    public SnapshotSource getSnapshotSource() {
+        return snapshotSource;
+    }
+
+    private void drawSnapshot(Graphics2D gfx, SnapshotPair snapshots) {
+        Snapshot current = snapshots.getCurrent();
+        Snapshot previous = snapshots.getPrevious();
+        int count = current.getCount();
+        double alpha = snapshots.getAlpha(System.nanoTime());
+        double offsetX, offsetY;
+        Camera camera;
+
+        if (drawX.length < count) {
+            drawX = new double[count];
+            drawY = new double[count];
+            screenX = new double[count];
+            screenY = new double[count];
+            onScreen = new boolean[count];
+        }
+        snapshots.interpolate(alpha, drawX, drawY, null);
 
+        if (current.getReferenceSlot() >= 0) {
+            offsetX = drawX[current.getReferenceSlot()];
+            offsetY = drawY[current.getReferenceSlot()];
+        } else {
+            offsetX = previous.getComX() + (current.getComX() - previous.getComX()) * alpha;
+            offsetY = previous.getComY() + (current.getComY() - previous.getComY()) * alpha;
+        }
+        camera = new Camera(horizontalOrigin, verticalOrigin, scale, offsetX, offsetY);
+        camera.transform(drawX, drawY, count, screenX, screenY);
+
+        if (densityThreshold > 0 && count >= densityThreshold) {
+            drawDensity(gfx, count);
+        } else {
+            drawBodies(gfx, current, camera);
+        }
+    }
+
+    private void drawDensity(Graphics2D gfx, int count) {
+        densityLayer.render(screenX, screenY, count, getWidth(), getHeight());
+        densityLayer.paint(gfx);
+        frameStats.addBodies(count);
+        frameStats.addSplatted(densityLayer.getBinnedCount());
+        frameStats.addCulled(count - densityLayer.getBinnedCount());
+    }
+
+    /**
+     * Draws the bodies one by one. Bodies wholly outside the panel are
+     * skipped (their trace is still extended); bodies smaller than a pixel
+     * are set as a single pixel instead of a stroked circle.
+     */
+    private void drawBodies(Graphics2D gfx, Snapshot current, Camera camera) {
+        int count = current.getCount();
+        int[] index = current.getIndex();
+        double[] radius = current.getRadius();
+        int width = getWidth(), height = getHeight();
+        double screenRadius;
+        VisibleSpaceObject visible;
+
+        frameStats.addBodies(count);
+        if (traceOrbits) {
+            prepareTrails(camera);
+        }
+        for (int i = 0; i < count; i++) {
+            visible = index[i] < visibleByIndex.length ? visibleByIndex[index[i]] : null;
+            onScreen[i] = false;
+            if (visible != null) {
+                screenRadius = camera.toScreenLength(radius[i]);
+                visible.setDisplayPosition(screenX[i], screenY[i], screenRadius);
                 if (traceOrbits) {
-                    spaceObject.traceLastPositions(gfx);
+                    visible.recordPosition(drawX[i] - camera.getOffsetX(), drawY[i] - camera.getOffsetY());
+                    trailLayer.extend(index[i], screenX[i], screenY[i], visible.getTraceColour());
+                }
+                onScreen[i] = !(screenX[i] + screenRadius < 0 || screenX[i] - screenRadius > width
+                        || screenY[i] + screenRadius < 0 || screenY[i] - screenRadius > height);
+                if (!onScreen[i]) {
+                    frameStats.addCulled();
                 }
-                spaceObject.paint(gfx);
             }
         }
-        gfx.dispose();
+        if (traceOrbits) {
+            trailLayer.paint(gfx);
+        }
+        for (int i = 0; i < count; i++) {
+            if (onScreen[i]) {
+                visible = visibleByIndex[index[i]];
+                if (camera.toScreenLength(radius[i]) < SUB_PIXEL_RADIUS) {
+                    visible.paintPoint(gfx);
+                    frameStats.addPoint();
+                } else {
+                    visible.paint(gfx);
+                    frameStats.addDrawn();
+                }
+            }
+        }
+    }
+
+    /**
+     * Fades the trail raster one frame, or rebuilds it from each body's
+     * history if the size or scale changed since it was drawn.
+     */
+    private void prepareTrails(Camera camera) {
+        if (trailLayer.ensureSize(getWidth(), getHeight()) || !trailsValid || camera.getScale() != trailScale) {
+            trailLayer.clear();
+            for (VisibleSpaceObject visible : visibleByIndex) {
+                if (visible != null) {
+                    visible.rebuildTrace(trailLayer, traceScratch, camera);
+                }
+            }
+            trailScale = camera.getScale();
+            trailsValid = true;
+        }
+        trailLayer.beginFrame();
     }
 
     private void drawAxis(Graphics2D gfx) {
@@ -102,8 +321,9 @@ public class UniversePanel extends JPanel implements RenderResizable {
 
     public void refreshPanel() {
         this.removeAll();
-        this.objectList.clear();
+        Arrays.fill(this.visibleByIndex, null);
+        this.snapshotSource = null;
+        this.trailLayer.clear();
         this.repaint();
-        RenderUtils.setCenterOfMass(new SpaceTimeVector());
     }
 }
@@ -0,0 +1,100 @@
+package ca.jewsbury.gravity.util;
+
+/**
+ * Camera.class
+ *
+ * Immutable simulation-to-panel transform for one view and one frame: the
+ * panel point the view is centred on (origin), pixels per simulation unit
+ * (scale), and the simulation point drawn at the origin (the reference
+ * body or the centre of mass). Built once per frame by the panel that owns
+ * the view, so nothing another thread writes can change it half way
+ * through a frame.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public final class Camera {
+
+    private final double originX, originY;
+    private final double scale;
+    private final double offsetX, offsetY;
+
+    public Camera(double originX, double originY, double scale, double offsetX, double offsetY) {
+        this.originX = originX;
+        this.originY = originY;
+        this.scale = scale;
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    public double toScreenX(double x) {
+        return (x - offsetX) * scale + originX;
+    }
+
+    public double toScreenY(double y) {
+        return (y - offsetY) * scale + originY;
+    }
+
+    /**
+     * @param relativeX - simulation units from the point at the origin.
+     * @return panel x coordinate
+     */
+    public double relativeToScreenX(double relativeX) {
+        return relativeX * scale + originX;
+    }
+
+    /**
+     * @param relativeY - simulation units from the point at the origin.
+     * @return panel y coordinate
+     */
+    public double relativeToScreenY(double relativeY) {
+        return relativeY * scale + originY;
+    }
+
+    public double toScreenLength(double length) {
+        return length * scale;
+    }
+
+    /**
+     * Transforms count simulation coordinates into panel coordinates. The
+     * output arrays may be the input arrays.
+     *
+     * @param x
+     * @param y
+     * @param count
+     * @param screenX - at least count long.
+     * @param screenY - at least count long.
+     */
+    public void transform(double[] x, double[] y, int count, double[] screenX, double[] screenY) {
+        double shiftX = originX - offsetX * scale;
+        double shiftY = originY - offsetY * scale;
+
+        for (int i = 0; i < count; i++) {
+            screenX[i] = x[i] * scale + shiftX;
+        }
+        for (int i = 0; i < count; i++) {
+            screenY[i] = y[i] * scale + shiftY;
+        }
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public double getOffsetX() {
+        return offsetX;
+    }
+
+    public double getOffsetY() {
+        return offsetY;
+    }
+}
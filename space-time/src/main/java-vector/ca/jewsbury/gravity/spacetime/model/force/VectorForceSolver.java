@@ -0,0 +1,81 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorForceSolver.class
+ *
+ * TiledDirectSolver with the inner source loop spread over DoubleVector
+ * lanes. Each pass loads SPECIES.length() sources at once, masks the lanes
+ * at zero distance and keeps per lane partial sums that are reduced once per
+ * tile. The sources past the last full vector go through the scalar kernel.
+ *
+ * Lives in src/main/java-vector and is only compiled on JDK 17+ with the
+ * jdk.incubator.vector module; never reference it directly, go through
+ * ForceSolverFactory so JVMs without the module fall back to the scalar
+ * kernel.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class VectorForceSolver extends TiledDirectSolver {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    public VectorForceSolver() {
+        super();
+    }
+
+    /**
+     * @return number of doubles per vector on this machine.
+     */
+    public int getLaneCount() {
+        return SPECIES.length();
+    }
+
+    @Override
+    protected void accumulateTile(ParticleStore store, int i, int jFrom, int jTo) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        int upper = jFrom + SPECIES.loopBound(jTo - jFrom);
+        DoubleVector xi = DoubleVector.broadcast(SPECIES, x[i]);
+        DoubleVector yi = DoubleVector.broadcast(SPECIES, y[i]);
+        DoubleVector zi = DoubleVector.broadcast(SPECIES, z[i]);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector sumX = zero, sumY = zero, sumZ = zero, sumPotential = zero;
+        DoubleVector dx, dy, dz, distSquared, inverse, massJ, factor;
+        VectorMask<Double> separated;
+
+        for (int j = jFrom; j < upper; j += SPECIES.length()) {
+            dx = DoubleVector.fromArray(SPECIES, x, j).sub(xi);
+            dy = DoubleVector.fromArray(SPECIES, y, j).sub(yi);
+            dz = DoubleVector.fromArray(SPECIES, z, j).sub(zi);
+            distSquared = dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz));
+            separated = distSquared.compare(VectorOperators.GT, 0.0);
+            inverse = zero.blend(one.div(distSquared.sqrt()), separated);
+
+            massJ = DoubleVector.fromArray(SPECIES, mass, j);
+            factor = massJ.mul(inverse).mul(inverse).mul(inverse);
+            sumX = sumX.add(dx.mul(factor));
+            sumY = sumY.add(dy.mul(factor));
+            sumZ = sumZ.add(dz.mul(factor));
+            sumPotential = sumPotential.sub(massJ.mul(inverse));
+        }
+        accX[i] += sumX.reduceLanes(VectorOperators.ADD);
+        accY[i] += sumY.reduceLanes(VectorOperators.ADD);
+        accZ[i] += sumZ.reduceLanes(VectorOperators.ADD);
+        potential[i] += sumPotential.reduceLanes(VectorOperators.ADD);
+
+        if (upper < jTo) {
+            super.accumulateTile(store, i, upper, jTo);
+        }
+    }
+}
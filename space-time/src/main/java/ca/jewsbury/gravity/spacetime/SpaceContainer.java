@@ -1,11 +1,19 @@
 package ca.jewsbury.gravity.spacetime;
 
+import ca.jewsbury.gravity.spacetime.model.DynamicObject;
+import ca.jewsbury.gravity.spacetime.model.MassiveObject;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
 import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.force.DirectSumSolver;
+import ca.jewsbury.gravity.spacetime.model.force.ForceSolver;
 import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import ca.jewsbury.gravity.spacetime.util.MinMaxPyramid;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import org.apache.commons.collections.buffer.CircularFifoBuffer;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,7 +21,9 @@ import org.slf4j.LoggerFactory;
 /**
  * SpaceContainer.class
  *
- *
+ * Holds every body of a simulation. The state of each body lives in a slot of
+ * the ParticleStore; the Orbital objects handed out are views over those
+ * slots.
  *
  * 3-Feb-2015
  *
@@ -24,8 +34,20 @@ public class SpaceContainer {
     private final Logger logger = LoggerFactory.getLogger(SpaceContainer.class);
 
     private final Map<String, Orbital> objectMap;
-    private final CircularFifoBuffer totalEnergyBuffer;
+    private final ArrayList<Orbital> slotObjects; // slot -> orbital
+    private final ParticleStore particleStore;
+    private final MinMaxPyramid energyErrorHistory;
+    private final double[] queryBuffer;
+    private ForceSolver forceSolver;
+    private long preparedVersion;
     private double totalMass;
+    private int nextBodyIndex;
+    private long stepCount;
+    private double simulationTime;
+    private int diagnosticsInterval;
+    private StepDiagnostics lastDiagnostics;
+    private double initialEnergy;
+    private volatile StepListener[] stepListeners;
 
     public static enum energy {
 
@@ -36,8 +58,20 @@ public class SpaceContainer {
      */
     public SpaceContainer() {
         objectMap = new HashMap< String, Orbital>();
-        totalEnergyBuffer = new CircularFifoBuffer(200);
+        slotObjects = new ArrayList<Orbital>();
+        particleStore = new ParticleStore();
+        energyErrorHistory = new MinMaxPyramid();
+        queryBuffer = new double[3];
+        forceSolver = new DirectSumSolver();
+        preparedVersion = -1;
         totalMass = 0.0;
+        nextBodyIndex = 0;
+        stepCount = 0;
+        simulationTime = 0.0;
+        diagnosticsInterval = 1;
+        lastDiagnostics = null;
+        initialEnergy = Double.NaN;
+        stepListeners = new StepListener[0];
     }
 
     /*
@@ -47,6 +81,42 @@ public class SpaceContainer {
         return objectMap;
     }
 
+    public ParticleStore getParticleStore() {
+        return particleStore;
+    }
+
+    public ForceSolver getForceSolver() {
+        return forceSolver;
+    }
+
+    /**
+     * Selects the solver used by every force and potential query of this
+     * container. Defaults to the DirectSumSolver, whose queries can run on
+     * several threads. Serial callers can opt in to the PairwiseForceSolver,
+     * which halves the work but does all of it in prepareForces().
+     *
+     * @param solver
+     */
+    public void setForceSolver(ForceSolver solver) {
+        if (solver != null) {
+            this.forceSolver = solver;
+            this.preparedVersion = -1;
+            this.particleStore.setAccelerationsValid(false);
+        }
+    }
+
+    /**
+     * Lets the force solver rebuild its structures if the bodies moved since
+     * it was last prepared. Every query below calls this first, so one tree
+     * build serves every query of a step.
+     */
+    public void prepareForces() {
+        if (preparedVersion != particleStore.getVersion()) {
+            forceSolver.prepare(particleStore);
+            preparedVersion = particleStore.getVersion();
+        }
+    }
+
     public Orbital getSpaceObject(String name) {
         return objectMap.get(name);
     }
@@ -54,49 +124,134 @@ public class SpaceContainer {
     public boolean containsObject(String name) {
         return objectMap.containsKey(name);
     }
-    
+
     public double getTotalMass() {
         return totalMass;
     }
 
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public int getDiagnosticsInterval() {
+        return diagnosticsInterval;
+    }
+
+    /**
+     * Take a StepDiagnostics record every 'interval' steps; 0 turns them off.
+     * Static bodies only get their potential refreshed on those steps.
+     *
+     * @param interval
+     */
+    public void setDiagnosticsInterval(int interval) {
+        this.diagnosticsInterval = Math.max(0, interval);
+    }
+
+    /**
+     * @return the record of the last sampled step, or null if none yet.
+     */
+    public StepDiagnostics getLastDiagnostics() {
+        return lastDiagnostics;
+    }
+
+    /**
+     * @return TRUE if the step in progress will take a diagnostics record, so
+     * its force pass must leave every potential current.
+     */
+    public boolean isDiagnosticsDue() {
+        return diagnosticsInterval > 0 && ((stepCount + 1) % diagnosticsInterval) == 0;
+    }
+
+    /**
+     * Called by an integrator once a step of length timeDelta is finished.
+     * Advances the step counter and simulation time, and takes a diagnostics
+     * record if one is due, then tells the step listeners.
+     *
+     * @param timeDelta
+     * @return the new record, or null if this step was not sampled.
+     */
+    public StepDiagnostics completeStep(double timeDelta) {
+        StepDiagnostics diagnostics = null;
+        boolean due = isDiagnosticsDue();
+
+        stepCount++;
+        simulationTime += timeDelta;
+        if (due) {
+            diagnostics = computeDiagnostics();
+            lastDiagnostics = diagnostics;
+            if (Double.isNaN(initialEnergy)) {
+                initialEnergy = diagnostics.getTotalEnergy();
+            }
+            energyErrorHistory.add(relativeEnergyError(diagnostics.getTotalEnergy()));
+        }
+        for (StepListener listener : stepListeners) {
+            listener.stepCompleted(this, diagnostics);
+        }
+        return diagnostics;
+    }
+
+    /**
+     * @param listener - told at the end of every step, on the stepping
+     * thread.
+     */
+    public void addStepListener(StepListener listener) {
+        StepListener[] listeners = Arrays.copyOf(stepListeners, stepListeners.length + 1);
+
+        listeners[stepListeners.length] = listener;
+        stepListeners = listeners;
+    }
+
+    public void removeStepListener(StepListener listener) {
+        List<StepListener> listeners = new ArrayList<StepListener>(Arrays.asList(stepListeners));
+
+        listeners.remove(listener);
+        stepListeners = listeners.toArray(new StepListener[listeners.size()]);
+    }
+
+    /**
+     * @return every contained orbital in slot order, or null if empty.
+     */
     public Orbital[] getOrbitalArray() {
         Orbital[] orbitalArray = null;
-        if (objectMap != null && !objectMap.isEmpty()) {
-            orbitalArray = new Orbital[objectMap.size()];
-            objectMap.values().toArray(orbitalArray);
+        if (!slotObjects.isEmpty()) {
+            orbitalArray = new Orbital[slotObjects.size()];
+            slotObjects.toArray(orbitalArray);
         }
         return orbitalArray;
     }
 
     public int getOrbitalCount() {
-        int totalObjects = 0;
-        if (objectMap != null) {
-            totalObjects = objectMap.size();
-        }
-        return totalObjects;
+        return particleStore.size();
     }
-    
+
     public SpaceTimeVector getCenterOfMass() {
-        Orbital[] arr = getOrbitalArray();
+        double[] x = particleStore.getX();
+        double[] y = particleStore.getY();
+        double[] mass = particleStore.getMass();
+        int count = particleStore.size();
         double xCom, yCom;
-        
+
         xCom = 0.0;
         yCom = 0.0;
-        if( arr != null ) {
-            for( Orbital orbital : arr ) {
-                xCom += (orbital.getPosition().getxCoord() * orbital.getMass());
-                yCom += (orbital.getPosition().getyCoord() * orbital.getMass());
-            }
-            if( totalMass > 0 ) {
-                xCom = (xCom / totalMass );
-                yCom = (yCom / totalMass );
-            }
+        for (int i = 0; i < count; i++) {
+            xCom += (x[i] * mass[i]);
+            yCom += (y[i] * mass[i]);
+        }
+        if (totalMass > 0) {
+            xCom = (xCom / totalMass);
+            yCom = (yCom / totalMass);
         }
-        return new SpaceTimeVector( xCom, yCom, 0.0 );
+        return new SpaceTimeVector(xCom, yCom, 0.0);
     }
 
     /**
-     * Inserts a unique space object into the map of space objects.
+     * Inserts a unique space object into the map of space objects. The state
+     * of the object is copied into the particle store and the object becomes a
+     * view over its new slot.
      *
      * @param spaceObject
      * @return TRUE if insert operation worked. FALSE if non-unique.
@@ -108,6 +263,9 @@ public class SpaceContainer {
             idName = spaceObject.getIdName();
             if (StringUtils.isNotBlank(idName)) {
                 if (!objectMap.containsKey(idName)) {
+                    spaceObject.attachToStore(particleStore, nextBodyIndex);
+                    nextBodyIndex++;
+                    slotObjects.add(spaceObject);
                     objectMap.put(idName, spaceObject);
                     totalMass += spaceObject.getMass();
                     insert = true;
@@ -117,59 +275,252 @@ public class SpaceContainer {
         return insert;
     }
 
+    /**
+     * Makes room for 'additional' more bodies, so that a bulk insert doesn't
+     * grow the particle store over and over.
+     *
+     * @param additional
+     */
+    public void ensureCapacity(int additional) {
+        particleStore.ensureCapacity(particleStore.size() + additional);
+        slotObjects.ensureCapacity(slotObjects.size() + additional);
+    }
+
+    /**
+     * Inserts a body straight into the particle store. Same result as
+     * insertOrbital with a new DynamicObject or MassiveObject, but the
+     * orbital is built as a view over its slot, so no private store is made
+     * and copied for every body.
+     *
+     * @param idName
+     * @param isStatic
+     * @param isReference
+     * @param x
+     * @param y
+     * @param z
+     * @param vx
+     * @param vy
+     * @param vz
+     * @param mass
+     * @param radius
+     * @return TRUE if inserted. FALSE if the name is blank or non-unique.
+     */
+    public boolean insertBody(String idName, boolean isStatic, boolean isReference,
+            double x, double y, double z, double vx, double vy, double vz, double mass, double radius) {
+        boolean insert = false;
+        Orbital orbital;
+        int slot, bodyFlags;
+
+        if (StringUtils.isNotBlank(idName) && !objectMap.containsKey(idName)) {
+            bodyFlags = (isStatic ? ParticleStore.FLAG_STATIC : 0) | (isReference ? ParticleStore.FLAG_REFERENCE : 0);
+            slot = particleStore.add(nextBodyIndex, mass, radius, bodyFlags);
+            particleStore.setPosition(slot, x, y, z);
+            particleStore.setVelocity(slot, vx, vy, vz);
+            if (isStatic) {
+                orbital = new MassiveObject(idName, particleStore, slot);
+            } else {
+                orbital = new DynamicObject(idName, particleStore, slot);
+            }
+            nextBodyIndex++;
+            slotObjects.add(orbital);
+            objectMap.put(idName, orbital);
+            totalMass += mass;
+            insert = true;
+        }
+        return insert;
+    }
+
+    /**
+     * Removes a contained orbital. The orbital keeps its last state in a
+     * private store of its own.
+     *
+     * @param spaceObject
+     * @return TRUE if the object was contained and removed.
+     */
+    public boolean removeOrbital(Orbital spaceObject) {
+        boolean removed = false;
+        Orbital moved;
+        int slot, movedFrom;
+
+        if (spaceObject != null && this.containsObject(spaceObject.getIdName())) {
+            slot = spaceObject.getStoreSlot();
+            totalMass -= spaceObject.getMass();
+            spaceObject.detachFromStore();
+            objectMap.remove(spaceObject.getIdName());
+
+            movedFrom = particleStore.remove(slot);
+            if (movedFrom >= 0) {
+                moved = slotObjects.remove(movedFrom);
+                slotObjects.set(slot, moved);
+                moved.moveToSlot(slot);
+            } else {
+                slotObjects.remove(slot);
+            }
+            removed = true;
+        }
+        return removed;
+    }
+
     /**
      * Take the total sum of the KINETIC ENERGY and POTENTIAL ENERGY of all
-     * space objects.
+     * space objects, from the potentials of the last force pass.
      *
      * @return double[] { KINETIC ENERGY, POTENTIAL ENERGY }
      */
     public double[] getTotalEnergy() {
         double[] energies = null;
-        Orbital[] arr = getOrbitalArray();
+        StepDiagnostics diagnostics;
 
-        if (arr != null) {
+        if (particleStore.size() > 0) {
+            diagnostics = computeDiagnostics();
             energies = new double[2];
-            for (Orbital orbital : arr) {
-                energies[energy.KINETIC.ordinal()] += orbital.getKineticEnergy();
-                energies[energy.POTENTIAL.ordinal()] += orbital.getPotentialEnergy();
-            }
-            totalEnergyBuffer.add(energies[0] + energies[1]);
+            energies[energy.KINETIC.ordinal()] = diagnostics.getKineticEnergy();
+            energies[energy.POTENTIAL.ordinal()] = diagnostics.getPotentialEnergy();
         }
         return energies;
     }
-    
-    public CircularFifoBuffer getTotalEnergyBuffer() {
-        return totalEnergyBuffer;
+
+    /**
+     * One O(N) sweep over the store: kinetic energy and momentum of the non
+     * static bodies, centre of mass of all of them, and half the sum of the
+     * stored per body potentials, since each pair shows up in both.
+     *
+     * @return StepDiagnostics for the current step
+     */
+    public StepDiagnostics computeDiagnostics() {
+        double[] x = particleStore.getX();
+        double[] y = particleStore.getY();
+        double[] z = particleStore.getZ();
+        double[] vx = particleStore.getVx();
+        double[] vy = particleStore.getVy();
+        double[] vz = particleStore.getVz();
+        double[] mass = particleStore.getMass();
+        double[] potential = particleStore.getPotential();
+        int count = particleStore.size();
+        double kinetic, pairPotential, massSum, m;
+        double comX, comY, comZ, px, py, pz;
+
+        kinetic = pairPotential = massSum = 0.0;
+        comX = comY = comZ = px = py = pz = 0.0;
+        for (int i = 0; i < count; i++) {
+            m = mass[i];
+            massSum += m;
+            comX += m * x[i];
+            comY += m * y[i];
+            comZ += m * z[i];
+            pairPotential += potential[i];
+            if (!particleStore.isStatic(i)) {
+                kinetic += 0.5 * m * (vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i]);
+                px += m * vx[i];
+                py += m * vy[i];
+                pz += m * vz[i];
+            }
+        }
+        if (massSum > 0) {
+            comX /= massSum;
+            comY /= massSum;
+            comZ /= massSum;
+        }
+        return new StepDiagnostics(stepCount, simulationTime, kinetic, 0.5 * pairPotential, massSum,
+                comX, comY, comZ, px, py, pz);
+    }
+
+    /**
+     * @return |dE/E0| of every sampled step, E0 being the first sample's
+     * total energy. Written by the thread stepping the container; safe to
+     * read from any other.
+     */
+    public MinMaxPyramid getEnergyErrorHistory() {
+        return energyErrorHistory;
+    }
+
+    /**
+     * @return the total energy |dE/E0| is measured against; NaN until the
+     * first sample.
+     */
+    public double getInitialEnergy() {
+        return initialEnergy;
+    }
+
+    public int getNextBodyIndex() {
+        return nextBodyIndex;
     }
 
+    /**
+     * Puts back the clock and counters of a saved run, after its bodies were
+     * inserted; used when restarting from a checkpoint.
+     *
+     * @param stepCount
+     * @param simulationTime
+     * @param initialEnergy - NaN to take it from the next sample.
+     * @param nextBodyIndex - body number the next insert gets.
+     */
+    public void restoreState(long stepCount, double simulationTime, double initialEnergy, int nextBodyIndex) {
+        this.stepCount = stepCount;
+        this.simulationTime = simulationTime;
+        this.initialEnergy = initialEnergy;
+        this.nextBodyIndex = Math.max(this.nextBodyIndex, nextBodyIndex);
+    }
+
+    /**
+     * @param totalEnergy
+     * @return |(E - E0) / E0|, or |E - E0| when E0 is 0.
+     */
+    private double relativeEnergyError(double totalEnergy) {
+        double error = Math.abs(totalEnergy - initialEnergy);
+
+        if (initialEnergy != 0.0) {
+            error /= Math.abs(initialEnergy);
+        }
+        return error;
+    }
+
+    /**
+     * Re-evaluates the potential of every body, static ones included. Only
+     * needed when the bodies changed outside of a step; integrators get the
+     * potentials from their force pass.
+     */
     public void refreshEnergyValues() {
-        Orbital[] arr = getOrbitalArray();
-        double potential;
-
-        if (arr != null) {
-            for (Orbital orbital : arr) {
-                if (!orbital.isStatic()) {
-                    potential = getPotentialEnergy(orbital);
-                    orbital.setPotentialEnergy(potential);
-                }
-            }
+        prepareForces();
+        refreshEnergyRange(0, particleStore.size());
+    }
+
+    /**
+     * Refreshes the potential energy of the slots [from, to). The force solver
+     * must already be prepared; safe to call from several threads on disjoint
+     * ranges.
+     *
+     * @param from
+     * @param to
+     */
+    public void refreshEnergyRange(int from, int to) {
+        double[] potential = particleStore.getPotential();
+
+        for (int i = from; i < to; i++) {
+            potential[i] = forceSolver.potentialAt(particleStore, i);
         }
     }
 
     public double getPotentialEnergy(Orbital active) {
         double potential = 0.0;
-        Orbital[] arr = getOrbitalArray();
-
-        if (arr != null) {
-            for (Orbital orbital : arr) {
-                if (!active.equals(orbital)) {
-                    potential += getPotentialBetweenObjects(orbital, active);
-                }
-            }
+        if (active != null && active.getStore() == particleStore) {
+            potential = getPotentialEnergy(active.getStoreSlot());
         }
         return potential;
     }
 
+    /**
+     * Potential energy between the body in 'slot' and every other contained
+     * body, as answered by the force solver.
+     *
+     * @param slot
+     * @return double
+     */
+    public double getPotentialEnergy(int slot) {
+        prepareForces();
+        return forceSolver.potentialAt(particleStore, slot);
+    }
+
     public double getPotentialBetweenObjects(Orbital reference, Orbital active) {
         double potential = 0.0;
         double distance;
@@ -185,23 +536,106 @@ public class SpaceContainer {
     }
 
     public SpaceTimeVector getNetForce(Orbital active) {
-        SpaceTimeVector netForce, singleForce;
-        Orbital[] arr = getOrbitalArray();
-        double distance, potential;
-
-        netForce = new SpaceTimeVector();
-        if (arr != null && arr.length > 0) {
-            for (Orbital orbital : arr) {
-                if (!active.equals(orbital)) {
-                    potential = Math.abs(getPotentialBetweenObjects(orbital, active));
-                    distance = active.distanceToOther(orbital);
-                    singleForce = active.getUnitVectorFacingOther(orbital);
-                    singleForce.transform((potential / distance));
-                    netForce.translate(singleForce);
-                }
+        SpaceTimeVector netForce = new SpaceTimeVector();
+        getNetForce(active, netForce);
+        return netForce;
+    }
+
+    /**
+     * Net force on a contained orbital, written into result in place.
+     *
+     * @param active
+     * @param result - left untouched if active is not contained.
+     */
+    public void getNetForce(Orbital active, SpaceTimeVector result) {
+        double mass;
+
+        if (active != null && active.getStore() == particleStore) {
+            prepareForces();
+            forceSolver.accelerationAt(particleStore, active.getStoreSlot(), queryBuffer);
+            mass = active.getMass();
+            result.set(queryBuffer[0] * mass, queryBuffer[1] * mass, queryBuffer[2] * mass);
+        }
+    }
+
+    /**
+     * Evaluates the acceleration of every non static body and stores it in the
+     * acceleration arrays of the particle store. The potential of each body
+     * comes out of the same pass; static bodies are only visited when
+     * diagnostics are due.
+     */
+    public void computeAccelerations() {
+        prepareForces();
+        accelerateRange(0, particleStore.size(), queryBuffer);
+        particleStore.setAccelerationsValid(true);
+    }
+
+    /**
+     * Evaluates the accelerations and potentials of the slots [from, to). The
+     * caller must call prepareForces() first and mark the accelerations valid
+     * once every range is done. Safe to call from several threads on disjoint
+     * ranges.
+     *
+     * @param from
+     * @param to
+     */
+    public void computeAccelerationRange(int from, int to) {
+        accelerateRange(from, to, new double[3]);
+    }
+
+    /**
+     * Evaluates the accelerations and potentials of the first 'count' slots
+     * listed in 'slots' only, for integrators that update a subset of the
+     * bodies at a time. The other slots keep their last values.
+     *
+     * @param slots
+     * @param count
+     */
+    public void computeAccelerations(int[] slots, int count) {
+        double[] ax = particleStore.getAx();
+        double[] ay = particleStore.getAy();
+        double[] az = particleStore.getAz();
+        double[] potential = particleStore.getPotential();
+        int slot;
+
+        prepareForces();
+        for (int k = 0; k < count; k++) {
+            slot = slots[k];
+            potential[slot] = forceSolver.fieldAt(particleStore, slot, queryBuffer);
+            ax[slot] = queryBuffer[0];
+            ay[slot] = queryBuffer[1];
+            az[slot] = queryBuffer[2];
+        }
+    }
+
+    private void accelerateRange(int from, int to, double[] accel) {
+        double[] ax = particleStore.getAx();
+        double[] ay = particleStore.getAy();
+        double[] az = particleStore.getAz();
+        double[] potential = particleStore.getPotential();
+        boolean includeStatic = isDiagnosticsDue();
+
+        for (int i = from; i < to; i++) {
+            if (!particleStore.isStatic(i)) {
+                potential[i] = forceSolver.fieldAt(particleStore, i, accel);
+                ax[i] = accel[0];
+                ay[i] = accel[1];
+                az[i] = accel[2];
+            } else if (includeStatic) {
+                potential[i] = forceSolver.potentialAt(particleStore, i);
             }
         }
-        return netForce;
+    }
+
+    /**
+     * Evaluates and stores the acceleration of a single slot.
+     *
+     * @param slot
+     */
+    public void computeAcceleration(int slot) {
+        prepareForces();
+        forceSolver.accelerationAt(particleStore, slot, queryBuffer);
+        particleStore.setAcceleration(slot, queryBuffer[0], queryBuffer[1], queryBuffer[2]);
     }
 
     public boolean objectCollision(Orbital first, Orbital second) {
@@ -211,9 +645,9 @@ public class SpaceContainer {
             if (!first.equals(second)) {
                 if (this.containsObject(first.getIdName()) && this.containsObject(second.getIdName())) {
                     if (first.getMass() >= second.getMass()) {
-                        this.objectMap.remove(second.getIdName());
+                        removed = removeOrbital(second);
                     } else if (first.getMass() < second.getMass()) {
-                        this.objectMap.remove(first.getIdName());
+                        removed = removeOrbital(first);
                     }
                 }
             }
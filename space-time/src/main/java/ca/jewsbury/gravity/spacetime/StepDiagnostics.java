@@ -0,0 +1,106 @@
+package ca.jewsbury.gravity.spacetime;
+
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+
+/**
+ * StepDiagnostics.class
+ *
+ * Energy, centre of mass and momentum of a container at the end of one
+ * step. The potential comes out of the force pass of that step; the rest is
+ * a single O(N) sweep over the particle store, taken only on the steps the
+ * container's diagnostics interval asks for.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class StepDiagnostics {
+
+    private final long step;
+    private final double time;
+    private final double kineticEnergy;
+    private final double potentialEnergy;
+    private final double totalMass;
+    private final double comX, comY, comZ;
+    private final double momentumX, momentumY, momentumZ;
+
+    public StepDiagnostics(long step, double time, double kineticEnergy, double potentialEnergy, double totalMass,
+            double comX, double comY, double comZ, double momentumX, double momentumY, double momentumZ) {
+        this.step = step;
+        this.time = time;
+        this.kineticEnergy = kineticEnergy;
+        this.potentialEnergy = potentialEnergy;
+        this.totalMass = totalMass;
+        this.comX = comX;
+        this.comY = comY;
+        this.comZ = comZ;
+        this.momentumX = momentumX;
+        this.momentumY = momentumY;
+        this.momentumZ = momentumZ;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public double getKineticEnergy() {
+        return kineticEnergy;
+    }
+
+    /**
+     * @return potential energy of the system, each pair counted once.
+     */
+    public double getPotentialEnergy() {
+        return potentialEnergy;
+    }
+
+    public double getTotalEnergy() {
+        return kineticEnergy + potentialEnergy;
+    }
+
+    public double getTotalMass() {
+        return totalMass;
+    }
+
+    public SpaceTimeVector getCenterOfMass() {
+        return new SpaceTimeVector(comX, comY, comZ);
+    }
+
+    public SpaceTimeVector getMomentum() {
+        return new SpaceTimeVector(momentumX, momentumY, momentumZ);
+    }
+
+    public double getComX() {
+        return comX;
+    }
+
+    public double getComY() {
+        return comY;
+    }
+
+    public double getComZ() {
+        return comZ;
+    }
+
+    public double getMomentumX() {
+        return momentumX;
+    }
+
+    public double getMomentumY() {
+        return momentumY;
+    }
+
+    public double getMomentumZ() {
+        return momentumZ;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("step %d t=%.6g KE=%.10g PE=%.10g E=%.10g P=(%.6g, %.6g, %.6g)", step, time,
+                kineticEnergy, potentialEnergy, getTotalEnergy(), momentumX, momentumY, momentumZ);
+    }
+}
@@ -0,0 +1,22 @@
+package ca.jewsbury.gravity.spacetime;
+
+/**
+ * StepListener.class
+ *
+ * Told by a SpaceContainer at the end of every step any integrator takes,
+ * on the stepping thread, after the clock has advanced. Listeners must be
+ * quick: the next step waits for them.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public interface StepListener {
+
+    /**
+     * @param container - the stepped container; read only.
+     * @param diagnostics - the record taken this step, or null if the step
+     * was not sampled.
+     */
+    void stepCompleted(SpaceContainer container, StepDiagnostics diagnostics);
+}
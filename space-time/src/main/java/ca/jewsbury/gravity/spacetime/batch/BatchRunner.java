@@ -0,0 +1,369 @@
+package ca.jewsbury.gravity.spacetime.batch;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.generator.GeneratorFactory;
+import ca.jewsbury.gravity.spacetime.io.CheckpointFile;
+import ca.jewsbury.gravity.spacetime.io.ProgressListener;
+import ca.jewsbury.gravity.spacetime.io.SimulationLoader;
+import ca.jewsbury.gravity.spacetime.io.StateWriter;
+import ca.jewsbury.gravity.spacetime.io.TrajectoryRecorder;
+import ca.jewsbury.gravity.spacetime.model.force.ForceSolverFactory;
+import ca.jewsbury.gravity.spacetime.model.integration.Integrator;
+import ca.jewsbury.gravity.spacetime.model.integration.IntegratorFactory;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BatchRunner.class
+ *
+ * Headless entry point: loads one simulation from a simulation set file,
+ * generates one, or restarts one from a checkpoint, steps it as fast as it
+ * can for a number of steps or an amount of simulated time, and writes the
+ * diagnostics and the final state. No Swing, no frame rate.
+ *
+ * java -cp space-time.jar ca.jewsbury.gravity.spacetime.batch.BatchRunner
+ * (--file sims.json [--simulation id] | --generate plummer --bodies N
+ * [--seed 0] | --restart run.ckpt) [--integrator verlet] [--solver
+ * direct] [--dt 1.0] (--steps N | --time T) [--every 1] [--threads 0]
+ * [--diagnostics out.csv] [--state final.json] [--trajectory dir]
+ * [--trajectory-every 1] [--checkpoint run.ckpt] [--checkpoint-every 0]
+ *
+ * --steps and --time count from the start of the run, so a run restarted
+ * from its checkpoint with the same options stops at the same step as one
+ * that was never interrupted. On a restart the diagnostics are appended.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class BatchRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchRunner.class);
+
+    private File simulationFile;
+    private String simulationKey;
+    private String generatorName;
+    private int bodies;
+    private long seed;
+    private String integratorName;
+    private String solverName;
+    private double timeDelta;
+    private long steps;
+    private double duration;
+    private int diagnosticsInterval;
+    private int threads;
+    private File diagnosticsFile;
+    private File stateFile;
+    private File trajectoryDirectory;
+    private int trajectoryInterval;
+    private File checkpointFile;
+    private long checkpointInterval;
+    private File restartFile;
+
+    public BatchRunner() {
+        simulationKey = null;
+        bodies = -1;
+        seed = 0;
+        integratorName = IntegratorFactory.VERLET;
+        solverName = ForceSolverFactory.DIRECT;
+        timeDelta = 1.0;
+        steps = -1;
+        duration = -1.0;
+        diagnosticsInterval = 1;
+        threads = 0;
+        trajectoryInterval = 1;
+        checkpointInterval = 0;
+    }
+
+    public static void main(String[] args) {
+        BatchRunner runner = new BatchRunner();
+        StepDiagnostics last;
+
+        try {
+            runner.parseArguments(args);
+            last = runner.run();
+            System.out.println(last != null ? last.toString() : "No diagnostics recorded.");
+        } catch (SpaceTimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: (--file sims.json [--simulation id]"
+                    + "\n        | --generate plummer|cube|cold-collapse|disk|ring --bodies N [--seed 0]"
+                    + "\n        | --restart run.ckpt)"
+                    + "\n    [--integrator verlet|leapfrog|forest-ruth|yoshida6|block]"
+                    + "\n    [--solver direct|pairwise|tiled|vector|barnes-hut]"
+                    + "\n    [--dt 1.0] (--steps N | --time T) [--every 1] [--threads 0]"
+                    + "\n    [--diagnostics out.csv] [--state final.json]"
+                    + "\n    [--trajectory dir] [--trajectory-every 1]"
+                    + "\n    [--checkpoint run.ckpt] [--checkpoint-every 0]");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param args
+     * @throws SpaceTimeException on an unknown or incomplete option.
+     */
+    public void parseArguments(String[] args) throws SpaceTimeException {
+        String option, value;
+
+        for (int i = 0; i < args.length; i += 2) {
+            option = args[i];
+            if (i + 1 >= args.length) {
+                throw new SpaceTimeException("Missing value for " + option);
+            }
+            value = args[i + 1];
+
+            if ("--file".equals(option)) {
+                simulationFile = new File(value);
+            } else if ("--simulation".equals(option)) {
+                simulationKey = value;
+            } else if ("--generate".equals(option)) {
+                generatorName = value;
+            } else if ("--bodies".equals(option)) {
+                bodies = (int) parseDouble(option, value);
+            } else if ("--seed".equals(option)) {
+                seed = parseLong(option, value);
+            } else if ("--integrator".equals(option)) {
+                integratorName = value;
+            } else if ("--solver".equals(option)) {
+                solverName = value;
+            } else if ("--dt".equals(option)) {
+                timeDelta = parseDouble(option, value);
+            } else if ("--steps".equals(option)) {
+                steps = (long) parseDouble(option, value);
+            } else if ("--time".equals(option)) {
+                duration = parseDouble(option, value);
+            } else if ("--every".equals(option)) {
+                diagnosticsInterval = (int) parseDouble(option, value);
+            } else if ("--threads".equals(option)) {
+                threads = (int) parseDouble(option, value);
+            } else if ("--diagnostics".equals(option)) {
+                diagnosticsFile = new File(value);
+            } else if ("--state".equals(option)) {
+                stateFile = new File(value);
+            } else if ("--trajectory".equals(option)) {
+                trajectoryDirectory = new File(value);
+            } else if ("--trajectory-every".equals(option)) {
+                trajectoryInterval = (int) parseDouble(option, value);
+            } else if ("--checkpoint".equals(option)) {
+                checkpointFile = new File(value);
+            } else if ("--checkpoint-every".equals(option)) {
+                checkpointInterval = parseLong(option, value);
+            } else if ("--restart".equals(option)) {
+                restartFile = new File(value);
+            } else {
+                throw new SpaceTimeException("Unknown option " + option);
+            }
+        }
+        if ((simulationFile != null ? 1 : 0) + (generatorName != null ? 1 : 0) + (restartFile != null ? 1 : 0) != 1) {
+            throw new SpaceTimeException("One of --file, --generate or --restart is required.");
+        }
+        if (generatorName != null && bodies < 0) {
+            throw new SpaceTimeException("--bodies is required with --generate.");
+        }
+        if (steps < 0 && duration < 0) {
+            throw new SpaceTimeException("One of --steps or --time is required.");
+        }
+        if (timeDelta <= 0) {
+            throw new SpaceTimeException("--dt must be positive.");
+        }
+        // These solvers do all their work serially in prepare().
+        if (ForceSolverFactory.create(solverName).isEvaluatedInPrepare()) {
+            if (threads > 0) {
+                throw new SpaceTimeException("--solver " + solverName
+                        + " runs on one thread; use direct or barnes-hut with --threads.");
+            }
+            if (IntegratorFactory.BLOCK.equalsIgnoreCase(integratorName.trim())) {
+                throw new SpaceTimeException("--solver " + solverName
+                        + " evaluates every body per pass; use direct or barnes-hut with --integrator block.");
+            }
+        }
+    }
+
+    private double parseDouble(String option, String value) throws SpaceTimeException {
+        double parsed;
+        try {
+            parsed = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new SpaceTimeException("Bad value '" + value + "' for " + option);
+        }
+        return parsed;
+    }
+
+    private long parseLong(String option, String value) throws SpaceTimeException {
+        long parsed;
+        try {
+            parsed = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new SpaceTimeException("Bad value '" + value + "' for " + option);
+        }
+        return parsed;
+    }
+
+    /**
+     * @return the step the run ends on: --steps, or --time / --dt rounded to
+     * the nearest step.
+     */
+    public long getStepCount() {
+        long count = steps;
+        if (count < 0) {
+            count = Math.round(duration / timeDelta);
+        }
+        return count;
+    }
+
+    /**
+     * Loads the simulation and runs it to completion.
+     *
+     * @return the diagnostics of the final step
+     * @throws SpaceTimeException
+     */
+    public StepDiagnostics run() throws SpaceTimeException {
+        SpaceContainer container = new SpaceContainer();
+        String simulationId;
+        ForkJoinPool pool = null;
+        Integrator integrator;
+        Writer diagnostics = null;
+        TrajectoryRecorder trajectory = null;
+        CheckpointFile checkpoint = null;
+        StepDiagnostics sample, last = null;
+        long total, started, checkpointed = -1;
+
+        // Before loading: a new solver invalidates the accelerations, and a
+        // checkpoint restores them along with the integrator state.
+        container.setForceSolver(ForceSolverFactory.create(solverName));
+        container.setDiagnosticsInterval(diagnosticsInterval);
+        if (restartFile != null) {
+            checkpoint = CheckpointFile.load(restartFile, container);
+            simulationId = restartFile.getName();
+        } else if (generatorName != null) {
+            GeneratorFactory.create(generatorName, bodies, seed).populate(container);
+            simulationId = generatorName + "-" + bodies + "-" + seed;
+        } else {
+            simulationId = SimulationLoader.load(simulationFile, simulationKey, container, new ProgressListener() {
+                private long reported = 0;
+
+                @Override
+                public void progress(long done, long total) {
+                    if (total > 0 && done * 10 / total > reported) {
+                        reported = done * 10 / total;
+                        logger.info("Loading '" + simulationFile.getName() + "' :: " + (reported * 10) + "%");
+                    }
+                }
+            });
+        }
+        logger.info("Loaded " + container.getOrbitalCount() + " objects from '" + simulationId + "'");
+
+        if (threads > 0) {
+            pool = new ForkJoinPool(threads);
+        }
+        integrator = IntegratorFactory.create(integratorName, container, pool);
+        if (checkpoint != null && checkpoint.restoreIntegrator(integrator)) {
+            logger.info("Restored the " + integratorName + " integrator state.");
+        }
+        total = Math.max(0, getStepCount() - container.getStepCount());
+
+        try {
+            if (diagnosticsFile != null) {
+                if (checkpoint != null && diagnosticsFile.length() > 0) {
+                    diagnostics = openWriter(diagnosticsFile, true);
+                } else {
+                    diagnostics = openWriter(diagnosticsFile, false);
+                    StateWriter.writeDiagnosticsHeader(diagnostics);
+                }
+            }
+            if (trajectoryDirectory != null) {
+                trajectory = new TrajectoryRecorder(trajectoryDirectory, trajectoryInterval);
+                trajectory.start(container);
+            }
+            started = System.nanoTime();
+            for (long step = 0; step < total; step++) {
+                integrator.moveContainedObjects(timeDelta);
+                sample = container.getLastDiagnostics();
+                if (sample != null && sample.getStep() == container.getStepCount()) {
+                    last = sample;
+                    if (diagnostics != null) {
+                        StateWriter.writeDiagnostics(diagnostics, sample);
+                    }
+                }
+                if (checkpointFile != null && checkpointInterval > 0
+                        && container.getStepCount() % checkpointInterval == 0) {
+                    if (diagnostics != null) {
+                        diagnostics.flush();
+                    }
+                    CheckpointFile.save(checkpointFile, container, integrator);
+                    checkpointed = container.getStepCount();
+                }
+            }
+            logger.info(total + " steps of " + container.getOrbitalCount() + " bodies in "
+                    + ((System.nanoTime() - started) / 1e9) + " s");
+            if (trajectory != null) {
+                trajectory.close();
+                trajectory = null;
+            }
+            if (last == null || last.getStep() != container.getStepCount()) {
+                last = container.computeDiagnostics();
+            }
+
+            if (stateFile != null) {
+                writeState(container, simulationId);
+            }
+            if (checkpointFile != null && checkpointed != container.getStepCount()) {
+                CheckpointFile.save(checkpointFile, container, integrator);
+            }
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to write diagnostics :: " + e.getMessage());
+        } finally {
+            closeQuietly(diagnostics);
+            closeQuietly(trajectory);
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return last;
+    }
+
+    private void writeState(SpaceContainer container, String simulationId) throws SpaceTimeException {
+        Writer writer = null;
+        try {
+            writer = openWriter(stateFile, false);
+            StateWriter.writeState(writer, container, simulationId);
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to write state :: " + e.getMessage());
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private Writer openWriter(File file, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), "UTF-8"));
+    }
+
+    private void closeQuietly(TrajectoryRecorder recorder) {
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (SpaceTimeException e) {
+                logger.warn("Unable to finish trajectory :: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeQuietly(Writer writer) {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close output :: " + e.getMessage());
+            }
+        }
+    }
+}
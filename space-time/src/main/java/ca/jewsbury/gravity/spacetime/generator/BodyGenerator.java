@@ -0,0 +1,216 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BodyGenerator.class
+ *
+ * Base of the seeded initial condition generators. A generator writes its
+ * bodies straight into a SpaceContainer, one slot at a time, so that sets of
+ * millions of bodies never go through JSON or hold a second copy of the
+ * state. The same count, seed and parameters always give the same bodies.
+ *
+ * Every generated body has the same mass, totalMass / count, and is named
+ * namePrefix + its number.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public abstract class BodyGenerator {
+
+    public static final double DEFAULT_TOTAL_MASS = 1000.0;
+    public static final double DEFAULT_BODY_RADIUS = 1.0;
+
+    private final Logger logger = LoggerFactory.getLogger(BodyGenerator.class);
+    private final int count;
+    private final long seed;
+    private double totalMass;
+    private double bodyRadius;
+    private String namePrefix;
+
+    /**
+     * @param count - bodies to generate
+     * @param seed
+     * @param namePrefix
+     */
+    protected BodyGenerator(int count, long seed, String namePrefix) {
+        this.count = count;
+        this.seed = seed;
+        this.namePrefix = namePrefix;
+        this.totalMass = DEFAULT_TOTAL_MASS;
+        this.bodyRadius = DEFAULT_BODY_RADIUS;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getTotalMass() {
+        return totalMass;
+    }
+
+    public void setTotalMass(double totalMass) {
+        this.totalMass = totalMass;
+    }
+
+    public double getBodyRadius() {
+        return bodyRadius;
+    }
+
+    public void setBodyRadius(double bodyRadius) {
+        this.bodyRadius = bodyRadius;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    /**
+     * Inserts the generated bodies into the container.
+     *
+     * @param container
+     * @return number of bodies inserted
+     * @throws SpaceTimeException if the parameters can't produce a set, or a
+     * generated name is already taken.
+     */
+    public int populate(SpaceContainer container) throws SpaceTimeException {
+        Random random = new Random(seed);
+        double[] body = new double[6];
+        double mass = count > 0 ? totalMass / count : 0.0;
+        long started = System.nanoTime();
+        int first, inserted;
+
+        validate();
+        container.ensureCapacity(count + getExtraBodies());
+        inserted = insertExtraBodies(container);
+        first = container.getOrbitalCount();
+        for (int i = 0; i < count; i++) {
+            place(i, random, body);
+            if (!container.insertBody(namePrefix + i, false, false,
+                    body[0], body[1], body[2], body[3], body[4], body[5], mass, bodyRadius)) {
+                throw new SpaceTimeException("Unable to insert '" + namePrefix + i + "', the name is taken.");
+            }
+        }
+        inserted += count;
+        if (isCentred()) {
+            centre(container.getParticleStore(), first, first + count);
+        }
+        logger.info("Generated " + inserted + " bodies of '" + namePrefix + "' in "
+                + ((System.nanoTime() - started) / 1e9) + " s");
+        return inserted;
+    }
+
+    /**
+     * Throws if the parameters can't produce a set.
+     *
+     * @throws SpaceTimeException
+     */
+    protected void validate() throws SpaceTimeException {
+        if (count < 0) {
+            throw new SpaceTimeException("Body count must not be negative.");
+        }
+        if (totalMass <= 0) {
+            throw new SpaceTimeException("Total mass must be positive.");
+        }
+    }
+
+    /**
+     * @return bodies inserted besides the generated ones.
+     */
+    protected int getExtraBodies() {
+        return 0;
+    }
+
+    /**
+     * Inserts any bodies that aren't generated, such as a central mass,
+     * before the generated ones.
+     *
+     * @param container
+     * @return number inserted
+     * @throws SpaceTimeException
+     */
+    protected int insertExtraBodies(SpaceContainer container) throws SpaceTimeException {
+        return 0;
+    }
+
+    /**
+     * @return TRUE to move the bodies into their centre of mass frame once
+     * they are all placed.
+     */
+    protected boolean isCentred() {
+        return true;
+    }
+
+    /**
+     * Places one body.
+     *
+     * @param i - body number, 0 to count - 1.
+     * @param random - draw only from this, in order, to stay reproducible.
+     * @param body - filled in with { x, y, z, vx, vy, vz }
+     */
+    protected abstract void place(int i, Random random, double[] body);
+
+    /**
+     * Subtracts the mass-weighted mean position and velocity of the slots
+     * [from, to), so that the set neither drifts nor sits off the origin.
+     */
+    private void centre(ParticleStore store, int from, int to) {
+        double[] x = store.getX(), y = store.getY(), z = store.getZ();
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] mass = store.getMass();
+        double[] mean = new double[6];
+        double sum = 0.0;
+
+        for (int i = from; i < to; i++) {
+            mean[0] += mass[i] * x[i];
+            mean[1] += mass[i] * y[i];
+            mean[2] += mass[i] * z[i];
+            mean[3] += mass[i] * vx[i];
+            mean[4] += mass[i] * vy[i];
+            mean[5] += mass[i] * vz[i];
+            sum += mass[i];
+        }
+        if (sum > 0) {
+            for (int k = 0; k < mean.length; k++) {
+                mean[k] /= sum;
+            }
+            for (int i = from; i < to; i++) {
+                x[i] -= mean[0];
+                y[i] -= mean[1];
+                z[i] -= mean[2];
+                vx[i] -= mean[3];
+                vy[i] -= mean[4];
+                vz[i] -= mean[5];
+            }
+            store.markPositionsChanged();
+        }
+    }
+
+    /**
+     * Fills body[offset..offset + 2] with a vector of the given length in a
+     * uniformly random direction.
+     */
+    protected static void randomVector(Random random, double length, double[] body, int offset) {
+        double cosTheta = 2.0 * random.nextDouble() - 1.0;
+        double sinTheta = Math.sqrt(1.0 - cosTheta * cosTheta);
+        double phi = 2.0 * Math.PI * random.nextDouble();
+
+        body[offset] = length * sinTheta * Math.cos(phi);
+        body[offset + 1] = length * sinTheta * Math.sin(phi);
+        body[offset + 2] = length * cosTheta;
+    }
+}
@@ -0,0 +1,67 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Random;
+
+/**
+ * ColdCollapseGenerator.class
+ *
+ * Homogeneous sphere that falls in on itself. Cold (at rest) by default;
+ * a virial ratio 2T/|W| above zero gives it isotropic Gaussian velocities
+ * of the matching dispersion, with W = -3GM^2 / 5R.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class ColdCollapseGenerator extends BodyGenerator {
+
+    public static final double DEFAULT_RADIUS = 100.0;
+
+    private double radius;
+    private double virialRatio;
+
+    public ColdCollapseGenerator(int count, long seed) {
+        super(count, seed, "collapse-");
+        this.radius = DEFAULT_RADIUS;
+        this.virialRatio = 0.0;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public void setRadius(double radius) {
+        this.radius = radius;
+    }
+
+    public double getVirialRatio() {
+        return virialRatio;
+    }
+
+    /**
+     * @param virialRatio - 2T/|W|; 0 is cold, 1 is in virial equilibrium.
+     */
+    public void setVirialRatio(double virialRatio) {
+        this.virialRatio = virialRatio;
+    }
+
+    @Override
+    protected void validate() throws SpaceTimeException {
+        super.validate();
+        if (radius <= 0 || virialRatio < 0) {
+            throw new SpaceTimeException("Collapse radius must be positive and its virial ratio not negative.");
+        }
+    }
+
+    @Override
+    protected void place(int i, Random random, double[] body) {
+        double dispersion = Math.sqrt(virialRatio * SpaceTimeConstants.GRAVITATIONAL_CONSTANT * getTotalMass() / (5.0 * radius));
+
+        randomVector(random, radius * Math.cbrt(random.nextDouble()), body, 0);
+        body[3] = random.nextGaussian() * dispersion;
+        body[4] = random.nextGaussian() * dispersion;
+        body[5] = random.nextGaussian() * dispersion;
+    }
+}
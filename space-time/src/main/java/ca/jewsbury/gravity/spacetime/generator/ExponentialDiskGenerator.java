@@ -0,0 +1,170 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Random;
+
+/**
+ * ExponentialDiskGenerator.class
+ *
+ * Thin disk in the x-y plane around a static central MassiveObject. Surface
+ * density falls off as exp(-R/h) between the inner and outer radius, the
+ * vertical profile is sech^2(z/z0), and every body starts on a circular
+ * orbit about the central mass plus the disk mass inside its radius, taken
+ * as if it were spherical.
+ *
+ * The central body is inserted first, as the reference object, and is
+ * named namePrefix + "core".
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class ExponentialDiskGenerator extends BodyGenerator {
+
+    public static final double DEFAULT_CENTRAL_MASS = 10000.0;
+    public static final double DEFAULT_CENTRAL_RADIUS = 10.0;
+    public static final double DEFAULT_SCALE_LENGTH = 50.0;
+
+    private double centralMass;
+    private double centralRadius;
+    private double scaleLength;
+    private double scaleHeight;
+    private double innerRadius;
+    private double outerRadius;
+
+    public ExponentialDiskGenerator(int count, long seed) {
+        super(count, seed, "disk-");
+        this.centralMass = DEFAULT_CENTRAL_MASS;
+        this.centralRadius = DEFAULT_CENTRAL_RADIUS;
+        setScaleLength(DEFAULT_SCALE_LENGTH);
+    }
+
+    public double getCentralMass() {
+        return centralMass;
+    }
+
+    public void setCentralMass(double centralMass) {
+        this.centralMass = centralMass;
+    }
+
+    public double getCentralRadius() {
+        return centralRadius;
+    }
+
+    public void setCentralRadius(double centralRadius) {
+        this.centralRadius = centralRadius;
+    }
+
+    public double getScaleLength() {
+        return scaleLength;
+    }
+
+    /**
+     * Also resets the scale height to h/10, and the inner and outer radius
+     * to h/5 and 10h.
+     *
+     * @param scaleLength - h
+     */
+    public void setScaleLength(double scaleLength) {
+        this.scaleLength = scaleLength;
+        this.scaleHeight = scaleLength / 10.0;
+        this.innerRadius = scaleLength / 5.0;
+        this.outerRadius = scaleLength * 10.0;
+    }
+
+    public double getScaleHeight() {
+        return scaleHeight;
+    }
+
+    /**
+     * @param scaleHeight - z0; 0 gives a flat disk.
+     */
+    public void setScaleHeight(double scaleHeight) {
+        this.scaleHeight = scaleHeight;
+    }
+
+    public double getInnerRadius() {
+        return innerRadius;
+    }
+
+    public void setInnerRadius(double innerRadius) {
+        this.innerRadius = innerRadius;
+    }
+
+    public double getOuterRadius() {
+        return outerRadius;
+    }
+
+    public void setOuterRadius(double outerRadius) {
+        this.outerRadius = outerRadius;
+    }
+
+    @Override
+    protected void validate() throws SpaceTimeException {
+        super.validate();
+        if (centralMass <= 0 || scaleLength <= 0 || scaleHeight < 0) {
+            throw new SpaceTimeException("Disk central mass and scale length must be positive.");
+        }
+        if (innerRadius <= 0 || outerRadius <= innerRadius) {
+            throw new SpaceTimeException("Disk radii must satisfy 0 < inner < outer.");
+        }
+    }
+
+    @Override
+    protected int getExtraBodies() {
+        return 1;
+    }
+
+    @Override
+    protected int insertExtraBodies(SpaceContainer container) throws SpaceTimeException {
+        if (!container.insertBody(getNamePrefix() + "core", true, true,
+                0.0, 0.0, 0.0, 0.0, 0.0, 0.0, centralMass, centralRadius)) {
+            throw new SpaceTimeException("Unable to insert '" + getNamePrefix() + "core', the name is taken.");
+        }
+        return 1;
+    }
+
+    /**
+     * The central body stays fixed at the origin, so the disk isn't moved.
+     */
+    @Override
+    protected boolean isCentred() {
+        return false;
+    }
+
+    /**
+     * @return fraction of an untruncated exponential disk inside radius.
+     */
+    private double enclosedFraction(double radius) {
+        double x = radius / scaleLength;
+        return 1.0 - (1.0 + x) * Math.exp(-x);
+    }
+
+    @Override
+    protected void place(int i, Random random, double[] body) {
+        double inner = enclosedFraction(innerRadius);
+        double disk = enclosedFraction(outerRadius) - inner;
+        double radius, phi, w, z, enclosed, speed;
+
+        // R * exp(-R/h) is a Gamma(2, h) distribution.
+        do {
+            radius = -scaleLength * Math.log((1.0 - random.nextDouble()) * (1.0 - random.nextDouble()));
+        } while (radius < innerRadius || radius > outerRadius);
+        phi = 2.0 * Math.PI * random.nextDouble();
+        do {
+            w = 2.0 * random.nextDouble() - 1.0;
+            z = 0.5 * scaleHeight * Math.log((1.0 + w) / (1.0 - w));
+        } while (!(Math.abs(z) <= 10.0 * scaleHeight));
+
+        enclosed = centralMass + getTotalMass() * (enclosedFraction(radius) - inner) / disk;
+        speed = Math.sqrt(SpaceTimeConstants.GRAVITATIONAL_CONSTANT * enclosed / radius);
+        body[0] = radius * Math.cos(phi);
+        body[1] = radius * Math.sin(phi);
+        body[2] = z;
+        body[3] = -speed * Math.sin(phi);
+        body[4] = speed * Math.cos(phi);
+        body[5] = 0.0;
+    }
+}
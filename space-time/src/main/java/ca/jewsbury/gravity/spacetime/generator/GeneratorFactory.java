@@ -0,0 +1,53 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * GeneratorFactory.class
+ *
+ * Builds initial condition generators by name, with their default
+ * parameters.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class GeneratorFactory {
+
+    public static final String PLUMMER = "plummer";
+    public static final String CUBE = "cube";
+    public static final String COLD_COLLAPSE = "cold-collapse";
+    public static final String DISK = "disk";
+    public static final String RING = "ring";
+
+    private GeneratorFactory() {
+    }
+
+    /**
+     * @param name - one of PLUMMER, CUBE, COLD_COLLAPSE, DISK or RING.
+     * @param count - bodies to generate
+     * @param seed
+     * @return a new generator
+     * @throws SpaceTimeException if the name is unknown.
+     */
+    public static BodyGenerator create(String name, int count, long seed) throws SpaceTimeException {
+        BodyGenerator generator = null;
+        String key = StringUtils.trimToEmpty(name).toLowerCase();
+
+        if (PLUMMER.equals(key)) {
+            generator = new PlummerSphereGenerator(count, seed);
+        } else if (CUBE.equals(key)) {
+            generator = new UniformCubeGenerator(count, seed);
+        } else if (COLD_COLLAPSE.equals(key)) {
+            generator = new ColdCollapseGenerator(count, seed);
+        } else if (DISK.equals(key)) {
+            generator = new ExponentialDiskGenerator(count, seed);
+        } else if (RING.equals(key)) {
+            generator = new RingChoreographyGenerator(count, seed);
+        } else {
+            throw new SpaceTimeException("Unknown generator '" + name + "'");
+        }
+        return generator;
+    }
+}
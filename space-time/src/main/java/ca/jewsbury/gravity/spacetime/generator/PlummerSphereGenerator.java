@@ -0,0 +1,79 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Random;
+
+/**
+ * PlummerSphereGenerator.class
+ *
+ * Plummer sphere in equilibrium, sampled the way Aarseth, Henon and Wielen
+ * (1974) do: the radius from the inverted cumulative mass, the speed by
+ * rejection from the isotropic distribution function. Radii beyond the
+ * cutoff are drawn again.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class PlummerSphereGenerator extends BodyGenerator {
+
+    public static final double DEFAULT_SCALE_RADIUS = 100.0;
+    /**
+     * In scale radii; about 99.85% of the untruncated mass lies inside.
+     */
+    public static final double DEFAULT_CUTOFF = 20.0;
+
+    private double scaleRadius;
+    private double cutoff;
+
+    public PlummerSphereGenerator(int count, long seed) {
+        super(count, seed, "plummer-");
+        this.scaleRadius = DEFAULT_SCALE_RADIUS;
+        this.cutoff = DEFAULT_CUTOFF;
+    }
+
+    public double getScaleRadius() {
+        return scaleRadius;
+    }
+
+    public void setScaleRadius(double scaleRadius) {
+        this.scaleRadius = scaleRadius;
+    }
+
+    public double getCutoff() {
+        return cutoff;
+    }
+
+    /**
+     * @param cutoff - largest radius, in scale radii.
+     */
+    public void setCutoff(double cutoff) {
+        this.cutoff = cutoff;
+    }
+
+    @Override
+    protected void validate() throws SpaceTimeException {
+        super.validate();
+        if (scaleRadius <= 0 || cutoff <= 0) {
+            throw new SpaceTimeException("Plummer scale radius and cutoff must be positive.");
+        }
+    }
+
+    @Override
+    protected void place(int i, Random random, double[] body) {
+        double escape = Math.sqrt(2.0 * SpaceTimeConstants.GRAVITATIONAL_CONSTANT * getTotalMass());
+        double radius, q, g;
+
+        do {
+            radius = scaleRadius / Math.sqrt(Math.pow(random.nextDouble(), -2.0 / 3.0) - 1.0);
+        } while (!(radius <= cutoff * scaleRadius));
+        randomVector(random, radius, body, 0);
+
+        do {
+            q = random.nextDouble();
+            g = 0.1 * random.nextDouble();
+        } while (g > q * q * Math.pow(1.0 - q * q, 3.5));
+        randomVector(random, q * escape * Math.pow(radius * radius + scaleRadius * scaleRadius, -0.25), body, 3);
+    }
+}
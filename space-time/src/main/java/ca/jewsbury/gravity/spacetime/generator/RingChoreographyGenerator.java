@@ -0,0 +1,77 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Random;
+
+/**
+ * RingChoreographyGenerator.class
+ *
+ * N equal masses evenly spaced on a circle in the x-y plane, all moving on
+ * that circle at the speed where the pull of the other N - 1 gives exactly
+ * the centripetal acceleration:
+ *
+ * v^2 = (G m / 4R) * sum(k = 1..N-1) 1 / sin(k pi / N)
+ *
+ * Every body follows the same path, one N-th of a period apart. The ring is
+ * unstable from N = 7 on, which makes it a sensitive integrator test. Takes
+ * nothing from the seed.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class RingChoreographyGenerator extends BodyGenerator {
+
+    public static final double DEFAULT_RADIUS = 100.0;
+
+    private double radius;
+    private double speed;
+
+    public RingChoreographyGenerator(int count, long seed) {
+        super(count, seed, "ring-");
+        this.radius = DEFAULT_RADIUS;
+    }
+
+    public double getRadius() {
+        return radius;
+    }
+
+    public void setRadius(double radius) {
+        this.radius = radius;
+    }
+
+    /**
+     * @return the orbital speed of every body.
+     */
+    public double getSpeed() {
+        double sum = 0.0;
+        int count = getCount();
+
+        for (int k = 1; k < count; k++) {
+            sum += 1.0 / Math.sin(k * Math.PI / count);
+        }
+        return Math.sqrt(SpaceTimeConstants.GRAVITATIONAL_CONSTANT * getTotalMass() / count * sum / (4.0 * radius));
+    }
+
+    @Override
+    protected void validate() throws SpaceTimeException {
+        super.validate();
+        if (radius <= 0) {
+            throw new SpaceTimeException("Ring radius must be positive.");
+        }
+        speed = getSpeed();
+    }
+
+    @Override
+    protected void place(int i, Random random, double[] body) {
+        double phi = 2.0 * Math.PI * i / getCount();
+
+        body[0] = radius * Math.cos(phi);
+        body[1] = radius * Math.sin(phi);
+        body[2] = 0.0;
+        body[3] = -speed * Math.sin(phi);
+        body[4] = speed * Math.cos(phi);
+        body[5] = 0.0;
+    }
+}
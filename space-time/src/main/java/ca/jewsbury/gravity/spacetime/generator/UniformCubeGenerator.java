@@ -0,0 +1,62 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.util.Random;
+
+/**
+ * UniformCubeGenerator.class
+ *
+ * Bodies spread uniformly through a cube centred on the origin, with
+ * Gaussian velocities of the given dispersion per axis; at rest by default.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class UniformCubeGenerator extends BodyGenerator {
+
+    public static final double DEFAULT_SIDE = 200.0;
+
+    private double side;
+    private double velocityDispersion;
+
+    public UniformCubeGenerator(int count, long seed) {
+        super(count, seed, "cube-");
+        this.side = DEFAULT_SIDE;
+        this.velocityDispersion = 0.0;
+    }
+
+    public double getSide() {
+        return side;
+    }
+
+    public void setSide(double side) {
+        this.side = side;
+    }
+
+    public double getVelocityDispersion() {
+        return velocityDispersion;
+    }
+
+    public void setVelocityDispersion(double velocityDispersion) {
+        this.velocityDispersion = velocityDispersion;
+    }
+
+    @Override
+    protected void validate() throws SpaceTimeException {
+        super.validate();
+        if (side <= 0 || velocityDispersion < 0) {
+            throw new SpaceTimeException("Cube side must be positive and its velocity dispersion not negative.");
+        }
+    }
+
+    @Override
+    protected void place(int i, Random random, double[] body) {
+        body[0] = (random.nextDouble() - 0.5) * side;
+        body[1] = (random.nextDouble() - 0.5) * side;
+        body[2] = (random.nextDouble() - 0.5) * side;
+        body[3] = random.nextGaussian() * velocityDispersion;
+        body[4] = random.nextGaussian() * velocityDispersion;
+        body[5] = random.nextGaussian() * velocityDispersion;
+    }
+}
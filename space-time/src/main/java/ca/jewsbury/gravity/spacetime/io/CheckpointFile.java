@@ -0,0 +1,371 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.model.integration.Integrator;
+import ca.jewsbury.gravity.spacetime.model.integration.StatefulIntegrator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CheckpointFile.class
+ *
+ * Binary checkpoint of a whole container, for restarting a run in another
+ * JVM: every store array, the body names, the clock and counters, and the
+ * integrator's own state when it has one. Written and read through memory
+ * mapped sections of a FileChannel, whole arrays at a time, so a restart
+ * costs about as much as reading the file.
+ *
+ * Layout, little endian: a fixed HEADER_LENGTH header (magic, version,
+ * counts, clock, section lengths, CRC32 of everything after the header),
+ * then x, y, z, vx, vy, vz, ax, ay, az, mass, radius and potential as
+ * double[count] each, index and flags as int[count], the names as (short
+ * length, UTF-8 bytes) per body, the integrator class name, and the
+ * integrator state. A new file is written next to the target and moved
+ * over it once complete, so a crash mid-save leaves the old checkpoint.
+ *
+ * Save between steps only; nothing here locks out the stepping thread.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class CheckpointFile {
+
+    public static final int MAGIC = 0x47534350; // "GSCP"
+    public static final int VERSION = 1;
+    public static final int HEADER_LENGTH = 128;
+
+    private static final int DOUBLE_ARRAYS = 12;
+    private static final int INT_ARRAYS = 2;
+    private static final int ACCELERATIONS_VALID = 1;
+    private static final int CHECKSUM_CHUNK = 1 << 16;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointFile.class);
+
+    private final long stepCount;
+    private final double simulationTime;
+    private final int count;
+    private final String integratorName;
+    private final ByteBuffer integratorState;
+
+    private CheckpointFile(long stepCount, double simulationTime, int count, String integratorName, ByteBuffer integratorState) {
+        this.stepCount = stepCount;
+        this.simulationTime = simulationTime;
+        this.count = count;
+        this.integratorName = integratorName;
+        this.integratorState = integratorState;
+    }
+
+    /**
+     * Writes the container, and the integrator's state if it keeps any.
+     *
+     * @param file
+     * @param container
+     * @param integrator - may be null.
+     * @throws SpaceTimeException if the file can't be written.
+     */
+    public static void save(File file, SpaceContainer container, Integrator integrator) throws SpaceTimeException {
+        ParticleStore store = container.getParticleStore();
+        Orbital[] orbitals = container.getOrbitalArray();
+        int bodies = store.size();
+        byte[][] names = new byte[bodies][];
+        byte[] integratorName = integrator != null ? integrator.getClass().getName().getBytes(UTF_8) : new byte[0];
+        int stateLength = integrator instanceof StatefulIntegrator ? ((StatefulIntegrator) integrator).getStateLength() : 0;
+        long namesLength = 0, payloadLength, position;
+        Path target = file.toPath();
+        Path partial = target.resolveSibling(file.getName() + ".partial");
+        FileChannel channel = null;
+        CRC32 crc = new CRC32();
+        ByteBuffer section, header;
+
+        for (int slot = 0; slot < bodies; slot++) {
+            names[slot] = orbitals[slot].getIdName().getBytes(UTF_8);
+            if (names[slot].length > Short.MAX_VALUE) {
+                throw new SpaceTimeException("Body name too long to checkpoint :: " + orbitals[slot].getIdName());
+            }
+            namesLength += 2 + names[slot].length;
+        }
+        payloadLength = (long) bodies * (DOUBLE_ARRAYS * 8 + INT_ARRAYS * 4) + namesLength + integratorName.length + stateLength;
+
+        try {
+            channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            position = HEADER_LENGTH;
+            for (double[] array : doubleArrays(store)) {
+                section = map(channel, FileChannel.MapMode.READ_WRITE, position, bodies * 8L);
+                section.asDoubleBuffer().put(array, 0, bodies);
+                ((MappedByteBuffer) section).force();
+                position = finishSection(section, crc, position);
+            }
+            for (int[] array : new int[][]{store.getIndex(), store.getFlags()}) {
+                section = map(channel, FileChannel.MapMode.READ_WRITE, position, bodies * 4L);
+                section.asIntBuffer().put(array, 0, bodies);
+                ((MappedByteBuffer) section).force();
+                position = finishSection(section, crc, position);
+            }
+            section = map(channel, FileChannel.MapMode.READ_WRITE, position, namesLength + integratorName.length + stateLength);
+            for (byte[] name : names) {
+                section.putShort((short) name.length);
+                section.put(name);
+            }
+            section.put(integratorName);
+            if (stateLength > 0) {
+                ((StatefulIntegrator) integrator).writeState(section);
+            }
+            if (section.position() != section.limit()) {
+                throw new SpaceTimeException("Integrator state did not match its declared " + stateLength + " bytes.");
+            }
+            ((MappedByteBuffer) section).force();
+            finishSection(section, crc, position);
+
+            header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_LENGTH);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(HEADER_LENGTH);
+            header.putInt(bodies);
+            header.putLong(container.getStepCount());
+            header.putDouble(container.getSimulationTime());
+            header.putDouble(container.getInitialEnergy());
+            header.putInt(container.getNextBodyIndex());
+            header.putInt(container.getDiagnosticsInterval());
+            header.putInt(store.hasAccelerations() ? ACCELERATIONS_VALID : 0);
+            header.putInt(integratorName.length);
+            header.putInt(stateLength);
+            header.putLong(namesLength);
+            header.putLong(payloadLength);
+            header.putLong(crc.getValue());
+            ((MappedByteBuffer) header).force();
+            channel.close();
+            channel = null;
+            moveIntoPlace(partial, target);
+            logger.info("Checkpointed " + bodies + " bodies at step " + container.getStepCount() + " to '" + file + "'");
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to write checkpoint '" + file + "' :: " + e.getMessage());
+        } finally {
+            closeQuietly(channel, file);
+        }
+    }
+
+    /**
+     * Fills an empty container from a checkpoint. The integrator state, if
+     * any, is held by the returned object for restoreIntegrator().
+     *
+     * @param file
+     * @param container - must hold no bodies.
+     * @return what was read, besides the bodies.
+     * @throws SpaceTimeException if the file is missing, of another version,
+     * damaged, or the container is not empty.
+     */
+    public static CheckpointFile load(File file, SpaceContainer container) throws SpaceTimeException {
+        ParticleStore store = container.getParticleStore();
+        FileChannel channel = null;
+        CheckpointFile checkpoint = null;
+        CRC32 crc = new CRC32();
+        ByteBuffer header, section, names;
+        int bodies, storeFlags, integratorNameLength, stateLength, version, length;
+        long stepCount, namesLength, payloadLength, checksum, position;
+        double simulationTime, initialEnergy;
+        int nextBodyIndex, diagnosticsInterval;
+        byte[] name, integratorName;
+        ByteBuffer state;
+
+        if (file == null || !file.isFile()) {
+            throw new SpaceTimeException("Checkpoint '" + file + "' does not exist.");
+        }
+        if (store.size() != 0) {
+            throw new SpaceTimeException("Checkpoints only load into an empty container.");
+        }
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            if (channel.size() < HEADER_LENGTH) {
+                throw new SpaceTimeException("'" + file + "' is too short to be a checkpoint.");
+            }
+            header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+            if (header.getInt() != MAGIC) {
+                throw new SpaceTimeException("'" + file + "' is not a checkpoint.");
+            }
+            version = header.getInt();
+            if (version != VERSION || header.getInt() != HEADER_LENGTH) {
+                throw new SpaceTimeException("Checkpoint '" + file + "' is version " + version + ", expected " + VERSION);
+            }
+            bodies = header.getInt();
+            stepCount = header.getLong();
+            simulationTime = header.getDouble();
+            initialEnergy = header.getDouble();
+            nextBodyIndex = header.getInt();
+            diagnosticsInterval = header.getInt();
+            storeFlags = header.getInt();
+            integratorNameLength = header.getInt();
+            stateLength = header.getInt();
+            namesLength = header.getLong();
+            payloadLength = header.getLong();
+            checksum = header.getLong();
+            if (bodies < 0 || channel.size() != HEADER_LENGTH + payloadLength
+                    || payloadLength != (long) bodies * (DOUBLE_ARRAYS * 8 + INT_ARRAYS * 4) + namesLength + integratorNameLength + stateLength) {
+                throw new SpaceTimeException("Checkpoint '" + file + "' is truncated or damaged.");
+            }
+            position = HEADER_LENGTH;
+            while (position < HEADER_LENGTH + payloadLength) {
+                length = (int) Math.min(Integer.MAX_VALUE, HEADER_LENGTH + payloadLength - position);
+                position = finishSection(map(channel, FileChannel.MapMode.READ_ONLY, position, length), crc, position);
+            }
+            if (crc.getValue() != checksum) {
+                throw new SpaceTimeException("Checkpoint '" + file + "' failed its checksum.");
+            }
+
+            // Names, masses and flags first: they make the orbitals, as
+            // views over slots of the container's own store.
+            position = HEADER_LENGTH + (long) bodies * (DOUBLE_ARRAYS * 8 + INT_ARRAYS * 4);
+            names = map(channel, FileChannel.MapMode.READ_ONLY, position, namesLength + integratorNameLength + stateLength);
+            container.ensureCapacity(bodies);
+            section = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_LENGTH + 9L * bodies * 8, 3L * bodies * 8);
+            section.asDoubleBuffer().get(store.getMass(), 0, bodies);
+            section.position(bodies * 8);
+            section.asDoubleBuffer().get(store.getRadius(), 0, bodies);
+            section = map(channel, FileChannel.MapMode.READ_ONLY, HEADER_LENGTH + DOUBLE_ARRAYS * 8L * bodies + 4L * bodies, 4L * bodies);
+            section.asIntBuffer().get(store.getFlags(), 0, bodies);
+            for (int slot = 0; slot < bodies; slot++) {
+                name = new byte[names.getShort()];
+                names.get(name);
+                if (!container.insertBody(new String(name, UTF_8), store.isStatic(slot), store.isReference(slot),
+                        0.0, 0.0, 0.0, 0.0, 0.0, 0.0, store.getMass()[slot], store.getRadius()[slot])) {
+                    throw new SpaceTimeException("Checkpoint '" + file + "' holds '" + new String(name, UTF_8) + "' twice.");
+                }
+            }
+            integratorName = new byte[integratorNameLength];
+            names.get(integratorName);
+            state = ByteBuffer.allocate(stateLength).order(ByteOrder.LITTLE_ENDIAN);
+            names.limit(names.position() + stateLength);
+            state.put(names);
+            state.flip();
+
+            // Then the rest of the state, straight over the store's arrays.
+            position = HEADER_LENGTH;
+            for (double[] array : doubleArrays(store)) {
+                section = map(channel, FileChannel.MapMode.READ_ONLY, position, bodies * 8L);
+                section.asDoubleBuffer().get(array, 0, bodies);
+                position += bodies * 8L;
+            }
+            section = map(channel, FileChannel.MapMode.READ_ONLY, position, bodies * 4L);
+            section.asIntBuffer().get(store.getIndex(), 0, bodies);
+            store.markPositionsChanged();
+            store.setAccelerationsValid((storeFlags & ACCELERATIONS_VALID) != 0);
+
+            container.setDiagnosticsInterval(diagnosticsInterval);
+            container.restoreState(stepCount, simulationTime, initialEnergy, nextBodyIndex);
+            checkpoint = new CheckpointFile(stepCount, simulationTime, bodies, new String(integratorName, UTF_8), state);
+            logger.info("Restored " + bodies + " bodies at step " + stepCount + " from '" + file + "'");
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to read checkpoint '" + file + "' :: " + e.getMessage());
+        } finally {
+            closeQuietly(channel, file);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Hands the saved state to the integrator if it is the kind that wrote
+     * it; other integrators start fresh from the restored bodies.
+     *
+     * @param integrator
+     * @return TRUE if the integrator took the saved state.
+     * @throws SpaceTimeException if the state does not fit it.
+     */
+    public boolean restoreIntegrator(Integrator integrator) throws SpaceTimeException {
+        boolean restored = false;
+
+        if (integrator instanceof StatefulIntegrator && integratorState.remaining() > 0) {
+            if (integrator.getClass().getName().equals(integratorName)) {
+                ((StatefulIntegrator) integrator).readState(integratorState.duplicate().order(ByteOrder.LITTLE_ENDIAN));
+                restored = true;
+            } else {
+                logger.warn("Checkpoint integrator state is for " + integratorName + ", not restoring it into "
+                        + integrator.getClass().getName());
+            }
+        }
+        return restored;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return class name of the integrator the run was saved from, or empty.
+     */
+    public String getIntegratorName() {
+        return integratorName;
+    }
+
+    private static double[][] doubleArrays(ParticleStore store) {
+        return new double[][]{store.getX(), store.getY(), store.getZ(),
+            store.getVx(), store.getVy(), store.getVz(),
+            store.getAx(), store.getAy(), store.getAz(),
+            store.getMass(), store.getRadius(), store.getPotential()};
+    }
+
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long length) throws IOException {
+        return channel.map(mode, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Adds a section to the checksum.
+     *
+     * @return the file position after the section.
+     */
+    private static long finishSection(ByteBuffer section, CRC32 crc, long position) {
+        ByteBuffer view = section.duplicate();
+        byte[] chunk = new byte[CHECKSUM_CHUNK];
+        int length;
+
+        view.clear();
+        while (view.hasRemaining()) {
+            length = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, length);
+            crc.update(chunk, 0, length);
+        }
+        return position + section.capacity();
+    }
+
+    private static void moveIntoPlace(Path partial, Path target) throws IOException {
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel, File file) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close '" + file + "' :: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * JsonPullParser.class
+ *
+ * Streaming JSON reader: next() hands out one token at a time and nothing
+ * is kept once it has been passed, so a file of any size reads in the
+ * memory of its deepest nesting. Reads UTF-8 bytes straight from the
+ * stream, which makes getTokenOffset() an exact byte offset that can be
+ * seeked back to later.
+ *
+ * Numbers of up to 15 significant digits and a small exponent, which is
+ * what simulation sets are made of, are converted without going through a
+ * String; the result is the same correctly rounded double.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class JsonPullParser implements Closeable {
+
+    public static enum Token {
+
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream input;
+    private final byte[] buffer;
+    private int position, limit;
+    private long bufferOffset;
+
+    private boolean[] inObject;
+    private int depth;
+    private boolean afterValue;
+    private boolean opened;
+    private boolean expectName;
+
+    private long tokenOffset;
+    private final StringBuilder text;
+    private char[] numberChars;
+    private double number;
+
+    /**
+     * @param input - UTF-8; read through a buffer of its own.
+     */
+    public JsonPullParser(InputStream input) {
+        this(input, 0);
+    }
+
+    /**
+     * @param input - UTF-8, already positioned part way into a document.
+     * @param offset - byte offset of the stream's first byte, so that
+     * offsets stay those of the whole file.
+     */
+    public JsonPullParser(InputStream input, long offset) {
+        this.input = input;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.bufferOffset = offset;
+        this.inObject = new boolean[16];
+        this.text = new StringBuilder();
+        this.numberChars = new char[32];
+    }
+
+    /**
+     * @return the next token; END once the top level value is complete.
+     * @throws SpaceTimeException if the document is malformed or can't be
+     * read.
+     */
+    public Token next() throws SpaceTimeException {
+        Token token;
+        int c = skipWhitespace();
+
+        if (afterValue && depth > 0) {
+            if (c == ',') {
+                position++;
+                c = skipWhitespace();
+                if (c == '}' || c == ']') {
+                    throw malformed("trailing comma");
+                }
+            } else if (c != '}' && c != ']') {
+                throw malformed("',' or end of " + (inObject[depth - 1] ? "object" : "array") + " expected");
+            }
+        }
+        tokenOffset = bufferOffset + position;
+
+        if (c < 0) {
+            if (depth > 0 || !afterValue) {
+                throw malformed("unexpected end of input");
+            }
+            token = Token.END;
+        } else if (depth == 0 && afterValue) {
+            throw malformed("content after the end of the document");
+        } else if (expectName && c != '}') {
+            if (c != '"') {
+                throw malformed("field name expected");
+            }
+            position++;
+            readString();
+            if (skipWhitespace() != ':') {
+                throw malformed("':' expected");
+            }
+            position++;
+            expectName = false;
+            afterValue = false;
+            opened = false;
+            token = Token.NAME;
+        } else {
+            token = readValueToken(c);
+        }
+        return token;
+    }
+
+    private Token readValueToken(int c) throws SpaceTimeException {
+        Token token;
+
+        switch (c) {
+            case '{':
+                position++;
+                push(true);
+                token = Token.START_OBJECT;
+                break;
+            case '[':
+                position++;
+                push(false);
+                token = Token.START_ARRAY;
+                break;
+            case '}':
+            case ']':
+                if (depth == 0 || inObject[depth - 1] != (c == '}') || (!afterValue && !opened)) {
+                    throw malformed("unexpected '" + (char) c + "'");
+                }
+                position++;
+                depth--;
+                token = c == '}' ? Token.END_OBJECT : Token.END_ARRAY;
+                break;
+            case '"':
+                position++;
+                readString();
+                token = Token.STRING;
+                break;
+            case 't':
+                readLiteral("true");
+                token = Token.TRUE;
+                break;
+            case 'f':
+                readLiteral("false");
+                token = Token.FALSE;
+                break;
+            case 'n':
+                readLiteral("null");
+                token = Token.NULL;
+                break;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber();
+                    token = Token.NUMBER;
+                } else {
+                    throw malformed("unexpected '" + (char) c + "'");
+                }
+        }
+        opened = token == Token.START_OBJECT || token == Token.START_ARRAY;
+        afterValue = !opened;
+        expectName = depth > 0 && inObject[depth - 1];
+        return token;
+    }
+
+    /**
+     * Skips the value just started: after START_OBJECT or START_ARRAY,
+     * everything up to and including the matching end; after NAME, the
+     * field's value. Scalars need nothing skipped.
+     *
+     * Containers are skipped by counting brackets outside strings, with no
+     * tokens made and no numbers converted, so skipping is several times
+     * faster than reading; the skipped part is not checked beyond that.
+     *
+     * @param token - the token just returned by next().
+     * @throws SpaceTimeException if the input ends first.
+     */
+    public void skipValue(Token token) throws SpaceTimeException {
+        int nesting = 1;
+        boolean inString = false;
+        int c;
+
+        if (token == Token.NAME) {
+            skipValue(next());
+        } else if (token == Token.START_OBJECT || token == Token.START_ARRAY) {
+            while (nesting > 0) {
+                if (position == limit && !fill()) {
+                    throw malformed("unexpected end of input");
+                }
+                c = buffer[position++];
+                if (inString) {
+                    if (c == '\\') {
+                        read();
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    nesting++;
+                } else if (c == '}' || c == ']') {
+                    nesting--;
+                }
+            }
+            depth--;
+            opened = false;
+            afterValue = true;
+            expectName = depth > 0 && inObject[depth - 1];
+        }
+    }
+
+    /**
+     * @return the text of the last NAME or STRING token.
+     */
+    public String getString() {
+        return text.toString();
+    }
+
+    /**
+     * @return the value of the last NUMBER token.
+     */
+    public double getNumber() {
+        return number;
+    }
+
+    /**
+     * @return byte offset at which the last token started.
+     */
+    public long getTokenOffset() {
+        return tokenOffset;
+    }
+
+    /**
+     * @return bytes read past so far.
+     */
+    public long getOffset() {
+        return bufferOffset + position;
+    }
+
+    /**
+     * @return containers open around the current position.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private void push(boolean object) {
+        if (depth == inObject.length) {
+            inObject = Arrays.copyOf(inObject, depth * 2);
+        }
+        inObject[depth++] = object;
+    }
+
+    private int peek() throws SpaceTimeException {
+        int c = -1;
+
+        if (position < limit || fill()) {
+            c = buffer[position] & 0xFF;
+        }
+        return c;
+    }
+
+    private int read() throws SpaceTimeException {
+        int c = peek();
+
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private boolean fill() throws SpaceTimeException {
+        int read;
+
+        bufferOffset += limit;
+        position = 0;
+        limit = 0;
+        try {
+            read = input.read(buffer, 0, buffer.length);
+            while (read == 0) {
+                read = input.read(buffer, 0, buffer.length);
+            }
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to read JSON at byte " + bufferOffset + " :: " + e.getMessage());
+        }
+        if (read > 0) {
+            limit = read;
+        }
+        return limit > 0;
+    }
+
+    private int skipWhitespace() throws SpaceTimeException {
+        int c = peek();
+
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            position++;
+            c = peek();
+        }
+        return c;
+    }
+
+    private void readLiteral(String literal) throws SpaceTimeException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw malformed("'" + literal + "' expected");
+            }
+        }
+    }
+
+    /**
+     * Reads up to the closing quote into text, decoding escapes and UTF-8.
+     */
+    private void readString() throws SpaceTimeException {
+        int c = read();
+        int codePoint, extra;
+
+        text.setLength(0);
+        while (c != '"') {
+            if (c < 0) {
+                throw malformed("unterminated string");
+            } else if (c == '\\') {
+                readEscape();
+            } else if (c < 0x80) {
+                text.append((char) c);
+            } else {
+                if (c >= 0xF0) {
+                    codePoint = c & 0x07;
+                    extra = 3;
+                } else if (c >= 0xE0) {
+                    codePoint = c & 0x0F;
+                    extra = 2;
+                } else {
+                    codePoint = c & 0x1F;
+                    extra = 1;
+                }
+                for (int i = 0; i < extra; i++) {
+                    c = read();
+                    if ((c & 0xC0) != 0x80) {
+                        throw malformed("invalid UTF-8");
+                    }
+                    codePoint = (codePoint << 6) | (c & 0x3F);
+                }
+                text.appendCodePoint(codePoint);
+            }
+            c = read();
+        }
+    }
+
+    private void readEscape() throws SpaceTimeException {
+        int c = read();
+        int value = 0, digit;
+
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                text.append((char) c);
+                break;
+            case 'b':
+                text.append('\b');
+                break;
+            case 'f':
+                text.append('\f');
+                break;
+            case 'n':
+                text.append('\n');
+                break;
+            case 'r':
+                text.append('\r');
+                break;
+            case 't':
+                text.append('\t');
+                break;
+            case 'u':
+                for (int i = 0; i < 4; i++) {
+                    digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw malformed("invalid \\u escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                text.append((char) value);
+                break;
+            default:
+                throw malformed("invalid escape");
+        }
+    }
+
+    /**
+     * Collects the number's characters, then converts them exactly on the
+     * fast path or through Double.parseDouble() otherwise.
+     */
+    private void readNumber() throws SpaceTimeException {
+        int length = 0, c = peek();
+        int digits = 0, exponent = 0, fractionDigits = 0, exponentSign = 1;
+        long mantissa = 0;
+        boolean negative = false, fraction = false, inExponent = false, simple = true;
+        boolean mantissaDigits = false, exponentDigits = false;
+        char last = 0;
+
+        while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+            if (length == numberChars.length) {
+                numberChars = Arrays.copyOf(numberChars, length * 2);
+            }
+            numberChars[length++] = (char) c;
+            if (c >= '0' && c <= '9') {
+                mantissaDigits |= !inExponent;
+                exponentDigits |= inExponent;
+                if (inExponent) {
+                    exponent = Math.min(exponent * 10 + (c - '0'), 1000);
+                } else if (mantissa == 0 && c == '0') {
+                    // Leading zeros carry no digits.
+                    fractionDigits += fraction ? 1 : 0;
+                } else if (digits < FAST_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    fractionDigits += fraction ? 1 : 0;
+                } else {
+                    simple = false;
+                }
+            } else if (c == '-' || c == '+') {
+                simple &= length == 1 ? c == '-' : last == 'e' || last == 'E';
+                if (inExponent) {
+                    exponentSign = c == '-' ? -1 : 1;
+                } else {
+                    negative = true;
+                }
+            } else if (c == '.') {
+                simple &= !fraction && !inExponent;
+                fraction = true;
+            } else {
+                simple &= !inExponent && mantissaDigits;
+                inExponent = true;
+            }
+            last = (char) c;
+            position++;
+            c = peek();
+        }
+
+        exponent = exponentSign * exponent - fractionDigits;
+        simple &= mantissaDigits && (!inExponent || exponentDigits);
+        if (simple && exponent >= -22 && exponent <= 22) {
+            number = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            number = negative ? -number : number;
+        } else {
+            try {
+                number = Double.parseDouble(new String(numberChars, 0, length));
+            } catch (NumberFormatException e) {
+                throw malformed("invalid number '" + new String(numberChars, 0, length) + "'");
+            }
+        }
+    }
+
+    private SpaceTimeException malformed(String message) {
+        return new SpaceTimeException("Malformed JSON at byte " + (bufferOffset + position) + " :: " + message);
+    }
+}
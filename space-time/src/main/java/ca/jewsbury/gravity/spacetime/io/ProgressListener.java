@@ -0,0 +1,20 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+/**
+ * ProgressListener.class
+ *
+ * Told how far a long read has got, from the reading thread, every so
+ * often and once at the end.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public interface ProgressListener {
+
+    /**
+     * @param done - bytes read so far.
+     * @param total - bytes in all, or -1 if not known.
+     */
+    void progress(long done, long total);
+}
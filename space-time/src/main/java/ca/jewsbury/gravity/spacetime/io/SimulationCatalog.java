@@ -0,0 +1,404 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SimulationCatalog.class
+ *
+ * Index of the simulations in any number of simulation set files and
+ * classpath resources. Adding a source only scans it: the id, name and byte
+ * range of every simulation are kept, and the object lists are skipped
+ * without being parsed. A simulation's bodies are streamed from its byte
+ * range when it is first populated, and the most recently used ones are
+ * kept, parsed, in a small LRU cache.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class SimulationCatalog {
+
+    public static final int DEFAULT_CACHE_SIZE = 8;
+    /**
+     * Simulations with more bodies than this are never cached.
+     */
+    public static final int DEFAULT_CACHE_BODIES = 100000;
+
+    private final Logger logger = LoggerFactory.getLogger(SimulationCatalog.class);
+    private final List<Entry> entries;
+    private final Map<Entry, SpaceContainer> cache;
+    private final int cacheSize;
+    private int cacheBodies;
+
+    public SimulationCatalog() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize - parsed simulations kept; 0 keeps none.
+     */
+    public SimulationCatalog(int cacheSize) {
+        this.entries = new ArrayList<Entry>();
+        this.cacheSize = cacheSize;
+        this.cacheBodies = DEFAULT_CACHE_BODIES;
+        this.cache = new LinkedHashMap<Entry, SpaceContainer>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Entry, SpaceContainer> eldest) {
+                return size() > SimulationCatalog.this.cacheSize;
+            }
+        };
+    }
+
+    public synchronized void setCacheBodies(int cacheBodies) {
+        this.cacheBodies = cacheBodies;
+    }
+
+    /**
+     * Scans a simulation set file, or every *.json file in a directory.
+     *
+     * @param file
+     * @return simulations found
+     * @throws SpaceTimeException if a file can't be read or isn't a
+     * simulation set.
+     */
+    public int addFile(File file) throws SpaceTimeException {
+        File[] children;
+        int found = 0;
+
+        if (file != null && file.isDirectory()) {
+            children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    if (child.isFile() && child.getName().endsWith(".json")) {
+                        found += addFile(child);
+                    }
+                }
+            }
+        } else if (file != null && file.isFile()) {
+            found = scan(new Source(file, null));
+        } else {
+            throw new SpaceTimeException("Simulation file '" + file + "' does not exist.");
+        }
+        return found;
+    }
+
+    /**
+     * Scans a simulation set on the classpath.
+     *
+     * @param resourceName
+     * @return simulations found
+     * @throws SpaceTimeException if it can't be found, read or parsed.
+     */
+    public int addResource(String resourceName) throws SpaceTimeException {
+        return scan(new Source(null, resourceName));
+    }
+
+    private int scan(Source source) throws SpaceTimeException {
+        List<Entry> found = new ArrayList<Entry>();
+        JsonPullParser parser = new JsonPullParser(source.open(0));
+        JsonPullParser.Token token;
+        long started = System.nanoTime();
+
+        try {
+            token = parser.next();
+            if (token == JsonPullParser.Token.START_ARRAY) {
+                token = parser.next();
+                while (token == JsonPullParser.Token.START_OBJECT) {
+                    found.add(scanSimulation(parser, source));
+                    token = parser.next();
+                }
+                if (token != JsonPullParser.Token.END_ARRAY) {
+                    throw new SpaceTimeException("'" + source + "' holds something other than simulations.");
+                }
+            } else if (token == JsonPullParser.Token.START_OBJECT) {
+                found.add(scanSimulation(parser, source));
+            } else {
+                throw new SpaceTimeException("'" + source + "' holds neither a simulation nor a simulation set.");
+            }
+        } finally {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close '" + source + "' :: " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            entries.addAll(found);
+        }
+        logger.info("Catalogued " + found.size() + " simulations of '" + source + "' in "
+                + ((System.nanoTime() - started) / 1e9) + " s");
+        return found.size();
+    }
+
+    /**
+     * Call with the parser just past the simulation's START_OBJECT; returns
+     * with it just past the END_OBJECT.
+     */
+    private Entry scanSimulation(JsonPullParser parser, Source source) throws SpaceTimeException {
+        long offset = parser.getTokenOffset();
+        JsonPullParser.Token token = parser.next();
+        String id = null, name = null, field;
+
+        while (token == JsonPullParser.Token.NAME) {
+            field = parser.getString();
+            token = parser.next();
+            if (token == JsonPullParser.Token.STRING && SimulationLoader.SIMULATION_ID.equals(field)) {
+                id = parser.getString();
+            } else if (token == JsonPullParser.Token.NUMBER && SimulationLoader.SIMULATION_ID.equals(field)) {
+                id = String.valueOf((long) parser.getNumber());
+            } else if (token == JsonPullParser.Token.STRING && SimulationLoader.SIMULATION_NAME.equals(field)) {
+                name = parser.getString();
+            } else {
+                parser.skipValue(token);
+            }
+            token = parser.next();
+        }
+        if (token != JsonPullParser.Token.END_OBJECT) {
+            throw new SpaceTimeException("Malformed simulation in '" + source + "' at byte " + offset);
+        }
+        return new Entry(source, id, name, offset, parser.getOffset() - offset);
+    }
+
+    /**
+     * @return every simulation catalogued, in the order scanned.
+     */
+    public synchronized List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<Entry>(entries));
+    }
+
+    /**
+     * @param key - simulationId or simulationName.
+     * @return the first simulation with that id or name, or null.
+     */
+    public synchronized Entry find(String key) {
+        Entry found = null;
+
+        for (int i = 0; i < entries.size() && found == null; i++) {
+            if (entries.get(i).matches(key)) {
+                found = entries.get(i);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Inserts a copy of the simulation's bodies into the container, parsing
+     * them first unless they are cached.
+     *
+     * @param entry
+     * @param container
+     * @param listener - told the bytes parsed; not called on a cache hit.
+     * May be null.
+     * @return number of objects inserted
+     * @throws SpaceTimeException if the simulation can't be read.
+     */
+    public int populate(Entry entry, SpaceContainer container, ProgressListener listener) throws SpaceTimeException {
+        SpaceContainer parsed;
+
+        synchronized (this) {
+            parsed = cache.get(entry);
+        }
+        if (parsed == null) {
+            parsed = parse(entry, listener);
+            synchronized (this) {
+                if (cacheSize > 0 && parsed.getOrbitalCount() <= cacheBodies) {
+                    cache.put(entry, parsed);
+                }
+            }
+        } else {
+            logger.debug("Simulation '" + entry + "' served from cache.");
+        }
+        return copy(parsed, container);
+    }
+
+    private SpaceContainer parse(Entry entry, ProgressListener listener) throws SpaceTimeException {
+        SpaceContainer parsed = new SpaceContainer();
+        JsonPullParser parser = new JsonPullParser(entry.source.open(entry.offset));
+
+        try {
+            SimulationLoader.load(parser, entry.length, StringUtils.defaultIfEmpty(entry.id, entry.name),
+                    parsed, listener);
+        } finally {
+            try {
+                parser.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close '" + entry.source + "' :: " + e.getMessage());
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * The cached container is never stepped; each caller gets orbitals of
+     * its own, inserted straight into its store from the cached one.
+     */
+    private int copy(SpaceContainer source, SpaceContainer target) {
+        ParticleStore store = source.getParticleStore();
+        Orbital[] orbitals = source.getOrbitalArray();
+        int slot, inserted = 0;
+
+        if (orbitals != null) {
+            target.ensureCapacity(orbitals.length);
+            for (Orbital orbital : orbitals) {
+                slot = orbital.getStoreSlot();
+                if (target.insertBody(orbital.getIdName(), store.isStatic(slot), store.isReference(slot),
+                        store.getX()[slot], store.getY()[slot], store.getZ()[slot],
+                        store.getVx()[slot], store.getVy()[slot], store.getVz()[slot],
+                        store.getMass()[slot], store.getRadius()[slot])) {
+                    inserted++;
+                }
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * @return simulations held parsed.
+     */
+    public synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Where a simulation set is read from: a file, or a classpath resource.
+     */
+    private class Source {
+
+        private final File file;
+        private final String resource;
+
+        Source(File file, String resource) {
+            this.file = file;
+            this.resource = resource;
+        }
+
+        InputStream open(long offset) throws SpaceTimeException {
+            InputStream input = null;
+            long skipped = 0, skip;
+
+            try {
+                if (file != null) {
+                    input = new FileInputStream(file);
+                } else {
+                    input = SimulationCatalog.class.getClassLoader().getResourceAsStream(resource);
+                }
+                if (input == null) {
+                    throw new SpaceTimeException("Unable to locate resource '" + resource + "'");
+                }
+                while (skipped < offset) {
+                    skip = input.skip(offset - skipped);
+                    if (skip <= 0) {
+                        throw new IOException("ends before byte " + offset);
+                    }
+                    skipped += skip;
+                }
+            } catch (IOException e) {
+                closeQuietly(input);
+                throw new SpaceTimeException("Unable to read '" + this + "' :: " + e.getMessage());
+            }
+            return input;
+        }
+
+        private void closeQuietly(InputStream input) {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close '" + this + "' :: " + e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return file != null ? file.toString() : "classpath:" + resource;
+        }
+    }
+
+    /**
+     * One catalogued simulation: where it is, and what it is called.
+     */
+    public static final class Entry {
+
+        private final Source source;
+        private final String id;
+        private final String name;
+        private final long offset;
+        private final long length;
+
+        private Entry(Source source, String id, String name, long offset, long length) {
+            this.source = source;
+            this.id = id;
+            this.name = name;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * @param key
+         * @return TRUE if key is this simulation's id or name.
+         */
+        public boolean matches(String key) {
+            return key != null && (key.equals(id) || key.equals(name));
+        }
+
+        /**
+         * @return the simulationId, or null if it has none.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return the simulationName, or the id if it has none.
+         */
+        public String getName() {
+            return name != null ? name : id;
+        }
+
+        /**
+         * @return byte offset of the simulation object in its source.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return bytes the simulation object spans.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return the file or resource it is in.
+         */
+        public String getSource() {
+            return source.toString();
+        }
+
+        @Override
+        public String toString() {
+            return getName() + " (" + source + " @" + offset + ")";
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SimulationLoader.class
+ *
+ * Reads simulation set files (a JSON array of simulations, or a single
+ * simulation, each with a simulationId, simulationName and objectList) from
+ * disk and fills a SpaceContainer from one of them. Same format as the
+ * resources the renderer ships with.
+ *
+ * load() streams instead: it pulls tokens off the file and inserts each
+ * body as soon as its fields are read, with no JSON objects built, and
+ * stops reading once the wanted simulation is in. The DOM methods remain
+ * for the small files where holding everything is convenient.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class SimulationLoader {
+
+    public static final String SIMULATION_ID = "simulationId";
+    public static final String SIMULATION_NAME = "simulationName";
+    public static final String OBJECT_LIST = "objectList";
+
+    /**
+     * Bytes read between progress reports.
+     */
+    public static final long PROGRESS_INTERVAL = 1 << 20;
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationLoader.class);
+
+    private SimulationLoader() {
+    }
+
+    /**
+     * @param file
+     * @return every simulation defined in the file; a file holding a single
+     * simulation object comes back as a one entry array.
+     * @throws SpaceTimeException if the file can't be read or parsed.
+     */
+    public static JSONArray readSimulationSets(File file) throws SpaceTimeException {
+        JSONArray simulations = null;
+        Reader reader = null;
+        Object value;
+
+        if (file == null || !file.isFile()) {
+            throw new SpaceTimeException("Simulation file '" + file + "' does not exist.");
+        }
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            value = new JSONTokener(reader).nextValue();
+            if (value instanceof JSONArray) {
+                simulations = (JSONArray) value;
+            } else if (value instanceof JSONObject) {
+                simulations = new JSONArray();
+                simulations.put(value);
+            } else {
+                throw new SpaceTimeException("'" + file + "' holds neither a simulation nor a simulation set.");
+            }
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to read '" + file + "' :: " + e.getMessage());
+        } catch (JSONException e) {
+            throw new SpaceTimeException("Unable to parse '" + file + "' :: " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close '" + file + "' :: " + e.getMessage());
+                }
+            }
+        }
+        return simulations;
+    }
+
+    /**
+     * @param simulations
+     * @param key - simulationId or simulationName; blank picks the first.
+     * @return the matching simulation
+     * @throws SpaceTimeException if nothing matches.
+     */
+    public static JSONObject findSimulation(JSONArray simulations, String key) throws SpaceTimeException {
+        JSONObject found = null;
+        JSONObject candidate;
+
+        try {
+            for (int i = 0; i < simulations.length() && found == null; i++) {
+                candidate = simulations.getJSONObject(i);
+                if (StringUtils.isBlank(key)
+                        || key.equals(candidate.optString(SIMULATION_ID))
+                        || key.equals(candidate.optString(SIMULATION_NAME))) {
+                    found = candidate;
+                }
+            }
+        } catch (JSONException e) {
+            throw new SpaceTimeException(e.getMessage());
+        }
+        if (found == null) {
+            throw new SpaceTimeException("No simulation '" + key + "' in the simulation set.");
+        }
+        return found;
+    }
+
+    /**
+     * Inserts every object of the simulation's objectList into the
+     * container.
+     *
+     * @param container
+     * @param simulation
+     * @return number of objects inserted
+     * @throws SpaceTimeException if the object list is missing or malformed.
+     */
+    public static int populate(SpaceContainer container, JSONObject simulation) throws SpaceTimeException {
+        JSONArray objects;
+        Orbital orbital;
+        int inserted = 0;
+
+        try {
+            objects = simulation.getJSONArray(OBJECT_LIST);
+            for (int i = 0; i < objects.length(); i++) {
+                orbital = SpaceObjectFactory.generateSpaceObject(objects.getJSONObject(i));
+                if (orbital != null && container.insertOrbital(orbital)) {
+                    inserted++;
+                } else {
+                    logger.warn("Skipped object " + i + " of '" + simulation.optString(SIMULATION_ID) + "'");
+                }
+            }
+        } catch (JSONException e) {
+            throw new SpaceTimeException(e.getMessage());
+        }
+        return inserted;
+    }
+
+    /**
+     * Streams one simulation from a simulation set file into the container.
+     *
+     * @param file
+     * @param key - simulationId or simulationName; blank picks the first.
+     * @param container
+     * @param listener - told the bytes read as it goes; may be null.
+     * @return the simulationId of the one loaded, or its name if it has no
+     * id.
+     * @throws SpaceTimeException if the file can't be read or parsed, or
+     * nothing matches.
+     */
+    public static String load(File file, String key, SpaceContainer container, ProgressListener listener)
+            throws SpaceTimeException {
+        JsonPullParser parser = null;
+        String loaded;
+
+        if (file == null || !file.isFile()) {
+            throw new SpaceTimeException("Simulation file '" + file + "' does not exist.");
+        }
+        try {
+            parser = new JsonPullParser(new FileInputStream(file));
+            loaded = load(parser, file.length(), key, container, listener);
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to read '" + file + "' :: " + e.getMessage());
+        } finally {
+            if (parser != null) {
+                try {
+                    parser.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close '" + file + "' :: " + e.getMessage());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Streams one simulation into the container from a parser standing
+     * before either a simulation set or a single simulation.
+     *
+     * @param parser
+     * @param total - bytes in the whole input, or -1 if not known.
+     * @param key - simulationId or simulationName; blank picks the first.
+     * @param container
+     * @param listener - may be null.
+     * @return the simulationId of the one loaded, or its name if it has no
+     * id.
+     * @throws SpaceTimeException if the input is malformed or nothing
+     * matches.
+     */
+    public static String load(JsonPullParser parser, long total, String key, SpaceContainer container,
+            ProgressListener listener) throws SpaceTimeException {
+        StreamedSimulation simulation = new StreamedSimulation(parser, total, key, container, listener);
+        JsonPullParser.Token token = parser.next();
+        long started = System.nanoTime();
+
+        if (token == JsonPullParser.Token.START_ARRAY) {
+            token = parser.next();
+            while (token == JsonPullParser.Token.START_OBJECT && !simulation.read()) {
+                token = parser.next();
+            }
+            if (!simulation.isLoaded() && token != JsonPullParser.Token.END_ARRAY) {
+                throw new SpaceTimeException("Simulation set holds something other than simulations.");
+            }
+        } else if (token == JsonPullParser.Token.START_OBJECT) {
+            simulation.read();
+        } else {
+            throw new SpaceTimeException("Input holds neither a simulation nor a simulation set.");
+        }
+        if (!simulation.isLoaded()) {
+            throw new SpaceTimeException("No simulation '" + key + "' in the simulation set.");
+        }
+        if (listener != null) {
+            listener.progress(parser.getOffset(), total);
+        }
+        logger.info("Streamed " + simulation.getInserted() + " objects of '" + simulation.getIdentifier() + "' in "
+                + ((System.nanoTime() - started) / 1e9) + " s");
+        return simulation.getIdentifier();
+    }
+
+    /**
+     * Reads one simulation object, field by field. The object list is
+     * inserted straight into the container once the id or name is known to
+     * match, skipped once neither can, and otherwise held in a ParticleStore
+     * of its own until the object's end settles it.
+     */
+    private static class StreamedSimulation {
+
+        private final JsonPullParser parser;
+        private final long total;
+        private final String key;
+        private final SpaceContainer container;
+        private final ProgressListener listener;
+        private long nextReport;
+
+        private String id, name;
+        private boolean idSeen, nameSeen, matched, loaded;
+        private ParticleStore held;
+        private List<String> heldNames;
+        private int inserted;
+
+        StreamedSimulation(JsonPullParser parser, long total, String key, SpaceContainer container,
+                ProgressListener listener) {
+            this.parser = parser;
+            this.total = total;
+            this.key = key;
+            this.container = container;
+            this.listener = listener;
+            this.nextReport = PROGRESS_INTERVAL;
+        }
+
+        /**
+         * Call with the parser just past the simulation's START_OBJECT.
+         *
+         * @return TRUE once a matching simulation and its id are read;
+         * parsing stops there, part way through the object.
+         */
+        boolean read() throws SpaceTimeException {
+            JsonPullParser.Token token = parser.next();
+            boolean listRead = false;
+            String field;
+
+            id = null;
+            name = null;
+            idSeen = false;
+            nameSeen = false;
+            matched = StringUtils.isBlank(key);
+            held = null;
+            heldNames = null;
+            while (token == JsonPullParser.Token.NAME && !(matched && listRead && idSeen)) {
+                field = parser.getString();
+                if (SIMULATION_ID.equals(field)) {
+                    id = readText();
+                    idSeen = true;
+                    matched |= key != null && key.equals(id);
+                } else if (SIMULATION_NAME.equals(field)) {
+                    name = readText();
+                    nameSeen = true;
+                    matched |= key != null && key.equals(name);
+                } else if (OBJECT_LIST.equals(field)) {
+                    if (matched) {
+                        readObjects(false);
+                    } else if (idSeen && nameSeen) {
+                        parser.skipValue(parser.next());
+                    } else {
+                        held = new ParticleStore();
+                        heldNames = new ArrayList<String>();
+                        readObjects(true);
+                    }
+                    listRead = true;
+                } else {
+                    parser.skipValue(parser.next());
+                }
+                token = parser.next();
+            }
+            if (matched && !listRead) {
+                throw new SpaceTimeException("Simulation '" + getIdentifier() + "' has no " + OBJECT_LIST + ".");
+            }
+            if (matched && held != null) {
+                container.ensureCapacity(held.size());
+                for (int slot = 0; slot < held.size(); slot++) {
+                    insert(heldNames.get(slot), held.isStatic(slot), held.isReference(slot),
+                            held.getX()[slot], held.getY()[slot], held.getZ()[slot],
+                            held.getVx()[slot], held.getVy()[slot], held.getVz()[slot],
+                            held.getMass()[slot], held.getRadius()[slot]);
+                }
+            }
+            held = null;
+            heldNames = null;
+            loaded = matched;
+            return loaded;
+        }
+
+        private String readText() throws SpaceTimeException {
+            JsonPullParser.Token token = parser.next();
+            String text = null;
+
+            if (token == JsonPullParser.Token.STRING || token == JsonPullParser.Token.NUMBER) {
+                text = token == JsonPullParser.Token.STRING ? parser.getString() : String.valueOf((long) parser.getNumber());
+            } else {
+                parser.skipValue(token);
+            }
+            return text;
+        }
+
+        private void readObjects(boolean hold) throws SpaceTimeException {
+            JsonPullParser.Token token = parser.next();
+
+            if (token != JsonPullParser.Token.START_ARRAY) {
+                throw new SpaceTimeException(OBJECT_LIST + " is not an array.");
+            }
+            token = parser.next();
+            while (token == JsonPullParser.Token.START_OBJECT) {
+                readObject(hold);
+                if (listener != null && parser.getOffset() >= nextReport) {
+                    listener.progress(parser.getOffset(), total);
+                    nextReport = parser.getOffset() + PROGRESS_INTERVAL;
+                }
+                token = parser.next();
+            }
+            if (token != JsonPullParser.Token.END_ARRAY) {
+                throw new SpaceTimeException(OBJECT_LIST + " holds something other than objects.");
+            }
+        }
+
+        /**
+         * Same fields and defaults as SpaceObjectFactory; unknown fields are
+         * skipped. The body goes straight into the container's store, or
+         * into the held store while the simulation isn't settled.
+         */
+        private void readObject(boolean hold) throws SpaceTimeException {
+            JsonPullParser.Token token = parser.next();
+            SpaceObjectProperty property;
+            int slot;
+            String objectId = null;
+            boolean isStatic = true, isReference = false;
+            double x = 0.0, y = 0.0, z = 0.0, vx = 0.0, vy = 0.0, vz = 0.0;
+            double mass = 1.0, radius = 1.0;
+
+            while (token == JsonPullParser.Token.NAME) {
+                property = SpaceObjectProperty.fromJsonProperty(parser.getString());
+                token = parser.next();
+                if (property == null) {
+                    parser.skipValue(token);
+                } else if (property == SpaceObjectProperty.OBJECT_ID) {
+                    objectId = token == JsonPullParser.Token.STRING ? parser.getString() : null;
+                    parser.skipValue(token);
+                } else if (property == SpaceObjectProperty.IS_STATIC) {
+                    isStatic = token == JsonPullParser.Token.TRUE;
+                    parser.skipValue(token);
+                } else if (property == SpaceObjectProperty.IS_REFERENCE) {
+                    isReference = token == JsonPullParser.Token.TRUE;
+                    parser.skipValue(token);
+                } else if (token != JsonPullParser.Token.NUMBER) {
+                    logger.warn("Ignored non numeric '" + property.getJsonProperty() + "' at byte " + parser.getTokenOffset());
+                    parser.skipValue(token);
+                } else if (property == SpaceObjectProperty.INITIAL_X) {
+                    x = parser.getNumber();
+                } else if (property == SpaceObjectProperty.INITIAL_Y) {
+                    y = parser.getNumber();
+                } else if (property == SpaceObjectProperty.INITIAL_Z) {
+                    z = parser.getNumber();
+                } else if (property == SpaceObjectProperty.INITIAL_VX) {
+                    vx = parser.getNumber();
+                } else if (property == SpaceObjectProperty.INITIAL_VY) {
+                    vy = parser.getNumber();
+                } else if (property == SpaceObjectProperty.INITIAL_VZ) {
+                    vz = parser.getNumber();
+                } else if (property == SpaceObjectProperty.OBJECT_MASS) {
+                    mass = parser.getNumber();
+                } else if (property == SpaceObjectProperty.OBJECT_RADIUS) {
+                    radius = parser.getNumber();
+                }
+                token = parser.next();
+            }
+            if (token != JsonPullParser.Token.END_OBJECT) {
+                throw new SpaceTimeException("Malformed object at byte " + parser.getTokenOffset());
+            }
+            if (objectId == null) {
+                objectId = SpaceObjectFactory.nextUnknownObjectId();
+            }
+            if (hold) {
+                slot = held.add(heldNames.size(), mass, radius,
+                        (isStatic ? ParticleStore.FLAG_STATIC : 0) | (isReference ? ParticleStore.FLAG_REFERENCE : 0));
+                held.setPosition(slot, x, y, z);
+                held.setVelocity(slot, vx, vy, vz);
+                heldNames.add(objectId);
+            } else {
+                insert(objectId, isStatic, isReference, x, y, z, vx, vy, vz, mass, radius);
+            }
+        }
+
+        private void insert(String objectId, boolean isStatic, boolean isReference,
+                double x, double y, double z, double vx, double vy, double vz, double mass, double radius) {
+            if (container.insertBody(objectId, isStatic, isReference, x, y, z, vx, vy, vz, mass, radius)) {
+                inserted++;
+            } else {
+                logger.warn("Skipped object '" + objectId + "' of '" + getIdentifier() + "'");
+            }
+        }
+
+        boolean isLoaded() {
+            return loaded;
+        }
+
+        int getInserted() {
+            return inserted;
+        }
+
+        String getIdentifier() {
+            return id != null ? id : StringUtils.defaultString(name);
+        }
+    }
+}
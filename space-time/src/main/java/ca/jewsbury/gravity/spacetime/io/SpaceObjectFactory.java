@@ -1,10 +1,9 @@
-package ca.jewsbury.gravity.util.factory;
+package ca.jewsbury.gravity.spacetime.io;
 
 import ca.jewsbury.gravity.spacetime.model.DynamicObject;
 import ca.jewsbury.gravity.spacetime.model.MassiveObject;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
 import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
-import ca.jewsbury.gravity.util.enumerated.SpaceObjectProperty;
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -29,8 +28,6 @@ public abstract class SpaceObjectFactory {
     public static Orbital generateSpaceObject(JSONObject json)
             throws JSONException {
         Orbital newObject = null;
-        SpaceTimeVector position, velocity;
-
         String objectId;
         boolean isStatic, isReference;
         double x, y, z;
@@ -43,8 +40,7 @@ public abstract class SpaceObjectFactory {
                     objectId = json.getString(SpaceObjectProperty.OBJECT_ID.getJsonProperty());
                 } catch (JSONException e) {
                     logger.warn("Caught JSON Exception parsing objectId. :: " + e.getMessage());
-                    objectId = "unknownObject" + unknownObjectCount;
-                    unknownObjectCount++;
+                    objectId = nextUnknownObjectId();
                 }
 
                 try {
@@ -71,23 +67,7 @@ public abstract class SpaceObjectFactory {
                 mass = getValueFromJson(json, SpaceObjectProperty.OBJECT_MASS.getJsonProperty(), 1.0);
                 radius = getValueFromJson(json, SpaceObjectProperty.OBJECT_RADIUS.getJsonProperty(), 1.0);
 
-                if (StringUtils.isNotBlank(objectId)) {
-                    position = new SpaceTimeVector(x, y, z);
-                    velocity = new SpaceTimeVector(vx, vy, vz);
-
-                    if (isStatic) {
-                        newObject = new MassiveObject(objectId);
-                    } else {
-                        newObject = new DynamicObject(objectId);
-                    }
-                    newObject.setReferenceObject(isReference);
-                    newObject.setMass(mass);
-                    newObject.setRadius(radius);
-                    newObject.setPosition(position);
-                    newObject.setVelocity(velocity);
-                } else {
-                    logger.warn("Unable to build SpaceObject, ObjectID was null.");
-                }
+                newObject = createSpaceObject(objectId, isStatic, isReference, x, y, z, vx, vy, vz, mass, radius);
             } else {
                 logger.error("JSON Definition is missing parameters.\n" + json.toString(1));
             }
@@ -97,6 +77,39 @@ public abstract class SpaceObjectFactory {
         return newObject;
     }
 
+    /**
+     * Builds an orbital from values already read, by whatever means.
+     *
+     * @return the orbital, or null if objectId is blank.
+     */
+    public static Orbital createSpaceObject(String objectId, boolean isStatic, boolean isReference,
+            double x, double y, double z, double vx, double vy, double vz, double mass, double radius) {
+        Orbital newObject = null;
+
+        if (StringUtils.isNotBlank(objectId)) {
+            if (isStatic) {
+                newObject = new MassiveObject(objectId);
+            } else {
+                newObject = new DynamicObject(objectId);
+            }
+            newObject.setReferenceObject(isReference);
+            newObject.setMass(mass);
+            newObject.setRadius(radius);
+            newObject.setPosition(new SpaceTimeVector(x, y, z));
+            newObject.setVelocity(new SpaceTimeVector(vx, vy, vz));
+        } else {
+            logger.warn("Unable to build SpaceObject, ObjectID was null.");
+        }
+        return newObject;
+    }
+
+    /**
+     * @return a fresh name for an object defined without one.
+     */
+    public static synchronized String nextUnknownObjectId() {
+        return "unknownObject" + unknownObjectCount++;
+    }
+
     private static double getValueFromJson(JSONObject json, String key, double fallback) {
         double rtnVal = fallback;
         double temp;
@@ -0,0 +1,47 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author Nathan
+ */
+public enum SpaceObjectProperty {
+
+    OBJECT_ID("objectName"),
+    OBJECT_MASS("objectMass"),
+    OBJECT_RADIUS("objectRadius"),
+    IS_STATIC("isStatic"),
+    INITIAL_X("initialX"),
+    INITIAL_Y("initialY"),
+    INITIAL_Z("initialZ"),
+    INITIAL_VX("initialVX"),
+    INITIAL_VY("initialVY"), 
+    INITIAL_VZ("initialVZ"),
+    IS_REFERENCE("referenceObject");
+    
+    private static final Map<String, SpaceObjectProperty> BY_JSON_PROPERTY = new HashMap<String, SpaceObjectProperty>();
+
+    static {
+        for (SpaceObjectProperty property : values()) {
+            BY_JSON_PROPERTY.put(property.jsonProperty, property);
+        }
+    }
+
+    private final String jsonProperty;
+    private SpaceObjectProperty(String jsonProp) {
+        this.jsonProperty = jsonProp;
+    }
+    public String getJsonProperty() {
+        return this.jsonProperty;
+    }
+
+    /**
+     * @param jsonProperty
+     * @return the property of that JSON name, or null if there is none.
+     */
+    public static SpaceObjectProperty fromJsonProperty(String jsonProperty) {
+        return BY_JSON_PROPERTY.get(jsonProperty);
+    }
+}
@@ -0,0 +1,104 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import java.io.IOException;
+import java.io.Writer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * StateWriter.class
+ *
+ * Writes step diagnostics as CSV rows and the state of a container as a
+ * simulation set that SimulationLoader can read back.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class StateWriter {
+
+    public static final String DIAGNOSTICS_HEADER = "step,time,kinetic,potential,total,comX,comY,comZ,momentumX,momentumY,momentumZ";
+
+    private StateWriter() {
+    }
+
+    public static void writeDiagnosticsHeader(Writer writer) throws IOException {
+        writer.write(DIAGNOSTICS_HEADER);
+        writer.write('\n');
+    }
+
+    public static void writeDiagnostics(Writer writer, StepDiagnostics diagnostics) throws IOException {
+        StringBuilder row = new StringBuilder(192);
+
+        row.append(diagnostics.getStep()).append(',');
+        row.append(diagnostics.getTime()).append(',');
+        row.append(diagnostics.getKineticEnergy()).append(',');
+        row.append(diagnostics.getPotentialEnergy()).append(',');
+        row.append(diagnostics.getTotalEnergy()).append(',');
+        row.append(diagnostics.getComX()).append(',');
+        row.append(diagnostics.getComY()).append(',');
+        row.append(diagnostics.getComZ()).append(',');
+        row.append(diagnostics.getMomentumX()).append(',');
+        row.append(diagnostics.getMomentumY()).append(',');
+        row.append(diagnostics.getMomentumZ()).append('\n');
+        writer.write(row.toString());
+    }
+
+    /**
+     * Writes every contained orbital, in slot order, as a one entry
+     * simulation set.
+     *
+     * @param writer
+     * @param container
+     * @param simulationId
+     * @throws SpaceTimeException
+     */
+    public static void writeState(Writer writer, SpaceContainer container, String simulationId) throws SpaceTimeException {
+        JSONArray sets = new JSONArray();
+        JSONObject simulation = new JSONObject();
+        JSONArray objects = new JSONArray();
+        Orbital[] orbitals = container.getOrbitalArray();
+
+        try {
+            if (orbitals != null) {
+                for (Orbital orbital : orbitals) {
+                    objects.put(toJson(orbital));
+                }
+            }
+            simulation.put(SimulationLoader.SIMULATION_ID, simulationId);
+            simulation.put(SimulationLoader.SIMULATION_NAME, simulationId);
+            simulation.put("simulationTime", container.getSimulationTime());
+            simulation.put("stepCount", container.getStepCount());
+            simulation.put(SimulationLoader.OBJECT_LIST, objects);
+            sets.put(simulation);
+            writer.write(sets.toString(2));
+            writer.write('\n');
+        } catch (JSONException e) {
+            throw new SpaceTimeException(e.getMessage());
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to write state :: " + e.getMessage());
+        }
+    }
+
+    private static JSONObject toJson(Orbital orbital) throws JSONException {
+        JSONObject json = new JSONObject();
+
+        json.put(SpaceObjectProperty.OBJECT_ID.getJsonProperty(), orbital.getIdName());
+        json.put(SpaceObjectProperty.OBJECT_MASS.getJsonProperty(), orbital.getMass());
+        json.put(SpaceObjectProperty.OBJECT_RADIUS.getJsonProperty(), orbital.getRadius());
+        json.put(SpaceObjectProperty.IS_STATIC.getJsonProperty(), orbital.isStatic());
+        json.put(SpaceObjectProperty.IS_REFERENCE.getJsonProperty(), orbital.isReferenceObject());
+        json.put(SpaceObjectProperty.INITIAL_X.getJsonProperty(), orbital.getStore().getX()[orbital.getStoreSlot()]);
+        json.put(SpaceObjectProperty.INITIAL_Y.getJsonProperty(), orbital.getStore().getY()[orbital.getStoreSlot()]);
+        json.put(SpaceObjectProperty.INITIAL_Z.getJsonProperty(), orbital.getStore().getZ()[orbital.getStoreSlot()]);
+        json.put(SpaceObjectProperty.INITIAL_VX.getJsonProperty(), orbital.getStore().getVx()[orbital.getStoreSlot()]);
+        json.put(SpaceObjectProperty.INITIAL_VY.getJsonProperty(), orbital.getStore().getVy()[orbital.getStoreSlot()]);
+        json.put(SpaceObjectProperty.INITIAL_VZ.getJsonProperty(), orbital.getStore().getVz()[orbital.getStoreSlot()]);
+        return json;
+    }
+}
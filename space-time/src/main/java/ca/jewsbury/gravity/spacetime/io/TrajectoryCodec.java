@@ -0,0 +1,109 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * TrajectoryCodec.class
+ *
+ * Lossless compression of one component (eg. every body's x) of a
+ * trajectory frame against the two frames before it. Each value is
+ * predicted by linear extrapolation, 2 * previous - before, and the bits of
+ * the prediction are XORed with the bits of the value. A smooth trajectory
+ * leaves the sign, exponent and top of the mantissa the same, so the XOR
+ * starts with zero bytes; only the bytes after those are kept.
+ *
+ * Layout of a component of count values: count 4 bit codes (kept bytes,
+ * 0-8), two per byte, then the kept low bytes of every XOR, lowest byte
+ * first. Decoding recomputes the same predictions from the decoded frames,
+ * so the values come back bit for bit.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public final class TrajectoryCodec {
+
+    private TrajectoryCodec() {
+    }
+
+    /**
+     * @param count
+     * @return the most bytes encode() can write for count values.
+     */
+    public static int maxEncodedLength(int count) {
+        return (count + 1) / 2 + count * 8;
+    }
+
+    /**
+     * @param previous
+     * @param before
+     * @param slot
+     * @return the value expected at slot in the next frame.
+     */
+    public static double predict(double[] previous, double[] before, int slot) {
+        return 2.0 * previous[slot] - before[slot];
+    }
+
+    /**
+     * Encodes values against the last two frames, and moves the history on:
+     * afterwards before holds previous and previous holds values.
+     *
+     * @param target
+     * @param values
+     * @param previous
+     * @param before
+     * @param count
+     */
+    public static void encode(ByteBuffer target, double[] values, double[] previous, double[] before, int count) {
+        int codes = target.position();
+        int residuals = codes + (count + 1) / 2;
+        int kept, code = 0;
+        long bits;
+
+        target.position(residuals);
+        for (int i = 0; i < count; i++) {
+            bits = Double.doubleToRawLongBits(values[i]) ^ Double.doubleToRawLongBits(predict(previous, before, i));
+            kept = (71 - Long.numberOfLeadingZeros(bits)) >>> 3;
+            for (int b = 0; b < kept; b++) {
+                target.put((byte) (bits >>> (8 * b)));
+            }
+            if ((i & 1) == 0) {
+                code = kept;
+            } else {
+                target.put(codes + (i >>> 1), (byte) (code | (kept << 4)));
+            }
+            before[i] = previous[i];
+            previous[i] = values[i];
+        }
+        if ((count & 1) == 1) {
+            target.put(codes + (count >>> 1), (byte) code);
+        }
+    }
+
+    /**
+     * Reverse of encode(); also moves the history on.
+     *
+     * @param source
+     * @param values - receives the decoded values.
+     * @param previous
+     * @param before
+     * @param count
+     */
+    public static void decode(ByteBuffer source, double[] values, double[] previous, double[] before, int count) {
+        int codes = source.position();
+        int kept;
+        long bits;
+
+        source.position(codes + (count + 1) / 2);
+        for (int i = 0; i < count; i++) {
+            kept = (source.get(codes + (i >>> 1)) >>> (4 * (i & 1))) & 0x0F;
+            bits = 0;
+            for (int b = 0; b < kept; b++) {
+                bits |= (source.get() & 0xFFL) << (8 * b);
+            }
+            values[i] = Double.longBitsToDouble(bits ^ Double.doubleToRawLongBits(predict(previous, before, i)));
+            before[i] = previous[i];
+            previous[i] = values[i];
+        }
+    }
+}
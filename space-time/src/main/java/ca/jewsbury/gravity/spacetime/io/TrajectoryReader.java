@@ -0,0 +1,309 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TrajectoryReader.class
+ *
+ * Reads back what a TrajectoryRecorder wrote, one frame at a time, from
+ * memory mapped segments. next() steps forward through every frame;
+ * seekKeyframe() jumps to any keyframe of the index, from where next()
+ * carries on. Only one segment is mapped at a time and only the current
+ * frame is held decoded, so a trajectory of any length reads in constant
+ * memory.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class TrajectoryReader {
+
+    private static final int INDEX_ENTRY_LENGTH = 8 + 8 + 4 + 8;
+
+    private final Logger logger = LoggerFactory.getLogger(TrajectoryReader.class);
+    private final File directory;
+
+    private int keyframes;
+    private long[] keySteps;
+    private double[] keyTimes;
+    private int[] keySegments;
+    private long[] keyOffsets;
+
+    private MappedByteBuffer segment;
+    private int segmentNumber;
+    private long step;
+    private double time;
+    private int count;
+    private boolean haveKeyframe;
+    private boolean frameIsKeyframe;
+    private int[] index, flags;
+    private double[] mass, radius;
+    private double[][] values, previous, before;
+
+    /**
+     * @param directory - as given to the recorder.
+     * @throws SpaceTimeException if there is no readable index in it.
+     */
+    public TrajectoryReader(File directory) throws SpaceTimeException {
+        this.directory = directory;
+        this.segmentNumber = -1;
+        this.count = 0;
+        this.index = new int[0];
+        this.flags = new int[0];
+        this.mass = new double[0];
+        this.radius = new double[0];
+        this.values = new double[TrajectoryRecorder.COMPONENTS][0];
+        this.previous = new double[TrajectoryRecorder.COMPONENTS][0];
+        this.before = new double[TrajectoryRecorder.COMPONENTS][0];
+        readIndex(new File(directory, TrajectoryRecorder.INDEX_FILE));
+    }
+
+    private void readIndex(File file) throws SpaceTimeException {
+        DataInputStream input = null;
+        int capacity;
+
+        try {
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (input.readInt() != TrajectoryRecorder.INDEX_MAGIC || input.readInt() != TrajectoryRecorder.VERSION) {
+                throw new SpaceTimeException("'" + file + "' is not a trajectory index of version " + TrajectoryRecorder.VERSION);
+            }
+            capacity = (int) Math.max(1, (file.length() - 8) / INDEX_ENTRY_LENGTH);
+            keySteps = new long[capacity];
+            keyTimes = new double[capacity];
+            keySegments = new int[capacity];
+            keyOffsets = new long[capacity];
+            keyframes = 0;
+            while (keyframes < capacity) {
+                keySteps[keyframes] = input.readLong();
+                keyTimes[keyframes] = input.readDouble();
+                keySegments[keyframes] = input.readInt();
+                keyOffsets[keyframes] = input.readLong();
+                keyframes++;
+            }
+        } catch (EOFException e) {
+            logger.warn("Trajectory index '" + file + "' ends part way; " + keyframes + " keyframes usable.");
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to read trajectory index '" + file + "' :: " + e.getMessage());
+        } finally {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    logger.warn("Unable to close '" + file + "' :: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Positions the reader on a keyframe; the next call to next() decodes it.
+     *
+     * @param keyframeNumber - [0, getKeyframeCount())
+     * @throws SpaceTimeException if its segment can't be read.
+     */
+    public void seekKeyframe(int keyframeNumber) throws SpaceTimeException {
+        if (keyframeNumber < 0 || keyframeNumber >= keyframes) {
+            throw new SpaceTimeException("No keyframe " + keyframeNumber + " of " + keyframes);
+        }
+        openSegment(keySegments[keyframeNumber]);
+        segment.position((int) keyOffsets[keyframeNumber]);
+        haveKeyframe = false;
+    }
+
+    /**
+     * Decodes the next frame.
+     *
+     * @return FALSE at the end of the trajectory.
+     * @throws SpaceTimeException if a frame is damaged, or a delta frame is
+     * reached without the keyframe before it.
+     */
+    public boolean next() throws SpaceTimeException {
+        boolean read = false;
+        int type, frameCount, payload, start;
+
+        if (segment == null && TrajectoryRecorder.segmentFile(directory, 0).isFile()) {
+            openSegment(0);
+        }
+        while (segment != null && !segment.hasRemaining()
+                && TrajectoryRecorder.segmentFile(directory, segmentNumber + 1).isFile()) {
+            openSegment(segmentNumber + 1);
+        }
+        if (segment != null && segment.remaining() >= TrajectoryRecorder.FRAME_HEADER_LENGTH) {
+            if (segment.getInt() != TrajectoryRecorder.FRAME_MAGIC) {
+                throw new SpaceTimeException("Damaged trajectory frame in segment " + segmentNumber + " at " + (segment.position() - 4));
+            }
+            type = segment.getInt();
+            step = segment.getLong();
+            time = segment.getDouble();
+            frameCount = segment.getInt();
+            payload = segment.getInt();
+            start = segment.position();
+            if (type == TrajectoryRecorder.KEYFRAME) {
+                count = frameCount;
+                readKeyframe();
+                haveKeyframe = true;
+            } else if (type == TrajectoryRecorder.DELTA_FRAME && haveKeyframe && frameCount == count) {
+                for (int c = 0; c < TrajectoryRecorder.COMPONENTS; c++) {
+                    TrajectoryCodec.decode(segment, values[c], previous[c], before[c], count);
+                }
+            } else {
+                throw new SpaceTimeException("Trajectory frame at step " + step + " can't be decoded from here.");
+            }
+            if (segment.position() != start + payload) {
+                throw new SpaceTimeException("Damaged trajectory frame at step " + step);
+            }
+            frameIsKeyframe = type == TrajectoryRecorder.KEYFRAME;
+            read = true;
+        }
+        return read;
+    }
+
+    private void readKeyframe() {
+        if (index.length < count) {
+            index = new int[count];
+            flags = new int[count];
+            mass = new double[count];
+            radius = new double[count];
+            for (int c = 0; c < TrajectoryRecorder.COMPONENTS; c++) {
+                values[c] = new double[count];
+                previous[c] = new double[count];
+                before[c] = new double[count];
+            }
+        }
+        segment.asIntBuffer().get(index, 0, count);
+        segment.position(segment.position() + count * 4);
+        segment.asIntBuffer().get(flags, 0, count);
+        segment.position(segment.position() + count * 4);
+        segment.asDoubleBuffer().get(mass, 0, count);
+        segment.position(segment.position() + count * 8);
+        segment.asDoubleBuffer().get(radius, 0, count);
+        segment.position(segment.position() + count * 8);
+        for (int c = 0; c < TrajectoryRecorder.COMPONENTS; c++) {
+            segment.asDoubleBuffer().get(values[c], 0, count);
+            segment.position(segment.position() + count * 8);
+            System.arraycopy(values[c], 0, previous[c], 0, count);
+            System.arraycopy(values[c], 0, before[c], 0, count);
+        }
+    }
+
+    private void openSegment(int number) throws SpaceTimeException {
+        FileChannel channel = null;
+        File file = TrajectoryRecorder.segmentFile(directory, number);
+
+        if (number != segmentNumber) {
+            try {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                segment.order(ByteOrder.LITTLE_ENDIAN);
+                segmentNumber = number;
+            } catch (IOException e) {
+                throw new SpaceTimeException("Unable to map trajectory segment '" + file + "' :: " + e.getMessage());
+            } finally {
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (IOException e) {
+                        logger.warn("Unable to close '" + file + "' :: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    public int getKeyframeCount() {
+        return keyframes;
+    }
+
+    public long getKeyframeStep(int keyframeNumber) {
+        return keySteps[keyframeNumber];
+    }
+
+    public double getKeyframeTime(int keyframeNumber) {
+        return keyTimes[keyframeNumber];
+    }
+
+    /**
+     * @param target
+     * @return the last keyframe at or before step target, or -1 if none.
+     */
+    public int findKeyframe(long target) {
+        int found = Arrays.binarySearch(keySteps, 0, keyframes, target);
+
+        if (found < 0) {
+            found = -found - 2;
+        }
+        return found;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return TRUE if the frame last read is a keyframe.
+     */
+    public boolean isKeyframe() {
+        return frameIsKeyframe;
+    }
+
+    public int[] getIndex() {
+        return index;
+    }
+
+    public int[] getFlags() {
+        return flags;
+    }
+
+    public double[] getMass() {
+        return mass;
+    }
+
+    public double[] getRadius() {
+        return radius;
+    }
+
+    public double[] getX() {
+        return values[0];
+    }
+
+    public double[] getY() {
+        return values[1];
+    }
+
+    public double[] getZ() {
+        return values[2];
+    }
+
+    public double[] getVx() {
+        return values[3];
+    }
+
+    public double[] getVy() {
+        return values[4];
+    }
+
+    public double[] getVz() {
+        return values[5];
+    }
+}
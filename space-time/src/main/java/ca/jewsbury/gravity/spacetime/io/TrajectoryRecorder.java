@@ -0,0 +1,460 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.StepListener;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TrajectoryRecorder.class
+ *
+ * Streams the positions and velocities of every body, every 'every' steps,
+ * to a directory of memory mapped segment files, for offline analysis and
+ * replay. Hooked onto a container as a StepListener, so it records whatever
+ * integrator is stepping it.
+ *
+ * Frames are written by the stepping thread into one of a few off-heap
+ * chunks; full chunks are handed to a flusher thread that copies them into
+ * the mapped segments and keeps the keyframe index. The stepping thread
+ * never waits on the disk: if every chunk is still queued for the flusher,
+ * the frame is dropped (and counted), and the next one is a keyframe.
+ *
+ * Every keyframeInterval frames, and whenever the set of bodies changes, a
+ * frame is a keyframe: body numbers, flags, masses, radii and raw state.
+ * The frames between hold the six state components compressed with
+ * TrajectoryCodec against the two frames before. Frame layout, little
+ * endian: int FRAME_MAGIC, int type, long step, double time, int count,
+ * int payload length, payload. Frames never cross a segment. The index
+ * file lists every keyframe as (long step, double time, int segment, long
+ * offset).
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class TrajectoryRecorder implements StepListener {
+
+    public static final int FRAME_MAGIC = 0x4D524654; // "TFRM"
+    public static final int INDEX_MAGIC = 0x58444954; // "TIDX"
+    public static final int VERSION = 1;
+    public static final int FRAME_HEADER_LENGTH = 32;
+    public static final int KEYFRAME = 1;
+    public static final int DELTA_FRAME = 2;
+    public static final int COMPONENTS = 6;
+    public static final String INDEX_FILE = "trajectory.idx";
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 128;
+    public static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+    public static final int DEFAULT_CHUNKS = 4;
+    public static final long DEFAULT_SEGMENT_SIZE = 512L << 20;
+
+    private final Logger logger = LoggerFactory.getLogger(TrajectoryRecorder.class);
+    private final File directory;
+    private final int every;
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private final Chunk endOfStream;
+
+    private int keyframeInterval;
+    private long segmentSize;
+    private SpaceContainer container;
+    private Thread flusher;
+    private Chunk current;
+    private double[][] values, previous, before;
+    private int[] lastIndex;
+    private int trackedCount;
+    private int framesSinceKey;
+    private boolean keyNeeded;
+    private volatile boolean recording;
+    private volatile long framesRecorded;
+    private volatile long framesDropped;
+    private volatile long encodedBytes;
+    private volatile long rawBytes;
+    private volatile IOException flushError;
+
+    // Flusher thread only.
+    private DataOutputStream index;
+    private FileChannel segmentChannel;
+    private long segmentPosition;
+    private int segmentNumber;
+
+    /**
+     * @param directory - created if missing; segments and the index go here.
+     * @param every - record every 'every' steps.
+     */
+    public TrajectoryRecorder(File directory, int every) {
+        this(directory, every, DEFAULT_CHUNKS, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param directory
+     * @param every
+     * @param chunks - off-heap buffers between the stepping thread and the
+     * flusher.
+     * @param chunkSize - bytes per buffer; grown if a frame needs more.
+     */
+    public TrajectoryRecorder(File directory, int every, int chunks, int chunkSize) {
+        this.directory = directory;
+        this.every = Math.max(1, every);
+        this.free = new ArrayBlockingQueue<Chunk>(Math.max(2, chunks));
+        this.filled = new ArrayBlockingQueue<Chunk>(Math.max(2, chunks) + 1);
+        for (int i = 0; i < Math.max(2, chunks); i++) {
+            free.add(new Chunk(chunkSize));
+        }
+        this.endOfStream = new Chunk(0);
+        this.keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+        this.segmentSize = DEFAULT_SEGMENT_SIZE;
+        this.segmentNumber = -1;
+    }
+
+    public void setKeyframeInterval(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = Math.max(1 << 16, Math.min(Integer.MAX_VALUE, segmentSize));
+    }
+
+    /**
+     * Opens the index, starts the flusher, records the container as it is
+     * now and then after every 'every' steps.
+     *
+     * @param target
+     * @throws SpaceTimeException if the directory can't be written.
+     */
+    public void start(SpaceContainer target) throws SpaceTimeException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new SpaceTimeException("Unable to create trajectory directory '" + directory + "'");
+        }
+        try {
+            index = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(directory, INDEX_FILE))));
+            index.writeInt(INDEX_MAGIC);
+            index.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new SpaceTimeException("Unable to open trajectory index :: " + e.getMessage());
+        }
+        container = target;
+        keyNeeded = true;
+        recording = true;
+        flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flushChunks();
+            }
+        }, "trajectory-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        recordFrame(target);
+        target.addStepListener(this);
+    }
+
+    @Override
+    public void stepCompleted(SpaceContainer stepped, StepDiagnostics diagnostics) {
+        if (recording && stepped.getStepCount() % every == 0) {
+            recordFrame(stepped);
+        }
+    }
+
+    private void recordFrame(SpaceContainer source) {
+        ParticleStore store = source.getParticleStore();
+        int count = store.size();
+        boolean key = keyNeeded || framesSinceKey >= keyframeInterval || !sameBodies(store);
+        int frameLength = FRAME_HEADER_LENGTH + (key ? keyframeLength(count) : COMPONENTS * TrajectoryCodec.maxEncodedLength(count));
+        ByteBuffer data;
+        int start;
+
+        if (claimSpace(frameLength)) {
+            data = current.data;
+            start = data.position();
+            data.putInt(FRAME_MAGIC);
+            data.putInt(key ? KEYFRAME : DELTA_FRAME);
+            data.putLong(source.getStepCount());
+            data.putDouble(source.getSimulationTime());
+            data.putInt(count);
+            data.putInt(0);
+            readState(store, count);
+            if (key) {
+                writeKeyframe(data, store, count);
+                current.addKey(start, source.getStepCount(), source.getSimulationTime());
+                framesSinceKey = 0;
+                keyNeeded = false;
+            } else {
+                for (int c = 0; c < COMPONENTS; c++) {
+                    TrajectoryCodec.encode(data, values[c], previous[c], before[c], count);
+                }
+            }
+            data.putInt(start + FRAME_HEADER_LENGTH - 4, data.position() - start - FRAME_HEADER_LENGTH);
+            framesSinceKey++;
+            framesRecorded++;
+            encodedBytes += data.position() - start;
+            rawBytes += FRAME_HEADER_LENGTH + (long) count * COMPONENTS * 8;
+        } else {
+            framesDropped++;
+            keyNeeded = true;
+        }
+    }
+
+    /**
+     * Makes sure the current chunk has frameLength bytes free, handing a
+     * full one to the flusher; never waits.
+     *
+     * @return FALSE if no chunk is free.
+     */
+    private boolean claimSpace(int frameLength) {
+        if (current != null && current.data.remaining() < frameLength) {
+            filled.add(current);
+            current = null;
+        }
+        if (current == null) {
+            current = free.poll();
+            if (current != null && current.data.capacity() < frameLength) {
+                current.grow(frameLength);
+            }
+        }
+        return current != null;
+    }
+
+    private boolean sameBodies(ParticleStore store) {
+        boolean same = store.size() == trackedCount;
+        int[] bodyIndex = store.getIndex();
+
+        for (int i = 0; same && i < trackedCount; i++) {
+            same = bodyIndex[i] == lastIndex[i];
+        }
+        return same;
+    }
+
+    private void readState(ParticleStore store, int count) {
+        if (values == null || values[0].length < count) {
+            values = new double[COMPONENTS][count];
+            previous = new double[COMPONENTS][count];
+            before = new double[COMPONENTS][count];
+            lastIndex = new int[count];
+        }
+        System.arraycopy(store.getX(), 0, values[0], 0, count);
+        System.arraycopy(store.getY(), 0, values[1], 0, count);
+        System.arraycopy(store.getZ(), 0, values[2], 0, count);
+        System.arraycopy(store.getVx(), 0, values[3], 0, count);
+        System.arraycopy(store.getVy(), 0, values[4], 0, count);
+        System.arraycopy(store.getVz(), 0, values[5], 0, count);
+    }
+
+    public static int keyframeLength(int count) {
+        return count * (4 + 4 + 8 + 8 + COMPONENTS * 8);
+    }
+
+    private void writeKeyframe(ByteBuffer data, ParticleStore store, int count) {
+        putInts(data, store.getIndex(), count);
+        putInts(data, store.getFlags(), count);
+        putDoubles(data, store.getMass(), count);
+        putDoubles(data, store.getRadius(), count);
+        for (int c = 0; c < COMPONENTS; c++) {
+            putDoubles(data, values[c], count);
+            System.arraycopy(values[c], 0, previous[c], 0, count);
+            System.arraycopy(values[c], 0, before[c], 0, count);
+        }
+        System.arraycopy(store.getIndex(), 0, lastIndex, 0, count);
+        trackedCount = count;
+    }
+
+    private static void putInts(ByteBuffer data, int[] array, int count) {
+        data.asIntBuffer().put(array, 0, count);
+        data.position(data.position() + count * 4);
+    }
+
+    private static void putDoubles(ByteBuffer data, double[] array, int count) {
+        data.asDoubleBuffer().put(array, 0, count);
+        data.position(data.position() + count * 8);
+    }
+
+    /**
+     * Flusher thread: copies chunks into the segments until end of stream.
+     * After a write error the chunks are only recycled, so the stepping
+     * thread carries on (dropping frames) and close() reports the error.
+     */
+    private void flushChunks() {
+        Chunk chunk = null;
+
+        while (chunk != endOfStream) {
+            try {
+                chunk = filled.take();
+                if (chunk != endOfStream) {
+                    if (flushError == null) {
+                        writeChunk(chunk);
+                    }
+                    chunk.data.clear();
+                    chunk.keys = 0;
+                    free.add(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunk = endOfStream;
+            } catch (IOException e) {
+                logger.error("Trajectory write failed :: " + e.getMessage());
+                flushError = e;
+                chunk.data.clear();
+                chunk.keys = 0;
+                free.add(chunk);
+            }
+        }
+    }
+
+    /**
+     * Maps just the bytes the chunk needs at the end of the segment, so the
+     * file only ever grows to what was written and never has to be cut back
+     * while a mapping is still open (which Windows refuses).
+     */
+    private void writeChunk(Chunk chunk) throws IOException {
+        ByteBuffer data = chunk.data;
+        MappedByteBuffer region;
+        int length;
+
+        data.flip();
+        length = data.remaining();
+        if (segmentChannel == null || (segmentPosition > 0 && segmentPosition + length > segmentSize)) {
+            openSegment();
+        }
+        for (int k = 0; k < chunk.keys; k++) {
+            index.writeLong(chunk.keySteps[k]);
+            index.writeDouble(chunk.keyTimes[k]);
+            index.writeInt(segmentNumber);
+            index.writeLong(segmentPosition + chunk.keyOffsets[k]);
+        }
+        region = segmentChannel.map(FileChannel.MapMode.READ_WRITE, segmentPosition, length);
+        region.put(data);
+        region.force();
+        segmentPosition += length;
+    }
+
+    private void openSegment() throws IOException {
+        closeSegment();
+        segmentNumber++;
+        segmentChannel = FileChannel.open(segmentFile(directory, segmentNumber).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentPosition = 0;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segmentChannel != null) {
+            segmentChannel.close();
+            segmentChannel = null;
+        }
+    }
+
+    /**
+     * @param directory
+     * @param number
+     * @return the file holding segment 'number'.
+     */
+    public static File segmentFile(File directory, int number) {
+        return new File(directory, String.format("trajectory-%05d.seg", number));
+    }
+
+    /**
+     * Stops recording, writes out what is buffered and closes the files.
+     * Call from the stepping thread, or once it has stopped.
+     *
+     * @throws SpaceTimeException if anything failed to reach the disk.
+     */
+    public void close() throws SpaceTimeException {
+        IOException error;
+
+        if (recording) {
+            recording = false;
+            container.removeStepListener(this);
+            if (current != null && current.data.position() > 0) {
+                filled.add(current);
+            }
+            current = null;
+            filled.add(endOfStream);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            error = flushError;
+            try {
+                closeSegment();
+                index.close();
+            } catch (IOException e) {
+                error = error != null ? error : e;
+            }
+            logger.info("Recorded " + framesRecorded + " frames (" + framesDropped + " dropped), "
+                    + encodedBytes + " bytes for " + rawBytes + " raw.");
+            if (error != null) {
+                throw new SpaceTimeException("Trajectory incomplete :: " + error.getMessage());
+            }
+        }
+    }
+
+    public long getFramesRecorded() {
+        return framesRecorded;
+    }
+
+    /**
+     * @return frames skipped because the flusher was behind.
+     */
+    public long getFramesDropped() {
+        return framesDropped;
+    }
+
+    /**
+     * @return encoded bytes over the bytes the same frames take as raw
+     * doubles.
+     */
+    public double getCompressionRatio() {
+        return rawBytes > 0 ? (double) encodedBytes / rawBytes : 1.0;
+    }
+
+    /**
+     * Buffer passed between the stepping thread and the flusher, with the
+     * keyframes it holds.
+     */
+    private static class Chunk {
+
+        private ByteBuffer data;
+        private int keys;
+        private int[] keyOffsets;
+        private long[] keySteps;
+        private double[] keyTimes;
+
+        Chunk(int size) {
+            data = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+            keyOffsets = new int[4];
+            keySteps = new long[4];
+            keyTimes = new double[4];
+        }
+
+        void grow(int size) {
+            data = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void addKey(int offset, long step, double time) {
+            if (keys == keyOffsets.length) {
+                keyOffsets = Arrays.copyOf(keyOffsets, keys * 2);
+                keySteps = Arrays.copyOf(keySteps, keys * 2);
+                keyTimes = Arrays.copyOf(keyTimes, keys * 2);
+            }
+            keyOffsets[keys] = offset;
+            keySteps[keys] = step;
+            keyTimes[keys] = time;
+            keys++;
+        }
+    }
+}
@@ -13,6 +13,10 @@ public class DynamicObject extends SpaceObject implements Orbital {
     public DynamicObject(String idName) {
         super(idName);
     }
+
+    public DynamicObject(String idName, ParticleStore store, int slot) {
+        super(idName, store, slot);
+    }
     
     @Override
     public boolean isStatic() {
@@ -20,6 +20,10 @@ public class MassiveObject extends SpaceObject implements Orbital {
         super(idName);
     }
 
+    public MassiveObject(String idName, ParticleStore store, int slot) {
+        super(idName, store, slot);
+    }
+
     @Override
     public boolean isStatic() {
         return super.STATIC_OBJECT;
@@ -31,6 +31,8 @@ public interface Orbital {
 
     SpaceTimeVector getPosition();
 
+    void readPosition(SpaceTimeVector target);
+
     void pushLastPosition(SpaceTimeVector position);
 
     CircularFifoBuffer getLastPositions();
@@ -62,6 +64,8 @@ public interface Orbital {
     double distanceToOther(Orbital other);
     
     SpaceTimeVector getUnitVectorFacingOther(Orbital other);
+
+    boolean getUnitVectorFacingOther(Orbital other, SpaceTimeVector result);
     
     SpaceTimeVector getLastAcceleration();
     
@@ -70,4 +74,14 @@ public interface Orbital {
     boolean isReferenceObject();
     void setReferenceObject(boolean isReference);
 
+    ParticleStore getStore();
+
+    int getStoreSlot();
+
+    void attachToStore(ParticleStore store, int bodyIndex);
+
+    void moveToSlot(int slot);
+
+    void detachFromStore();
+
 }
@@ -0,0 +1,334 @@
+package ca.jewsbury.gravity.spacetime.model;
+
+import java.util.Arrays;
+
+/**
+ * ParticleStore.class
+ *
+ * Structure-of-arrays storage for every body in a simulation. Each body owns a
+ * single slot, and its position, velocity, acceleration, mass and radius live
+ * in contiguous primitive arrays so that the force kernels and integrators can
+ * stream through them without touching any SpaceObject. The Orbital objects
+ * are only views over a slot.
+ *
+ * Slots are dense: removing a body moves the last slot into the hole. The
+ * 'index' array holds a stable body number that survives such moves.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class ParticleStore {
+
+    public static final int FLAG_STATIC = 1;
+    public static final int FLAG_REFERENCE = 2;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] x, y, z;
+    private double[] vx, vy, vz;
+    private double[] ax, ay, az;
+    private double[] mass;
+    private double[] radius;
+    private double[] potential;
+    private int[] index;
+    private int[] flags;
+
+    private int size;
+    private long version;
+    private boolean accelerationsValid;
+
+    public ParticleStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ParticleStore(int capacity) {
+        allocate(Math.max(1, capacity));
+        size = 0;
+        version = 0;
+        accelerationsValid = false;
+    }
+
+    private void allocate(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        z = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        vz = new double[capacity];
+        ax = new double[capacity];
+        ay = new double[capacity];
+        az = new double[capacity];
+        mass = new double[capacity];
+        radius = new double[capacity];
+        potential = new double[capacity];
+        index = new int[capacity];
+        flags = new int[capacity];
+    }
+
+    /**
+     * Grows every array so that at least 'required' slots are available.
+     *
+     * @param required
+     */
+    public void ensureCapacity(int required) {
+        int capacity;
+        if (required > x.length) {
+            capacity = Math.max(required, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+            vz = Arrays.copyOf(vz, capacity);
+            ax = Arrays.copyOf(ax, capacity);
+            ay = Arrays.copyOf(ay, capacity);
+            az = Arrays.copyOf(az, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            radius = Arrays.copyOf(radius, capacity);
+            potential = Arrays.copyOf(potential, capacity);
+            index = Arrays.copyOf(index, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+    }
+
+    /**
+     * Appends a body at rest at the origin.
+     *
+     * @param bodyIndex - stable body number
+     * @param bodyMass
+     * @param bodyRadius
+     * @param bodyFlags - combination of FLAG_STATIC and FLAG_REFERENCE
+     * @return the slot the body was placed in.
+     */
+    public int add(int bodyIndex, double bodyMass, double bodyRadius, int bodyFlags) {
+        int slot = size;
+
+        ensureCapacity(size + 1);
+        x[slot] = y[slot] = z[slot] = 0.0;
+        vx[slot] = vy[slot] = vz[slot] = 0.0;
+        ax[slot] = ay[slot] = az[slot] = 0.0;
+        potential[slot] = 0.0;
+        mass[slot] = bodyMass;
+        radius[slot] = bodyRadius;
+        index[slot] = bodyIndex;
+        flags[slot] = bodyFlags;
+        size++;
+        version++;
+        accelerationsValid = false;
+        return slot;
+    }
+
+    /**
+     * Appends a copy of a slot held by another store.
+     *
+     * @param source
+     * @param sourceSlot
+     * @param bodyIndex - stable body number to use in this store
+     * @return the slot the copy was placed in.
+     */
+    public int copyFrom(ParticleStore source, int sourceSlot, int bodyIndex) {
+        int slot = add(bodyIndex, source.mass[sourceSlot], source.radius[sourceSlot], source.flags[sourceSlot]);
+
+        x[slot] = source.x[sourceSlot];
+        y[slot] = source.y[sourceSlot];
+        z[slot] = source.z[sourceSlot];
+        vx[slot] = source.vx[sourceSlot];
+        vy[slot] = source.vy[sourceSlot];
+        vz[slot] = source.vz[sourceSlot];
+        ax[slot] = source.ax[sourceSlot];
+        ay[slot] = source.ay[sourceSlot];
+        az[slot] = source.az[sourceSlot];
+        potential[slot] = source.potential[sourceSlot];
+        return slot;
+    }
+
+    /**
+     * Removes a slot by moving the last slot into its place.
+     *
+     * @param slot
+     * @return the former slot of the body that now occupies 'slot', or -1 if
+     * the removed slot was the last one.
+     */
+    public int remove(int slot) {
+        int last = size - 1;
+        int moved = -1;
+
+        if (slot < 0 || slot > last) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " is outside [0, " + size + ")");
+        }
+        if (slot != last) {
+            x[slot] = x[last];
+            y[slot] = y[last];
+            z[slot] = z[last];
+            vx[slot] = vx[last];
+            vy[slot] = vy[last];
+            vz[slot] = vz[last];
+            ax[slot] = ax[last];
+            ay[slot] = ay[last];
+            az[slot] = az[last];
+            mass[slot] = mass[last];
+            radius[slot] = radius[last];
+            potential[slot] = potential[last];
+            index[slot] = index[last];
+            flags[slot] = flags[last];
+            moved = last;
+        }
+        size--;
+        version++;
+        accelerationsValid = false;
+        return moved;
+    }
+
+    public void clear() {
+        size = 0;
+        version++;
+        accelerationsValid = false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    /*
+     * SLOT ACCESSORS
+     */
+    public void setPosition(int slot, double xC, double yC, double zC) {
+        x[slot] = xC;
+        y[slot] = yC;
+        z[slot] = zC;
+        version++;
+        accelerationsValid = false;
+    }
+
+    public void setVelocity(int slot, double vxC, double vyC, double vzC) {
+        vx[slot] = vxC;
+        vy[slot] = vyC;
+        vz[slot] = vzC;
+    }
+
+    public void setAcceleration(int slot, double axC, double ayC, double azC) {
+        ax[slot] = axC;
+        ay[slot] = ayC;
+        az[slot] = azC;
+    }
+
+    public void setMass(int slot, double bodyMass) {
+        mass[slot] = bodyMass;
+        version++;
+        accelerationsValid = false;
+    }
+
+    public void setRadius(int slot, double bodyRadius) {
+        radius[slot] = bodyRadius;
+    }
+
+    public void setFlags(int slot, int bodyFlags) {
+        flags[slot] = bodyFlags;
+    }
+
+    public boolean isStatic(int slot) {
+        return (flags[slot] & FLAG_STATIC) != 0;
+    }
+
+    public boolean isReference(int slot) {
+        return (flags[slot] & FLAG_REFERENCE) != 0;
+    }
+
+    /**
+     * Must be called by anything that writes the position arrays directly,
+     * so that force solvers rebuild their structures. The accelerations are
+     * left as they are; they still describe the previous positions.
+     */
+    public void markPositionsChanged() {
+        version++;
+    }
+
+    /**
+     * @return a counter that changes whenever positions, masses or the set of
+     * bodies change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * TRUE when the acceleration arrays hold the result of a force evaluation
+     * over the current positions and masses.
+     *
+     * @return boolean
+     */
+    public boolean hasAccelerations() {
+        return accelerationsValid;
+    }
+
+    public void setAccelerationsValid(boolean valid) {
+        this.accelerationsValid = valid;
+    }
+
+    /*
+     * RAW ARRAYS
+     *
+     * The arrays are replaced when the store grows, so kernels must fetch
+     * them again after any add().
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getZ() {
+        return z;
+    }
+
+    public double[] getVx() {
+        return vx;
+    }
+
+    public double[] getVy() {
+        return vy;
+    }
+
+    public double[] getVz() {
+        return vz;
+    }
+
+    public double[] getAx() {
+        return ax;
+    }
+
+    public double[] getAy() {
+        return ay;
+    }
+
+    public double[] getAz() {
+        return az;
+    }
+
+    public double[] getMass() {
+        return mass;
+    }
+
+    public double[] getRadius() {
+        return radius;
+    }
+
+    public double[] getPotential() {
+        return potential;
+    }
+
+    public int[] getIndex() {
+        return index;
+    }
+
+    public int[] getFlags() {
+        return flags;
+    }
+}
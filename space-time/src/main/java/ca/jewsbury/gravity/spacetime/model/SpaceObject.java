@@ -1,6 +1,5 @@
 package ca.jewsbury.gravity.spacetime.model;
 
-import ca.jewsbury.gravity.spacetime.SpaceTimeException;
 import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
 import org.apache.commons.collections.buffer.CircularFifoBuffer;
 import org.slf4j.Logger;
@@ -26,31 +25,98 @@ public abstract class SpaceObject implements Orbital {
     protected final String idName;
     protected boolean isReference;
 
-    protected double radius; //meters [[m]]
-    protected double mass; //kilograms [[kg]]
-
-    //protected CircularFifoBuffer lastPositions;
-    protected SpaceTimeVector position; //meters
-    protected SpaceTimeVector velocity; //meters per second [[m/s]]
-    protected SpaceTimeVector acceleration; //meters per second squared [[ m/s^2 ]]
-    protected SpaceTimeVector lastAcceleration;
-    protected double potentialEnergy;
+    protected ParticleStore store; // the slot holding this objects state
+    protected int slot;
     protected int pushRequests;
 
     public SpaceObject(String idName) {
         this.idName = idName;
 
-        position = new SpaceTimeVector();
         //lastPositions = new CircularFifoBuffer(SAVE_LAST_POSITIONS);
-        velocity = new SpaceTimeVector();
-        acceleration = new SpaceTimeVector();
-        radius = 1.0;
-        mass = 1.0;
+        store = new ParticleStore(1);
+        slot = store.add(0, 1.0, 1.0, 0);
 
         this.pushRequests = 0;
         this.isReference = false;
     }
 
+    /**
+     * Makes a view over a slot that is already filled in, without the
+     * private store the other constructor starts from. Used to insert bodies
+     * in bulk.
+     *
+     * @param idName
+     * @param store
+     * @param slot
+     */
+    protected SpaceObject(String idName, ParticleStore store, int slot) {
+        this.idName = idName;
+        this.store = store;
+        this.slot = slot;
+        this.pushRequests = 0;
+        this.isReference = store.isReference(slot);
+    }
+
+    /**
+     * Copies this objects state into the given store and makes that slot the
+     * backing state of this object from now on.
+     *
+     * @param target
+     * @param bodyIndex - stable body number within the target store
+     */
+    @Override
+    public void attachToStore(ParticleStore target, int bodyIndex) {
+        int newSlot;
+        if (target != null && target != store) {
+            newSlot = target.copyFrom(store, slot, bodyIndex);
+            target.setFlags(newSlot, getStoreFlags());
+            store = target;
+            slot = newSlot;
+        }
+    }
+
+    /**
+     * The store moved this objects state to a different slot.
+     *
+     * @param newSlot
+     */
+    @Override
+    public void moveToSlot(int newSlot) {
+        this.slot = newSlot;
+    }
+
+    /**
+     * Copies this objects state out of its shared store into a private one.
+     * Used when the object is removed from a container.
+     */
+    @Override
+    public void detachFromStore() {
+        ParticleStore own = new ParticleStore(1);
+        slot = own.copyFrom(store, slot, 0);
+        store = own;
+    }
+
+    @Override
+    public ParticleStore getStore() {
+        return store;
+    }
+
+    @Override
+    public int getStoreSlot() {
+        return slot;
+    }
+
+    private int getStoreFlags() {
+        int storeFlags = 0;
+        if (isStatic()) {
+            storeFlags |= ParticleStore.FLAG_STATIC;
+        }
+        if (isReference) {
+            storeFlags |= ParticleStore.FLAG_REFERENCE;
+        }
+        return storeFlags;
+    }
+
     /**
      * velocity + delta
      *
@@ -59,7 +125,11 @@ public abstract class SpaceObject implements Orbital {
     @Override
     public void increaseVelocity(SpaceTimeVector delta) {
         if (!isStatic()) {
-            this.velocity.translate(delta);
+            if (delta != null) {
+                store.getVx()[slot] += delta.getxCoord();
+                store.getVy()[slot] += delta.getyCoord();
+                store.getVz()[slot] += delta.getzCoord();
+            }
         } else {
             logger.warn("Attempted to increase the velocity of a static object.");
         }
@@ -67,12 +137,17 @@ public abstract class SpaceObject implements Orbital {
 
     @Override
     public void moveObject(SpaceTimeVector displacement) {
-        SpaceTimeVector lastPosition;
-        if (!isStatic()) {
-            lastPosition = new SpaceTimeVector(position);
-            pushLastPosition(lastPosition);
-            position.translate(velocity);
-
+        if (!isStatic() && displacement != null) {
+            // Only copy the position on the pushes that keep it.
+            if (this.pushRequests % SpaceTimeConstants.PUSH_REQUEST_LIMIT == 0) {
+                pushLastPosition(getPosition());
+            } else {
+                this.pushRequests++;
+            }
+            store.setPosition(slot,
+                    store.getX()[slot] + displacement.getxCoord(),
+                    store.getY()[slot] + displacement.getyCoord(),
+                    store.getZ()[slot] + displacement.getzCoord());
         } // else :: static objects dont move!
     }
 
@@ -88,16 +163,20 @@ public abstract class SpaceObject implements Orbital {
     @Override
     public double getKineticEnergy() {
         double kineticEnergy = 0.0;
+        double velX, velY, velZ;
 
         if (!this.isStatic()) {
-            kineticEnergy = (0.5) * this.mass * (this.velocity.getVectorSquared());
+            velX = store.getVx()[slot];
+            velY = store.getVy()[slot];
+            velZ = store.getVz()[slot];
+            kineticEnergy = (0.5) * getMass() * (velX * velX + velY * velY + velZ * velZ);
         }
         return kineticEnergy;
     }
 
     @Override
     public double getPotentialEnergy() {
-        return potentialEnergy;
+        return store.getPotential()[slot];
     }
 
     /* *** ACCESSORS AND MUTATORS *** */
@@ -113,32 +192,38 @@ public abstract class SpaceObject implements Orbital {
 
     @Override
     public double getRadius() {
-        return radius;
+        return store.getRadius()[slot];
     }
 
     @Override
     public void setRadius(double radius) {
-        this.radius = radius;
+        store.setRadius(slot, radius);
     }
 
     @Override
     public double getMass() {
-        return mass;
+        return store.getMass()[slot];
     }
 
     @Override
     public void setMass(double mass) {
-        this.mass = mass;
+        store.setMass(slot, mass);
     }
 
+    /**
+     * @return a copy of the current velocity. Use increaseVelocity or
+     * setVelocity to change it.
+     */
     @Override
     public SpaceTimeVector getVelocity() {
-        return velocity;
+        return new SpaceTimeVector(store.getVx()[slot], store.getVy()[slot], store.getVz()[slot]);
     }
 
     @Override
     public void setVelocity(SpaceTimeVector velocity) {
-        this.velocity = velocity;
+        if (velocity != null) {
+            store.setVelocity(slot, velocity.getxCoord(), velocity.getyCoord(), velocity.getzCoord());
+        }
     }
 
     @Override
@@ -146,29 +231,47 @@ public abstract class SpaceObject implements Orbital {
         return null;
     }
 
+    /**
+     * @return a copy of the current position. Use moveObject or setPosition
+     * to change it.
+     */
     @Override
     public SpaceTimeVector getPosition() {
-        return position;
+        return new SpaceTimeVector(store.getX()[slot], store.getY()[slot], store.getZ()[slot]);
+    }
+
+    /**
+     * Copies the current position into target without allocating.
+     *
+     * @param target
+     */
+    @Override
+    public void readPosition(SpaceTimeVector target) {
+        target.set(store.getX()[slot], store.getY()[slot], store.getZ()[slot]);
     }
 
     @Override
     public void setPosition(SpaceTimeVector position) {
-        this.position = position;
+        if (position != null) {
+            store.setPosition(slot, position.getxCoord(), position.getyCoord(), position.getzCoord());
+        }
     }
 
     @Override
     public SpaceTimeVector getAcceleration() {
-        return acceleration;
+        return new SpaceTimeVector(store.getAx()[slot], store.getAy()[slot], store.getAz()[slot]);
     }
 
     @Override
     public void setAcceleration(SpaceTimeVector acceleration) {
-        this.acceleration = acceleration;
+        if (acceleration != null) {
+            store.setAcceleration(slot, acceleration.getxCoord(), acceleration.getyCoord(), acceleration.getzCoord());
+        }
     }
 
     @Override
     public void setPotentialEnergy(double potential) {
-        this.potentialEnergy = potential;
+        store.getPotential()[slot] = potential;
     }
 
     @Override
@@ -197,45 +300,85 @@ public abstract class SpaceObject implements Orbital {
     @Override
     public double distanceToOther(Orbital other) {
         double distanceTo = 0;
-        if (other != null && other.getPosition() != null) {
-            try {
-                distanceTo = (this.getPosition().distanceTo(other.getPosition()));
-            } catch (SpaceTimeException e) {
-                logger.error("Reported space time exception :: " + e.getMessage());
-            }
+        double xDist, yDist, zDist;
+        ParticleStore otherStore;
+        int otherSlot;
+
+        if (other != null && other.getStore() != null) {
+            otherStore = other.getStore();
+            otherSlot = other.getStoreSlot();
+            xDist = store.getX()[slot] - otherStore.getX()[otherSlot];
+            yDist = store.getY()[slot] - otherStore.getY()[otherSlot];
+            zDist = store.getZ()[slot] - otherStore.getZ()[otherSlot];
+            distanceTo = Math.sqrt(xDist * xDist + yDist * yDist + zDist * zDist);
         }
         return distanceTo;
     }
 
     @Override
     public SpaceTimeVector getUnitVectorFacingOther(Orbital other) {
-        SpaceTimeVector unitVector = null;
-        SpaceTimeVector rOne, rTwo;
-        if (other != null && !this.equals(other)) {
-            rOne = new SpaceTimeVector(this.getPosition());
-            rTwo = new SpaceTimeVector(other.getPosition());
-            rOne.parityOperator(); // -R1
-            rTwo.translate(rOne); //R2 - R1
-
-            unitVector = new SpaceTimeVector(rTwo); //R2-R1
-            unitVector.normalize(); // (R2-R1)/|R2-R1|
+        SpaceTimeVector unitVector = new SpaceTimeVector();
+        if (!getUnitVectorFacingOther(other, unitVector)) {
+            unitVector = null;
         }
         return unitVector;
     }
 
+    /**
+     * (R2-R1)/|R2-R1| written into result, straight from the store arrays.
+     *
+     * @param other
+     * @param result
+     * @return FALSE if other is null, this object, or at the same position;
+     * result is left untouched then.
+     */
+    @Override
+    public boolean getUnitVectorFacingOther(Orbital other, SpaceTimeVector result) {
+        boolean found = false;
+        ParticleStore otherStore;
+        int otherSlot;
+        double dx, dy, dz, distance;
+
+        if (other != null && !this.equals(other) && other.getStore() != null) {
+            otherStore = other.getStore();
+            otherSlot = other.getStoreSlot();
+            dx = otherStore.getX()[otherSlot] - store.getX()[slot];
+            dy = otherStore.getY()[otherSlot] - store.getY()[slot];
+            dz = otherStore.getZ()[otherSlot] - store.getZ()[slot];
+            distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (distance > 0) {
+                result.set(dx / distance, dy / distance, dz / distance);
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The store keeps a single acceleration per slot, which is the one from
+     * the last force evaluation.
+     *
+     * @return null if the store has not evaluated forces since the last
+     * change in positions or masses.
+     */
     @Override
     public SpaceTimeVector getLastAcceleration() {
-        return lastAcceleration;
+        SpaceTimeVector last = null;
+        if (store.hasAccelerations()) {
+            last = getAcceleration();
+        }
+        return last;
     }
 
     @Override
     public void setLastAcceleration(SpaceTimeVector lastAcceleration) {
-        this.lastAcceleration = lastAcceleration;
+        setAcceleration(lastAcceleration);
     }
 
     @Override
     public void setReferenceObject(boolean reference) {
         this.isReference = reference;
+        store.setFlags(slot, getStoreFlags());
     }
 
     @Override
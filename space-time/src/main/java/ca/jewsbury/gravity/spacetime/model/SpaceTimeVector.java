@@ -37,6 +37,19 @@ public class SpaceTimeVector {
         this.zCoord = copy.getzCoord();
     }
     
+    /**
+     * Overwrites all three coordinates in place.
+     *
+     * @param xC
+     * @param yC
+     * @param zC
+     */
+    public void set(double xC, double yC, double zC) {
+        this.xCoord = xC;
+        this.yCoord = yC;
+        this.zCoord = zC;
+    }
+
     public void deepCopy( SpaceTimeVector source ) {
         this.xCoord = source.getxCoord();
         this.yCoord = source.getyCoord();
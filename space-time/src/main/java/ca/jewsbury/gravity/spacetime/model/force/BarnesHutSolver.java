@@ -0,0 +1,400 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.Dimensional;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Arrays;
+
+/**
+ * BarnesHutSolver.class
+ *
+ * Tree code. prepare() builds an octree (or a quadtree for Dimensional.TwoD)
+ * over every body, then each query walks the tree and replaces any cell that
+ * is small compared to its distance by a point mass at the cell's centre of
+ * mass. A cell of side 's' at distance 'd' is accepted when s/d < theta, so
+ * theta = 0 opens every cell and reproduces the direct sum.
+ *
+ * The tree is kept in flat arrays that are reused from step to step.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class BarnesHutSolver implements ForceSolver {
+
+    public static final double DEFAULT_OPENING_ANGLE = 0.5;
+
+    // Below this depth coincident bodies simply share a leaf.
+    private static final int MAX_DEPTH = 48;
+
+    private final Dimensional dimension;
+    private final int branching;
+    private double openingAngle;
+    private double openingAngleSquared;
+
+    // Node arrays
+    private double[] centerX, centerY, centerZ, halfSize;
+    private double[] nodeMass, comX, comY, comZ;
+    private int[] firstChild; // -1 for leaves
+    private int[] leafBody; // first body of a leaf, -1 if empty
+    private int nodeCount;
+
+    // Per slot link to the next body sharing a leaf
+    private int[] nextBody;
+
+    public BarnesHutSolver() {
+        this(DEFAULT_OPENING_ANGLE, Dimensional.ThreeD);
+    }
+
+    public BarnesHutSolver(double openingAngle, Dimensional dimension) {
+        this.dimension = (dimension != null) ? dimension : Dimensional.ThreeD;
+        this.branching = (this.dimension == Dimensional.TwoD) ? 4 : 8;
+        setOpeningAngle(openingAngle);
+        allocateNodes(64);
+        nextBody = new int[16];
+        nodeCount = 0;
+    }
+
+    public double getOpeningAngle() {
+        return openingAngle;
+    }
+
+    public final void setOpeningAngle(double theta) {
+        if (theta < 0) {
+            throw new IllegalArgumentException("Opening angle must not be negative.");
+        }
+        this.openingAngle = theta;
+        this.openingAngleSquared = theta * theta;
+    }
+
+    public Dimensional getDimension() {
+        return dimension;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private void allocateNodes(int capacity) {
+        centerX = new double[capacity];
+        centerY = new double[capacity];
+        centerZ = new double[capacity];
+        halfSize = new double[capacity];
+        nodeMass = new double[capacity];
+        comX = new double[capacity];
+        comY = new double[capacity];
+        comZ = new double[capacity];
+        firstChild = new int[capacity];
+        leafBody = new int[capacity];
+    }
+
+    private void growNodes(int required) {
+        int capacity;
+        if (required > centerX.length) {
+            capacity = Math.max(required, centerX.length * 2);
+            centerX = Arrays.copyOf(centerX, capacity);
+            centerY = Arrays.copyOf(centerY, capacity);
+            centerZ = Arrays.copyOf(centerZ, capacity);
+            halfSize = Arrays.copyOf(halfSize, capacity);
+            nodeMass = Arrays.copyOf(nodeMass, capacity);
+            comX = Arrays.copyOf(comX, capacity);
+            comY = Arrays.copyOf(comY, capacity);
+            comZ = Arrays.copyOf(comZ, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            leafBody = Arrays.copyOf(leafBody, capacity);
+        }
+    }
+
+    private int newNode(double cx, double cy, double cz, double half) {
+        int node = nodeCount;
+
+        growNodes(nodeCount + 1);
+        centerX[node] = cx;
+        centerY[node] = cy;
+        centerZ[node] = cz;
+        halfSize[node] = half;
+        nodeMass[node] = 0.0;
+        firstChild[node] = -1;
+        leafBody[node] = -1;
+        nodeCount++;
+        return node;
+    }
+
+    @Override
+    public void prepare(ParticleStore store) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        int count = store.size();
+        double minX, minY, minZ, maxX, maxY, maxZ, half;
+
+        nodeCount = 0;
+        if (count > 0) {
+            if (nextBody.length < count) {
+                nextBody = new int[Math.max(count, nextBody.length * 2)];
+            }
+            minX = maxX = x[0];
+            minY = maxY = y[0];
+            minZ = maxZ = z[0];
+            for (int i = 1; i < count; i++) {
+                minX = Math.min(minX, x[i]);
+                maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxY = Math.max(maxY, y[i]);
+                minZ = Math.min(minZ, z[i]);
+                maxZ = Math.max(maxZ, z[i]);
+            }
+            half = Math.max(maxX - minX, maxY - minY);
+            if (dimension == Dimensional.ThreeD) {
+                half = Math.max(half, maxZ - minZ);
+            }
+            // Pad slightly so bodies on the upper boundary stay inside.
+            half = (half / 2.0) * 1.0001 + Double.MIN_NORMAL;
+
+            newNode((minX + maxX) / 2.0, (minY + maxY) / 2.0, (minZ + maxZ) / 2.0, half);
+            for (int i = 0; i < count; i++) {
+                insertBody(store, i);
+            }
+            computeMoments(store);
+        }
+    }
+
+    private int childFor(int node, double px, double py, double pz) {
+        int octant = 0;
+        if (px >= centerX[node]) {
+            octant |= 1;
+        }
+        if (py >= centerY[node]) {
+            octant |= 2;
+        }
+        if (branching == 8 && pz >= centerZ[node]) {
+            octant |= 4;
+        }
+        return firstChild[node] + octant;
+    }
+
+    private void subdivide(int node) {
+        double quarter = halfSize[node] / 2.0;
+        double cx = centerX[node], cy = centerY[node], cz = centerZ[node];
+        int first = nodeCount;
+
+        for (int k = 0; k < branching; k++) {
+            newNode(cx + (((k & 1) != 0) ? quarter : -quarter),
+                    cy + (((k & 2) != 0) ? quarter : -quarter),
+                    (branching == 8) ? cz + (((k & 4) != 0) ? quarter : -quarter) : cz,
+                    quarter);
+        }
+        firstChild[node] = first;
+    }
+
+    private void insertBody(ParticleStore store, int body) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        int node = 0;
+        int depth = 0;
+        int resident;
+        boolean placed = false;
+
+        while (!placed) {
+            if (firstChild[node] >= 0) {
+                node = childFor(node, x[body], y[body], z[body]);
+                depth++;
+            } else if (leafBody[node] < 0) {
+                leafBody[node] = body;
+                nextBody[body] = -1;
+                placed = true;
+            } else if (depth >= MAX_DEPTH) {
+                nextBody[body] = leafBody[node];
+                leafBody[node] = body;
+                placed = true;
+            } else {
+                // Split the leaf, push its single resident down one level.
+                resident = leafBody[node];
+                leafBody[node] = -1;
+                subdivide(node);
+                leafBody[childFor(node, x[resident], y[resident], z[resident])] = resident;
+            }
+        }
+    }
+
+    /**
+     * Children are always created after their parent, so walking the nodes
+     * backwards visits every child before its parent.
+     */
+    private void computeMoments(ParticleStore store) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        double m, mx, my, mz;
+        int child;
+
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            m = mx = my = mz = 0.0;
+            if (firstChild[node] < 0) {
+                for (int body = leafBody[node]; body >= 0; body = nextBody[body]) {
+                    m += mass[body];
+                    mx += mass[body] * x[body];
+                    my += mass[body] * y[body];
+                    mz += mass[body] * z[body];
+                }
+            } else {
+                for (int k = 0; k < branching; k++) {
+                    child = firstChild[node] + k;
+                    m += nodeMass[child];
+                    mx += nodeMass[child] * comX[child];
+                    my += nodeMass[child] * comY[child];
+                    mz += nodeMass[child] * comZ[child];
+                }
+            }
+            nodeMass[node] = m;
+            if (m > 0) {
+                comX[node] = mx / m;
+                comY[node] = my / m;
+                comZ[node] = mz / m;
+            } else {
+                comX[node] = centerX[node];
+                comY[node] = centerY[node];
+                comZ[node] = centerZ[node];
+            }
+        }
+    }
+
+    /**
+     * A cell is replaced by its centre of mass when it is far enough away and
+     * does not contain the point being evaluated.
+     */
+    private boolean acceptCell(int node, double px, double py, double pz, double distSquared) {
+        double size = 2.0 * halfSize[node];
+        double half = halfSize[node];
+        boolean inside = Math.abs(px - centerX[node]) <= half
+                && Math.abs(py - centerY[node]) <= half
+                && (branching == 4 || Math.abs(pz - centerZ[node]) <= half);
+
+        return !inside && (size * size) < (openingAngleSquared * distSquared);
+    }
+
+    @Override
+    public void accelerationAt(ParticleStore store, int slot, double[] accel) {
+        fieldAt(store, slot, accel);
+    }
+
+    @Override
+    public double fieldAt(ParticleStore store, int slot, double[] accel) {
+        double potential = 0.0;
+
+        accel[0] = accel[1] = accel[2] = 0.0;
+        if (nodeCount > 0) {
+            potential = walkField(store, 0, slot, store.getX()[slot], store.getY()[slot], store.getZ()[slot], accel);
+        }
+        accel[0] *= SpaceTimeConstants.GRAVITATIONAL_CONSTANT;
+        accel[1] *= SpaceTimeConstants.GRAVITATIONAL_CONSTANT;
+        accel[2] *= SpaceTimeConstants.GRAVITATIONAL_CONSTANT;
+        return SpaceTimeConstants.GRAVITATIONAL_CONSTANT * store.getMass()[slot] * potential;
+    }
+
+    /**
+     * Adds the acceleration (per G) from 'node' to accel and returns its
+     * potential (per G, per unit mass) at the point.
+     */
+    private double walkField(ParticleStore store, int node, int slot, double px, double py, double pz, double[] accel) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        double potential = 0.0;
+        double dx, dy, dz, distSquared, inverse, factor;
+
+        if (nodeMass[node] > 0) {
+            if (firstChild[node] < 0) {
+                for (int body = leafBody[node]; body >= 0; body = nextBody[body]) {
+                    if (body != slot) {
+                        dx = x[body] - px;
+                        dy = y[body] - py;
+                        dz = z[body] - pz;
+                        distSquared = dx * dx + dy * dy + dz * dz;
+                        if (distSquared > 0) {
+                            inverse = 1.0 / Math.sqrt(distSquared);
+                            factor = mass[body] * inverse * inverse * inverse;
+                            accel[0] += dx * factor;
+                            accel[1] += dy * factor;
+                            accel[2] += dz * factor;
+                            potential -= mass[body] * inverse;
+                        }
+                    }
+                }
+            } else {
+                dx = comX[node] - px;
+                dy = comY[node] - py;
+                dz = comZ[node] - pz;
+                distSquared = dx * dx + dy * dy + dz * dz;
+                if (acceptCell(node, px, py, pz, distSquared)) {
+                    inverse = 1.0 / Math.sqrt(distSquared);
+                    factor = nodeMass[node] * inverse * inverse * inverse;
+                    accel[0] += dx * factor;
+                    accel[1] += dy * factor;
+                    accel[2] += dz * factor;
+                    potential -= nodeMass[node] * inverse;
+                } else {
+                    for (int k = 0; k < branching; k++) {
+                        potential += walkField(store, firstChild[node] + k, slot, px, py, pz, accel);
+                    }
+                }
+            }
+        }
+        return potential;
+    }
+
+    @Override
+    public double potentialAt(ParticleStore store, int slot) {
+        double potential = 0.0;
+        if (nodeCount > 0) {
+            potential = walkPotential(store, 0, slot, store.getX()[slot], store.getY()[slot], store.getZ()[slot]);
+        }
+        return SpaceTimeConstants.GRAVITATIONAL_CONSTANT * store.getMass()[slot] * potential;
+    }
+
+    private double walkPotential(ParticleStore store, int node, int slot, double px, double py, double pz) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        double potential = 0.0;
+        double dx, dy, dz, distSquared;
+
+        if (nodeMass[node] > 0) {
+            if (firstChild[node] < 0) {
+                for (int body = leafBody[node]; body >= 0; body = nextBody[body]) {
+                    if (body != slot) {
+                        dx = x[body] - px;
+                        dy = y[body] - py;
+                        dz = z[body] - pz;
+                        distSquared = dx * dx + dy * dy + dz * dz;
+                        if (distSquared > 0) {
+                            potential -= mass[body] / Math.sqrt(distSquared);
+                        }
+                    }
+                }
+            } else {
+                dx = comX[node] - px;
+                dy = comY[node] - py;
+                dz = comZ[node] - pz;
+                distSquared = dx * dx + dy * dy + dz * dz;
+                if (acceptCell(node, px, py, pz, distSquared)) {
+                    potential -= nodeMass[node] / Math.sqrt(distSquared);
+                } else {
+                    for (int k = 0; k < branching; k++) {
+                        potential += walkPotential(store, firstChild[node] + k, slot, px, py, pz);
+                    }
+                }
+            }
+        }
+        return potential;
+    }
+
+    @Override
+    public boolean isEvaluatedInPrepare() {
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+
+/**
+ * DirectSumSolver.class
+ *
+ * Sums the pull of every other body directly. O(N) per query, O(N^2) per
+ * step, but exact. This is the reference the other solvers are measured
+ * against.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class DirectSumSolver implements ForceSolver {
+
+    @Override
+    public void prepare(ParticleStore store) {
+        // Nothing to build, every query reads the store directly.
+    }
+
+    @Override
+    public void accelerationAt(ParticleStore store, int slot, double[] accel) {
+        fieldAt(store, slot, accel);
+    }
+
+    @Override
+    public double fieldAt(ParticleStore store, int slot, double[] accel) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        int count = store.size();
+        double dx, dy, dz, distSquared, inverse, factor;
+        double sumX, sumY, sumZ, potential;
+
+        sumX = sumY = sumZ = potential = 0.0;
+        for (int j = 0; j < count; j++) {
+            if (j != slot) {
+                dx = x[j] - x[slot];
+                dy = y[j] - y[slot];
+                dz = z[j] - z[slot];
+                distSquared = dx * dx + dy * dy + dz * dz;
+                if (distSquared > 0) {
+                    inverse = 1.0 / Math.sqrt(distSquared);
+                    factor = mass[j] * inverse * inverse * inverse;
+                    sumX += dx * factor;
+                    sumY += dy * factor;
+                    sumZ += dz * factor;
+                    potential -= mass[j] * inverse;
+                }
+            }
+        }
+        accel[0] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * sumX;
+        accel[1] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * sumY;
+        accel[2] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * sumZ;
+        return SpaceTimeConstants.GRAVITATIONAL_CONSTANT * mass[slot] * potential;
+    }
+
+    @Override
+    public double potentialAt(ParticleStore store, int slot) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        int count = store.size();
+        double potential = 0.0;
+        double dx, dy, dz, distance;
+
+        for (int j = 0; j < count; j++) {
+            if (j != slot) {
+                dx = x[j] - x[slot];
+                dy = y[j] - y[slot];
+                dz = z[j] - z[slot];
+                distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                if (distance > 0) {
+                    potential -= mass[j] / distance;
+                }
+            }
+        }
+        return SpaceTimeConstants.GRAVITATIONAL_CONSTANT * mass[slot] * potential;
+    }
+
+    @Override
+    public boolean isEvaluatedInPrepare() {
+        return false;
+    }
+}
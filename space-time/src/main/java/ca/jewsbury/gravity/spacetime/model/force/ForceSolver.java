@@ -0,0 +1,62 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+
+/**
+ * ForceSolver.class
+ *
+ * Evaluates the gravitational field of every body in a particle store.
+ * prepare() is called once after the bodies have moved; the queries then
+ * answer from whatever structure it built. Queries must not modify the
+ * solver, so that several threads can evaluate disjoint slots at once.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public interface ForceSolver {
+
+    /**
+     * Build any per-step structure over the current store contents.
+     *
+     * @param store
+     */
+    void prepare(ParticleStore store);
+
+    /**
+     * Acceleration on the body in 'slot' from every other body.
+     *
+     * @param store
+     * @param slot
+     * @param accel - receives { ax, ay, az }
+     */
+    void accelerationAt(ParticleStore store, int slot, double[] accel);
+
+    /**
+     * Potential energy of the body in 'slot' with every other body.
+     *
+     * @param store
+     * @param slot
+     * @return double
+     */
+    double potentialAt(ParticleStore store, int slot);
+
+    /**
+     * Acceleration and potential energy of the body in 'slot' from a single
+     * pass over the other bodies, so a step gets its energy diagnostics out
+     * of the force evaluation instead of a second sweep.
+     *
+     * @param store
+     * @param slot
+     * @param accel - receives { ax, ay, az }
+     * @return potential energy, as potentialAt()
+     */
+    double fieldAt(ParticleStore store, int slot, double[] accel);
+
+    /**
+     * @return TRUE if prepare() already evaluates the field of every body,
+     * so that querying a few bodies costs as much as querying them all.
+     */
+    boolean isEvaluatedInPrepare();
+
+}
@@ -0,0 +1,113 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.lang.reflect.InvocationTargetException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ForceSolverFactory.class
+ *
+ * Builds force solvers by name. The vectorized direct sum is loaded
+ * reflectively: it is only compiled on JDK 17+ and only links when the JVM
+ * runs with --add-modules jdk.incubator.vector, otherwise the scalar
+ * TiledDirectSolver is handed out in its place.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class ForceSolverFactory {
+
+    public static final String DIRECT = "direct";
+    public static final String PAIRWISE = "pairwise";
+    public static final String TILED = "tiled";
+    public static final String VECTOR = "vector";
+    public static final String BARNES_HUT = "barnes-hut";
+
+    private static final String VECTOR_SOLVER_CLASS = "ca.jewsbury.gravity.spacetime.model.force.VectorForceSolver";
+    private static final Logger logger = LoggerFactory.getLogger(ForceSolverFactory.class);
+
+    private static Boolean vectorAvailable = null;
+
+    private ForceSolverFactory() {
+    }
+
+    /**
+     * @param name - one of DIRECT, PAIRWISE, TILED, VECTOR or BARNES_HUT.
+     * @return a new solver
+     * @throws SpaceTimeException if the name is unknown.
+     */
+    public static ForceSolver create(String name) throws SpaceTimeException {
+        ForceSolver solver = null;
+        String key = StringUtils.trimToEmpty(name).toLowerCase();
+
+        if (DIRECT.equals(key)) {
+            solver = new DirectSumSolver();
+        } else if (PAIRWISE.equals(key)) {
+            solver = new PairwiseForceSolver();
+        } else if (TILED.equals(key)) {
+            solver = new TiledDirectSolver();
+        } else if (VECTOR.equals(key)) {
+            solver = createVectorSolver();
+        } else if (BARNES_HUT.equals(key)) {
+            solver = new BarnesHutSolver();
+        } else {
+            throw new SpaceTimeException("Unknown force solver '" + name + "'");
+        }
+        return solver;
+    }
+
+    /**
+     * @return the DoubleVector direct sum if this JVM can run it, otherwise
+     * the scalar TiledDirectSolver. Both give the same accelerations up to
+     * rounding.
+     */
+    public static TiledDirectSolver createVectorSolver() {
+        TiledDirectSolver solver = null;
+
+        if (isVectorAvailable()) {
+            solver = loadVectorSolver();
+        }
+        if (solver == null) {
+            solver = new TiledDirectSolver();
+        }
+        return solver;
+    }
+
+    /**
+     * @return TRUE if the VectorForceSolver was compiled in and the incubator
+     * module is present at run time.
+     */
+    public static synchronized boolean isVectorAvailable() {
+        if (vectorAvailable == null) {
+            vectorAvailable = (loadVectorSolver() != null);
+            if (!vectorAvailable) {
+                logger.info("jdk.incubator.vector is not available, using the scalar direct sum.");
+            }
+        }
+        return vectorAvailable;
+    }
+
+    private static TiledDirectSolver loadVectorSolver() {
+        TiledDirectSolver solver = null;
+
+        try {
+            solver = (TiledDirectSolver) Class.forName(VECTOR_SOLVER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            logger.debug("VectorForceSolver was not compiled into this build.");
+        } catch (InstantiationException e) {
+            logger.debug("Unable to create the VectorForceSolver :: " + e.getMessage());
+        } catch (IllegalAccessException e) {
+            logger.debug("Unable to create the VectorForceSolver :: " + e.getMessage());
+        } catch (NoSuchMethodException e) {
+            logger.debug("Unable to create the VectorForceSolver :: " + e.getMessage());
+        } catch (InvocationTargetException e) {
+            logger.debug("Unable to create the VectorForceSolver :: " + e.getCause());
+        } catch (LinkageError e) {
+            logger.debug("jdk.incubator.vector did not link :: " + e.getMessage());
+        }
+        return solver;
+    }
+}
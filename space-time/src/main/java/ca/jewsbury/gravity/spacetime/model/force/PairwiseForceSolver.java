@@ -0,0 +1,129 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Arrays;
+
+/**
+ * PairwiseForceSolver.class
+ *
+ * Direct summation that visits every unordered pair once. prepare() computes
+ * one reciprocal square root per pair and adds equal and opposite
+ * contributions to both bodies (Newton's third law), accumulating the pair
+ * potential in the same pass. The queries then just read the accumulators.
+ *
+ * All the work happens in prepare() on the calling thread, so a parallel
+ * integrator gains nothing on the force phase with this solver.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class PairwiseForceSolver implements ForceSolver {
+
+    private double[] accX, accY, accZ;
+    private double[] potential; // per unit mass
+    private double totalPotential;
+
+    public PairwiseForceSolver() {
+        accX = new double[0];
+        accY = new double[0];
+        accZ = new double[0];
+        potential = new double[0];
+        totalPotential = 0.0;
+    }
+
+    @Override
+    public void prepare(ParticleStore store) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        int count = store.size();
+        double xi, yi, zi, mi, mj;
+        double sumX, sumY, sumZ, sumPotential, pairPotential;
+        double dx, dy, dz, distSquared, inverse, inverseCubed;
+
+        if (accX.length < count) {
+            accX = new double[count];
+            accY = new double[count];
+            accZ = new double[count];
+            potential = new double[count];
+        } else {
+            Arrays.fill(accX, 0, count, 0.0);
+            Arrays.fill(accY, 0, count, 0.0);
+            Arrays.fill(accZ, 0, count, 0.0);
+            Arrays.fill(potential, 0, count, 0.0);
+        }
+
+        pairPotential = 0.0;
+        for (int i = 0; i < count; i++) {
+            xi = x[i];
+            yi = y[i];
+            zi = z[i];
+            mi = mass[i];
+            sumX = sumY = sumZ = sumPotential = 0.0;
+
+            for (int j = i + 1; j < count; j++) {
+                dx = x[j] - xi;
+                dy = y[j] - yi;
+                dz = z[j] - zi;
+                distSquared = dx * dx + dy * dy + dz * dz;
+                if (distSquared > 0) {
+                    mj = mass[j];
+                    inverse = 1.0 / Math.sqrt(distSquared);
+                    inverseCubed = inverse * inverse * inverse;
+
+                    sumX += dx * mj * inverseCubed;
+                    sumY += dy * mj * inverseCubed;
+                    sumZ += dz * mj * inverseCubed;
+                    accX[j] -= dx * mi * inverseCubed;
+                    accY[j] -= dy * mi * inverseCubed;
+                    accZ[j] -= dz * mi * inverseCubed;
+
+                    sumPotential -= mj * inverse;
+                    potential[j] -= mi * inverse;
+                }
+            }
+            accX[i] += sumX;
+            accY[i] += sumY;
+            accZ[i] += sumZ;
+            potential[i] += sumPotential;
+            pairPotential += mi * sumPotential;
+        }
+        totalPotential = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * pairPotential;
+    }
+
+    @Override
+    public void accelerationAt(ParticleStore store, int slot, double[] accel) {
+        accel[0] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * accX[slot];
+        accel[1] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * accY[slot];
+        accel[2] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * accZ[slot];
+    }
+
+    @Override
+    public double potentialAt(ParticleStore store, int slot) {
+        return SpaceTimeConstants.GRAVITATIONAL_CONSTANT * store.getMass()[slot] * potential[slot];
+    }
+
+    @Override
+    public double fieldAt(ParticleStore store, int slot, double[] accel) {
+        accelerationAt(store, slot, accel);
+        return potentialAt(store, slot);
+    }
+
+    /**
+     * Potential energy of the whole system from the last prepare(), each pair
+     * counted once.
+     *
+     * @return double
+     */
+    public double getTotalPotentialEnergy() {
+        return totalPotential;
+    }
+
+    @Override
+    public boolean isEvaluatedInPrepare() {
+        return true;
+    }
+}
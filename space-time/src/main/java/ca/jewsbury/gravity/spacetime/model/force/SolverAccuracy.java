@@ -0,0 +1,83 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+
+/**
+ * SolverAccuracy.class
+ *
+ * Relative acceleration error of one force solver against another, usually
+ * an approximate solver against the DirectSumSolver, over every non static
+ * body of a store.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class SolverAccuracy {
+
+    private final double maxRelativeError;
+    private final double rmsRelativeError;
+    private final int samples;
+
+    private SolverAccuracy(double maxRelativeError, double rmsRelativeError, int samples) {
+        this.maxRelativeError = maxRelativeError;
+        this.rmsRelativeError = rmsRelativeError;
+        this.samples = samples;
+    }
+
+    /**
+     * Prepares both solvers over the store and compares their accelerations
+     * body by body. |a_candidate - a_reference| / |a_reference|
+     *
+     * @param store
+     * @param reference
+     * @param candidate
+     * @return SolverAccuracy
+     */
+    public static SolverAccuracy measure(ParticleStore store, ForceSolver reference, ForceSolver candidate) {
+        double[] expected = new double[3];
+        double[] actual = new double[3];
+        double maxError = 0.0;
+        double sumSquared = 0.0;
+        double magnitude, error, dx, dy, dz;
+        int samples = 0;
+
+        reference.prepare(store);
+        candidate.prepare(store);
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.isStatic(i)) {
+                reference.accelerationAt(store, i, expected);
+                candidate.accelerationAt(store, i, actual);
+
+                magnitude = Math.sqrt(expected[0] * expected[0] + expected[1] * expected[1] + expected[2] * expected[2]);
+                if (magnitude > 0) {
+                    dx = actual[0] - expected[0];
+                    dy = actual[1] - expected[1];
+                    dz = actual[2] - expected[2];
+                    error = Math.sqrt(dx * dx + dy * dy + dz * dz) / magnitude;
+                    maxError = Math.max(maxError, error);
+                    sumSquared += error * error;
+                    samples++;
+                }
+            }
+        }
+        return new SolverAccuracy(maxError, (samples > 0) ? Math.sqrt(sumSquared / samples) : 0.0, samples);
+    }
+
+    public double getMaxRelativeError() {
+        return maxRelativeError;
+    }
+
+    public double getRmsRelativeError() {
+        return rmsRelativeError;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("max %.3e, rms %.3e over %d bodies", maxRelativeError, rmsRelativeError, samples);
+    }
+}
@@ -0,0 +1,128 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.util.Arrays;
+
+/**
+ * TiledDirectSolver.class
+ *
+ * Direct summation over i/j tiles. prepare() walks the bodies in blocks of
+ * TILE_SIZE targets against blocks of TILE_SIZE sources, so the source block
+ * stays in cache while every target of the current block is summed against
+ * it. Accelerations and potentials are kept per unit mass and read back by
+ * the queries.
+ *
+ * This is the scalar kernel; VectorForceSolver overrides accumulateTile()
+ * with DoubleVector lanes where the incubator module is present. Obtain
+ * either through ForceSolverFactory.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class TiledDirectSolver implements ForceSolver {
+
+    public static final int TILE_SIZE = 512;
+
+    protected double[] accX, accY, accZ;
+    protected double[] potential; // per unit mass
+
+    public TiledDirectSolver() {
+        accX = new double[0];
+        accY = new double[0];
+        accZ = new double[0];
+        potential = new double[0];
+    }
+
+    @Override
+    public void prepare(ParticleStore store) {
+        int count = store.size();
+        int iEnd, jEnd;
+
+        if (accX.length < count) {
+            accX = new double[count];
+            accY = new double[count];
+            accZ = new double[count];
+            potential = new double[count];
+        } else {
+            Arrays.fill(accX, 0, count, 0.0);
+            Arrays.fill(accY, 0, count, 0.0);
+            Arrays.fill(accZ, 0, count, 0.0);
+            Arrays.fill(potential, 0, count, 0.0);
+        }
+
+        for (int iStart = 0; iStart < count; iStart += TILE_SIZE) {
+            iEnd = Math.min(iStart + TILE_SIZE, count);
+            for (int jStart = 0; jStart < count; jStart += TILE_SIZE) {
+                jEnd = Math.min(jStart + TILE_SIZE, count);
+                for (int i = iStart; i < iEnd; i++) {
+                    accumulateTile(store, i, jStart, jEnd);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the pull of the sources [jFrom, jTo) on body i to accX/accY/accZ
+     * and potential. Pairs at zero distance, body i itself included, are
+     * skipped.
+     *
+     * @param store
+     * @param i
+     * @param jFrom
+     * @param jTo
+     */
+    protected void accumulateTile(ParticleStore store, int i, int jFrom, int jTo) {
+        double[] x = store.getX();
+        double[] y = store.getY();
+        double[] z = store.getZ();
+        double[] mass = store.getMass();
+        double xi = x[i], yi = y[i], zi = z[i];
+        double dx, dy, dz, distSquared, inverse, factor;
+        double sumX, sumY, sumZ, sumPotential;
+
+        sumX = sumY = sumZ = sumPotential = 0.0;
+        for (int j = jFrom; j < jTo; j++) {
+            dx = x[j] - xi;
+            dy = y[j] - yi;
+            dz = z[j] - zi;
+            distSquared = dx * dx + dy * dy + dz * dz;
+            if (distSquared > 0) {
+                inverse = 1.0 / Math.sqrt(distSquared);
+                factor = mass[j] * inverse * inverse * inverse;
+                sumX += dx * factor;
+                sumY += dy * factor;
+                sumZ += dz * factor;
+                sumPotential -= mass[j] * inverse;
+            }
+        }
+        accX[i] += sumX;
+        accY[i] += sumY;
+        accZ[i] += sumZ;
+        potential[i] += sumPotential;
+    }
+
+    @Override
+    public void accelerationAt(ParticleStore store, int slot, double[] accel) {
+        accel[0] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * accX[slot];
+        accel[1] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * accY[slot];
+        accel[2] = SpaceTimeConstants.GRAVITATIONAL_CONSTANT * accZ[slot];
+    }
+
+    @Override
+    public double potentialAt(ParticleStore store, int slot) {
+        return SpaceTimeConstants.GRAVITATIONAL_CONSTANT * store.getMass()[slot] * potential[slot];
+    }
+
+    @Override
+    public double fieldAt(ParticleStore store, int slot, double[] accel) {
+        accelerationAt(store, slot, accel);
+        return potentialAt(store, slot);
+    }
+
+    @Override
+    public boolean isEvaluatedInPrepare() {
+        return true;
+    }
+}
@@ -0,0 +1,452 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import java.nio.ByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BlockTimestepModel.class
+ *
+ * Kick-drift-kick with hierarchical block timesteps. The timeDelta given to
+ * moveContainedObjects() is the block; every body steps with block / 2^level
+ * for a level in [0, maxLevel], picked from Aarseth's criterion
+ * dt = eta * |a| / |jerk|. The block is walked from one step end to the
+ * next, in steps of the finest level any body is on at the time: all bodies
+ * drift across it in one go, and only the bodies whose step ends there get a
+ * new force evaluation and their kicks. A block where every body is on
+ * level 0 costs one force pass. All steps end on the block boundary, so the
+ * system is synchronised there again.
+ *
+ * The jerk is taken from the change in acceleration over a body's last step;
+ * the first block uses the direct sum jerk. Forces are evaluated per body, so
+ * this needs a solver whose work is in its queries (DirectSumSolver,
+ * BarnesHutSolver); IntegratorFactory swaps out one that evaluates every body
+ * in prepare(). Levels are reset whenever the number of bodies changes.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class BlockTimestepModel implements StatefulIntegrator {
+
+    public static final int DEFAULT_MAX_LEVEL = 6;
+    public static final double DEFAULT_ACCURACY = 0.02;
+
+    private final Logger logger = LoggerFactory.getLogger(BlockTimestepModel.class);
+    private final SpaceContainer container;
+
+    private int maxLevel;
+    private double accuracy; // eta
+    private int[] level;
+    private int[] due;
+    private double[] lastAx, lastAy, lastAz;
+    private double[] jerkX, jerkY, jerkZ;
+    private int trackedCount;
+    private long forceEvaluations;
+    private long forcePasses;
+
+    public BlockTimestepModel(SpaceContainer container) {
+        this(container, DEFAULT_MAX_LEVEL, DEFAULT_ACCURACY);
+    }
+
+    /**
+     * @param container
+     * @param maxLevel - finest step is the block / 2^maxLevel.
+     * @param accuracy - eta in dt = eta * |a| / |jerk|.
+     */
+    public BlockTimestepModel(SpaceContainer container, int maxLevel, double accuracy) {
+        this.container = container;
+        this.maxLevel = Math.max(0, Math.min(30, maxLevel));
+        this.accuracy = accuracy;
+        this.level = new int[0];
+        this.trackedCount = -1;
+        this.forceEvaluations = 0;
+        this.forcePasses = 0;
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    public double getAccuracy() {
+        return accuracy;
+    }
+
+    public void setAccuracy(double accuracy) {
+        this.accuracy = accuracy;
+    }
+
+    /**
+     * @param slot
+     * @return the level of the body in slot; it steps block / 2^level.
+     */
+    public int getLevel(int slot) {
+        return level[slot];
+    }
+
+    /**
+     * @return per body force evaluations since this model was created.
+     */
+    public long getForceEvaluations() {
+        return forceEvaluations;
+    }
+
+    /**
+     * @return force passes since this model was created: one per point in a
+     * block where some body's step ends.
+     */
+    public long getForcePasses() {
+        return forcePasses;
+    }
+
+    @Override
+    public void moveContainedObjects(double timeDelta) {
+        ParticleStore store;
+        int ticks, count, dueCount, stepTicks, finestTicks, t, next;
+        double tick;
+
+        if (this.container != null) {
+            store = this.container.getParticleStore();
+            count = store.size();
+
+            if (count > 0) {
+                if (!store.hasAccelerations() || count != trackedCount) {
+                    this.container.computeAccelerations();
+                    forceEvaluations += count;
+                    initializeLevels(store, timeDelta);
+                }
+                ticks = 1 << maxLevel;
+                tick = timeDelta / ticks;
+
+                t = 0;
+                while (t < ticks) {
+                    openingKicks(store, t, tick);
+                    // Nothing is due before the next end of a finest step.
+                    finestTicks = ticks >> finestLevel(store);
+                    next = (t / finestTicks + 1) * finestTicks;
+                    drift(store, (next - t) * tick);
+                    store.markPositionsChanged();
+                    forcePasses++;
+
+                    if (next == ticks) {
+                        // Every step ends here; one full pass also refreshes
+                        // the static potentials for the diagnostics.
+                        this.container.computeAccelerations();
+                        dueCount = 0;
+                        for (int i = 0; i < count; i++) {
+                            if (!store.isStatic(i)) {
+                                due[dueCount++] = i;
+                            }
+                        }
+                    } else {
+                        dueCount = 0;
+                        for (int i = 0; i < count; i++) {
+                            stepTicks = ticks >> level[i];
+                            if (!store.isStatic(i) && (next % stepTicks) == 0) {
+                                due[dueCount++] = i;
+                            }
+                        }
+                        this.container.computeAccelerations(due, dueCount);
+                    }
+                    forceEvaluations += dueCount;
+                    closingKicks(store, dueCount, next, tick);
+                    t = next;
+                }
+                this.container.completeStep(timeDelta);
+            }
+        }
+    }
+
+    /**
+     * Levels, last accelerations and jerks of every tracked body; nothing
+     * before the first block.
+     */
+    @Override
+    public int getStateLength() {
+        return 4 + 4 + 8 + Math.max(0, trackedCount) * (4 + 6 * 8);
+    }
+
+    @Override
+    public void writeState(ByteBuffer target) {
+        int count = Math.max(0, trackedCount);
+
+        target.putInt(trackedCount);
+        target.putInt(maxLevel);
+        target.putDouble(accuracy);
+        for (int i = 0; i < count; i++) {
+            target.putInt(level[i]);
+        }
+        putAll(target, lastAx, count);
+        putAll(target, lastAy, count);
+        putAll(target, lastAz, count);
+        putAll(target, jerkX, count);
+        putAll(target, jerkY, count);
+        putAll(target, jerkZ, count);
+    }
+
+    @Override
+    public void readState(ByteBuffer source) throws SpaceTimeException {
+        int count = source.getInt();
+        int savedMaxLevel = source.getInt();
+        double savedAccuracy = source.getDouble();
+
+        if (count >= 0 && count != container.getParticleStore().size()) {
+            throw new SpaceTimeException("Block timestep state holds " + count + " bodies, the container "
+                    + container.getParticleStore().size());
+        }
+        maxLevel = savedMaxLevel;
+        accuracy = savedAccuracy;
+        trackedCount = count;
+        if (count >= 0) {
+            level = new int[count];
+            due = new int[count];
+            for (int i = 0; i < count; i++) {
+                level[i] = source.getInt();
+            }
+            lastAx = getAll(source, count);
+            lastAy = getAll(source, count);
+            lastAz = getAll(source, count);
+            jerkX = getAll(source, count);
+            jerkY = getAll(source, count);
+            jerkZ = getAll(source, count);
+        }
+    }
+
+    private static void putAll(ByteBuffer target, double[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            target.putDouble(values[i]);
+        }
+    }
+
+    private static double[] getAll(ByteBuffer source, int count) {
+        double[] values = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = source.getDouble();
+        }
+        return values;
+    }
+
+    /**
+     * @return the highest level of any non static body, 0 if there is none.
+     */
+    private int finestLevel(ParticleStore store) {
+        int finest = 0;
+
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.isStatic(i) && level[i] > finest) {
+                finest = level[i];
+            }
+        }
+        return finest;
+    }
+
+    /**
+     * v += a * dt_i/2 for every body whose step starts on tick t.
+     */
+    private void openingKicks(ParticleStore store, int t, double tick) {
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] ax = store.getAx(), ay = store.getAy(), az = store.getAz();
+        int ticks = 1 << maxLevel;
+        int stepTicks;
+        double halfStep;
+
+        for (int i = 0; i < store.size(); i++) {
+            stepTicks = ticks >> level[i];
+            if (!store.isStatic(i) && (t % stepTicks) == 0) {
+                halfStep = stepTicks * tick / 2.0;
+                vx[i] += ax[i] * halfStep;
+                vy[i] += ay[i] * halfStep;
+                vz[i] += az[i] * halfStep;
+            }
+        }
+    }
+
+    /**
+     * Closing half kick, jerk estimate and new level for every due body.
+     */
+    private void closingKicks(ParticleStore store, int dueCount, int next, double tick) {
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] ax = store.getAx(), ay = store.getAy(), az = store.getAz();
+        int ticks = 1 << maxLevel;
+        int i, stepTicks;
+        double step;
+
+        for (int k = 0; k < dueCount; k++) {
+            i = due[k];
+            stepTicks = ticks >> level[i];
+            step = stepTicks * tick;
+            vx[i] += ax[i] * step / 2.0;
+            vy[i] += ay[i] * step / 2.0;
+            vz[i] += az[i] * step / 2.0;
+
+            jerkX[i] = (ax[i] - lastAx[i]) / step;
+            jerkY[i] = (ay[i] - lastAy[i]) / step;
+            jerkZ[i] = (az[i] - lastAz[i]) / step;
+            lastAx[i] = ax[i];
+            lastAy[i] = ay[i];
+            lastAz[i] = az[i];
+
+            level[i] = nextLevel(i, ticks * tick, next);
+        }
+    }
+
+    /**
+     * The level the criterion asks for, limited so that the new step starts
+     * on a boundary of its own size and grows by at most one level at a time.
+     */
+    private int nextLevel(int i, double block, int next) {
+        int wanted = levelFor(i, block);
+        int ticks = 1 << maxLevel;
+        int coarser = level[i] - 1;
+
+        if (wanted < level[i]) {
+            wanted = level[i];
+            if (coarser >= 0 && (next % (ticks >> coarser)) == 0) {
+                wanted = coarser;
+            }
+        }
+        return wanted;
+    }
+
+    private int levelFor(int i, double block) {
+        double accel = Math.sqrt(lastAx[i] * lastAx[i] + lastAy[i] * lastAy[i] + lastAz[i] * lastAz[i]);
+        double jerk = Math.sqrt(jerkX[i] * jerkX[i] + jerkY[i] * jerkY[i] + jerkZ[i] * jerkZ[i]);
+        int wanted = 0;
+        double step;
+
+        if (jerk > 0) {
+            step = accuracy * accel / jerk;
+            while (wanted < maxLevel && block / (1 << wanted) > step) {
+                wanted++;
+            }
+        }
+        return wanted;
+    }
+
+    private void initializeLevels(ParticleStore store, double block) {
+        int count = store.size();
+        double[] ax = store.getAx(), ay = store.getAy(), az = store.getAz();
+
+        level = new int[count];
+        due = new int[count];
+        lastAx = new double[count];
+        lastAy = new double[count];
+        lastAz = new double[count];
+        jerkX = new double[count];
+        jerkY = new double[count];
+        jerkZ = new double[count];
+        trackedCount = count;
+
+        directJerk(store);
+        for (int i = 0; i < count; i++) {
+            lastAx[i] = ax[i];
+            lastAy[i] = ay[i];
+            lastAz[i] = az[i];
+            level[i] = store.isStatic(i) ? 0 : levelFor(i, block);
+        }
+        logger.debug("Block timesteps assigned for " + count + " bodies.");
+    }
+
+    /**
+     * jerk_i = G sum_j m_j [ v_ij / r^3 - 3 (r_ij . v_ij) r_ij / r^5 ]
+     */
+    private void directJerk(ParticleStore store) {
+        double[] x = store.getX(), y = store.getY(), z = store.getZ();
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] mass = store.getMass();
+        int count = store.size();
+        double dx, dy, dz, dvx, dvy, dvz, distSquared, inverse, inverseCubed, radial;
+
+        for (int i = 0; i < count; i++) {
+            jerkX[i] = jerkY[i] = jerkZ[i] = 0.0;
+            if (!store.isStatic(i)) {
+                for (int j = 0; j < count; j++) {
+                    dx = x[j] - x[i];
+                    dy = y[j] - y[i];
+                    dz = z[j] - z[i];
+                    distSquared = dx * dx + dy * dy + dz * dz;
+                    if (distSquared > 0) {
+                        dvx = (store.isStatic(j) ? 0.0 : vx[j]) - vx[i];
+                        dvy = (store.isStatic(j) ? 0.0 : vy[j]) - vy[i];
+                        dvz = (store.isStatic(j) ? 0.0 : vz[j]) - vz[i];
+                        inverse = 1.0 / Math.sqrt(distSquared);
+                        inverseCubed = mass[j] * inverse * inverse * inverse;
+                        radial = 3.0 * (dx * dvx + dy * dvy + dz * dvz) * inverse * inverse;
+                        jerkX[i] += inverseCubed * (dvx - radial * dx);
+                        jerkY[i] += inverseCubed * (dvy - radial * dy);
+                        jerkZ[i] += inverseCubed * (dvz - radial * dz);
+                    }
+                }
+                jerkX[i] *= SpaceTimeConstants.GRAVITATIONAL_CONSTANT;
+                jerkY[i] *= SpaceTimeConstants.GRAVITATIONAL_CONSTANT;
+                jerkZ[i] *= SpaceTimeConstants.GRAVITATIONAL_CONSTANT;
+            }
+        }
+    }
+
+    /**
+     * x += v * dT for every non static body.
+     */
+    private void drift(ParticleStore store, double timeDelta) {
+        double[] x = store.getX(), y = store.getY(), z = store.getZ();
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+
+        for (int i = 0; i < store.size(); i++) {
+            if (!store.isStatic(i)) {
+                x[i] += vx[i] * timeDelta;
+                y[i] += vy[i] * timeDelta;
+                z[i] += vz[i] * timeDelta;
+            }
+        }
+    }
+
+    /**
+     * Single orbital updates have no block structure; they behave as one
+     * shared step, like VerletModel.
+     */
+    @Override
+    public void updateSinglePosition(Orbital orbital, double timeDelta) {
+        ParticleStore store;
+        int slot;
+
+        if (orbital != null && orbital.getStore() == this.container.getParticleStore()) {
+            store = orbital.getStore();
+            slot = orbital.getStoreSlot();
+            if (!store.hasAccelerations()) {
+                this.container.computeAcceleration(slot);
+            }
+            if (!store.isStatic(slot)) {
+                store.getVx()[slot] += store.getAx()[slot] * timeDelta / 2.0;
+                store.getVy()[slot] += store.getAy()[slot] * timeDelta / 2.0;
+                store.getVz()[slot] += store.getAz()[slot] * timeDelta / 2.0;
+                store.getX()[slot] += store.getVx()[slot] * timeDelta;
+                store.getY()[slot] += store.getVy()[slot] * timeDelta;
+                store.getZ()[slot] += store.getVz()[slot] * timeDelta;
+            }
+            store.markPositionsChanged();
+        }
+    }
+
+    @Override
+    public void updateOrbitalProperties(Orbital orbital, double timeDelta) {
+        ParticleStore store;
+        int slot;
+
+        if (orbital != null && orbital.getStore() == this.container.getParticleStore()) {
+            store = orbital.getStore();
+            slot = orbital.getStoreSlot();
+            this.container.computeAcceleration(slot);
+            if (!store.isStatic(slot)) {
+                store.getVx()[slot] += store.getAx()[slot] * timeDelta / 2.0;
+                store.getVy()[slot] += store.getAy()[slot] * timeDelta / 2.0;
+                store.getVz()[slot] += store.getAz()[slot] * timeDelta / 2.0;
+            }
+        }
+    }
+}
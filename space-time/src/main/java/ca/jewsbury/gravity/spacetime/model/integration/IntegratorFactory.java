@@ -0,0 +1,75 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.force.DirectSumSolver;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * IntegratorFactory.class
+ *
+ * Builds integrators by name for the batch runner and anything else that
+ * picks one from configuration.
+ *
+ * The block timestep model only pays off when evaluating a few bodies is
+ * cheaper than evaluating all of them, so it swaps a container solver that
+ * evaluates every body in prepare() for the DirectSumSolver. Accelerations
+ * already in the store are kept across the swap: restored from a checkpoint
+ * of a block run, they were computed by the DirectSumSolver in the first
+ * place, and recomputing them would reset the block levels.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class IntegratorFactory {
+
+    public static final String VERLET = "verlet";
+    public static final String LEAPFROG = "leapfrog";
+    public static final String FOREST_RUTH = "forest-ruth";
+    public static final String YOSHIDA_6 = "yoshida6";
+    public static final String BLOCK = "block";
+
+    private static final Logger logger = LoggerFactory.getLogger(IntegratorFactory.class);
+
+    private IntegratorFactory() {
+    }
+
+    /**
+     * @param name - one of VERLET, LEAPFROG, FOREST_RUTH, YOSHIDA_6 or BLOCK.
+     * @param container
+     * @param pool - pool for the integrators that can use one, or null.
+     * @return a new integrator over the container
+     * @throws SpaceTimeException if the name is unknown.
+     */
+    public static Integrator create(String name, SpaceContainer container, ForkJoinPool pool) throws SpaceTimeException {
+        Integrator integrator = null;
+        String key = StringUtils.trimToEmpty(name).toLowerCase();
+        boolean accelerationsValid;
+
+        if (VERLET.equals(key)) {
+            integrator = new VerletModel(container, pool);
+        } else if (LEAPFROG.equals(key)) {
+            integrator = new SymplecticModel(container, SymplecticModel.Scheme.LEAPFROG, pool);
+        } else if (FOREST_RUTH.equals(key)) {
+            integrator = new SymplecticModel(container, SymplecticModel.Scheme.FOREST_RUTH, pool);
+        } else if (YOSHIDA_6.equals(key)) {
+            integrator = new SymplecticModel(container, SymplecticModel.Scheme.YOSHIDA_6, pool);
+        } else if (BLOCK.equals(key)) {
+            if (container.getForceSolver().isEvaluatedInPrepare()) {
+                logger.info(container.getForceSolver().getClass().getSimpleName()
+                        + " evaluates every body per pass, using the DirectSumSolver for block timesteps.");
+                accelerationsValid = container.getParticleStore().hasAccelerations();
+                container.setForceSolver(new DirectSumSolver());
+                container.getParticleStore().setAccelerationsValid(accelerationsValid);
+            }
+            integrator = new BlockTimestepModel(container);
+        } else {
+            throw new SpaceTimeException("Unknown integrator '" + name + "'");
+        }
+        return integrator;
+    }
+}
@@ -0,0 +1,60 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * RangeAction.class
+ *
+ * Fork/join task over the slot range [from, to). Splits in half until a
+ * range is no longer than the chunk size, then hands that chunk to its Work.
+ * Every slot is handled by exactly one chunk, so per slot results do not
+ * depend on how the range was split or how many threads ran it.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+class RangeAction extends RecursiveAction {
+
+    /**
+     * One phase of a step, applied to a chunk of slots.
+     */
+    interface Work {
+
+        void run(int from, int to);
+    }
+
+    private final Work work;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    RangeAction(Work work, int from, int to, int chunkSize) {
+        this.work = work;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Runs the work over [0, count) on the pool and waits for it.
+     */
+    static void invoke(ForkJoinPool pool, Work work, int count, int chunkSize) {
+        if (count > 0) {
+            pool.invoke(new RangeAction(work, 0, count, chunkSize));
+        }
+    }
+
+    @Override
+    protected void compute() {
+        int middle;
+        if (to - from <= chunkSize) {
+            work.run(from, to);
+        } else {
+            middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(work, from, middle, chunkSize),
+                    new RangeAction(work, middle, to, chunkSize));
+        }
+    }
+}
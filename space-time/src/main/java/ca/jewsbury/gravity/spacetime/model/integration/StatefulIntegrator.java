@@ -0,0 +1,37 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.nio.ByteBuffer;
+
+/**
+ * StatefulIntegrator.class
+ *
+ * An integrator that carries state of its own from one step to the next,
+ * beyond what the particle store holds (eg. per body timestep levels). A
+ * checkpoint saves that state with the bodies so a restart continues the
+ * same run rather than re-initializing it.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public interface StatefulIntegrator extends Integrator {
+
+    /**
+     * @return bytes writeState() will write.
+     */
+    int getStateLength();
+
+    /**
+     * @param target - positioned where the state goes, with at least
+     * getStateLength() bytes remaining.
+     */
+    void writeState(ByteBuffer target);
+
+    /**
+     * @param source - positioned at state written by writeState(), with the
+     * bodies of the same checkpoint already in the container.
+     * @throws SpaceTimeException if the state does not fit this integrator.
+     */
+    void readState(ByteBuffer source) throws SpaceTimeException;
+}
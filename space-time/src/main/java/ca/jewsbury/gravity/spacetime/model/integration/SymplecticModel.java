@@ -2,35 +2,298 @@ package ca.jewsbury.gravity.spacetime.model.integration;
 
 import ca.jewsbury.gravity.spacetime.SpaceContainer;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
-import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.concurrent.ForkJoinPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * SymplecticModel.class
+ *
+ * Symplectic integrators built by composing leapfrog (kick-drift-kick)
+ * substeps with the weights of the chosen Scheme. The closing half kick of a
+ * substep and the opening half kick of the next one use the same
+ * accelerations, so they are merged: a step of n substeps is
+ *
+ * K(d0) D(c0) F K(d1) D(c1) F ... D(cn-1) F K(dn)
+ *
+ * with exactly one force evaluation per substage. Velocities are
+ * synchronised with positions at the end of every step.
+ *
+ * Given a ForkJoinPool the phases run over chunks of slots the same way
+ * VerletModel does, with the same bit for bit result as the serial path.
+ *
+ * 16-Oct-2026
  *
  * @author Nathan
  */
 public class SymplecticModel implements Integrator {
 
-    private final Logger logger = LoggerFactory.getLogger(VerletModel.class);
+    public static enum Scheme {
+
+        /**
+         * Second order, one force evaluation per step. Same as VerletModel.
+         */
+        LEAPFROG(2, new double[]{1.0}),
+        /**
+         * Fourth order Forest-Ruth / Yoshida triple jump, three force
+         * evaluations per step.
+         */
+        FOREST_RUTH(4, tripleJump()),
+        /**
+         * Sixth order Yoshida (solution A), seven force evaluations per step.
+         */
+        YOSHIDA_6(6, yoshidaSixth());
+
+        private final int order;
+        private final double[] weights;
+
+        private Scheme(int order, double[] weights) {
+            this.order = order;
+            this.weights = weights;
+        }
+
+        public int getOrder() {
+            return order;
+        }
+
+        /**
+         * @return number of substages, which is the number of force
+         * evaluations per step.
+         */
+        public int getSubstages() {
+            return weights.length;
+        }
+
+        private static double[] tripleJump() {
+            double cubeRootTwo = Math.cbrt(2.0);
+            double outer = 1.0 / (2.0 - cubeRootTwo);
+            double inner = -cubeRootTwo * outer;
+
+            return new double[]{outer, inner, outer};
+        }
+
+        private static double[] yoshidaSixth() {
+            double w1 = -1.17767998417887;
+            double w2 = 0.235573213359357;
+            double w3 = 0.784513610477560;
+            double w0 = 1.0 - 2.0 * (w1 + w2 + w3);
+
+            return new double[]{w3, w2, w1, w0, w1, w2, w3};
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(SymplecticModel.class);
     private final SpaceContainer container;
 
+    private Scheme scheme;
+    private double[] driftCoefficients; // c[k], one per substage
+    private double[] kickCoefficients; // d[k], one more than the substages
+    private ForkJoinPool pool;
+    private int chunkSize;
+    private double stepDelta;
+
+    private final RangeAction.Work driftWork = new RangeAction.Work() {
+        @Override
+        public void run(int from, int to) {
+            drift(container.getParticleStore(), from, to, stepDelta);
+        }
+    };
+    private final RangeAction.Work forceWork = new RangeAction.Work() {
+        @Override
+        public void run(int from, int to) {
+            container.computeAccelerationRange(from, to);
+        }
+    };
+    private final RangeAction.Work kickWork = new RangeAction.Work() {
+        @Override
+        public void run(int from, int to) {
+            kick(container.getParticleStore(), from, to, stepDelta);
+        }
+    };
+
     public SymplecticModel(SpaceContainer container) {
+        this(container, Scheme.FOREST_RUTH, null);
+    }
+
+    public SymplecticModel(SpaceContainer container, Scheme scheme) {
+        this(container, scheme, null);
+    }
+
+    /**
+     * @param container
+     * @param scheme
+     * @param pool - pool to run the step phases on, or null to run serially.
+     */
+    public SymplecticModel(SpaceContainer container, Scheme scheme, ForkJoinPool pool) {
         this.container = container;
+        this.pool = pool;
+        this.chunkSize = VerletModel.DEFAULT_CHUNK_SIZE;
+        setScheme(scheme);
+    }
+
+    public Scheme getScheme() {
+        return scheme;
+    }
+
+    public final void setScheme(Scheme scheme) {
+        double[] weights;
+        int substages;
+
+        if (scheme != null) {
+            this.scheme = scheme;
+            weights = scheme.weights;
+            substages = weights.length;
+            driftCoefficients = new double[substages];
+            kickCoefficients = new double[substages + 1];
+            for (int k = 0; k < substages; k++) {
+                driftCoefficients[k] = weights[k];
+                kickCoefficients[k] += weights[k] / 2.0;
+                kickCoefficients[k + 1] += weights[k] / 2.0;
+            }
+        }
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Number of slots below which a range is no longer split.
+     *
+     * @param chunkSize
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
     }
 
     @Override
     public void moveContainedObjects(double timeDelta) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ParticleStore store;
+        int substages;
+
+        if (this.container != null) {
+            store = this.container.getParticleStore();
+
+            if (store.size() > 0) {
+                if (!store.hasAccelerations()) {
+                    this.container.computeAccelerations();
+                }
+                substages = driftCoefficients.length;
+                kickPhase(store, kickCoefficients[0] * timeDelta);
+                for (int k = 0; k < substages; k++) {
+                    driftPhase(store, driftCoefficients[k] * timeDelta);
+                    forcePhase(store);
+                    kickPhase(store, kickCoefficients[k + 1] * timeDelta);
+                }
+                this.container.completeStep(timeDelta);
+            }
+        }
+    }
+
+    private void kickPhase(ParticleStore store, double timeDelta) {
+        if (pool != null) {
+            stepDelta = timeDelta;
+            RangeAction.invoke(pool, kickWork, store.size(), chunkSize);
+        } else {
+            kick(store, 0, store.size(), timeDelta);
+        }
     }
 
+    private void driftPhase(ParticleStore store, double timeDelta) {
+        if (pool != null) {
+            stepDelta = timeDelta;
+            RangeAction.invoke(pool, driftWork, store.size(), chunkSize);
+        } else {
+            drift(store, 0, store.size(), timeDelta);
+        }
+        store.markPositionsChanged();
+    }
+
+    private void forcePhase(ParticleStore store) {
+        if (pool != null) {
+            this.container.prepareForces();
+            RangeAction.invoke(pool, forceWork, store.size(), chunkSize);
+            store.setAccelerationsValid(true);
+        } else {
+            this.container.computeAccelerations();
+        }
+    }
+
+    /**
+     * x += v * dT for the slots [from, to)
+     */
+    private void drift(ParticleStore store, int from, int to, double timeDelta) {
+        double[] x = store.getX(), y = store.getY(), z = store.getZ();
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+
+        for (int i = from; i < to; i++) {
+            if (!store.isStatic(i)) {
+                x[i] += vx[i] * timeDelta;
+                y[i] += vy[i] * timeDelta;
+                z[i] += vz[i] * timeDelta;
+            }
+        }
+    }
+
+    /**
+     * v += a * dT for the slots [from, to)
+     */
+    private void kick(ParticleStore store, int from, int to, double timeDelta) {
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] ax = store.getAx(), ay = store.getAy(), az = store.getAz();
+
+        for (int i = from; i < to; i++) {
+            if (!store.isStatic(i)) {
+                vx[i] += ax[i] * timeDelta;
+                vy[i] += ay[i] * timeDelta;
+                vz[i] += az[i] * timeDelta;
+            }
+        }
+    }
+
+    /**
+     * First half of a single leapfrog substep for one orbital: half kick and
+     * full drift. The composition only makes sense for the whole system.
+     */
     @Override
     public void updateSinglePosition(Orbital orbital, double timeDelta) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ParticleStore store;
+        int slot;
+
+        if (orbital != null && orbital.getStore() == this.container.getParticleStore()) {
+            store = orbital.getStore();
+            slot = orbital.getStoreSlot();
+            if (!store.hasAccelerations()) {
+                this.container.computeAcceleration(slot);
+            }
+            kick(store, slot, slot + 1, timeDelta / 2.0);
+            drift(store, slot, slot + 1, timeDelta);
+            store.markPositionsChanged();
+        }
     }
 
+    /**
+     * Second half of a single leapfrog substep: new acceleration, half kick.
+     */
     @Override
     public void updateOrbitalProperties(Orbital orbital, double timeDelta) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        ParticleStore store;
+        int slot;
+
+        if (orbital != null && orbital.getStore() == this.container.getParticleStore()) {
+            store = orbital.getStore();
+            slot = orbital.getStoreSlot();
+            this.container.computeAcceleration(slot);
+            kick(store, slot, slot + 1, timeDelta / 2.0);
+        }
     }
 }
@@ -2,14 +2,24 @@ package ca.jewsbury.gravity.spacetime.model.integration;
 
 import ca.jewsbury.gravity.spacetime.SpaceContainer;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
-import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.concurrent.ForkJoinPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * EulerModel.class
+ * VerletModel.class
  *
+ * Velocity Verlet integration over the particle store of the container,
+ * written as kick (half step) - drift - force evaluation - kick (half step).
+ * The potentials for the step diagnostics come out of the force evaluation.
  *
+ * Without a pool a step allocates nothing once the force solver has sized
+ * its buffers, apart from the StepDiagnostics record on sampled steps.
+ *
+ * Given a ForkJoinPool every phase is split into chunks of slots and run on
+ * the pool. Each slot is still updated by the same arithmetic in the same
+ * order, so the result is bit for bit the serial one for any thread count.
  *
  * 16-Feb-2015
  *
@@ -17,90 +27,171 @@ import org.slf4j.LoggerFactory;
  */
 public class VerletModel implements Integrator {
 
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
     private final Logger logger = LoggerFactory.getLogger(VerletModel.class);
     private final SpaceContainer container;
 
+    private ForkJoinPool pool;
+    private int chunkSize;
+    private double stepDelta;
+
+    private final RangeAction.Work kickDriftWork = new RangeAction.Work() {
+        @Override
+        public void run(int from, int to) {
+            kickAndDrift(container.getParticleStore(), from, to, stepDelta);
+        }
+    };
+    private final RangeAction.Work forceWork = new RangeAction.Work() {
+        @Override
+        public void run(int from, int to) {
+            container.computeAccelerationRange(from, to);
+        }
+    };
+    private final RangeAction.Work kickWork = new RangeAction.Work() {
+        @Override
+        public void run(int from, int to) {
+            kick(container.getParticleStore(), from, to, stepDelta);
+        }
+    };
+
     public VerletModel(SpaceContainer container) {
+        this(container, null);
+    }
+
+    /**
+     * @param container
+     * @param pool - pool to run the step phases on, or null to run serially.
+     */
+    public VerletModel(SpaceContainer container, ForkJoinPool pool) {
         this.container = container;
+        this.pool = pool;
+        this.chunkSize = DEFAULT_CHUNK_SIZE;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Number of slots below which a range is no longer split.
+     *
+     * @param chunkSize
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
     }
 
     @Override
     public void moveContainedObjects(double timeDelta) {
-        Orbital[] arr;
+        ParticleStore store;
 
         if (this.container != null) {
-            arr = this.container.getOrbitalArray();
-
-            if (arr != null && arr.length > 0) {
-                for (Orbital orbital : arr) {
-                    if (!orbital.isStatic()) {
-                        //logger.info("Updating position of :: " + orbital.getIdName());
-                        updateSinglePosition(orbital, timeDelta);
-                        //logger.info("########### DONE ###############");
-                    }
-                }
+            store = this.container.getParticleStore();
 
-                for (Orbital orbital : arr) {
-                    if (!orbital.isStatic()) {
-                        //logger.info("~~~~~~~~~ Updating properties of '" + orbital.getIdName() + "' ~~~~~~~~~~~~" );
-                        updateOrbitalProperties(orbital, timeDelta);
-                        //logger.info(" ################### DONE ###############");
-                    }
+            if (store.size() > 0) {
+                if (!store.hasAccelerations()) {
+                    this.container.computeAccelerations();
+                }
+                if (pool != null) {
+                    moveInParallel(store, timeDelta);
+                } else {
+                    kickAndDrift(store, 0, store.size(), timeDelta);
+                    store.markPositionsChanged();
+                    this.container.computeAccelerations();
+                    kick(store, 0, store.size(), timeDelta);
                 }
-                this.container.refreshEnergyValues();
+                this.container.completeStep(timeDelta);
             }
         }
     }
 
-    @Override
-    public void updateSinglePosition(Orbital orbital, double timeDelta) {
-        SpaceTimeVector currentForce;
-        SpaceTimeVector displacement;
-        if (orbital != null) {
-            if (orbital.getLastAcceleration() == null) {
-                currentForce = this.container.getNetForce(orbital);
-                currentForce.transform((1.0 / orbital.getMass()));
-            } else {
-                currentForce = orbital.getAcceleration();
-            }
+    private void moveInParallel(ParticleStore store, double timeDelta) {
+        int count = store.size();
 
-            orbital.setAcceleration(new SpaceTimeVector(currentForce));
-            //logger.info("Calculated Acceleration is :: " + currentForce.toString());
+        stepDelta = timeDelta;
+        RangeAction.invoke(pool, kickDriftWork, count, chunkSize);
+        store.markPositionsChanged();
 
-            displacement = new SpaceTimeVector(orbital.getVelocity());
-            currentForce.transform((timeDelta / 2.0));
-            displacement.translate(currentForce);
-            displacement.transform(timeDelta);
+        this.container.prepareForces();
+        RangeAction.invoke(pool, forceWork, count, chunkSize);
+        store.setAccelerationsValid(true);
 
-            //logger.info("Displacement is :: " + displacement.toString());
-            //logger.info("Current Position is :: " + orbital.getPosition().toString());
-            orbital.moveObject(displacement);
+        RangeAction.invoke(pool, kickWork, count, chunkSize);
+    }
 
-            //logger.info("New Position is     :: " + orbital.getPosition().toString());
+    /**
+     * v += a * dT/2, x += v * dT for the slots [from, to)
+     */
+    private void kickAndDrift(ParticleStore store, int from, int to, double timeDelta) {
+        double[] x = store.getX(), y = store.getY(), z = store.getZ();
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] ax = store.getAx(), ay = store.getAy(), az = store.getAz();
+        double halfStep = timeDelta / 2.0;
+
+        for (int i = from; i < to; i++) {
+            if (!store.isStatic(i)) {
+                vx[i] += ax[i] * halfStep;
+                vy[i] += ay[i] * halfStep;
+                vz[i] += az[i] * halfStep;
+                x[i] += vx[i] * timeDelta;
+                y[i] += vy[i] * timeDelta;
+                z[i] += vz[i] * timeDelta;
+            }
+        }
+    }
+
+    /**
+     * v += a * dT/2 for the slots [from, to)
+     */
+    private void kick(ParticleStore store, int from, int to, double timeDelta) {
+        double[] vx = store.getVx(), vy = store.getVy(), vz = store.getVz();
+        double[] ax = store.getAx(), ay = store.getAy(), az = store.getAz();
+        double halfStep = timeDelta / 2.0;
+
+        for (int i = from; i < to; i++) {
+            if (!store.isStatic(i)) {
+                vx[i] += ax[i] * halfStep;
+                vy[i] += ay[i] * halfStep;
+                vz[i] += az[i] * halfStep;
+            }
+        }
+    }
+
+    @Override
+    public void updateSinglePosition(Orbital orbital, double timeDelta) {
+        ParticleStore store;
+        int slot;
+
+        if (orbital != null && orbital.getStore() == this.container.getParticleStore()) {
+            store = orbital.getStore();
+            slot = orbital.getStoreSlot();
+            if (!store.hasAccelerations()) {
+                this.container.computeAcceleration(slot);
+            }
+            kickAndDrift(store, slot, slot + 1, timeDelta);
+            store.markPositionsChanged();
         }
     }
 
     @Override
     public void updateOrbitalProperties(Orbital orbital, double timeDelta) {
-        SpaceTimeVector currentForce;
-
-        if (orbital != null) {
-            currentForce = this.container.getNetForce(orbital); //            
-            currentForce.transform((1.0 / orbital.getMass())); //alpha
-            //logger.info("Calculated Acceleration is :: " + currentForce.toString());
-            //logger.info("Orbital Acceleration is :: " + orbital.getAcceleration());
-            orbital.setLastAcceleration(orbital.getAcceleration());
-            orbital.setAcceleration(new SpaceTimeVector(currentForce));
-            
-            currentForce.translate(orbital.getAcceleration()); //( a + alpha )
-            //logger.info("Velocity Initial is :: " + currentForce.toString());
-
-            currentForce.transform((1.0 / 2.0)); //( a + alpha ) / 2.0
-            //logger.info("Halved :: " + currentForce.toString() );
-
-            currentForce.transform(timeDelta); //dT * (a + alpha ) / 2.0
-            //logger.info("New Velocity is :: " + currentForce.toString());
-            orbital.increaseVelocity(currentForce);
+        ParticleStore store;
+        int slot;
+
+        if (orbital != null && orbital.getStore() == this.container.getParticleStore()) {
+            store = orbital.getStore();
+            slot = orbital.getStoreSlot();
+            this.container.computeAcceleration(slot);
+            kick(store, slot, slot + 1, timeDelta);
         }
     }
 }
@@ -0,0 +1,179 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.Arrays;
+
+/**
+ * Snapshot.class
+ *
+ * Immutable copy of the positions in a container at the end of one step,
+ * held in primitive arrays so a reader on another thread never sees a body
+ * half way through a step. The arrays are handed out as they are; readers
+ * must treat them as read only.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class Snapshot {
+
+    private final long step;
+    private final double time;
+    private final long publishedNanos;
+    private final int count;
+    private final int[] index;
+    private final double[] x, y, z;
+    private final double[] radius;
+    private final int referenceSlot;
+    private final double comX, comY, comZ;
+    private final StepDiagnostics diagnostics;
+
+    public Snapshot(long step, double time, long publishedNanos, int[] index, double[] x, double[] y, double[] z,
+            double[] radius, int referenceSlot, double comX, double comY, double comZ, StepDiagnostics diagnostics) {
+        this.step = step;
+        this.time = time;
+        this.publishedNanos = publishedNanos;
+        this.count = index.length;
+        this.index = index;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.radius = radius;
+        this.referenceSlot = referenceSlot;
+        this.comX = comX;
+        this.comY = comY;
+        this.comZ = comZ;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Copies the container's particle store. Must be called from the thread
+     * that steps the container, between steps.
+     *
+     * @param container
+     * @param publishedNanos - System.nanoTime() of the capture.
+     * @param previous - last snapshot of the same container, or null. Its
+     * body index array is shared when the bodies have not changed.
+     * @return the new snapshot
+     */
+    public static Snapshot capture(SpaceContainer container, long publishedNanos, Snapshot previous) {
+        ParticleStore store = container.getParticleStore();
+        int count = store.size();
+        int[] flags = store.getFlags();
+        double[] mass = store.getMass();
+        double[] xC = Arrays.copyOf(store.getX(), count);
+        double[] yC = Arrays.copyOf(store.getY(), count);
+        double[] zC = Arrays.copyOf(store.getZ(), count);
+        int[] indexC;
+        int reference = -1;
+        double xCom = 0.0, yCom = 0.0, zCom = 0.0, totalMass = 0.0;
+
+        if (previous != null && previous.count == count && matches(previous.index, store.getIndex(), count)) {
+            indexC = previous.index;
+        } else {
+            indexC = Arrays.copyOf(store.getIndex(), count);
+        }
+        for (int i = 0; i < count; i++) {
+            xCom += xC[i] * mass[i];
+            yCom += yC[i] * mass[i];
+            zCom += zC[i] * mass[i];
+            totalMass += mass[i];
+            if (reference < 0 && (flags[i] & ParticleStore.FLAG_REFERENCE) != 0) {
+                reference = i;
+            }
+        }
+        if (totalMass > 0) {
+            xCom /= totalMass;
+            yCom /= totalMass;
+            zCom /= totalMass;
+        }
+        return new Snapshot(container.getStepCount(), container.getSimulationTime(), publishedNanos, indexC,
+                xC, yC, zC, Arrays.copyOf(store.getRadius(), count), reference, xCom, yCom, zCom,
+                container.getLastDiagnostics());
+    }
+
+    private static boolean matches(int[] first, int[] second, int count) {
+        boolean same = true;
+        for (int i = 0; i < count && same; i++) {
+            same = first[i] == second[i];
+        }
+        return same;
+    }
+
+    /**
+     * @param other
+     * @return TRUE if both snapshots hold the same bodies in the same slots,
+     * so their positions can be blended slot by slot.
+     */
+    public boolean hasSameBodies(Snapshot other) {
+        return other != null && (other.index == index || (other.count == count && matches(other.index, index, count)));
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return body index (stable across removals) of every slot.
+     */
+    public int[] getIndex() {
+        return index;
+    }
+
+    public double[] getX() {
+        return x;
+    }
+
+    public double[] getY() {
+        return y;
+    }
+
+    public double[] getZ() {
+        return z;
+    }
+
+    public double[] getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return slot of the reference body, or -1 if there is none.
+     */
+    public int getReferenceSlot() {
+        return referenceSlot;
+    }
+
+    public double getComX() {
+        return comX;
+    }
+
+    public double getComY() {
+        return comY;
+    }
+
+    public double getComZ() {
+        return comZ;
+    }
+
+    /**
+     * @return the container's latest diagnostics record at capture time; it
+     * may belong to an earlier step. Null if none was taken yet.
+     */
+    public StepDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+}
@@ -0,0 +1,91 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+/**
+ * SnapshotPair.class
+ *
+ * The last two snapshots a source published, swapped in together so a
+ * reader always gets a matching pair. A renderer draws one publish interval
+ * behind the physics and blends between the two.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class SnapshotPair {
+
+    private final Snapshot previous;
+    private final Snapshot current;
+
+    /**
+     * @param previous - older snapshot; null is treated as current.
+     * @param current
+     */
+    public SnapshotPair(Snapshot previous, Snapshot current) {
+        this.previous = previous != null ? previous : current;
+        this.current = current;
+    }
+
+    public Snapshot getPrevious() {
+        return previous;
+    }
+
+    public Snapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return TRUE if previous and current hold the same bodies.
+     */
+    public boolean isInterpolable() {
+        return previous != current && previous.hasSameBodies(current);
+    }
+
+    /**
+     * @param nowNanos - System.nanoTime() of the frame being drawn.
+     * @return blend factor in [0, 1]: the time since current was published
+     * over the time between the two publications. 1 once the physics has
+     * fallen quiet, or if the pair can't be blended.
+     */
+    public double getAlpha(long nowNanos) {
+        double alpha = 1.0;
+        long interval = current.getPublishedNanos() - previous.getPublishedNanos();
+
+        if (interval > 0 && isInterpolable()) {
+            alpha = (double) (nowNanos - current.getPublishedNanos()) / interval;
+            alpha = Math.max(0.0, Math.min(1.0, alpha));
+        }
+        return alpha;
+    }
+
+    /**
+     * Writes previous + (current - previous) * alpha into the given arrays,
+     * or current's positions if the pair can't be blended. The arrays must
+     * hold at least current.getCount() entries; any of them may be null to
+     * skip that axis.
+     *
+     * @param alpha
+     * @param x
+     * @param y
+     * @param z
+     */
+    public void interpolate(double alpha, double[] x, double[] y, double[] z) {
+        boolean blend = isInterpolable();
+        int count = current.getCount();
+
+        blendAxis(blend, alpha, previous.getX(), current.getX(), x, count);
+        blendAxis(blend, alpha, previous.getY(), current.getY(), y, count);
+        blendAxis(blend, alpha, previous.getZ(), current.getZ(), z, count);
+    }
+
+    private void blendAxis(boolean blend, double alpha, double[] from, double[] to, double[] out, int count) {
+        if (out != null) {
+            if (blend) {
+                for (int i = 0; i < count; i++) {
+                    out[i] = from[i] + (to[i] - from[i]) * alpha;
+                }
+            } else {
+                System.arraycopy(to, 0, out, 0, count);
+            }
+        }
+    }
+}
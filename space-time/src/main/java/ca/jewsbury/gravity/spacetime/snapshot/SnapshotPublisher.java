@@ -0,0 +1,91 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * SnapshotPublisher.class
+ *
+ * Single writer, any number of readers. The stepping thread calls publish()
+ * after each step; readers call getSnapshots() whenever they like. The pair
+ * is swapped through an AtomicReference, so neither side ever waits on the
+ * other. Publishing is rate limited: a 2 kHz physics loop only copies the
+ * store as often as a display can use it.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class SnapshotPublisher implements SnapshotSource {
+
+    public static final int DEFAULT_RATE = 240;
+
+    private final AtomicReference<SnapshotPair> latest;
+    private long intervalNanos;
+    private long lastPublishedNanos;
+
+    public SnapshotPublisher() {
+        this(DEFAULT_RATE);
+    }
+
+    /**
+     * @param rate - most snapshots per second; 0 publishes every step.
+     */
+    public SnapshotPublisher(int rate) {
+        latest = new AtomicReference<SnapshotPair>();
+        setRate(rate);
+    }
+
+    /**
+     * @param rate - most snapshots per second; 0 publishes every step.
+     */
+    public final void setRate(int rate) {
+        intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+    }
+
+    /**
+     * Captures the container if the publish interval has passed since the
+     * last snapshot. Call from the stepping thread only.
+     *
+     * @param container
+     * @return TRUE if a snapshot was published.
+     */
+    public boolean publish(SpaceContainer container) {
+        long now = System.nanoTime();
+        boolean published = false;
+
+        if (latest.get() == null || now - lastPublishedNanos >= intervalNanos) {
+            publishAt(container, now);
+            published = true;
+        }
+        return published;
+    }
+
+    /**
+     * Captures the container regardless of the rate, eg. once loaded or
+     * when paused, so readers see the final state.
+     *
+     * @param container
+     */
+    public void publishNow(SpaceContainer container) {
+        publishAt(container, System.nanoTime());
+    }
+
+    private void publishAt(SpaceContainer container, long now) {
+        SnapshotPair last = latest.get();
+        Snapshot previous = last != null ? last.getCurrent() : null;
+
+        latest.set(new SnapshotPair(previous, Snapshot.capture(container, now, previous)));
+        lastPublishedNanos = now;
+    }
+
+    @Override
+    public SnapshotPair getSnapshots() {
+        return latest.get();
+    }
+
+    public void clear() {
+        latest.set(null);
+    }
+}
@@ -0,0 +1,19 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+/**
+ * SnapshotSource.class
+ *
+ * Anything a renderer can draw from: a live simulation or a recording. Reads
+ * never block and never touch the bodies being stepped.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public interface SnapshotSource {
+
+    /**
+     * @return the latest two snapshots, or null before the first one.
+     */
+    SnapshotPair getSnapshots();
+}
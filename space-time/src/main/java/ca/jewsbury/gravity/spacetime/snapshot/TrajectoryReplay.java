@@ -0,0 +1,448 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.io.TrajectoryReader;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TrajectoryReplay.class
+ *
+ * Plays a recording made by a TrajectoryRecorder back as a SnapshotSource,
+ * so a renderer draws it exactly as it would a live simulation. Nothing is
+ * recomputed: the playhead moves through the recorded steps at any speed,
+ * negative for reverse, and seek() jumps anywhere.
+ *
+ * The playhead shows the first recorded frame at or after it. Reaching a
+ * frame costs a binary search of the keyframe index and a decode of at most
+ * one keyframe interval; moving forward within an interval just decodes on.
+ * Delta frames only decode forwards, so while playing in reverse the whole
+ * interval is decoded once into a cache and walked backwards from there, as
+ * long as it fits within the cache limit; past that, every frame is reached
+ * from its keyframe again.
+ *
+ * All decoding happens in update(), called from the replay's own thread
+ * once start()ed, or directly by the owner instead. The controls may be
+ * called from any thread.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class TrajectoryReplay implements SnapshotSource, Runnable {
+
+    /**
+     * Recorded steps played per second.
+     */
+    public static final double DEFAULT_SPEED = 60.0;
+    public static final int DEFAULT_RATE = 240;
+    /**
+     * Most positions (bodies x 3 x frames) held by the reverse cache.
+     */
+    public static final long DEFAULT_CACHE_LIMIT = 1L << 23;
+
+    private static final long NO_SEEK = Long.MIN_VALUE;
+
+    private final Logger logger = LoggerFactory.getLogger(TrajectoryReplay.class);
+    private final TrajectoryReader reader;
+    private final AtomicReference<SnapshotPair> latest;
+    private final AtomicLong pendingSeek;
+    private final long firstStep, lastStep;
+
+    private volatile double speed;
+    private volatile boolean playing;
+    private volatile double playhead;
+    private volatile boolean running;
+    private Thread thread;
+    private long intervalNanos;
+    private long cacheLimit;
+    private long lastUpdateNanos;
+    private long shownTarget;
+
+    // Where the reader is: its frame answers any target in
+    // (readerPrevious, reader.getStep()].
+    private boolean readerValid;
+    private long readerPrevious;
+    private int readerGroup;
+    // Bodies of the reader's last keyframe.
+    private int[] bodyIndex;
+    private double[] bodyMass, bodyRadius;
+    private int bodyReference;
+
+    private int cacheGroup, uncachedGroup;
+    private int cached;
+    private int[] cacheIndex;
+    private double[] cacheRadius;
+    private int cacheReference;
+    private long[] cacheSteps;
+    private double[] cacheTimes, cacheCom;
+    private double[][] cacheX, cacheY, cacheZ;
+
+    /**
+     * Opens the recording and shows its first frame, paused.
+     *
+     * @param directory - as given to the recorder.
+     * @throws SpaceTimeException if it holds no readable recording.
+     */
+    public TrajectoryReplay(File directory) throws SpaceTimeException {
+        this.reader = new TrajectoryReader(directory);
+        this.latest = new AtomicReference<SnapshotPair>();
+        this.pendingSeek = new AtomicLong(NO_SEEK);
+        this.speed = DEFAULT_SPEED;
+        this.cacheLimit = DEFAULT_CACHE_LIMIT;
+        this.cacheGroup = -1;
+        this.uncachedGroup = -1;
+        this.shownTarget = NO_SEEK;
+        setRate(DEFAULT_RATE);
+        if (reader.getKeyframeCount() == 0) {
+            throw new SpaceTimeException("No keyframes recorded in '" + directory + "'");
+        }
+        firstStep = reader.getKeyframeStep(0);
+        seekReader(reader.getKeyframeCount() - 1);
+        while (decodeNext()) {
+            // Find where the recording ends.
+        }
+        lastStep = reader.getStep();
+        logger.info("Replaying '" + directory + "' :: steps " + firstStep + " to " + lastStep + ", "
+                + reader.getKeyframeCount() + " keyframes.");
+        seek(firstStep);
+        update(System.nanoTime());
+    }
+
+    /**
+     * @param rate - updates per second of the replay thread.
+     */
+    public final void setRate(int rate) {
+        intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+    }
+
+    /**
+     * @param cacheLimit - most positions held for reverse play; 0 disables
+     * the cache.
+     */
+    public void setCacheLimit(long cacheLimit) {
+        this.cacheLimit = cacheLimit;
+    }
+
+    /**
+     * @param speed - recorded steps per second; negative plays in reverse.
+     */
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Plays on from the playhead; from the far end if it already stands at
+     * the end it would play towards.
+     */
+    public void play() {
+        if (speed > 0 && playhead >= lastStep) {
+            seek(firstStep);
+        } else if (speed < 0 && playhead <= firstStep) {
+            seek(lastStep);
+        }
+        playing = true;
+    }
+
+    public void pause() {
+        playing = false;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * Moves the playhead; the frame is shown by the next update().
+     *
+     * @param step - clamped to the recording.
+     */
+    public void seek(long step) {
+        pendingSeek.set(Math.max(firstStep, Math.min(lastStep, step)));
+    }
+
+    /**
+     * @param fraction - [0, 1] of the way through the recording.
+     */
+    public void seekFraction(double fraction) {
+        seek(firstStep + Math.round((lastStep - firstStep) * Math.max(0.0, Math.min(1.0, fraction))));
+    }
+
+    public long getFirstStep() {
+        return firstStep;
+    }
+
+    public long getLastStep() {
+        return lastStep;
+    }
+
+    /**
+     * @return position in recorded steps; between frames while playing.
+     */
+    public double getPlayhead() {
+        return playhead;
+    }
+
+    @Override
+    public SnapshotPair getSnapshots() {
+        return latest.get();
+    }
+
+    /**
+     * Starts the replay thread, which calls update() at the set rate.
+     */
+    public synchronized void start() {
+        if (!running) {
+            running = true;
+            thread = new Thread(this, "trajectory-replay");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted stopping replay :: " + e.getMessage());
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        long waitNanos;
+
+        while (running) {
+            update(System.nanoTime());
+            next += intervalNanos;
+            waitNanos = next - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Moves the playhead by the time since the last call, or to a pending
+     * seek, and publishes its frame if that changed. Call from one thread
+     * only.
+     *
+     * @param nowNanos - System.nanoTime()
+     */
+    public void update(long nowNanos) {
+        long seek = pendingSeek.getAndSet(NO_SEEK);
+        double head = playhead;
+        long target;
+
+        if (seek != NO_SEEK) {
+            head = seek;
+        } else if (playing && lastUpdateNanos != 0) {
+            head += speed * (nowNanos - lastUpdateNanos) / TimeUnit.SECONDS.toNanos(1);
+        }
+        if (head >= lastStep) {
+            head = lastStep;
+            playing = playing && speed < 0;
+        } else if (head <= firstStep) {
+            head = firstStep;
+            playing = playing && speed > 0;
+        }
+        playhead = head;
+        lastUpdateNanos = nowNanos;
+
+        target = (long) Math.ceil(head);
+        if (target != shownTarget) {
+            try {
+                show(target, nowNanos);
+                shownTarget = target;
+            } catch (SpaceTimeException e) {
+                logger.error("Unable to replay step " + target + " :: " + e.getMessage());
+                playing = false;
+            }
+        }
+    }
+
+    private void show(long target, long nowNanos) throws SpaceTimeException {
+        int group = Math.max(0, reader.findKeyframe(target));
+        int slot = -1;
+        Snapshot snapshot;
+        SnapshotPair last;
+
+        if (playing && speed < 0 && cacheLimit > 0 && group != cacheGroup && group != uncachedGroup) {
+            fillCache(group);
+        }
+        if (group == cacheGroup) {
+            slot = findCached(target);
+        }
+        if (slot >= 0) {
+            snapshot = new Snapshot(cacheSteps[slot], cacheTimes[slot], nowNanos, cacheIndex,
+                    cacheX[slot], cacheY[slot], cacheZ[slot], cacheRadius, cacheReference,
+                    cacheCom[3 * slot], cacheCom[3 * slot + 1], cacheCom[3 * slot + 2], null);
+        } else {
+            if (!readerValid || readerPrevious >= target
+                    || (reader.getStep() < target && readerGroup != group)) {
+                seekReader(group);
+                decodeNext();
+            }
+            while (reader.getStep() < target && decodeNext()) {
+                // Delta frames only decode forwards.
+            }
+            snapshot = readerSnapshot(nowNanos);
+        }
+
+        last = latest.get();
+        if (last == null || last.getCurrent().getStep() != snapshot.getStep()) {
+            latest.set(new SnapshotPair(last != null ? last.getCurrent() : null, snapshot));
+        }
+    }
+
+    private void seekReader(int group) throws SpaceTimeException {
+        reader.seekKeyframe(group);
+        readerValid = false;
+    }
+
+    private boolean decodeNext() throws SpaceTimeException {
+        long before = reader.getStep();
+        boolean decoded = reader.next();
+
+        if (decoded) {
+            readerPrevious = readerValid ? before : reader.getStep() - 1;
+            readerValid = true;
+            if (reader.isKeyframe()) {
+                readerGroup = reader.findKeyframe(reader.getStep());
+                readBodies();
+            }
+        }
+        return decoded;
+    }
+
+    /**
+     * Bodies only change at keyframes; copied once per keyframe and shared
+     * by every snapshot up to the next.
+     */
+    private void readBodies() {
+        int count = reader.getCount();
+        int[] flags = reader.getFlags();
+
+        bodyIndex = Arrays.copyOf(reader.getIndex(), count);
+        bodyMass = Arrays.copyOf(reader.getMass(), count);
+        bodyRadius = Arrays.copyOf(reader.getRadius(), count);
+        bodyReference = -1;
+        for (int i = 0; i < count && bodyReference < 0; i++) {
+            if ((flags[i] & ParticleStore.FLAG_REFERENCE) != 0) {
+                bodyReference = i;
+            }
+        }
+    }
+
+    private Snapshot readerSnapshot(long nowNanos) {
+        int count = reader.getCount();
+        double[] x = Arrays.copyOf(reader.getX(), count);
+        double[] y = Arrays.copyOf(reader.getY(), count);
+        double[] z = Arrays.copyOf(reader.getZ(), count);
+        double[] com = new double[3];
+
+        centreOfMass(x, y, z, com, 0);
+        return new Snapshot(reader.getStep(), reader.getTime(), nowNanos, bodyIndex, x, y, z, bodyRadius,
+                bodyReference, com[0], com[1], com[2], null);
+    }
+
+    private void centreOfMass(double[] x, double[] y, double[] z, double[] com, int offset) {
+        double totalMass = 0.0;
+
+        com[offset] = 0.0;
+        com[offset + 1] = 0.0;
+        com[offset + 2] = 0.0;
+        for (int i = 0; i < x.length; i++) {
+            com[offset] += x[i] * bodyMass[i];
+            com[offset + 1] += y[i] * bodyMass[i];
+            com[offset + 2] += z[i] * bodyMass[i];
+            totalMass += bodyMass[i];
+        }
+        if (totalMass > 0) {
+            com[offset] /= totalMass;
+            com[offset + 1] /= totalMass;
+            com[offset + 2] /= totalMass;
+        }
+    }
+
+    /**
+     * Decodes every frame of one keyframe interval into the cache, leaving
+     * the reader on the next keyframe. Gives up, and remembers not to try
+     * that interval again, once it would pass the cache limit.
+     */
+    private void fillCache(int group) throws SpaceTimeException {
+        boolean more;
+        int count;
+
+        cacheGroup = -1;
+        cached = 0;
+        seekReader(group);
+        more = decodeNext();
+        count = reader.getCount();
+        cacheIndex = bodyIndex;
+        cacheRadius = bodyRadius;
+        cacheReference = bodyReference;
+        while (more && (long) (cached + 1) * count * 3 <= cacheLimit) {
+            if (cacheSteps == null || cached == cacheSteps.length) {
+                growCache(cached == 0 ? 16 : cached * 2);
+            }
+            cacheSteps[cached] = reader.getStep();
+            cacheTimes[cached] = reader.getTime();
+            cacheX[cached] = Arrays.copyOf(reader.getX(), count);
+            cacheY[cached] = Arrays.copyOf(reader.getY(), count);
+            cacheZ[cached] = Arrays.copyOf(reader.getZ(), count);
+            centreOfMass(cacheX[cached], cacheY[cached], cacheZ[cached], cacheCom, 3 * cached);
+            cached++;
+            more = decodeNext() && !reader.isKeyframe();
+        }
+        if (more) {
+            logger.debug("Keyframe interval " + group + " too large to cache; reversing from keyframes.");
+            uncachedGroup = group;
+            cached = 0;
+        } else {
+            cacheGroup = group;
+        }
+    }
+
+    private void growCache(int length) {
+        cacheSteps = cacheSteps == null ? new long[length] : Arrays.copyOf(cacheSteps, length);
+        cacheTimes = cacheTimes == null ? new double[length] : Arrays.copyOf(cacheTimes, length);
+        cacheCom = cacheCom == null ? new double[3 * length] : Arrays.copyOf(cacheCom, 3 * length);
+        cacheX = cacheX == null ? new double[length][] : Arrays.copyOf(cacheX, length);
+        cacheY = cacheY == null ? new double[length][] : Arrays.copyOf(cacheY, length);
+        cacheZ = cacheZ == null ? new double[length][] : Arrays.copyOf(cacheZ, length);
+    }
+
+    /**
+     * @return slot of the first cached frame at or after target, or -1 if
+     * it lies past the cached interval.
+     */
+    private int findCached(long target) {
+        int found = Arrays.binarySearch(cacheSteps, 0, cached, target);
+
+        if (found < 0) {
+            found = -found - 1;
+        }
+        return found < cached ? found : -1;
+    }
+}
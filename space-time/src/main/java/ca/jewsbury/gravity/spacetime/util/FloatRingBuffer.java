@@ -0,0 +1,165 @@
+package ca.jewsbury.gravity.spacetime.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * FloatRingBuffer.class
+ *
+ * Fixed size history of float records (stride values each) for one writer
+ * thread and any number of reader threads. Nothing is boxed and nothing is
+ * allocated after construction.
+ *
+ * The writer stores a record and then advances a volatile counter. Readers
+ * copy into their own array with copyTo(): the counter is read before and
+ * after the copy, and any record the writer could have overwritten in
+ * between is dropped from the result, so a reader never sees a half
+ * written record and never blocks the writer.
+ *
+ * The values live in an AtomicIntegerArray as raw float bits, so every
+ * read of them is a volatile read. A plain read could be reordered after
+ * the second read of the counter; this way a reader that sees a value of
+ * the record being written also sees the counter that record was started
+ * at, and drops it.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class FloatRingBuffer {
+
+    private final AtomicIntegerArray data;
+    private final int capacity;
+    private final int stride;
+    private volatile long written;
+    private volatile long cleared;
+
+    /**
+     * @param capacity - records kept
+     */
+    public FloatRingBuffer(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * @param capacity - records kept
+     * @param stride - values per record
+     */
+    public FloatRingBuffer(int capacity, int stride) {
+        if (capacity < 1 || stride < 1) {
+            throw new IllegalArgumentException("Capacity and stride must be positive.");
+        }
+        this.capacity = capacity;
+        this.stride = stride;
+        this.data = new AtomicIntegerArray(capacity * stride);
+    }
+
+    /**
+     * Writer thread only.
+     *
+     * @param value - the record, for a stride of 1.
+     */
+    public void add(float value) {
+        long sequence = written;
+        data.set((int) (sequence % capacity) * stride, Float.floatToRawIntBits(value));
+        written = sequence + 1;
+    }
+
+    /**
+     * Writer thread only.
+     *
+     * @param first
+     * @param second - the record, for a stride of 2.
+     */
+    public void add(float first, float second) {
+        long sequence = written;
+        int offset = (int) (sequence % capacity) * stride;
+        data.set(offset, Float.floatToRawIntBits(first));
+        data.set(offset + 1, Float.floatToRawIntBits(second));
+        written = sequence + 1;
+    }
+
+    /**
+     * Writer thread only. Empties the buffer.
+     */
+    public void clear() {
+        cleared = written;
+    }
+
+    /**
+     * @return records currently held
+     */
+    public int size() {
+        long end = written;
+        return (int) Math.min(capacity, end - Math.min(end, cleared));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    /**
+     * @return records added since construction; readers can compare it to
+     * tell whether anything changed.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * @param component - [0, stride)
+     * @param fallback - returned when empty.
+     * @return the newest record's component
+     */
+    public float getLatest(int component, float fallback) {
+        long end = written;
+        float value = fallback;
+
+        if (end > cleared) {
+            value = Float.intBitsToFloat(data.get((int) ((end - 1) % capacity) * stride + component));
+            if (written - (end - 1) >= capacity) {
+                value = fallback;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Copies the held records, oldest first, into target. While the writer
+     * is busy the oldest record of a full buffer is left out, as it may be
+     * being overwritten.
+     *
+     * @param target - at least capacity() * stride() long.
+     * @return number of records copied
+     */
+    public int copyTo(float[] target) {
+        long end = written;
+        long start = Math.max(cleared, end - capacity);
+        long after, first;
+        int count = 0, offset;
+
+        start = Math.max(0, Math.min(start, end));
+        for (long sequence = start; sequence < end; sequence++) {
+            offset = (int) (sequence % capacity) * stride;
+            for (int c = 0; c < stride; c++) {
+                target[count * stride + c] = Float.intBitsToFloat(data.get(offset + c));
+            }
+            count++;
+        }
+        // The writer may be part way through the record after 'after', which
+        // reuses the slot of (after + 1 - capacity); that one and anything
+        // older is suspect.
+        after = written;
+        first = Math.max(start, after + 1 - capacity);
+        if (first >= end) {
+            count = 0;
+        } else if (first > start) {
+            count = (int) (end - first);
+            System.arraycopy(target, (int) (first - start) * stride, target, 0, count * stride);
+        }
+        return count;
+    }
+}
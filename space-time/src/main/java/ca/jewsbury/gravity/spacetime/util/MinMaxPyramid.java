@@ -0,0 +1,173 @@
+package ca.jewsbury.gravity.spacetime.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MinMaxPyramid.class
+ *
+ * Multi-resolution min/max history of a series of any length, for plotting.
+ * Level k keeps the minimum and maximum of every run of 2^k samples, as a
+ * ring of the most recent bins; a new, coarser level is added whenever the
+ * top one is about to wrap, so the top level always covers the whole
+ * history. Memory is bins x levels, about log2(samples / bins) levels, and
+ * adding a sample touches one bin per level.
+ *
+ * sample() answers a range at the coarsest level that still gives at least
+ * the asked number of columns and still holds the range, so a plot of any
+ * span costs O(columns), and narrow recent spans come out at full detail.
+ *
+ * One writer, any number of readers; both sides lock, the work done under
+ * the lock is O(levels) to add and O(columns) to sample.
+ *
+ * 16-Oct-2026
+ *
+ * @author Nathan
+ */
+public class MinMaxPyramid {
+
+    public static final int DEFAULT_BINS = 2048;
+
+    private final int bins;
+    private final List<double[]> minimum;
+    private final List<double[]> maximum;
+    private long count;
+
+    public MinMaxPyramid() {
+        this(DEFAULT_BINS);
+    }
+
+    /**
+     * @param bins - bins kept per level; even, at least 2.
+     */
+    public MinMaxPyramid(int bins) {
+        if (bins < 2 || bins % 2 != 0) {
+            throw new IllegalArgumentException("Bins per level must be even and at least 2.");
+        }
+        this.bins = bins;
+        this.minimum = new ArrayList<double[]>();
+        this.maximum = new ArrayList<double[]>();
+        this.minimum.add(new double[bins]);
+        this.maximum.add(new double[bins]);
+    }
+
+    /**
+     * Appends the next sample.
+     *
+     * @param value
+     */
+    public synchronized void add(double value) {
+        long sample = count;
+        int levels = minimum.size();
+        double[] min, max;
+        int slot;
+
+        if ((sample >> (levels - 1)) == bins) {
+            addLevel();
+            levels++;
+        }
+        for (int level = 0; level < levels; level++) {
+            min = minimum.get(level);
+            max = maximum.get(level);
+            slot = (int) ((sample >> level) % bins);
+            if ((sample & ((1L << level) - 1)) == 0) {
+                min[slot] = value;
+                max[slot] = value;
+            } else {
+                min[slot] = Math.min(min[slot], value);
+                max[slot] = Math.max(max[slot], value);
+            }
+        }
+        count = sample + 1;
+    }
+
+    /**
+     * The top level is full and not yet wrapped, so it holds bins 0..bins-1
+     * in order; the new level starts as those merged in pairs.
+     */
+    private void addLevel() {
+        double[] topMin = minimum.get(minimum.size() - 1);
+        double[] topMax = maximum.get(maximum.size() - 1);
+        double[] min = new double[bins];
+        double[] max = new double[bins];
+
+        for (int i = 0; i < bins / 2; i++) {
+            min[i] = Math.min(topMin[2 * i], topMin[2 * i + 1]);
+            max[i] = Math.max(topMax[2 * i], topMax[2 * i + 1]);
+        }
+        minimum.add(min);
+        maximum.add(max);
+    }
+
+    /**
+     * Reduces samples [from, to) to at most columns min/max pairs, oldest
+     * first. Fewer columns come back when the range has fewer samples. Bins
+     * are aligned to their level, so the end columns may take in up to one
+     * bin of samples either side of the range.
+     *
+     * @param from - first sample, inclusive.
+     * @param to - last sample, exclusive.
+     * @param columns
+     * @param min - at least columns long.
+     * @param max - at least columns long.
+     * @return columns filled
+     */
+    public synchronized int sample(long from, long to, int columns, double[] min, double[] max) {
+        long first = Math.max(0, from);
+        long last = Math.min(count, to);
+        int level = 0, filled = 0, column;
+        long firstBin, lastBin, span, held;
+        double[] levelMin, levelMax;
+        int slot;
+
+        if (columns > 0 && last > first) {
+            span = last - first;
+            while (level < minimum.size() - 1 && (span >> (level + 1)) >= columns) {
+                level++;
+            }
+            // Finer levels only keep their last bins; go up until the range
+            // is still held.
+            held = Math.max(0, ((count - 1) >> level) - bins + 1);
+            while (level < minimum.size() - 1 && (first >> level) < held) {
+                level++;
+                held = Math.max(0, ((count - 1) >> level) - bins + 1);
+            }
+            levelMin = minimum.get(level);
+            levelMax = maximum.get(level);
+            firstBin = first >> level;
+            lastBin = (last - 1) >> level;
+            filled = (int) Math.min(columns, lastBin - firstBin + 1);
+            for (long bin = firstBin; bin <= lastBin; bin++) {
+                column = (int) ((bin - firstBin) * filled / (lastBin - firstBin + 1));
+                slot = (int) (bin % bins);
+                if (bin == firstBin || column != (int) ((bin - 1 - firstBin) * filled / (lastBin - firstBin + 1))) {
+                    min[column] = levelMin[slot];
+                    max[column] = levelMax[slot];
+                } else {
+                    min[column] = Math.min(min[column], levelMin[slot]);
+                    max[column] = Math.max(max[column], levelMax[slot]);
+                }
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * @return samples added since construction or the last clear().
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized int getLevels() {
+        return minimum.size();
+    }
+
+    public synchronized void clear() {
+        while (minimum.size() > 1) {
+            minimum.remove(minimum.size() - 1);
+            maximum.remove(maximum.size() - 1);
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,69 @@
+package ca.jewsbury.gravity.spacetime;
+
+import ca.jewsbury.gravity.spacetime.model.DynamicObject;
+import ca.jewsbury.gravity.spacetime.model.MassiveObject;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.force.DirectSumSolver;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+
+/**
+ * Shared test fixture: light planets on circular orbits around a static sun.
+ *
+ * @author Nathan
+ */
+public class OrbitFixture {
+
+    public static final double SUN_MASS = 1000.0;
+    public static final double PLANET_MASS = 1e-3;
+
+    private OrbitFixture() {
+    }
+
+    /**
+     * A static reference "sun" of SUN_MASS at the origin, on the
+     * DirectSumSolver, and planets "planet0".. at innerRadius + i * spacing.
+     *
+     * @param planets
+     * @param innerRadius
+     * @param spacing
+     * @return SpaceContainer
+     */
+    public static SpaceContainer sunAndPlanets(int planets, double innerRadius, double spacing) {
+        SpaceContainer container = new SpaceContainer();
+        Orbital sun = new MassiveObject("sun");
+        Orbital planet;
+
+        sun.setMass(SUN_MASS);
+        sun.setReferenceObject(true);
+        container.insertOrbital(sun);
+        container.setForceSolver(new DirectSumSolver());
+        for (int i = 0; i < planets; i++) {
+            planet = circularOrbit(container, "planet" + i, PLANET_MASS, innerRadius + spacing * i, 0.0);
+            planet.setRadius(i + 1.0);
+        }
+        return container;
+    }
+
+    /**
+     * Inserts a body on a counter-clockwise circular orbit about SUN_MASS at
+     * the origin.
+     *
+     * @param container
+     * @param name
+     * @param mass
+     * @param radius
+     * @param angle - starting angle from the x axis.
+     * @return the inserted orbital
+     */
+    public static Orbital circularOrbit(SpaceContainer container, String name, double mass, double radius, double angle) {
+        Orbital orbital = new DynamicObject(name);
+        double speed = Math.sqrt(SpaceTimeConstants.GRAVITATIONAL_CONSTANT * SUN_MASS / radius);
+
+        orbital.setMass(mass);
+        orbital.setPosition(new SpaceTimeVector(radius * Math.cos(angle), radius * Math.sin(angle), 0.0));
+        orbital.setVelocity(new SpaceTimeVector(-speed * Math.sin(angle), speed * Math.cos(angle), 0.0));
+        container.insertOrbital(orbital);
+        return orbital;
+    }
+}
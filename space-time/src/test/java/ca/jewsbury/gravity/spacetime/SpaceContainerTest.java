@@ -7,6 +7,7 @@ package ca.jewsbury.gravity.spacetime;
 
 import ca.jewsbury.gravity.spacetime.model.DynamicObject;
 import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
 import junit.framework.Assert;
 import org.junit.After;
 import org.junit.Before;
@@ -49,6 +50,68 @@ public class SpaceContainerTest {
         }
     }
 
+    @Test
+    public void testOrbitalIsViewOverStoreSlot() {
+        Orbital first, second, third;
+
+        first = new DynamicObject("firstObject");
+        first.setPosition(new SpaceTimeVector(1.0, 2.0, 3.0));
+        second = new DynamicObject("secondObject");
+        second.setMass(5.0);
+        third = new DynamicObject("thirdObject");
+        third.setVelocity(new SpaceTimeVector(-1.0, 0.5, 0.0));
+
+        Assert.assertTrue(container.insertOrbital(first));
+        Assert.assertTrue(container.insertOrbital(second));
+        Assert.assertTrue(container.insertOrbital(third));
+        Assert.assertSame(container.getParticleStore(), first.getStore());
+        Assert.assertEquals(3, container.getParticleStore().size());
+        Assert.assertEquals(2.0, container.getParticleStore().getY()[first.getStoreSlot()]);
+
+        first.moveObject(new SpaceTimeVector(1.0, 1.0, 1.0));
+        Assert.assertEquals(new SpaceTimeVector(2.0, 3.0, 4.0), first.getPosition());
+
+        // Removing a body moves the last slot into the hole.
+        Assert.assertTrue(container.removeOrbital(first));
+        Assert.assertEquals(2, container.getOrbitalCount());
+        Assert.assertEquals(new SpaceTimeVector(-1.0, 0.5, 0.0), third.getVelocity());
+        Assert.assertEquals(5.0, second.getMass());
+        Assert.assertEquals(new SpaceTimeVector(2.0, 3.0, 4.0), first.getPosition());
+        Assert.assertEquals(6.0, container.getTotalMass());
+    }
+
+    @Test
+    public void testInsertBodyMatchesInsertOrbital() {
+        Orbital inserted, body;
+
+        inserted = new DynamicObject("inserted");
+        inserted.setMass(2.0);
+        inserted.setPosition(new SpaceTimeVector(1.0, 2.0, 3.0));
+        inserted.setVelocity(new SpaceTimeVector(0.5, 0.0, -0.5));
+        Assert.assertTrue(container.insertOrbital(inserted));
+
+        container.ensureCapacity(2);
+        Assert.assertTrue(container.insertBody("body", false, false, 1.0, 2.0, 3.0, 0.5, 0.0, -0.5, 2.0, 1.0));
+        Assert.assertTrue(container.insertBody("core", true, true, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 50.0, 5.0));
+        Assert.assertFalse(container.insertBody("body", false, false, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 1.0, 1.0));
+
+        body = container.getSpaceObject("body");
+        Assert.assertSame(container.getParticleStore(), body.getStore());
+        Assert.assertEquals(1, body.getStoreSlot());
+        Assert.assertEquals(inserted.getPosition(), body.getPosition());
+        Assert.assertEquals(inserted.getVelocity(), body.getVelocity());
+        Assert.assertEquals(inserted.getMass(), body.getMass());
+        Assert.assertFalse(body.isStatic());
+        Assert.assertTrue(container.getSpaceObject("core").isStatic());
+        Assert.assertTrue(container.getSpaceObject("core").isReferenceObject());
+        Assert.assertEquals(3, container.getOrbitalArray().length);
+        Assert.assertEquals(54.0, container.getTotalMass());
+
+        Assert.assertTrue(container.removeOrbital(body));
+        Assert.assertEquals(1, container.getSpaceObject("core").getStoreSlot());
+        Assert.assertEquals(new SpaceTimeVector(1.0, 2.0, 3.0), body.getPosition());
+    }
+
     @After
     public void tearDown() {
         container = null;
@@ -0,0 +1,168 @@
+package ca.jewsbury.gravity.spacetime.batch;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.generator.BodyGenerator;
+import ca.jewsbury.gravity.spacetime.io.SimulationLoader;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class BatchRunnerTest {
+
+    private static final String SIMULATION = "[{\"simulationId\": \"pair\", \"simulationName\": \"Pair\", \"objectList\": ["
+            + "{\"objectName\": \"earth\", \"objectMass\": 100, \"objectRadius\": 5, \"isStatic\": false, \"initialX\": 0.0, \"initialY\": 0.0, \"initialVX\": 0.0, \"initialVY\": 0.0},"
+            + "{\"objectName\": \"moon\", \"objectMass\": 1, \"objectRadius\": 1, \"isStatic\": false, \"initialX\": 200, \"initialY\": 0, \"initialVX\": 0.0, \"initialVY\": -2.0}]}]";
+
+    private File writeTemp(String content) throws IOException {
+        File file = File.createTempFile("batch", ".json");
+        Writer writer = new FileWriter(file);
+        writer.write(content);
+        writer.close();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private int countLines(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        int lines = 0;
+        while (reader.readLine() != null) {
+            lines++;
+        }
+        reader.close();
+        return lines;
+    }
+
+    @Test
+    public void testRunWritesDiagnosticsAndState() throws Exception {
+        File input = writeTemp(SIMULATION);
+        File diagnostics = File.createTempFile("batch", ".csv");
+        File state = File.createTempFile("batch-state", ".json");
+        BatchRunner runner = new BatchRunner();
+        SpaceContainer reloaded = new SpaceContainer();
+        StepDiagnostics last;
+        double[] energies;
+
+        diagnostics.deleteOnExit();
+        state.deleteOnExit();
+        runner.parseArguments(new String[]{"--file", input.getPath(), "--simulation", "Pair", "--integrator", "forest-ruth",
+            "--dt", "0.5", "--time", "20", "--every", "4", "--diagnostics", diagnostics.getPath(), "--state", state.getPath()});
+        Assert.assertEquals(40, runner.getStepCount());
+
+        last = runner.run();
+        Assert.assertEquals(40, last.getStep());
+        Assert.assertEquals(20.0, last.getTime(), 1e-12);
+        Assert.assertEquals(1 + 10, countLines(diagnostics));
+
+        Assert.assertEquals(2, SimulationLoader.populate(reloaded, SimulationLoader.findSimulation(SimulationLoader.readSimulationSets(state), "pair")));
+        reloaded.refreshEnergyValues();
+        energies = reloaded.getTotalEnergy();
+        Assert.assertEquals(last.getTotalEnergy(), energies[0] + energies[1], 1e-9);
+    }
+
+    @Test
+    public void testRunGeneratedSimulation() throws Exception {
+        BatchRunner runner = new BatchRunner();
+        StepDiagnostics last;
+
+        runner.parseArguments(new String[]{"--generate", "ring", "--bodies", "6", "--seed", "3", "--integrator", "leapfrog",
+            "--dt", "0.1", "--steps", "50"});
+        last = runner.run();
+        Assert.assertEquals(50, last.getStep());
+        Assert.assertEquals(BodyGenerator.DEFAULT_TOTAL_MASS, last.getTotalMass(), 1e-9);
+        Assert.assertEquals(0.0, last.getMomentumX(), 1e-9);
+    }
+
+    @Test(expected = SpaceTimeException.class)
+    public void testGenerateNeedsBodies() throws SpaceTimeException {
+        new BatchRunner().parseArguments(new String[]{"--generate", "plummer", "--steps", "10"});
+    }
+
+    @Test
+    public void testSerialSolverRejectedWhereItCannotHelp() throws SpaceTimeException {
+        String[][] rejected = {
+            {"--generate", "ring", "--bodies", "6", "--steps", "10", "--solver", "pairwise", "--threads", "4"},
+            {"--generate", "ring", "--bodies", "6", "--steps", "10", "--solver", "tiled", "--integrator", "block"}};
+
+        for (String[] args : rejected) {
+            try {
+                new BatchRunner().parseArguments(args);
+                Assert.fail("Accepted " + Arrays.toString(args));
+            } catch (SpaceTimeException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("--solver"));
+            }
+        }
+        new BatchRunner().parseArguments(new String[]{"--generate", "ring", "--bodies", "6", "--steps", "10", "--threads", "4"});
+    }
+
+    /**
+     * Stopping at a checkpoint and restarting with the same options must end
+     * where the run that was never stopped ends.
+     */
+    @Test
+    public void testRestartFromCheckpointMatchesUninterruptedRun() throws Exception {
+        File checkpoint = File.createTempFile("batch", ".ckpt");
+        File diagnostics = File.createTempFile("batch", ".csv");
+        File expectedState = File.createTempFile("batch-state", ".json");
+        File restartedState = File.createTempFile("batch-state", ".json");
+        // The disk's core and its inner bodies sit on finer block levels
+        // than the outer ones, so lost levels would show in the result.
+        String[] common = {"--integrator", "block", "--dt", "2", "--every", "5"};
+        String[] generate = {"--generate", "disk", "--bodies", "50", "--seed", "1"};
+        SpaceContainer expected = new SpaceContainer();
+        SpaceContainer actual = new SpaceContainer();
+        BatchRunner runner;
+        StepDiagnostics uninterrupted, restarted;
+        Orbital other;
+
+        checkpoint.deleteOnExit();
+        diagnostics.deleteOnExit();
+        expectedState.deleteOnExit();
+        restartedState.deleteOnExit();
+        runner = new BatchRunner();
+        runner.parseArguments(concat(concat(generate, common), "--steps", "40", "--state", expectedState.getPath()));
+        uninterrupted = runner.run();
+
+        runner = new BatchRunner();
+        runner.parseArguments(concat(concat(generate, common), "--steps", "20", "--checkpoint", checkpoint.getPath(),
+                "--checkpoint-every", "10", "--diagnostics", diagnostics.getPath()));
+        Assert.assertEquals(20, runner.run().getStep());
+
+        runner = new BatchRunner();
+        runner.parseArguments(concat(common, "--restart", checkpoint.getPath(), "--steps", "40",
+                "--diagnostics", diagnostics.getPath(), "--state", restartedState.getPath()));
+        restarted = runner.run();
+        Assert.assertEquals(40, restarted.getStep());
+        Assert.assertEquals(uninterrupted.getTotalEnergy(), restarted.getTotalEnergy());
+        Assert.assertEquals(uninterrupted.getComX(), restarted.getComX());
+        Assert.assertEquals(1 + 8, countLines(diagnostics));
+
+        SimulationLoader.load(expectedState, null, expected, null);
+        SimulationLoader.load(restartedState, null, actual, null);
+        Assert.assertEquals(expected.getOrbitalCount(), actual.getOrbitalCount());
+        for (Orbital orbital : expected.getOrbitalArray()) {
+            other = actual.getSpaceObject(orbital.getIdName());
+            Assert.assertEquals(orbital.getPosition(), other.getPosition());
+            Assert.assertEquals(orbital.getVelocity(), other.getVelocity());
+        }
+    }
+
+    private String[] concat(String[] first, String... second) {
+        String[] joined = Arrays.copyOf(first, first.length + second.length);
+
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}
@@ -0,0 +1,114 @@
+package ca.jewsbury.gravity.spacetime.generator;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.model.force.DirectSumSolver;
+import java.util.Arrays;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class BodyGeneratorTest {
+
+    private static final String[] GENERATORS = {GeneratorFactory.PLUMMER, GeneratorFactory.CUBE,
+        GeneratorFactory.COLD_COLLAPSE, GeneratorFactory.DISK, GeneratorFactory.RING};
+
+    private SpaceContainer generate(BodyGenerator generator) throws SpaceTimeException {
+        SpaceContainer container = new SpaceContainer();
+
+        container.setForceSolver(new DirectSumSolver());
+        generator.populate(container);
+        return container;
+    }
+
+    @Test
+    public void testSameSeedSameBodies() throws SpaceTimeException {
+        ParticleStore first, second, reseeded;
+
+        for (String name : GENERATORS) {
+            first = generate(GeneratorFactory.create(name, 500, 7L)).getParticleStore();
+            second = generate(GeneratorFactory.create(name, 500, 7L)).getParticleStore();
+            reseeded = generate(GeneratorFactory.create(name, 500, 8L)).getParticleStore();
+
+            Assert.assertTrue(name, Arrays.equals(first.getX(), second.getX()));
+            Assert.assertTrue(name, Arrays.equals(first.getVz(), second.getVz()));
+            Assert.assertTrue(name, Arrays.equals(first.getMass(), second.getMass()));
+            Assert.assertEquals(name, GeneratorFactory.RING.equals(name), Arrays.equals(first.getX(), reseeded.getX()));
+        }
+    }
+
+    @Test
+    public void testPlummerSphereIsInVirialEquilibrium() throws SpaceTimeException {
+        SpaceContainer container = generate(new PlummerSphereGenerator(2000, 1L));
+        StepDiagnostics diagnostics;
+        double virialRatio;
+
+        Assert.assertEquals(2000, container.getOrbitalCount());
+        Assert.assertEquals(BodyGenerator.DEFAULT_TOTAL_MASS, container.getTotalMass(), 1e-9);
+        Assert.assertTrue(container.getSpaceObject("plummer-1999") != null);
+
+        container.refreshEnergyValues();
+        diagnostics = container.computeDiagnostics();
+        virialRatio = 2.0 * diagnostics.getKineticEnergy() / -diagnostics.getPotentialEnergy();
+        Assert.assertEquals(1.0, virialRatio, 0.1);
+        Assert.assertEquals(0.0, diagnostics.getComX(), 1e-9);
+        Assert.assertEquals(0.0, diagnostics.getMomentumX(), 1e-9);
+    }
+
+    @Test
+    public void testColdCollapseVirialRatio() throws SpaceTimeException {
+        ColdCollapseGenerator generator = new ColdCollapseGenerator(2000, 3L);
+        SpaceContainer container;
+        StepDiagnostics diagnostics;
+
+        container = generate(generator);
+        container.refreshEnergyValues();
+        Assert.assertEquals(0.0, container.computeDiagnostics().getKineticEnergy());
+
+        generator.setVirialRatio(0.5);
+        container = generate(generator);
+        container.refreshEnergyValues();
+        diagnostics = container.computeDiagnostics();
+        Assert.assertEquals(0.5, 2.0 * diagnostics.getKineticEnergy() / -diagnostics.getPotentialEnergy(), 0.05);
+    }
+
+    @Test
+    public void testRingIsInEquilibrium() throws SpaceTimeException {
+        RingChoreographyGenerator generator = new RingChoreographyGenerator(12, 0L);
+        SpaceContainer container = generate(generator);
+        ParticleStore store = container.getParticleStore();
+        double centripetal = generator.getSpeed() * generator.getSpeed() / generator.getRadius();
+        double radial;
+
+        container.computeAccelerations();
+        for (int i = 0; i < store.size(); i++) {
+            radial = -(store.getAx()[i] * store.getX()[i] + store.getAy()[i] * store.getY()[i]) / generator.getRadius();
+            Assert.assertEquals(centripetal, radial, centripetal * 1e-9);
+            Assert.assertEquals(generator.getRadius(), Math.hypot(store.getX()[i], store.getY()[i]), 1e-9);
+        }
+    }
+
+    @Test
+    public void testDiskOrbitsCentralMass() throws SpaceTimeException {
+        ExponentialDiskGenerator generator = new ExponentialDiskGenerator(1000, 5L);
+        SpaceContainer container = generate(generator);
+        ParticleStore store = container.getParticleStore();
+        double radius;
+
+        Assert.assertEquals(1001, container.getOrbitalCount());
+        Assert.assertTrue(store.isStatic(0));
+        Assert.assertTrue(store.isReference(0));
+        Assert.assertEquals(generator.getCentralMass(), store.getMass()[0]);
+        for (int i = 1; i < store.size(); i++) {
+            radius = Math.hypot(store.getX()[i], store.getY()[i]);
+            Assert.assertTrue(radius >= generator.getInnerRadius() && radius <= generator.getOuterRadius());
+            Assert.assertEquals(0.0, store.getX()[i] * store.getVx()[i] + store.getY()[i] * store.getVy()[i], 1e-9 * radius);
+            Assert.assertTrue(store.getX()[i] * store.getVy()[i] - store.getY()[i] * store.getVx()[i] > 0);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.OrbitFixture;
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.model.force.DirectSumSolver;
+import ca.jewsbury.gravity.spacetime.model.integration.BlockTimestepModel;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class CheckpointFileTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("checkpoint", ".gscp");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * A run restarted from a checkpoint must carry on exactly as the run
+     * that was never stopped.
+     */
+    @Test
+    public void testRestartContinuesBitForBit() throws SpaceTimeException {
+        SpaceContainer original = OrbitFixture.sunAndPlanets(5, 50.0, 100.0);
+        BlockTimestepModel originalModel = new BlockTimestepModel(original);
+        SpaceContainer restarted = new SpaceContainer();
+        BlockTimestepModel restartedModel;
+        CheckpointFile checkpoint;
+        ParticleStore expected, actual;
+
+        for (int i = 0; i < 5; i++) {
+            originalModel.moveContainedObjects(4.0);
+        }
+        CheckpointFile.save(file, original, originalModel);
+
+        restarted.setForceSolver(new DirectSumSolver());
+        checkpoint = CheckpointFile.load(file, restarted);
+        restartedModel = new BlockTimestepModel(restarted);
+        Assert.assertTrue(checkpoint.restoreIntegrator(restartedModel));
+        Assert.assertEquals(6, checkpoint.getCount());
+        Assert.assertEquals(5, restarted.getStepCount());
+        Assert.assertTrue(restarted.getSpaceObject("sun").isStatic());
+        Assert.assertTrue(restarted.getSpaceObject("sun").isReferenceObject());
+        Assert.assertEquals(original.getTotalMass(), restarted.getTotalMass(), 0.0);
+
+        for (int i = 0; i < 5; i++) {
+            originalModel.moveContainedObjects(4.0);
+            restartedModel.moveContainedObjects(4.0);
+        }
+        expected = original.getParticleStore();
+        actual = restarted.getParticleStore();
+        for (int slot = 0; slot < expected.size(); slot++) {
+            Assert.assertEquals(expected.getIndex()[slot], actual.getIndex()[slot]);
+            Assert.assertEquals(expected.getX()[slot], actual.getX()[slot], 0.0);
+            Assert.assertEquals(expected.getY()[slot], actual.getY()[slot], 0.0);
+            Assert.assertEquals(expected.getVx()[slot], actual.getVx()[slot], 0.0);
+            Assert.assertEquals(expected.getVy()[slot], actual.getVy()[slot], 0.0);
+            Assert.assertEquals(expected.getRadius()[slot], actual.getRadius()[slot], 0.0);
+        }
+        Assert.assertEquals(original.getSimulationTime(), restarted.getSimulationTime(), 0.0);
+        Assert.assertEquals(originalModel.getLevel(1), restartedModel.getLevel(1));
+    }
+
+    @Test
+    public void testDamagedFileIsRejected() throws SpaceTimeException, IOException {
+        RandomAccessFile raw;
+        int damaged;
+
+        CheckpointFile.save(file, OrbitFixture.sunAndPlanets(5, 50.0, 100.0), null);
+        raw = new RandomAccessFile(file, "rw");
+        try {
+            raw.seek(CheckpointFile.HEADER_LENGTH + 17);
+            damaged = raw.read() ^ 0x40;
+            raw.seek(CheckpointFile.HEADER_LENGTH + 17);
+            raw.write(damaged);
+        } finally {
+            raw.close();
+        }
+        try {
+            CheckpointFile.load(file, new SpaceContainer());
+            Assert.fail("Loaded a damaged checkpoint.");
+        } catch (SpaceTimeException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("checksum"));
+        }
+    }
+}
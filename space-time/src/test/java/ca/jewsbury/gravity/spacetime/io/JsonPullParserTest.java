@@ -0,0 +1,96 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class JsonPullParserTest {
+
+    private JsonPullParser parse(String json) throws UnsupportedEncodingException {
+        return new JsonPullParser(new ByteArrayInputStream(json.getBytes("UTF-8")));
+    }
+
+    @Test
+    public void testTokensAndOffsets() throws Exception {
+        JsonPullParser parser = parse("{\"a\": [1, -2.5e3, true, null], \"é\\n\": \"x\\u0041\", \"b\": {}}");
+
+        Assert.assertEquals(JsonPullParser.Token.START_OBJECT, parser.next());
+        Assert.assertEquals(JsonPullParser.Token.NAME, parser.next());
+        Assert.assertEquals("a", parser.getString());
+        Assert.assertEquals(JsonPullParser.Token.START_ARRAY, parser.next());
+        Assert.assertEquals(6, parser.getTokenOffset());
+        Assert.assertEquals(JsonPullParser.Token.NUMBER, parser.next());
+        Assert.assertEquals(1.0, parser.getNumber(), 0.0);
+        Assert.assertEquals(JsonPullParser.Token.NUMBER, parser.next());
+        Assert.assertEquals(-2500.0, parser.getNumber(), 0.0);
+        Assert.assertEquals(JsonPullParser.Token.TRUE, parser.next());
+        Assert.assertEquals(JsonPullParser.Token.NULL, parser.next());
+        Assert.assertEquals(JsonPullParser.Token.END_ARRAY, parser.next());
+        Assert.assertEquals(JsonPullParser.Token.NAME, parser.next());
+        Assert.assertEquals("é\n", parser.getString());
+        Assert.assertEquals(JsonPullParser.Token.STRING, parser.next());
+        Assert.assertEquals("xA", parser.getString());
+        parser.skipValue(parser.next());
+        Assert.assertEquals(JsonPullParser.Token.END_OBJECT, parser.next());
+        Assert.assertEquals(JsonPullParser.Token.END, parser.next());
+    }
+
+    @Test
+    public void testNumbersMatchParseDouble() throws Exception {
+        Random random = new Random(7);
+        StringBuilder json = new StringBuilder("[");
+        String[] values = new String[2000];
+        JsonPullParser parser;
+
+        for (int i = 0; i < values.length; i++) {
+            switch (i % 4) {
+                case 0:
+                    values[i] = Double.toString(random.nextGaussian() * 1000.0);
+                    break;
+                case 1:
+                    values[i] = String.format("%.6f", random.nextDouble() - 0.5);
+                    break;
+                case 2:
+                    values[i] = Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(60) - 30));
+                    break;
+                default:
+                    values[i] = Long.toString(random.nextLong() >> random.nextInt(60));
+            }
+            json.append(i > 0 ? "," : "").append(values[i]);
+        }
+        parser = parse(json.append("]").toString());
+        parser.next();
+        for (String value : values) {
+            Assert.assertEquals(JsonPullParser.Token.NUMBER, parser.next());
+            Assert.assertEquals(value, Double.parseDouble(value), parser.getNumber(), 0.0);
+        }
+        Assert.assertEquals(JsonPullParser.Token.END_ARRAY, parser.next());
+    }
+
+    @Test
+    public void testMalformedInputIsRejected() throws Exception {
+        String[] malformed = {"[1,]", "{\"a\" 1}", "[1 2]", "{\"a\":}", "[1]]", "[1.2.3]", "\"open", "[tru]", "{1:2}"};
+        JsonPullParser parser;
+        boolean rejected;
+
+        for (String json : malformed) {
+            parser = parse(json);
+            rejected = false;
+            try {
+                while (parser.next() != JsonPullParser.Token.END) {
+                    // Read to the end or the first error.
+                }
+            } catch (SpaceTimeException e) {
+                rejected = true;
+            }
+            Assert.assertTrue(json, rejected);
+        }
+    }
+}
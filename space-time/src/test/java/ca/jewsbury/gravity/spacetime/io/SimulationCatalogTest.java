@@ -0,0 +1,122 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.List;
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class SimulationCatalogTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        Writer writer;
+
+        for (int i = 0; i < 5; i++) {
+            json.append(i > 0 ? ",\n" : "").append("  {\"simulationId\": \"ring-").append(i)
+                    .append("\", \"notes\": \"braces } ] and \\\" quotes\", \"objectList\": [");
+            for (int j = 0; j <= i; j++) {
+                json.append(j > 0 ? ", " : "").append("{\"objectName\": \"b").append(j)
+                        .append("\", \"isStatic\": false, \"initialX\": ").append(10.0 * j).append("}");
+            }
+            json.append("], \"simulationName\": \"Ring é ").append(i).append("\"}");
+        }
+        file = File.createTempFile("catalog", ".json");
+        writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write(json.append("\n]\n").toString());
+        writer.close();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testScanFindsEveryOffset() throws SpaceTimeException, IOException {
+        SimulationCatalog catalog = new SimulationCatalog();
+        RandomAccessFile raw = new RandomAccessFile(file, "r");
+        List<SimulationCatalog.Entry> entries;
+
+        Assert.assertEquals(5, catalog.addFile(file));
+        entries = catalog.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            Assert.assertEquals("ring-" + i, entries.get(i).getId());
+            Assert.assertEquals("Ring é " + i, entries.get(i).getName());
+            raw.seek(entries.get(i).getOffset());
+            Assert.assertEquals('{', raw.read());
+            raw.seek(entries.get(i).getOffset() + entries.get(i).getLength() - 1);
+            Assert.assertEquals('}', raw.read());
+        }
+        raw.close();
+        Assert.assertSame(entries.get(3), catalog.find("Ring é 3"));
+        Assert.assertNull(catalog.find("ring-9"));
+    }
+
+    @Test
+    public void testPopulateParsesOnceAndCaches() throws SpaceTimeException {
+        SimulationCatalog catalog = new SimulationCatalog(2);
+        SpaceContainer first = new SpaceContainer();
+        SpaceContainer second = new SpaceContainer();
+        final int[] reports = new int[1];
+        ProgressListener listener = new ProgressListener() {
+            @Override
+            public void progress(long done, long total) {
+                reports[0]++;
+            }
+        };
+
+        catalog.addFile(file);
+        Assert.assertEquals(0, catalog.getCachedCount());
+        Assert.assertEquals(4, catalog.populate(catalog.find("ring-3"), first, listener));
+        Assert.assertEquals(1, reports[0]);
+        Assert.assertEquals(4, catalog.populate(catalog.find("ring-3"), second, listener));
+        Assert.assertEquals(1, reports[0]);
+        Assert.assertNotSame(first.getSpaceObject("b2"), second.getSpaceObject("b2"));
+        Assert.assertEquals(20.0, second.getSpaceObject("b2").getPosition().getxCoord(), 0.0);
+
+        catalog.populate(catalog.find("ring-0"), new SpaceContainer(), null);
+        catalog.populate(catalog.find("ring-1"), new SpaceContainer(), null);
+        Assert.assertEquals(2, catalog.getCachedCount());
+        catalog.populate(catalog.find("ring-3"), new SpaceContainer(), listener);
+        Assert.assertEquals(2, reports[0]);
+    }
+
+    /**
+     * A numeric simulationId is catalogued as its text, as the loader reads
+     * it.
+     */
+    @Test
+    public void testNumericIdIsCatalogued() throws SpaceTimeException, IOException {
+        SimulationCatalog catalog = new SimulationCatalog();
+        SpaceContainer container = new SpaceContainer();
+        File numbered = File.createTempFile("catalog", ".json");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(numbered), "UTF-8");
+
+        try {
+            writer.write("[{\"simulationId\": 42, \"objectList\": [{\"objectName\": \"a\"}]}]");
+            writer.close();
+            Assert.assertEquals(1, catalog.addFile(numbered));
+            Assert.assertEquals("42", catalog.getEntries().get(0).getId());
+            Assert.assertEquals(1, catalog.populate(catalog.find("42"), container, null));
+            Assert.assertNotNull(container.getSpaceObject("a"));
+        } finally {
+            numbered.delete();
+        }
+    }
+}
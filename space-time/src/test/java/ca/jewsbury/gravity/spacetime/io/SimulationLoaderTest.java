@@ -0,0 +1,99 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class SimulationLoaderTest {
+
+    private static final String SETS = "[\n"
+            + "  {\"simulationId\": \"first\", \"simulationName\": \"First\", \"objectList\": [\n"
+            + "    {\"objectName\": \"a\", \"objectMass\": 5}\n"
+            + "  ]},\n"
+            + "  {\"objectList\": [\n"
+            + "    {\"objectName\": \"sun\", \"isStatic\": true, \"referenceObject\": true, \"objectMass\": 1.5e3,\n"
+            + "     \"objectRadius\": 20, \"notes\": {\"colour\": [1, 2, 3]}},\n"
+            + "    {\"objectName\": \"planet\", \"isStatic\": false, \"initialX\": 150.25, \"initialVY\": -0.125,\n"
+            + "     \"initialZ\": 1e-3, \"objectMass\": 0.001, \"objectRadius\": 2}\n"
+            + "  ], \"simulationName\": \"Late Name\", \"simulationId\": \"late\"}\n"
+            + "]\n";
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        Writer writer;
+
+        file = File.createTempFile("simulations", ".json");
+        writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write(SETS);
+        writer.close();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    /**
+     * Streaming must build the same bodies as the DOM loader, including when
+     * the object list comes before the id.
+     */
+    @Test
+    public void testStreamMatchesDom() throws SpaceTimeException {
+        SpaceContainer streamed = new SpaceContainer();
+        SpaceContainer built = new SpaceContainer();
+        Orbital expected, actual;
+
+        Assert.assertEquals("late", SimulationLoader.load(file, "Late Name", streamed, null));
+        SimulationLoader.populate(built, SimulationLoader.findSimulation(SimulationLoader.readSimulationSets(file), "late"));
+        Assert.assertEquals(2, streamed.getOrbitalCount());
+        for (Orbital orbital : built.getOrbitalArray()) {
+            expected = orbital;
+            actual = streamed.getSpaceObject(orbital.getIdName());
+            Assert.assertEquals(expected.getPosition(), actual.getPosition());
+            Assert.assertEquals(expected.getVelocity(), actual.getVelocity());
+            Assert.assertEquals(expected.getMass(), actual.getMass(), 0.0);
+            Assert.assertEquals(expected.getRadius(), actual.getRadius(), 0.0);
+            Assert.assertEquals(expected.isStatic(), actual.isStatic());
+            Assert.assertEquals(expected.isReferenceObject(), actual.isReferenceObject());
+        }
+    }
+
+    @Test
+    public void testFirstAndMissingSimulations() throws SpaceTimeException {
+        SpaceContainer container = new SpaceContainer();
+        final long[] reported = new long[2];
+
+        Assert.assertEquals("first", SimulationLoader.load(file, null, container, new ProgressListener() {
+            @Override
+            public void progress(long done, long total) {
+                reported[0] = done;
+                reported[1] = total;
+            }
+        }));
+        Assert.assertEquals(1, container.getOrbitalCount());
+        Assert.assertEquals(file.length(), reported[1]);
+        Assert.assertTrue(reported[0] > 0 && reported[0] < file.length());
+
+        try {
+            SimulationLoader.load(file, "missing", new SpaceContainer(), null);
+            Assert.fail("Loaded a simulation that is not there.");
+        } catch (SpaceTimeException e) {
+            Assert.assertTrue(e.getMessage().contains("missing"));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package ca.jewsbury.gravity.spacetime.io;
+
+import ca.jewsbury.gravity.spacetime.OrbitFixture;
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.integration.VerletModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class TrajectoryRecorderTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("trajectory", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Every frame that reaches the disk must read back bit for bit, across
+     * several segments and keyframes.
+     */
+    @Test
+    public void testRoundTripIsExact() throws SpaceTimeException {
+        SpaceContainer container = OrbitFixture.sunAndPlanets(8, 50.0, 25.0);
+        VerletModel model = new VerletModel(container);
+        TrajectoryRecorder recorder = new TrajectoryRecorder(directory, 1, 8, 1 << 16);
+        Map<Long, double[]> expected = new HashMap<Long, double[]>();
+        TrajectoryReader reader;
+        double[] state;
+        int frames = 0;
+
+        recorder.setKeyframeInterval(32);
+        recorder.setSegmentSize(1 << 16);
+        recorder.start(container);
+        expected.put(0L, container.getParticleStore().getX().clone());
+        for (int step = 1; step <= 1000; step++) {
+            model.moveContainedObjects(0.5);
+            expected.put(container.getStepCount(), container.getParticleStore().getX().clone());
+        }
+        recorder.close();
+        Assert.assertTrue(recorder.getCompressionRatio() < 1.0);
+
+        reader = new TrajectoryReader(directory);
+        Assert.assertTrue(TrajectoryRecorder.segmentFile(directory, 1).isFile());
+        Assert.assertTrue(TrajectoryRecorder.segmentFile(directory, 0).length() <= 1 << 16);
+        while (reader.next()) {
+            state = expected.get(reader.getStep());
+            for (int i = 0; i < reader.getCount(); i++) {
+                Assert.assertEquals(state[i], reader.getX()[i], 0.0);
+            }
+            frames++;
+        }
+        Assert.assertEquals(recorder.getFramesRecorded(), frames);
+        Assert.assertEquals(1001, recorder.getFramesRecorded() + recorder.getFramesDropped());
+    }
+
+    @Test
+    public void testSeekToKeyframe() throws SpaceTimeException {
+        SpaceContainer container = OrbitFixture.sunAndPlanets(3, 50.0, 25.0);
+        VerletModel model = new VerletModel(container);
+        TrajectoryRecorder recorder = new TrajectoryRecorder(directory, 2);
+        TrajectoryReader reader;
+        int keyframe;
+
+        recorder.setKeyframeInterval(10);
+        recorder.start(container);
+        for (int step = 0; step < 200; step++) {
+            model.moveContainedObjects(0.5);
+        }
+        recorder.close();
+
+        reader = new TrajectoryReader(directory);
+        Assert.assertEquals(11, reader.getKeyframeCount());
+        keyframe = reader.findKeyframe(125);
+        Assert.assertEquals(120, reader.getKeyframeStep(keyframe));
+        reader.seekKeyframe(keyframe);
+        Assert.assertTrue(reader.next());
+        Assert.assertTrue(reader.isKeyframe());
+        Assert.assertEquals(120, reader.getStep());
+        Assert.assertTrue(reader.next());
+        Assert.assertFalse(reader.isKeyframe());
+        Assert.assertEquals(122, reader.getStep());
+        Assert.assertEquals(4, reader.getCount());
+    }
+}
@@ -0,0 +1,75 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.Dimensional;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class BarnesHutSolverTest {
+
+    private ParticleStore buildCluster(int count, boolean flat) {
+        ParticleStore store = new ParticleStore(count);
+        Random random = new Random(4250);
+        int slot;
+
+        for (int i = 0; i < count; i++) {
+            slot = store.add(i, 0.5 + random.nextDouble(), 1.0, 0);
+            store.setPosition(slot, random.nextGaussian() * 100.0, random.nextGaussian() * 100.0,
+                    flat ? 0.0 : random.nextGaussian() * 100.0);
+        }
+        return store;
+    }
+
+    @Test
+    public void testZeroOpeningAngleMatchesDirectSum() {
+        ParticleStore store = buildCluster(300, false);
+        SolverAccuracy accuracy;
+
+        accuracy = SolverAccuracy.measure(store, new DirectSumSolver(), new BarnesHutSolver(0.0, Dimensional.ThreeD));
+        Assert.assertEquals(300, accuracy.getSamples());
+        Assert.assertTrue(accuracy.toString(), accuracy.getMaxRelativeError() < 1e-10);
+    }
+
+    @Test
+    public void testOctreeAccuracy() {
+        ParticleStore store = buildCluster(2000, false);
+        SolverAccuracy accuracy;
+
+        accuracy = SolverAccuracy.measure(store, new DirectSumSolver(), new BarnesHutSolver(0.5, Dimensional.ThreeD));
+        Assert.assertTrue(accuracy.toString(), accuracy.getRmsRelativeError() < 1e-2);
+        Assert.assertTrue(accuracy.toString(), accuracy.getMaxRelativeError() < 1e-1);
+    }
+
+    @Test
+    public void testQuadtreeAccuracy() {
+        ParticleStore store = buildCluster(2000, true);
+        BarnesHutSolver solver = new BarnesHutSolver(0.3, Dimensional.TwoD);
+        SolverAccuracy accuracy;
+
+        accuracy = SolverAccuracy.measure(store, new DirectSumSolver(), solver);
+        Assert.assertTrue(accuracy.toString(), accuracy.getRmsRelativeError() < 1e-2);
+        Assert.assertEquals(0, (solver.getNodeCount() - 1) % 4);
+    }
+
+    @Test
+    public void testCoincidentBodies() {
+        ParticleStore store = new ParticleStore();
+        BarnesHutSolver solver = new BarnesHutSolver();
+        double[] accel = new double[3];
+
+        for (int i = 0; i < 3; i++) {
+            store.setPosition(store.add(i, 1.0, 1.0, 0), 5.0, 5.0, 5.0);
+        }
+        store.setPosition(store.add(3, 1.0, 1.0, 0), -5.0, 5.0, 5.0);
+
+        solver.prepare(store);
+        solver.accelerationAt(store, 0, accel);
+        Assert.assertTrue(accel[0] < 0);
+        Assert.assertEquals(0.0, accel[1], 1e-12);
+    }
+}
@@ -0,0 +1,42 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class PairwiseForceSolverTest {
+
+    @Test
+    public void testMatchesDirectSum() {
+        ParticleStore store = new ParticleStore();
+        Random random = new Random(99);
+        PairwiseForceSolver pairwise = new PairwiseForceSolver();
+        DirectSumSolver direct = new DirectSumSolver();
+        SolverAccuracy accuracy;
+        double perBody = 0.0;
+        int slot;
+
+        for (int i = 0; i < 400; i++) {
+            slot = store.add(i, 1.0 + random.nextDouble(), 1.0, (i % 50 == 0) ? ParticleStore.FLAG_STATIC : 0);
+            store.setPosition(slot, random.nextGaussian() * 50.0, random.nextGaussian() * 50.0, random.nextGaussian() * 50.0);
+        }
+        // Two bodies on top of each other must not produce NaN.
+        store.setPosition(store.add(400, 1.0, 1.0, 0), 0.0, 0.0, 0.0);
+        store.setPosition(store.add(401, 1.0, 1.0, 0), 0.0, 0.0, 0.0);
+
+        accuracy = SolverAccuracy.measure(store, direct, pairwise);
+        Assert.assertTrue(accuracy.toString(), accuracy.getMaxRelativeError() < 1e-12);
+
+        for (int i = 0; i < store.size(); i++) {
+            Assert.assertEquals(direct.potentialAt(store, i), pairwise.potentialAt(store, i), 1e-9);
+            perBody += pairwise.potentialAt(store, i);
+        }
+        // Every pair shows up in the potential of both of its bodies.
+        Assert.assertEquals(perBody / 2.0, pairwise.getTotalPotentialEnergy(), 1e-9);
+    }
+}
@@ -0,0 +1,65 @@
+package ca.jewsbury.gravity.spacetime.model.force;
+
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class TiledDirectSolverTest {
+
+    private ParticleStore buildStore(int count) {
+        ParticleStore store = new ParticleStore();
+        Random random = new Random(5);
+        int slot;
+
+        // More than two tiles, and a count no lane width divides.
+        for (int i = 0; i < count; i++) {
+            slot = store.add(i, 0.5 + random.nextDouble(), 1.0, 0);
+            store.setPosition(slot, random.nextGaussian() * 80.0, random.nextGaussian() * 80.0, random.nextGaussian() * 80.0);
+        }
+        store.setPosition(store.add(count, 1.0, 1.0, 0), 0.0, 0.0, 0.0);
+        store.setPosition(store.add(count + 1, 1.0, 1.0, 0), 0.0, 0.0, 0.0);
+        return store;
+    }
+
+    @Test
+    public void testScalarKernelMatchesDirectSum() {
+        ParticleStore store = buildStore(2 * TiledDirectSolver.TILE_SIZE + 37);
+        SolverAccuracy accuracy = SolverAccuracy.measure(store, new DirectSumSolver(), new TiledDirectSolver());
+
+        Assert.assertTrue(accuracy.toString(), accuracy.getMaxRelativeError() < 1e-12);
+    }
+
+    @Test
+    public void testVectorKernelMatchesDirectSum() {
+        ParticleStore store = buildStore(2 * TiledDirectSolver.TILE_SIZE + 37);
+        DirectSumSolver direct = new DirectSumSolver();
+        TiledDirectSolver vector = ForceSolverFactory.createVectorSolver();
+        SolverAccuracy accuracy = SolverAccuracy.measure(store, direct, vector);
+
+        Assert.assertTrue(accuracy.toString(), accuracy.getMaxRelativeError() < 1e-12);
+        for (int i = 0; i < store.size(); i++) {
+            Assert.assertEquals(direct.potentialAt(store, i), vector.potentialAt(store, i), 1e-9);
+        }
+        if (javaMajorVersion() >= 17) {
+            Assert.assertTrue(ForceSolverFactory.isVectorAvailable());
+            Assert.assertFalse(vector.getClass().equals(TiledDirectSolver.class));
+        }
+    }
+
+    /**
+     * @return 8 for "1.8", 17 for "17", and so on.
+     */
+    private int javaMajorVersion() {
+        String version = System.getProperty("java.specification.version");
+
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        return Integer.parseInt(version.split("\\.")[0]);
+    }
+}
@@ -0,0 +1,111 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import ca.jewsbury.gravity.spacetime.OrbitFixture;
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.force.PairwiseForceSolver;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class BlockTimestepModelTest {
+
+    private static final int OUTER_BODIES = 20;
+
+    /**
+     * A ring of slow outer orbits around a static mass, and a fast inner one
+     * if asked for.
+     */
+    private SpaceContainer buildContainer(boolean withInner) {
+        SpaceContainer container = OrbitFixture.sunAndPlanets(0, 0.0, 0.0);
+
+        if (withInner) {
+            OrbitFixture.circularOrbit(container, "inner", 1e-6, 50.0, 0.0);
+        }
+        for (int i = 0; i < OUTER_BODIES; i++) {
+            OrbitFixture.circularOrbit(container, "outer" + i, 1e-6, 800.0 + 10.0 * i, 2.0 * Math.PI * i / OUTER_BODIES);
+        }
+        return container;
+    }
+
+    @Test
+    public void testOnlyDueBodiesAreUpdated() {
+        SpaceContainer container = buildContainer(true);
+        BlockTimestepModel model = new BlockTimestepModel(container);
+        Orbital inner = container.getSpaceObject("inner");
+        Orbital outer = container.getSpaceObject("outer0");
+        int blocks = 10;
+        long uniform;
+
+        for (int i = 0; i < blocks; i++) {
+            model.moveContainedObjects(4.0);
+        }
+        Assert.assertEquals(6, model.getLevel(inner.getStoreSlot()));
+        Assert.assertEquals(0, model.getLevel(outer.getStoreSlot()));
+
+        // Every body on the finest step would cost 64 evaluations per block.
+        uniform = (long) blocks * (1 + OUTER_BODIES) * 64;
+        Assert.assertTrue(model.getForceEvaluations() + " of " + uniform, model.getForceEvaluations() < uniform / 10);
+        Assert.assertEquals(blocks, container.getStepCount());
+    }
+
+    @Test
+    public void testPassesFollowTheFinestLevelInUse() {
+        SpaceContainer container = buildContainer(false);
+        BlockTimestepModel model = new BlockTimestepModel(container);
+
+        for (int i = 0; i < 10; i++) {
+            model.moveContainedObjects(4.0);
+        }
+        Assert.assertEquals(0, model.getLevel(container.getSpaceObject("outer0").getStoreSlot()));
+        Assert.assertEquals(10, model.getForcePasses());
+
+        OrbitFixture.circularOrbit(container, "inner", 1e-6, 50.0, 0.0);
+        model.moveContainedObjects(4.0);
+        model.moveContainedObjects(4.0);
+        Assert.assertEquals(10 + 2 * 64, model.getForcePasses());
+    }
+
+    @Test
+    public void testFactorySwapsOutPrepareBoundSolver() throws SpaceTimeException {
+        SpaceContainer container = buildContainer(true);
+
+        container.setForceSolver(new PairwiseForceSolver());
+        // As a restored checkpoint leaves it.
+        container.getParticleStore().setAccelerationsValid(true);
+        Assert.assertTrue(IntegratorFactory.create(IntegratorFactory.BLOCK, container, null) instanceof BlockTimestepModel);
+        Assert.assertFalse(container.getForceSolver().isEvaluatedInPrepare());
+        Assert.assertTrue(container.getParticleStore().hasAccelerations());
+    }
+
+    @Test
+    public void testMatchesUniformStepping() {
+        SpaceContainer blockContainer = buildContainer(true);
+        SpaceContainer uniformContainer = buildContainer(true);
+        BlockTimestepModel block = new BlockTimestepModel(blockContainer);
+        VerletModel uniform = new VerletModel(uniformContainer);
+        SpaceTimeVector expected, actual;
+        String name;
+
+        for (int i = 0; i < 10; i++) {
+            block.moveContainedObjects(4.0);
+            for (int k = 0; k < 64; k++) {
+                uniform.moveContainedObjects(4.0 / 64);
+            }
+        }
+        for (int i = -1; i < OUTER_BODIES; i++) {
+            name = (i < 0) ? "inner" : "outer" + i;
+            expected = uniformContainer.getSpaceObject(name).getPosition();
+            actual = blockContainer.getSpaceObject(name).getPosition();
+            // The outer bodies took 64x larger steps, allow for that.
+            Assert.assertEquals(name, 0.0, Math.hypot(expected.getxCoord() - actual.getxCoord(), expected.getyCoord() - actual.getyCoord()),
+                    (i < 0) ? 1e-3 : 1e-4 * (800.0 + 10.0 * i));
+        }
+        Assert.assertEquals(50.0, blockContainer.getSpaceObject("inner").distanceToOther(blockContainer.getSpaceObject("sun")), 0.05);
+    }
+}
@@ -0,0 +1,98 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.model.DynamicObject;
+import ca.jewsbury.gravity.spacetime.model.MassiveObject;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.properties.SpaceTimeConstants;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class SymplecticModelTest {
+
+    private static final double CENTRAL_MASS = 1000.0;
+    private static final double RADIUS = 100.0;
+
+    /**
+     * Position error after one period of a circular orbit around a static
+     * mass, against the exact solution.
+     */
+    private double orbitError(SymplecticModel.Scheme scheme, int steps) {
+        SpaceContainer container = new SpaceContainer();
+        Orbital sun = new MassiveObject("sun");
+        Orbital planet = new DynamicObject("planet");
+        double speed = Math.sqrt(SpaceTimeConstants.GRAVITATIONAL_CONSTANT * CENTRAL_MASS / RADIUS);
+        double period = 2.0 * Math.PI * RADIUS / speed;
+        SymplecticModel model;
+        SpaceTimeVector position;
+
+        sun.setMass(CENTRAL_MASS);
+        planet.setMass(1e-6);
+        planet.setPosition(new SpaceTimeVector(RADIUS, 0.0, 0.0));
+        planet.setVelocity(new SpaceTimeVector(0.0, speed, 0.0));
+        container.insertOrbital(sun);
+        container.insertOrbital(planet);
+
+        model = new SymplecticModel(container, scheme);
+        for (int i = 0; i < steps; i++) {
+            model.moveContainedObjects(period / steps);
+        }
+        position = planet.getPosition();
+        return Math.hypot(position.getxCoord() - RADIUS, position.getyCoord());
+    }
+
+    @Test
+    public void testConvergenceOrder() {
+        double coarse, fine, observed;
+
+        for (SymplecticModel.Scheme scheme : SymplecticModel.Scheme.values()) {
+            coarse = orbitError(scheme, 40);
+            fine = orbitError(scheme, 80);
+            observed = Math.log(coarse / fine) / Math.log(2.0);
+            Assert.assertEquals(scheme + " order", scheme.getOrder(), observed, 0.3);
+        }
+    }
+
+    @Test
+    public void testHigherOrderBeatsLeapfrogAtLargerSteps() {
+        double leapfrog = orbitError(SymplecticModel.Scheme.LEAPFROG, 400);
+        double forestRuth = orbitError(SymplecticModel.Scheme.FOREST_RUTH, 80);
+        double yoshida = orbitError(SymplecticModel.Scheme.YOSHIDA_6, 20);
+
+        // 5x and 20x larger steps, fewer force evaluations, smaller error.
+        Assert.assertTrue(forestRuth + " vs " + leapfrog, forestRuth < leapfrog);
+        Assert.assertTrue(yoshida + " vs " + leapfrog, yoshida < leapfrog);
+    }
+
+    @Test
+    public void testLeapfrogMatchesVerlet() {
+        SpaceContainer first = new SpaceContainer();
+        SpaceContainer second = new SpaceContainer();
+        Orbital orbital;
+        VerletModel verlet = new VerletModel(first);
+        SymplecticModel leapfrog = new SymplecticModel(second, SymplecticModel.Scheme.LEAPFROG);
+
+        for (int i = 0; i < 5; i++) {
+            for (SpaceContainer container : new SpaceContainer[]{first, second}) {
+                orbital = new DynamicObject("body" + i);
+                orbital.setMass(1.0 + i);
+                orbital.setPosition(new SpaceTimeVector(30.0 * i, 7.0 * i * i, -3.0 * i));
+                orbital.setVelocity(new SpaceTimeVector(0.1 * i, -0.2, 0.05 * i));
+                container.insertOrbital(orbital);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            verlet.moveContainedObjects(0.25);
+            leapfrog.moveContainedObjects(0.25);
+        }
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(first.getSpaceObject("body" + i).getPosition(), second.getSpaceObject("body" + i).getPosition());
+        }
+        Assert.assertEquals(50, second.getStepCount());
+    }
+}
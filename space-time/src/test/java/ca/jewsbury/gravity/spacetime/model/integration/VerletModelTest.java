@@ -0,0 +1,169 @@
+package ca.jewsbury.gravity.spacetime.model.integration;
+
+import ca.jewsbury.gravity.spacetime.Dimensional;
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.StepDiagnostics;
+import ca.jewsbury.gravity.spacetime.model.DynamicObject;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.ParticleStore;
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.force.BarnesHutSolver;
+import ca.jewsbury.gravity.spacetime.model.force.PairwiseForceSolver;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class VerletModelTest {
+
+    private SpaceContainer buildContainer(int count) {
+        SpaceContainer container = new SpaceContainer();
+        Random random = new Random(17);
+        Orbital orbital;
+
+        for (int i = 0; i < count; i++) {
+            orbital = new DynamicObject("body" + i);
+            orbital.setMass(1.0 + random.nextDouble());
+            orbital.setPosition(new SpaceTimeVector(random.nextGaussian() * 200.0, random.nextGaussian() * 200.0, random.nextGaussian() * 200.0));
+            orbital.setVelocity(new SpaceTimeVector(random.nextGaussian(), random.nextGaussian(), random.nextGaussian()));
+            container.insertOrbital(orbital);
+        }
+        return container;
+    }
+
+    private void assertSameState(ParticleStore expected, ParticleStore actual) {
+        int count = expected.size();
+        Assert.assertEquals(count, actual.size());
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getX(), count), Arrays.copyOf(actual.getX(), count)));
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getY(), count), Arrays.copyOf(actual.getY(), count)));
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getZ(), count), Arrays.copyOf(actual.getZ(), count)));
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getVx(), count), Arrays.copyOf(actual.getVx(), count)));
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getVy(), count), Arrays.copyOf(actual.getVy(), count)));
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getVz(), count), Arrays.copyOf(actual.getVz(), count)));
+        Assert.assertTrue(Arrays.equals(Arrays.copyOf(expected.getPotential(), count), Arrays.copyOf(actual.getPotential(), count)));
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        SpaceContainer serial = buildContainer(300);
+        SpaceContainer parallel;
+        VerletModel serialModel = new VerletModel(serial);
+        VerletModel parallelModel;
+        ForkJoinPool pool;
+
+        for (int i = 0; i < 10; i++) {
+            serialModel.moveContainedObjects(0.5);
+        }
+
+        for (int threads : new int[]{1, 3, 8}) {
+            pool = new ForkJoinPool(threads);
+            parallel = buildContainer(300);
+            // The default solver's queries must be the ones spread over the pool.
+            Assert.assertFalse(parallel.getForceSolver().isEvaluatedInPrepare());
+            parallelModel = new VerletModel(parallel, pool);
+            parallelModel.setChunkSize(7);
+            for (int i = 0; i < 10; i++) {
+                parallelModel.moveContainedObjects(0.5);
+            }
+            assertSameState(serial.getParticleStore(), parallel.getParticleStore());
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelTreeCodeMatchesSerial() {
+        SpaceContainer serial = buildContainer(500);
+        SpaceContainer parallel = buildContainer(500);
+        VerletModel serialModel = new VerletModel(serial);
+        VerletModel parallelModel;
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        serial.setForceSolver(new BarnesHutSolver(0.6, Dimensional.ThreeD));
+        parallel.setForceSolver(new BarnesHutSolver(0.6, Dimensional.ThreeD));
+        parallelModel = new VerletModel(parallel, pool);
+        parallelModel.setChunkSize(32);
+        for (int i = 0; i < 10; i++) {
+            serialModel.moveContainedObjects(0.5);
+            parallelModel.moveContainedObjects(0.5);
+        }
+        assertSameState(serial.getParticleStore(), parallel.getParticleStore());
+        pool.shutdown();
+    }
+
+    @Test
+    public void testDiagnosticsComeFromTheForcePass() {
+        SpaceContainer container = buildContainer(200);
+        VerletModel model = new VerletModel(container);
+        PairwiseForceSolver reference = new PairwiseForceSolver();
+        StepDiagnostics first, last;
+
+        container.setDiagnosticsInterval(5);
+        for (int i = 0; i < 4; i++) {
+            model.moveContainedObjects(0.5);
+        }
+        Assert.assertNull(container.getLastDiagnostics());
+
+        model.moveContainedObjects(0.5);
+        first = container.getLastDiagnostics();
+        Assert.assertNotNull(first);
+        Assert.assertEquals(5, first.getStep());
+        Assert.assertEquals(2.5, first.getTime(), 1e-12);
+
+        // Each pair counted once, from the potentials of the last force pass.
+        reference.prepare(container.getParticleStore());
+        Assert.assertEquals(reference.getTotalPotentialEnergy(), first.getPotentialEnergy(), 1e-9 * Math.abs(first.getPotentialEnergy()));
+
+        for (int i = 0; i < 7; i++) {
+            model.moveContainedObjects(0.5);
+        }
+        last = container.getLastDiagnostics();
+        Assert.assertEquals(10, last.getStep());
+        Assert.assertEquals(12, container.getStepCount());
+        Assert.assertEquals(first.getMomentumX(), last.getMomentumX(), 1e-9);
+        Assert.assertEquals(first.getMomentumY(), last.getMomentumY(), 1e-9);
+        Assert.assertEquals(first.getMomentumZ(), last.getMomentumZ(), 1e-9);
+        Assert.assertEquals(first.getTotalEnergy(), last.getTotalEnergy(), 1e-4 * Math.abs(first.getTotalEnergy()));
+    }
+
+    @Test
+    public void testSteadyStateStepAllocatesNothing() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        SpaceContainer container = buildContainer(200);
+        VerletModel model = new VerletModel(container);
+        Orbital first = container.getSpaceObject("body0");
+        Orbital second = container.getSpaceObject("body1");
+        SpaceTimeVector scratch = new SpaceTimeVector();
+        long before, overhead, allocated;
+
+        Assert.assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        container.setForceSolver(new PairwiseForceSolver());
+        container.setDiagnosticsInterval(0);
+        for (int i = 0; i < 2000; i++) {
+            model.moveContainedObjects(0.01);
+            first.getUnitVectorFacingOther(second, scratch);
+            container.getNetForce(first, scratch);
+            first.readPosition(scratch);
+        }
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        overhead = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100; i++) {
+            model.moveContainedObjects(0.01);
+            first.getUnitVectorFacingOther(second, scratch);
+            container.getNetForce(first, scratch);
+            first.readPosition(scratch);
+        }
+        allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+        Assert.assertEquals("bytes allocated over 100 steps", 0, allocated);
+    }
+}
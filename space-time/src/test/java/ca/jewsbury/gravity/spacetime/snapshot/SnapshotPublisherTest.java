@@ -0,0 +1,111 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.model.DynamicObject;
+import ca.jewsbury.gravity.spacetime.model.Orbital;
+import ca.jewsbury.gravity.spacetime.model.SpaceTimeVector;
+import ca.jewsbury.gravity.spacetime.model.integration.VerletModel;
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class SnapshotPublisherTest {
+
+    private SpaceContainer buildContainer() {
+        SpaceContainer container = new SpaceContainer();
+        Orbital orbital;
+
+        for (int i = 0; i < 4; i++) {
+            orbital = new DynamicObject("body-" + i);
+            orbital.setMass(10.0 + i);
+            orbital.setPosition(new SpaceTimeVector(100.0 * Math.cos(i), 100.0 * Math.sin(i), 0.0));
+            orbital.setVelocity(new SpaceTimeVector(-Math.sin(i), Math.cos(i), 0.0));
+            container.insertOrbital(orbital);
+        }
+        return container;
+    }
+
+    @Test
+    public void testSnapshotsAreIndependentOfLaterSteps() {
+        SpaceContainer container = buildContainer();
+        VerletModel model = new VerletModel(container);
+        SnapshotPublisher publisher = new SnapshotPublisher(0);
+        Snapshot first, second;
+        double firstX;
+        double[] midX = new double[4];
+
+        publisher.publishNow(container);
+        first = publisher.getSnapshots().getCurrent();
+        firstX = first.getX()[0];
+
+        model.moveContainedObjects(1.0);
+        Assert.assertTrue(publisher.publish(container));
+        second = publisher.getSnapshots().getCurrent();
+
+        Assert.assertEquals(firstX, first.getX()[0], 0.0);
+        Assert.assertEquals(0L, first.getStep());
+        Assert.assertEquals(1L, second.getStep());
+        Assert.assertSame(first, publisher.getSnapshots().getPrevious());
+        Assert.assertSame("unchanged bodies share the index array", first.getIndex(), second.getIndex());
+        Assert.assertTrue(publisher.getSnapshots().isInterpolable());
+
+        publisher.getSnapshots().interpolate(0.5, midX, null, null);
+        Assert.assertEquals((first.getX()[0] + second.getX()[0]) / 2.0, midX[0], 1e-12);
+    }
+
+    @Test
+    public void testRateLimit() {
+        SpaceContainer container = buildContainer();
+        SnapshotPublisher publisher = new SnapshotPublisher(1);
+
+        Assert.assertTrue(publisher.publish(container));
+        Assert.assertFalse(publisher.publish(container));
+        publisher.publishNow(container);
+        Assert.assertNotSame(publisher.getSnapshots().getPrevious(), publisher.getSnapshots().getCurrent());
+    }
+
+    /**
+     * A reader spinning on getSnapshots() while the physics runs must see
+     * steps in order and every pair ordered oldest first.
+     */
+    @Test
+    public void testConcurrentReader() throws InterruptedException {
+        final SpaceContainer container = buildContainer();
+        final VerletModel model = new VerletModel(container);
+        final SnapshotPublisher publisher = new SnapshotPublisher(0);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        Thread writer;
+        long lastStep = -1;
+        SnapshotPair pair;
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 2000; i++) {
+                    model.moveContainedObjects(0.1);
+                    publisher.publish(container);
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            pair = publisher.getSnapshots();
+            if (pair != null) {
+                if (pair.getCurrent().getStep() < lastStep) {
+                    failure.set("step went back from " + lastStep + " to " + pair.getCurrent().getStep());
+                }
+                if (pair.getPrevious().getStep() > pair.getCurrent().getStep()) {
+                    failure.set("pair out of order");
+                }
+                lastStep = pair.getCurrent().getStep();
+            }
+        }
+        writer.join();
+        Assert.assertNull(failure.get(), failure.get());
+        Assert.assertEquals(2000L, publisher.getSnapshots().getCurrent().getStep());
+    }
+}
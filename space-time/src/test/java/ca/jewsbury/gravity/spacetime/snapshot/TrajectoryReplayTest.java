@@ -0,0 +1,140 @@
+package ca.jewsbury.gravity.spacetime.snapshot;
+
+import ca.jewsbury.gravity.spacetime.OrbitFixture;
+import ca.jewsbury.gravity.spacetime.SpaceContainer;
+import ca.jewsbury.gravity.spacetime.SpaceTimeException;
+import ca.jewsbury.gravity.spacetime.io.TrajectoryRecorder;
+import ca.jewsbury.gravity.spacetime.model.integration.VerletModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class TrajectoryReplayTest {
+
+    private static final long MILLISECOND = 1000000L;
+
+    private File directory;
+    private Map<Long, double[]> expected;
+
+    @Before
+    public void setUp() throws IOException, SpaceTimeException {
+        SpaceContainer container = OrbitFixture.sunAndPlanets(3, 50.0, 20.0);
+        VerletModel model = new VerletModel(container);
+        TrajectoryRecorder recorder;
+
+        directory = File.createTempFile("replay", "");
+        directory.delete();
+
+        expected = new HashMap<Long, double[]>();
+        recorder = new TrajectoryRecorder(directory, 1);
+        recorder.setKeyframeInterval(10);
+        recorder.start(container);
+        expected.put(0L, container.getParticleStore().getX().clone());
+        for (int step = 0; step < 200; step++) {
+            model.moveContainedObjects(0.5);
+            expected.put(container.getStepCount(), container.getParticleStore().getX().clone());
+        }
+        recorder.close();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private void assertShows(TrajectoryReplay replay, long step) {
+        Snapshot current = replay.getSnapshots().getCurrent();
+        double[] state = expected.get(step);
+
+        Assert.assertEquals(step, current.getStep());
+        for (int i = 0; i < current.getCount(); i++) {
+            Assert.assertEquals(state[i], current.getX()[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testSeekAnywhere() throws SpaceTimeException {
+        TrajectoryReplay replay = new TrajectoryReplay(directory);
+        long now = System.nanoTime();
+
+        Assert.assertEquals(0, replay.getFirstStep());
+        Assert.assertEquals(200, replay.getLastStep());
+        assertShows(replay, 0);
+
+        replay.seek(125);
+        replay.update(now += MILLISECOND);
+        assertShows(replay, 125);
+        replay.seek(37);
+        replay.update(now += MILLISECOND);
+        assertShows(replay, 37);
+        replay.seek(40);
+        replay.update(now += MILLISECOND);
+        assertShows(replay, 40);
+        replay.seekFraction(1.0);
+        replay.update(now += MILLISECOND);
+        assertShows(replay, 200);
+        replay.seek(-50);
+        replay.update(now += MILLISECOND);
+        assertShows(replay, 0);
+    }
+
+    @Test
+    public void testPlayForwardAtSpeed() throws SpaceTimeException {
+        TrajectoryReplay replay = new TrajectoryReplay(directory);
+        long now = System.nanoTime();
+        long lastStep = 0;
+
+        replay.update(now);
+        replay.setSpeed(3000.0);
+        replay.play();
+        while (replay.isPlaying()) {
+            replay.update(now += MILLISECOND);
+            Assert.assertTrue(replay.getSnapshots().getCurrent().getStep() >= lastStep);
+            lastStep = replay.getSnapshots().getCurrent().getStep();
+            assertShows(replay, lastStep);
+        }
+        Assert.assertEquals(200, lastStep);
+    }
+
+    @Test
+    public void testPlayInReverse() throws SpaceTimeException {
+        playInReverse(TrajectoryReplay.DEFAULT_CACHE_LIMIT);
+    }
+
+    @Test
+    public void testPlayInReverseWithoutCache() throws SpaceTimeException {
+        playInReverse(0);
+    }
+
+    private void playInReverse(long cacheLimit) throws SpaceTimeException {
+        TrajectoryReplay replay = new TrajectoryReplay(directory);
+        long now = System.nanoTime();
+        long step = 200;
+
+        replay.setCacheLimit(cacheLimit);
+        replay.update(now);
+        replay.setSpeed(-1000.0);
+        replay.play();
+        while (replay.isPlaying()) {
+            replay.update(now += MILLISECOND);
+            assertShows(replay, step);
+            step--;
+        }
+        Assert.assertEquals(-1, step);
+    }
+}
@@ -0,0 +1,86 @@
+package ca.jewsbury.gravity.spacetime.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class FloatRingBufferTest {
+
+    @Test
+    public void testWrapKeepsNewestInOrder() {
+        FloatRingBuffer buffer = new FloatRingBuffer(4, 2);
+        float[] values = new float[8];
+        int count;
+
+        for (int i = 0; i < 10; i++) {
+            buffer.add(i, -i);
+        }
+        count = buffer.copyTo(values);
+        Assert.assertEquals(4, buffer.size());
+        // The oldest slot is the one the next add would reuse, so it is left
+        // out while it could be mid write.
+        Assert.assertEquals(3, count);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(7.0 + i, values[2 * i], 0.0);
+            Assert.assertEquals(-(7.0 + i), values[2 * i + 1], 0.0);
+        }
+        Assert.assertEquals(9.0, buffer.getLatest(0, Float.NaN), 0.0);
+
+        buffer.clear();
+        Assert.assertEquals(0, buffer.size());
+        Assert.assertEquals(0, buffer.copyTo(values));
+        Assert.assertTrue(Float.isNaN(buffer.getLatest(0, Float.NaN)));
+    }
+
+    @Test
+    public void testPartiallyFilled() {
+        FloatRingBuffer buffer = new FloatRingBuffer(8);
+        float[] values = new float[8];
+
+        buffer.add(1.0f);
+        buffer.add(2.0f);
+        Assert.assertEquals(2, buffer.copyTo(values));
+        Assert.assertEquals(1.0, values[0], 0.0);
+        Assert.assertEquals(2.0, values[1], 0.0);
+    }
+
+    /**
+     * Every record holds (n, 2n); a reader copying while the writer runs
+     * must only ever see whole, consecutive records.
+     */
+    @Test
+    public void testConcurrentReaderSeesWholeRecords() throws InterruptedException {
+        final FloatRingBuffer buffer = new FloatRingBuffer(64, 2);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        float[] values = new float[128];
+        Thread writer;
+        int count;
+
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 2000000; i++) {
+                    buffer.add(i, 2.0f * i);
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            count = buffer.copyTo(values);
+            for (int i = 0; i < count; i++) {
+                if (values[2 * i + 1] != 2.0f * values[2 * i]) {
+                    failure.set("torn record " + values[2 * i] + ", " + values[2 * i + 1]);
+                }
+                if (i > 0 && values[2 * i] != values[2 * i - 2] + 1.0f) {
+                    failure.set("gap between " + values[2 * i - 2] + " and " + values[2 * i]);
+                }
+            }
+        }
+        writer.join();
+        Assert.assertNull(failure.get(), failure.get());
+    }
+}
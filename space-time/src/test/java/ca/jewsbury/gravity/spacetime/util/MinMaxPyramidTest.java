@@ -0,0 +1,73 @@
+package ca.jewsbury.gravity.spacetime.util;
+
+import junit.framework.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Nathan
+ */
+public class MinMaxPyramidTest {
+
+    @Test
+    public void testWholeHistoryFitsColumns() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(16);
+        double[] min = new double[10];
+        double[] max = new double[10];
+        int filled;
+
+        for (int i = 0; i < 100000; i++) {
+            pyramid.add(i);
+        }
+        filled = pyramid.sample(0, pyramid.getCount(), 10, min, max);
+        Assert.assertEquals(10, filled);
+        Assert.assertEquals(0.0, min[0], 0.0);
+        Assert.assertEquals(99999.0, max[filled - 1], 0.0);
+        for (int i = 1; i < filled; i++) {
+            Assert.assertTrue(min[i] > max[i - 1] - 1.0);
+            Assert.assertTrue(min[i] <= max[i]);
+        }
+        // 16 bins per level: about log2(100000 / 16) levels, not one per sample.
+        Assert.assertTrue(pyramid.getLevels() <= 14);
+    }
+
+    @Test
+    public void testRecentRangeAtFullDetail() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(16);
+        double[] min = new double[8];
+        double[] max = new double[8];
+        int filled;
+
+        for (int i = 0; i < 1000; i++) {
+            pyramid.add(i % 2 == 0 ? i : -i);
+        }
+        filled = pyramid.sample(992, 1000, 8, min, max);
+        Assert.assertEquals(8, filled);
+        for (int i = 0; i < filled; i++) {
+            Assert.assertEquals(i % 2 == 0 ? 992.0 + i : -(992.0 + i), min[i], 0.0);
+            Assert.assertEquals(min[i], max[i], 0.0);
+        }
+    }
+
+    @Test
+    public void testSpikeSurvivesDecimation() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(64);
+        double[] min = new double[4];
+        double[] max = new double[4];
+        double peak = 0.0;
+        int filled;
+
+        for (int i = 0; i < 50000; i++) {
+            pyramid.add(i == 31337 ? 1.0e6 : 1.0);
+        }
+        filled = pyramid.sample(0, 50000, 4, min, max);
+        for (int i = 0; i < filled; i++) {
+            peak = Math.max(peak, max[i]);
+            Assert.assertEquals(1.0, min[i], 0.0);
+        }
+        Assert.assertEquals(1.0e6, peak, 0.0);
+
+        pyramid.clear();
+        Assert.assertEquals(0, pyramid.sample(0, 50000, 4, min, max));
+    }
+}